@@ -2,9 +2,14 @@ package com.flappyfishgame;
 
 import android.support.v7.app.AppCompatActivity;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.Window;
 import android.view.WindowManager;
 
+import java.io.File;
+import java.io.IOException;
+
+import engine.Profiler;
 import engine.SoundPlayer;
 
 public class MainActivity extends AppCompatActivity {
@@ -22,6 +27,7 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
+        SoundPlayer.start(this);
         SoundPlayer.playBackgroundMusic(this);
     }
 
@@ -29,5 +35,13 @@ public class MainActivity extends AppCompatActivity {
     protected void onPause() {
         super.onPause();
         SoundPlayer.stopBackgroundMusic();
+        SoundPlayer.stop();
+        if (Profiler.ENABLED) {
+            try {
+                Profiler.writeTrace(new File(getExternalFilesDir(null), "trace.json"));
+            } catch (IOException e) {
+                Log.e("Profiler", "Trace is not written", e);
+            }
+        }
     }
 }
@@ -0,0 +1,136 @@
+package engine;
+
+import java.util.List;
+
+/**
+ * Animation clip class.
+ * Frames of one animation with frame duration and play mode.
+ * Frame is computed from time since animation start, so frames do not drift with frame rate.
+ */
+public class AnimationClip {
+    // Play mode: repeat from first frame.
+    public static final int MODE_LOOP = 0;
+    // Play mode: play one time and stop.
+    public static final int MODE_ONCE = 1;
+    // Play mode: play forward and backward.
+    public static final int MODE_PING_PONG = 2;
+    // Play mode: default mode of clip.
+    public static final int MODE_DEFAULT = 3;
+    // Frame index of finished animation.
+    public static final int FINISHED = -1;
+
+    // Animation frames.
+    private final TextureRegion[] mFrames;
+    // Frame duration in nanoseconds.
+    private final long mFrameDuration;
+    // Default play mode.
+    private final int mMode;
+
+    /**
+     * Animation clip constructor.
+     * @param frames animation frames.
+     * @param frameDuration frame duration in milliseconds.
+     * @param mode default play mode.
+     */
+    public AnimationClip(final List<TextureRegion> frames, final long frameDuration, final int mode) {
+        this(frames.toArray(new TextureRegion[frames.size()]), frameDuration, mode);
+    }
+
+    /**
+     * Animation clip constructor.
+     * @param frames animation frames.
+     * @param frameDuration frame duration in milliseconds.
+     * @param mode default play mode.
+     */
+    public AnimationClip(final TextureRegion[] frames, final long frameDuration, final int mode) {
+        mFrames = frames;
+        mFrameDuration = Math.max(1, frameDuration * 1000000);
+        mMode = mode;
+    }
+
+    /**
+     * Gets frame index.
+     * @param elapsed time since animation start in nanoseconds.
+     * @param mode play mode.
+     * @return frame index or FINISHED.
+     */
+    public int getFrameIndex(final long elapsed, final int mode) {
+        final int count = mFrames.length;
+        if (count == 0) {
+            return FINISHED;
+        }
+        final long step = Math.max(0, elapsed) / mFrameDuration;
+        switch (mode) {
+            case MODE_ONCE:
+                return step < count ? (int) step : FINISHED;
+            case MODE_PING_PONG:
+                if (count == 1) {
+                    return 0;
+                }
+                final int period = count * 2 - 2;
+                final int position = (int) (step % period);
+                return position < count ? position : period - position;
+            default:
+                return (int) (step % count);
+        }
+    }
+
+    /**
+     * Gets mode to play.
+     * Looping of ping-pong clip stays ping-pong.
+     * @param mode requested play mode.
+     * @return play mode.
+     */
+    public int resolveMode(final int mode) {
+        if (mode == MODE_DEFAULT || mode == MODE_LOOP && mMode == MODE_PING_PONG) {
+            return mMode;
+        }
+        return mode;
+    }
+
+    /**
+     * Gets frame.
+     * @param index frame index.
+     * @return frame texture.
+     */
+    public TextureRegion getFrame(final int index) {
+        return mFrames[index];
+    }
+
+    /**
+     * Gets frame count.
+     * @return frame count.
+     */
+    public int getFrameCount() {
+        return mFrames.length;
+    }
+
+    /**
+     * Gets frame duration.
+     * @return frame duration in nanoseconds.
+     */
+    public long getFrameDuration() {
+        return mFrameDuration;
+    }
+
+    /**
+     * Gets default play mode.
+     * @return play mode.
+     */
+    public int getMode() {
+        return mMode;
+    }
+
+    /**
+     * Animation listener interface.
+     */
+    public interface AnimationListener {
+        /**
+         * Called when animation played one time is finished, on the thread that publishes the scene:
+         * simulation thread at the start of next tick if level simulation runs, otherwise render thread
+         * before next draw. So listener may change the scene.
+         * @param animation state id of animation.
+         */
+        void onAnimationEnd(final int animation);
+    }
+}
@@ -0,0 +1,102 @@
+package engine;
+
+/**
+ * Animation end queue class.
+ * Lock-free single producer single consumer ring buffer of finished animations.
+ * Render thread offers animations it found finished, thread that publishes the scene drains them
+ * and calls animation listeners, so listeners may change the scene.
+ * Records live in preallocated parallel arrays, so no record allocates.
+ */
+public class AnimationEndQueue {
+    // Capacity, power of two.
+    private final int mCapacity;
+    // Index mask.
+    private final int mMask;
+
+    // Records.
+    private final int[] mEntity;
+    private final int[] mAnimation;
+    private final int[] mSerial;
+
+    // Count of written records, written by producer only.
+    private volatile long mWritten = 0;
+    // Count of read records, written by consumer only.
+    private volatile long mRead = 0;
+
+    /**
+     * Animation end queue constructor.
+     * @param capacity min record capacity.
+     */
+    public AnimationEndQueue(final int capacity) {
+        int size = 1;
+        while (size < capacity) {
+            size<<= 1;
+        }
+        mCapacity = size;
+        mMask = size - 1;
+        mEntity = new int[size];
+        mAnimation = new int[size];
+        mSerial = new int[size];
+    }
+
+    /**
+     * Adds record.
+     * Must be called by producer thread.
+     * @param entity entity index.
+     * @param animation state id of finished animation.
+     * @param serial animation restart counter of entity when animation was drawn.
+     * @return false if queue is full, producer must offer record again later.
+     */
+    public boolean offer(final int entity, final int animation, final int serial) {
+        final long written = mWritten;
+        if (written - mRead == mCapacity) {
+            return false;
+        }
+        final int i = (int) written & mMask;
+        mEntity[i] = entity;
+        mAnimation[i] = animation;
+        mSerial[i] = serial;
+        mWritten = written + 1;
+        return true;
+    }
+
+    /**
+     * Passes all queued records to listener in order.
+     * Must be called by consumer thread.
+     * @param listener record listener.
+     * @return count of drained records.
+     */
+    public int drain(final AnimationEndListener listener) {
+        final long written = mWritten;
+        long read = mRead;
+        final int count = (int) (written - read);
+        while (read < written) {
+            final int i = (int) read & mMask;
+            listener.onAnimationEnd(mEntity[i], mAnimation[i], mSerial[i]);
+            read++;
+            mRead = read;
+        }
+        return count;
+    }
+
+    /**
+     * Returns true if queue has no records.
+     * @return true if queue is empty.
+     */
+    public boolean isEmpty() {
+        return mRead == mWritten;
+    }
+
+    /**
+     * Animation end listener.
+     */
+    public interface AnimationEndListener {
+        /**
+         * Applies record.
+         * @param entity entity index.
+         * @param animation state id of finished animation.
+         * @param serial animation restart counter of entity when animation was drawn.
+         */
+        void onAnimationEnd(final int entity, final int animation, final int serial);
+    }
+}
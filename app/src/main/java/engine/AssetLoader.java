@@ -0,0 +1,260 @@
+package engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asset loader class.
+ * Decodes bitmaps of texture templates in parallel on scheduler workers, packs them to atlas
+ * and queues atlas pages for upload on render thread. Loading thread decodes queued templates
+ * itself while it waits, so loading from a worker does not starve the pool. Atlases resident in texture cache
+ * are reused without decoding.
+ */
+public class AssetLoader {
+    // Scheduler of decode tasks.
+    private final TaskScheduler mScheduler;
+    // Queue of pages to upload.
+    private final UploadQueue mUploadQueue;
+    // Cache of uploaded atlases.
+    private final TextureCache mTextureCache;
+    // Templates requested since reset.
+    private final AtomicInteger mRequestedCount = new AtomicInteger();
+    // Templates decoded since reset.
+    private final AtomicInteger mDecodedCount = new AtomicInteger();
+
+    /**
+     * Asset loader constructor.
+     * @param scheduler scheduler of decode tasks.
+     * @param uploadQueue queue of pages to upload.
+     * @param textureCache cache of uploaded atlases.
+     */
+    public AssetLoader(final TaskScheduler scheduler, final UploadQueue uploadQueue,
+                       final TextureCache textureCache) {
+        mScheduler = scheduler;
+        mUploadQueue = uploadQueue;
+        mTextureCache = textureCache;
+    }
+
+    /**
+     * Loads atlas of templates and acquires it.
+     * Returns when bitmaps are decoded and packed, pages are uploaded later by render thread.
+     * Decoding is cancelled if calling thread is interrupted.
+     * @param templates texture templates.
+     * @return texture atlas, must be released with atlas key.
+     */
+    public TextureAtlas loadAtlas(final List<TextureTemplate> templates) {
+        Profiler.begin(Profiler.LOAD_ATLAS);
+        try {
+            mRequestedCount.addAndGet(templates.size());
+            final String key = TextureAtlas.getKey(templates);
+            final TextureAtlas cached = mTextureCache.acquire(key);
+            if (cached != null) {
+                cached.bind(templates);
+                mDecodedCount.addAndGet(templates.size());
+                return cached;
+            }
+            decode(templates, TaskScheduler.PRIORITY_NORMAL, true);
+            final TextureAtlas atlas = new TextureAtlas(templates);
+            mTextureCache.put(key, atlas);
+            mUploadQueue.add(atlas);
+            return atlas;
+        } finally {
+            Profiler.end();
+        }
+    }
+
+    /**
+     * Prepares atlas of templates for preloaded scene.
+     * Resident atlas is acquired, otherwise bitmaps are decoded by low priority tasks and packed,
+     * but atlas is not cached or uploaded until it is published. Does not change loading progress.
+     * Decoding is cancelled if calling thread is interrupted.
+     * @param templates texture templates.
+     * @return texture atlas, must be published or discarded.
+     */
+    public TextureAtlas prepareAtlas(final List<TextureTemplate> templates) {
+        Profiler.begin(Profiler.PREPARE_ATLAS);
+        try {
+            final TextureAtlas cached = mTextureCache.acquire(TextureAtlas.getKey(templates));
+            if (cached != null) {
+                cached.bind(templates);
+                return cached;
+            }
+            decode(templates, TaskScheduler.PRIORITY_LOW, false);
+            return new TextureAtlas(templates);
+        } finally {
+            Profiler.end();
+        }
+    }
+
+    /**
+     * Returns true if atlas is resident in texture cache.
+     * @param key atlas key.
+     * @param atlas texture atlas.
+     * @return true if atlas is cached by key.
+     */
+    public boolean isPublished(final String key, final TextureAtlas atlas) {
+        return mTextureCache.contains(key, atlas);
+    }
+
+    /**
+     * Publishes prepared atlas and acquires it.
+     * Queues pages for upload, unless atlas of same templates was loaded meanwhile and is reused.
+     * Counts templates as loaded for loading progress.
+     * @param templates texture templates.
+     * @param atlas prepared atlas.
+     * @return texture atlas to draw, must be released with atlas key.
+     */
+    public TextureAtlas publishAtlas(final List<TextureTemplate> templates, final TextureAtlas atlas) {
+        mRequestedCount.addAndGet(templates.size());
+        mDecodedCount.addAndGet(templates.size());
+        final String key = TextureAtlas.getKey(templates);
+        if (mTextureCache.contains(key, atlas)) {
+            return atlas;
+        }
+        final TextureAtlas cached = mTextureCache.acquire(key);
+        if (cached != null) {
+            discardAtlas(atlas);
+            cached.bind(templates);
+            return cached;
+        }
+        mTextureCache.put(key, atlas);
+        mUploadQueue.add(atlas);
+        return atlas;
+    }
+
+    /**
+     * Discards prepared atlas that is not published.
+     * @param atlas prepared atlas.
+     */
+    public void discardAtlas(final TextureAtlas atlas) {
+        for (final TextureAtlas.Page page : atlas.getPages()) {
+            page.recycleBitmap();
+        }
+    }
+
+    /**
+     * Restores textures of atlas lost with GL context.
+     * Lost pages are rebuilt from requests of their bitmaps on scheduler workers and queued for upload.
+     * Rebuilding is cancelled if calling thread is interrupted.
+     * @param atlas texture atlas.
+     */
+    public void restoreAtlas(final TextureAtlas atlas) {
+        Profiler.begin(Profiler.RESTORE_ATLAS);
+        try {
+            final List<TextureAtlas.Page> pages = atlas.getLostPages();
+            final List<Runnable> rebuilds = new ArrayList<>(pages.size());
+            for (final TextureAtlas.Page page : pages) {
+                rebuilds.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        Profiler.begin(Profiler.DECODE);
+                        atlas.rebuildPage(page);
+                        Profiler.end();
+                    }
+                });
+            }
+            runAll(rebuilds, TaskScheduler.PRIORITY_NORMAL);
+            mUploadQueue.add(pages);
+        } finally {
+            Profiler.end();
+        }
+    }
+
+    /**
+     * Releases atlas acquired by loadAtlas.
+     * @param key atlas key.
+     */
+    public void releaseAtlas(final String key) {
+        mTextureCache.release(key);
+    }
+
+    /**
+     * Resets progress before next load.
+     */
+    public void reset() {
+        mRequestedCount.set(0);
+        mDecodedCount.set(0);
+    }
+
+    /**
+     * Gets loading progress since reset.
+     * Decode and upload are weighted equally.
+     * @return progress from 0 to 1.
+     */
+    public float getProgress() {
+        final int requested = mRequestedCount.get();
+        final float decode = requested == 0 ? 0 : (float) mDecodedCount.get() / requested;
+        final float upload = mUploadQueue.isEmpty() ? decode : mUploadQueue.getProgress();
+        return (decode + upload) / 2;
+    }
+
+    /**
+     * Gets queue of pages to upload.
+     * @return upload queue.
+     */
+    public UploadQueue getUploadQueue() {
+        return mUploadQueue;
+    }
+
+    /**
+     * Decodes bitmaps of templates on scheduler workers.
+     * Calling thread decodes queued templates itself while it waits.
+     * @param templates texture templates.
+     * @param priority priority of decode tasks.
+     * @param isCounted true if decoded templates are counted for loading progress.
+     */
+    private void decode(final List<TextureTemplate> templates, final int priority, final boolean isCounted) {
+        final List<Runnable> decodes = new ArrayList<>(templates.size());
+        for (final TextureTemplate template : templates) {
+            decodes.add(new Runnable() {
+                @Override
+                public void run() {
+                    Profiler.begin(Profiler.DECODE);
+                    template.decode();
+                    Profiler.end();
+                    if (isCounted) {
+                        mDecodedCount.incrementAndGet();
+                    }
+                }
+            });
+        }
+        runAll(decodes, priority);
+    }
+
+    /**
+     * Runs decode work on scheduler workers and waits for it.
+     * Calling thread runs queued work itself while it waits.
+     * @param work decode work.
+     * @param priority priority of decode tasks.
+     */
+    private void runAll(final List<Runnable> work, final int priority) {
+        final List<TaskScheduler.Task> decodes = new ArrayList<>(work.size());
+        for (final Runnable runnable : work) {
+            decodes.add(mScheduler.submit(runnable, priority));
+        }
+        boolean isDecoded = false;
+        try {
+            for (final TaskScheduler.Task decode : decodes) {
+                decode.run();
+                decode.join();
+                if (decode.getFailure() != null) {
+                    throw new IllegalStateException("Texture decode failed", decode.getFailure());
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            isDecoded = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Texture decode is interrupted", e);
+        } finally {
+            if (!isDecoded) {
+                for (final TaskScheduler.Task decode : decodes) {
+                    decode.cancel();
+                }
+            }
+        }
+    }
+}
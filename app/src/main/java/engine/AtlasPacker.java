@@ -0,0 +1,303 @@
+package engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Atlas packer class.
+ * Packs rectangles into pages with skyline bottom-left algorithm.
+ * Rectangles that are larger than max page size get their own page.
+ * Pages are cut to used area, so they may be non power of two textures.
+ */
+public class AtlasPacker {
+    // Max page size.
+    private final int mMaxPageSize;
+    // Space between rectangles.
+    private final int mPadding;
+
+    // Rectangle sizes.
+    private final List<int[]> mSizes = new ArrayList<>();
+    // Packed rectangle positions: x, y, page.
+    private int[][] mPositions;
+    // Page sizes: width, height.
+    private final List<int[]> mPages = new ArrayList<>();
+
+    /**
+     * Atlas packer constructor.
+     * @param maxPageSize max page width and height.
+     * @param padding space between rectangles.
+     */
+    public AtlasPacker(final int maxPageSize, final int padding) {
+        mMaxPageSize = maxPageSize;
+        mPadding = padding;
+    }
+
+    /**
+     * Adds rectangle to pack.
+     * @param width rectangle width.
+     * @param height rectangle height.
+     * @return rectangle index.
+     */
+    public int add(final int width, final int height) {
+        mSizes.add(new int[] {width, height});
+        return mSizes.size() - 1;
+    }
+
+    /**
+     * Packs all added rectangles.
+     */
+    public void pack() {
+        final int count = mSizes.size();
+        mPositions = new int[count][];
+        mPages.clear();
+
+        // Tallest rectangles first gives flat skyline.
+        final Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(final Integer first, final Integer second) {
+                final int[] a = mSizes.get(first);
+                final int[] b = mSizes.get(second);
+                if (a[1] != b[1]) {
+                    return b[1] - a[1];
+                }
+                return b[0] - a[0];
+            }
+        });
+
+        final List<Skyline> skylines = new ArrayList<>();
+        for (final int index : order) {
+            final int[] size = mSizes.get(index);
+            final int width = size[0] + mPadding;
+            final int height = size[1] + mPadding;
+            if (width > mMaxPageSize || height > mMaxPageSize) {
+                mPositions[index] = new int[] {0, 0, mPages.size()};
+                mPages.add(new int[] {size[0], size[1]});
+                skylines.add(null);
+                continue;
+            }
+            int page = 0;
+            int[] position = null;
+            for (; page < skylines.size(); page++) {
+                final Skyline skyline = skylines.get(page);
+                if (skyline != null) {
+                    position = skyline.insert(width, height);
+                    if (position != null) {
+                        break;
+                    }
+                }
+            }
+            if (position == null) {
+                final Skyline skyline = new Skyline(mMaxPageSize);
+                position = skyline.insert(width, height);
+                page = mPages.size();
+                mPages.add(new int[2]);
+                skylines.add(skyline);
+            }
+            mPositions[index] = new int[] {position[0], position[1], page};
+            final int[] pageSize = mPages.get(page);
+            pageSize[0] = Math.max(pageSize[0], position[0] + size[0]);
+            pageSize[1] = Math.max(pageSize[1], position[1] + size[1]);
+        }
+    }
+
+    /**
+     * Gets rectangle count.
+     * @return rectangle count.
+     */
+    public int getCount() {
+        return mSizes.size();
+    }
+
+    /**
+     * Gets rectangle width.
+     * @param index rectangle index.
+     * @return rectangle width.
+     */
+    public int getWidth(final int index) {
+        return mSizes.get(index)[0];
+    }
+
+    /**
+     * Gets rectangle height.
+     * @param index rectangle index.
+     * @return rectangle height.
+     */
+    public int getHeight(final int index) {
+        return mSizes.get(index)[1];
+    }
+
+    /**
+     * Gets packed rectangle x.
+     * @param index rectangle index.
+     * @return x in page.
+     */
+    public int getX(final int index) {
+        return mPositions[index][0];
+    }
+
+    /**
+     * Gets packed rectangle y.
+     * @param index rectangle index.
+     * @return y in page.
+     */
+    public int getY(final int index) {
+        return mPositions[index][1];
+    }
+
+    /**
+     * Gets page of packed rectangle.
+     * @param index rectangle index.
+     * @return page number.
+     */
+    public int getPage(final int index) {
+        return mPositions[index][2];
+    }
+
+    /**
+     * Gets page count.
+     * @return page count.
+     */
+    public int getPageCount() {
+        return mPages.size();
+    }
+
+    /**
+     * Gets page width.
+     * @param page page number.
+     * @return page width.
+     */
+    public int getPageWidth(final int page) {
+        return mPages.get(page)[0];
+    }
+
+    /**
+     * Gets page height.
+     * @param page page number.
+     * @return page height.
+     */
+    public int getPageHeight(final int page) {
+        return mPages.get(page)[1];
+    }
+
+    /**
+     * Gets packing efficiency.
+     * @return area of rectangles divided by area of pages.
+     */
+    public float getEfficiency() {
+        long usedArea = 0;
+        for (final int[] size : mSizes) {
+            usedArea+= (long) size[0] * size[1];
+        }
+        long pageArea = 0;
+        for (final int[] page : mPages) {
+            pageArea+= (long) page[0] * page[1];
+        }
+        return pageArea == 0 ? 0 : (float) usedArea / pageArea;
+    }
+
+    /**
+     * Skyline of one page.
+     */
+    private static class Skyline {
+        // Page size.
+        private final int mSize;
+        // Skyline segments: x, y, width.
+        private final List<int[]> mSegments = new ArrayList<>();
+
+        /**
+         * Skyline constructor.
+         * @param size page size.
+         */
+        Skyline(final int size) {
+            mSize = size;
+            mSegments.add(new int[] {0, 0, size});
+        }
+
+        /**
+         * Inserts rectangle to skyline.
+         * @param width rectangle width.
+         * @param height rectangle height.
+         * @return x and y of rectangle or null if rectangle does not fit.
+         */
+        int[] insert(final int width, final int height) {
+            int bestSegment = -1;
+            int bestX = 0;
+            int bestY = Integer.MAX_VALUE;
+            for (int i = 0; i < mSegments.size(); i++) {
+                final int x = mSegments.get(i)[0];
+                if (x + width > mSize) {
+                    break;
+                }
+                final int y = fitY(i, width);
+                if (y + height <= mSize && y < bestY) {
+                    bestSegment = i;
+                    bestX = x;
+                    bestY = y;
+                }
+            }
+            if (bestSegment < 0) {
+                return null;
+            }
+            addSegment(bestSegment, bestX, bestY + height, width);
+            return new int[] {bestX, bestY};
+        }
+
+        /**
+         * Gets lowest y for rectangle placed at segment.
+         * @param segment segment index.
+         * @param width rectangle width.
+         * @return y of rectangle bottom edge.
+         */
+        private int fitY(final int segment, final int width) {
+            int y = 0;
+            int left = width;
+            for (int i = segment; left > 0; i++) {
+                final int[] current = mSegments.get(i);
+                y = Math.max(y, current[1]);
+                left-= current[2];
+            }
+            return y;
+        }
+
+        /**
+         * Adds segment and cuts segments under it.
+         * @param index index of new segment.
+         * @param x segment x.
+         * @param y segment y.
+         * @param width segment width.
+         */
+        private void addSegment(final int index, final int x, final int y, final int width) {
+            mSegments.add(index, new int[] {x, y, width});
+            final int right = x + width;
+            while (index + 1 < mSegments.size()) {
+                final int[] next = mSegments.get(index + 1);
+                if (next[0] >= right) {
+                    break;
+                }
+                final int nextRight = next[0] + next[2];
+                if (nextRight <= right) {
+                    mSegments.remove(index + 1);
+                } else {
+                    next[2] = nextRight - right;
+                    next[0] = right;
+                    break;
+                }
+            }
+            for (int i = 0; i + 1 < mSegments.size(); i++) {
+                final int[] current = mSegments.get(i);
+                final int[] next = mSegments.get(i + 1);
+                if (current[1] == next[1]) {
+                    current[2]+= next[2];
+                    mSegments.remove(i + 1);
+                    i--;
+                }
+            }
+        }
+    }
+}
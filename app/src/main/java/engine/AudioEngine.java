@@ -0,0 +1,108 @@
+package engine;
+
+import android.content.res.Resources;
+import android.media.AudioFormat;
+import android.media.AudioManager;
+import android.media.AudioTrack;
+
+import java.io.IOException;
+
+/**
+ * Audio engine class.
+ * Writes output of mixer to a streaming audio track on its own thread.
+ */
+public class AudioEngine {
+    // Mixer of sound effects.
+    private final Mixer mMixer;
+    // Output sample rate.
+    private final int mSampleRate;
+    // Audio thread.
+    private AudioThread mAudioThread;
+
+    /**
+     * Audio engine constructor.
+     * @param voiceCount count of mixer voices.
+     * @param sampleRate output sample rate.
+     */
+    public AudioEngine(final int voiceCount, final int sampleRate) {
+        mMixer = new Mixer(voiceCount);
+        mSampleRate = sampleRate;
+    }
+
+    /**
+     * Decodes wav resource.
+     * @param resources application resources.
+     * @param resourceId raw resource id.
+     * @return sound clip.
+     * @throws IOException if resource is not PCM wav.
+     */
+    public SoundClip load(final Resources resources, final int resourceId) throws IOException {
+        return WavDecoder.decode(resources.openRawResource(resourceId), mSampleRate);
+    }
+
+    /**
+     * Plays sound clip.
+     * @param clip sound clip.
+     * @param priority priority of sound.
+     * @param volume volume from 0 to 1.
+     * @return voice index or Mixer.NO_VOICE if sound is dropped.
+     */
+    public int play(final SoundClip clip, final int priority, final float volume) {
+        return mMixer.play(clip, priority, volume);
+    }
+
+    /**
+     * Returns true if clip is played.
+     * @param clip sound clip.
+     * @return true if clip is played.
+     */
+    public boolean isPlaying(final SoundClip clip) {
+        return mMixer.isPlaying(clip);
+    }
+
+    /**
+     * Starts audio output.
+     */
+    public synchronized void start() {
+        if (mAudioThread == null) {
+            mAudioThread = new AudioThread();
+            mAudioThread.start();
+        }
+    }
+
+    /**
+     * Stops audio output and playing sounds.
+     */
+    public synchronized void stop() {
+        if (mAudioThread != null) {
+            mAudioThread.mIsRunning = false;
+            mAudioThread = null;
+        }
+        mMixer.stopAll();
+    }
+
+    /**
+     * Audio thread.
+     */
+    private class AudioThread extends Thread {
+        // True if thread is running.
+        private volatile boolean mIsRunning = true;
+
+        @Override
+        public void run() {
+            final int minBufferSize = AudioTrack.getMinBufferSize(mSampleRate, AudioFormat.CHANNEL_OUT_MONO,
+                    AudioFormat.ENCODING_PCM_16BIT);
+            final int bufferSize = Math.max(minBufferSize, Const.MIXER_BUFFER_SIZE * 2 * 2);
+            final AudioTrack track = new AudioTrack(AudioManager.STREAM_MUSIC, mSampleRate,
+                    AudioFormat.CHANNEL_OUT_MONO, AudioFormat.ENCODING_PCM_16BIT, bufferSize, AudioTrack.MODE_STREAM);
+            final short[] buffer = new short[Const.MIXER_BUFFER_SIZE];
+            track.play();
+            while (mIsRunning) {
+                mMixer.mix(buffer, 0, buffer.length);
+                track.write(buffer, 0, buffer.length);
+            }
+            track.stop();
+            track.release();
+        }
+    }
+}
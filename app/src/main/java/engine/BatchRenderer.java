@@ -0,0 +1,85 @@
+package engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Batch renderer class.
+ * Owns vertex and index buffers and sprite batch and flushes batch to render backend.
+ */
+public class BatchRenderer implements SpriteBatch.FlushListener {
+    // Render backend.
+    private final RenderBackend mBackend;
+    // Interleaved vertex buffer.
+    private final FloatBuffer mVertexData;
+    // Index buffer of sprite quads.
+    private final ShortBuffer mIndices;
+    // Sprite batch.
+    private final SpriteBatch mSpriteBatch;
+    // Transform matrix.
+    private final float[] mMatrix = new float[16];
+
+    /**
+     * Batch renderer constructor.
+     * @param backend render backend.
+     */
+    public BatchRenderer(final RenderBackend backend) {
+        mBackend = backend;
+        mVertexData = ByteBuffer
+                .allocateDirect(Const.VERTEX_BUFFER_SIZE * 4)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+        mSpriteBatch = new SpriteBatch(mVertexData, this);
+        mIndices = ByteBuffer
+                .allocateDirect(mSpriteBatch.getCapacity() * SpriteBatch.SPRITE_INDICES * 2)
+                .order(ByteOrder.nativeOrder())
+                .asShortBuffer();
+        SpriteBatch.putIndices(mIndices, mSpriteBatch.getCapacity());
+    }
+
+    /**
+     * Initializes backend.
+     * Must be called when render surface is created. Vertex buffer is uploaded again
+     * by next frames.
+     */
+    public void init() {
+        mBackend.init(mVertexData, mIndices);
+        mSpriteBatch.invalidate();
+        // Sprite batch puts already translated vertices, so model matrix is identity.
+        for (int i = 0; i < mMatrix.length; i++) {
+            mMatrix[i] = i % 5 == 0 ? 1 : 0;
+        }
+        mBackend.setMatrix(mMatrix);
+    }
+
+    @Override
+    public void onUpload(final int offset, final int count) {
+        mBackend.updateVertices(offset, count);
+    }
+
+    @Override
+    public void onFlush(final int texture, final int firstIndex, final int indexCount) {
+        Profiler.begin(Profiler.FLUSH);
+        mBackend.bindTexture(texture);
+        mBackend.drawTriangles(firstIndex, indexCount);
+        Profiler.end();
+    }
+
+    /**
+     * Gets sprite batch.
+     * @return sprite batch.
+     */
+    public SpriteBatch getSpriteBatch() {
+        return mSpriteBatch;
+    }
+
+    /**
+     * Gets render backend.
+     * @return render backend.
+     */
+    public RenderBackend getBackend() {
+        return mBackend;
+    }
+}
@@ -0,0 +1,186 @@
+package engine;
+
+/**
+ * Bitmap font class.
+ * Metrics of glyphs baked once into a glyph sheet. The sheet is packed into a texture atlas
+ * like any other bitmap, and the font gets a texture region per glyph when the atlas is bound.
+ */
+public class BitmapFont {
+    // Space between glyph cells in pixels.
+    public static final int PADDING = 2;
+    // Max sheet width in pixels.
+    public static final int MAX_SHEET_WIDTH = 512;
+    // Count of char codes with direct glyph lookup.
+    private static final int CHAR_COUNT = 128;
+    // No glyph for char.
+    private static final int NO_GLYPH = -1;
+
+    // Glyph chars.
+    private final String mCharacters;
+    // Glyph index by char code.
+    private final int[] mGlyphIndex = new int[CHAR_COUNT];
+    // Glyph cells in sheet.
+    private final int[] mCellX;
+    private final int[] mCellY;
+    private final int[] mCellWidth;
+    // Glyph advances in pixels.
+    private final float[] mAdvance;
+    // Line height in pixels.
+    private final int mLineHeight;
+    // Sheet size in pixels.
+    private final int mSheetWidth;
+    private final int mSheetHeight;
+    // Glyph regions, null before bind.
+    private volatile TextureRegion[] mRegions;
+
+    /**
+     * Bitmap font constructor.
+     * Lays glyph cells out in rows.
+     * @param characters glyph chars, codes below 128.
+     * @param advances glyph advances in pixels.
+     * @param lineHeight line height in pixels.
+     */
+    public BitmapFont(final String characters, final float[] advances, final int lineHeight) {
+        final int count = characters.length();
+        mCharacters = characters;
+        mLineHeight = lineHeight;
+        mCellX = new int[count];
+        mCellY = new int[count];
+        mCellWidth = new int[count];
+        mAdvance = advances.clone();
+        for (int i = 0; i < CHAR_COUNT; i++) {
+            mGlyphIndex[i] = NO_GLYPH;
+        }
+        int x = 0;
+        int y = 0;
+        int width = 0;
+        for (int i = 0; i < count; i++) {
+            final char c = characters.charAt(i);
+            if (c >= CHAR_COUNT) {
+                throw new IllegalArgumentException("Glyph " + c + " is not supported");
+            }
+            final int cellWidth = Math.max(1, (int) Math.ceil(advances[i]));
+            if (x > 0 && x + cellWidth > MAX_SHEET_WIDTH) {
+                x = 0;
+                y+= lineHeight + PADDING;
+            }
+            mGlyphIndex[c] = i;
+            mCellX[i] = x;
+            mCellY[i] = y;
+            mCellWidth[i] = cellWidth;
+            x+= cellWidth + PADDING;
+            width = Math.max(width, x);
+        }
+        mSheetWidth = Math.max(1, width);
+        mSheetHeight = y + lineHeight;
+    }
+
+    /**
+     * Creates glyph regions from glyph sheet placed in atlas page.
+     * @param page atlas page.
+     * @param x sheet x in page.
+     * @param y sheet y in page.
+     */
+    public void bind(final TextureAtlas.Page page, final int x, final int y) {
+        final TextureRegion[] regions = new TextureRegion[mCharacters.length()];
+        for (int i = 0; i < regions.length; i++) {
+            regions[i] = page.createRegion(x + mCellX[i], y + mCellY[i], mCellWidth[i], mLineHeight);
+        }
+        mRegions = regions;
+    }
+
+    /**
+     * Returns true if glyph regions are created.
+     * @return true if font is bound.
+     */
+    public boolean isBound() {
+        return mRegions != null;
+    }
+
+    /**
+     * Gets glyph chars.
+     * @return glyph chars.
+     */
+    public String getCharacters() {
+        return mCharacters;
+    }
+
+    /**
+     * Gets glyph index.
+     * @param c char.
+     * @return glyph index, -1 if font has no glyph for char.
+     */
+    public int getGlyph(final char c) {
+        return c < CHAR_COUNT ? mGlyphIndex[c] : NO_GLYPH;
+    }
+
+    /**
+     * Gets glyph region.
+     * @param glyph glyph index.
+     * @return texture region, null before bind.
+     */
+    public TextureRegion getRegion(final int glyph) {
+        final TextureRegion[] regions = mRegions;
+        return regions == null ? null : regions[glyph];
+    }
+
+    /**
+     * Gets glyph cell x in sheet.
+     * @param glyph glyph index.
+     * @return x in pixels.
+     */
+    public int getCellX(final int glyph) {
+        return mCellX[glyph];
+    }
+
+    /**
+     * Gets glyph cell y in sheet.
+     * @param glyph glyph index.
+     * @return y in pixels.
+     */
+    public int getCellY(final int glyph) {
+        return mCellY[glyph];
+    }
+
+    /**
+     * Gets glyph cell width.
+     * @param glyph glyph index.
+     * @return width in pixels.
+     */
+    public int getCellWidth(final int glyph) {
+        return mCellWidth[glyph];
+    }
+
+    /**
+     * Gets glyph advance.
+     * @param glyph glyph index.
+     * @return advance in pixels.
+     */
+    public float getAdvance(final int glyph) {
+        return mAdvance[glyph];
+    }
+
+    /**
+     * Gets line height.
+     * @return line height in pixels.
+     */
+    public int getLineHeight() {
+        return mLineHeight;
+    }
+
+    /**
+     * Gets sheet width.
+     * @return width in pixels.
+     */
+    public int getSheetWidth() {
+        return mSheetWidth;
+    }
+
+    /**
+     * Gets sheet height.
+     * @return height in pixels.
+     */
+    public int getSheetHeight() {
+        return mSheetHeight;
+    }
+}
@@ -0,0 +1,76 @@
+package engine;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+/**
+ * Bitmap request class.
+ * Describes bitmap to decode, so decoding can run later on a worker thread.
+ */
+public class BitmapRequest {
+    // No resize.
+    private static final float ORIGINAL_SIZE = -1;
+
+    // Application resources.
+    private final Resources mResources;
+    // Drawable resource id.
+    private final int mResourceId;
+    // Size to resize bitmap to.
+    private final float mWidth;
+    private final float mHeight;
+
+    /**
+     * Bitmap request constructor.
+     * @param resources application resources.
+     * @param resourceId drawable resource id.
+     */
+    public BitmapRequest(final Resources resources, final int resourceId) {
+        this(resources, resourceId, ORIGINAL_SIZE, ORIGINAL_SIZE);
+    }
+
+    /**
+     * Bitmap request constructor.
+     * @param resources application resources.
+     * @param resourceId drawable resource id.
+     * @param width width to resize bitmap to.
+     * @param height height to resize bitmap to.
+     */
+    public BitmapRequest(final Resources resources, final int resourceId, final float width, final float height) {
+        mResources = resources;
+        mResourceId = resourceId;
+        mWidth = width;
+        mHeight = height;
+    }
+
+    /**
+     * Gets cache key of bitmap.
+     * Requests with the same key must decode the same bitmap.
+     * @return resource id and size.
+     */
+    public String getKey() {
+        return mResourceId + "@" + mWidth + "x" + mHeight;
+    }
+
+    /**
+     * Loads texture that is compressed at build time.
+     * May be called on any thread.
+     * @return compressed texture, null if bitmap must be decoded.
+     */
+    public CompressedTexture loadCompressed() {
+        return null;
+    }
+
+    /**
+     * Decodes bitmap.
+     * May be called on any thread.
+     * @return decoded bitmap.
+     */
+    public Bitmap decode() {
+        final Bitmap bitmap = BitmapFactory.decodeResource(mResources, mResourceId);
+        if (mWidth == ORIGINAL_SIZE) {
+            return bitmap;
+        }
+        return Utils.getResizedBitmap(bitmap, mWidth, mHeight);
+    }
+}
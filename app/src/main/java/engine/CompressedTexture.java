@@ -0,0 +1,208 @@
+package engine;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Compressed texture class.
+ * ETC1 color plane and, for translucent images, ETC1 alpha plane with alpha in all channels.
+ * Color of translucent images is premultiplied by alpha, like uploaded bitmaps.
+ * Layout, big endian: magic int, version short, flags byte, width int, height int,
+ * color plane, alpha plane if FLAG_ALPHA is set; planes are getEncodedSize bytes.
+ * Has no Android dependencies, it is also compiled into the build-time texture compressor.
+ */
+public class CompressedTexture {
+    // File magic, "FETC".
+    public static final int MAGIC = 0x46455443;
+    // Format version.
+    public static final int VERSION = 1;
+    // Flag of texture with alpha plane.
+    public static final int FLAG_ALPHA = 1;
+    // Extension of compressed texture files.
+    public static final String FILE_EXTENSION = ".etc";
+
+    // Image size.
+    private final int mWidth;
+    private final int mHeight;
+    // ETC1 color plane.
+    private final ByteBuffer mColor;
+    // ETC1 alpha plane, null for opaque texture.
+    private final ByteBuffer mAlpha;
+
+    /**
+     * Compressed texture constructor.
+     * @param width image width.
+     * @param height image height.
+     * @param color ETC1 color plane.
+     * @param alpha ETC1 alpha plane, null for opaque texture.
+     */
+    public CompressedTexture(final int width, final int height, final ByteBuffer color, final ByteBuffer alpha) {
+        mWidth = width;
+        mHeight = height;
+        mColor = color;
+        mAlpha = alpha;
+    }
+
+    /**
+     * Compresses image.
+     * Alpha plane is added only if some pixel is not opaque.
+     * @param pixels ARGB pixels row by row, not premultiplied.
+     * @param width image width.
+     * @param height image height.
+     * @return compressed texture.
+     */
+    public static CompressedTexture encode(final int[] pixels, final int width, final int height) {
+        final int size = Etc1Codec.getEncodedSize(width, height);
+        boolean isOpaque = true;
+        for (int i = 0; i < pixels.length && isOpaque; i++) {
+            isOpaque = pixels[i] >>> 24 == 0xFF;
+        }
+        final byte[] color = new byte[size];
+        if (isOpaque) {
+            Etc1Codec.encode(pixels, width, height, color, 0);
+            return new CompressedTexture(width, height, ByteBuffer.wrap(color), null);
+        }
+        final int[] premultiplied = new int[pixels.length];
+        final int[] alpha = new int[pixels.length];
+        for (int i = 0; i < pixels.length; i++) {
+            final int pixel = pixels[i];
+            final int a = pixel >>> 24;
+            premultiplied[i] = 0xFF000000 | premultiply(pixel >> 16 & 0xFF, a) << 16
+                    | premultiply(pixel >> 8 & 0xFF, a) << 8 | premultiply(pixel & 0xFF, a);
+            alpha[i] = 0xFF000000 | a << 16 | a << 8 | a;
+        }
+        Etc1Codec.encode(premultiplied, width, height, color, 0);
+        final byte[] alphaPlane = new byte[size];
+        Etc1Codec.encode(alpha, width, height, alphaPlane, 0);
+        return new CompressedTexture(width, height, ByteBuffer.wrap(color), ByteBuffer.wrap(alphaPlane));
+    }
+
+    /**
+     * Reads compressed texture.
+     * Planes are slices of buffer, so a mapped buffer is not copied.
+     * @param buffer big endian buffer positioned at file start.
+     * @return compressed texture.
+     * @throws IOException if buffer is not a compressed texture of supported version.
+     */
+    public static CompressedTexture read(final ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a compressed texture");
+            }
+            final int version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported compressed texture version " + version);
+            }
+            final int flags = buffer.get();
+            final int width = buffer.getInt();
+            final int height = buffer.getInt();
+            final int size = Etc1Codec.getEncodedSize(width, height);
+            final ByteBuffer color = slice(buffer, size);
+            final ByteBuffer alpha = (flags & FLAG_ALPHA) != 0 ? slice(buffer, size) : null;
+            return new CompressedTexture(width, height, color, alpha);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Compressed texture is truncated", e);
+        }
+    }
+
+    /**
+     * Writes compressed texture.
+     * @param out output stream.
+     * @throws IOException if stream can not be written.
+     */
+    public void write(final OutputStream out) throws IOException {
+        final DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeByte(mAlpha != null ? FLAG_ALPHA : 0);
+        data.writeInt(mWidth);
+        data.writeInt(mHeight);
+        writePlane(data, mColor);
+        if (mAlpha != null) {
+            writePlane(data, mAlpha);
+        }
+        data.flush();
+    }
+
+    /**
+     * Gets image width.
+     * @return width in pixels.
+     */
+    public int getWidth() {
+        return mWidth;
+    }
+
+    /**
+     * Gets image height.
+     * @return height in pixels.
+     */
+    public int getHeight() {
+        return mHeight;
+    }
+
+    /**
+     * Gets ETC1 color plane.
+     * @return color plane positioned at start.
+     */
+    public ByteBuffer getColor() {
+        return mColor;
+    }
+
+    /**
+     * Gets ETC1 alpha plane.
+     * @return alpha plane positioned at start, null for opaque texture.
+     */
+    public ByteBuffer getAlpha() {
+        return mAlpha;
+    }
+
+    /**
+     * Gets size of planes.
+     * @return size in bytes.
+     */
+    public long getByteCount() {
+        return mColor.remaining() + (mAlpha != null ? mAlpha.remaining() : 0);
+    }
+
+    /**
+     * Premultiplies color component.
+     * @param component color component.
+     * @param alpha alpha.
+     * @return premultiplied component.
+     */
+    private static int premultiply(final int component, final int alpha) {
+        return (component * alpha + 127) / 255;
+    }
+
+    /**
+     * Cuts plane from buffer.
+     * @param buffer buffer positioned at plane.
+     * @param size plane size.
+     * @return plane, buffer is positioned after it.
+     */
+    private static ByteBuffer slice(final ByteBuffer buffer, final int size) {
+        if (buffer.remaining() < size) {
+            throw new BufferUnderflowException();
+        }
+        final ByteBuffer plane = buffer.slice();
+        plane.limit(size);
+        buffer.position(buffer.position() + size);
+        return plane;
+    }
+
+    /**
+     * Writes plane.
+     * @param data output stream.
+     * @param plane plane.
+     * @throws IOException if stream can not be written.
+     */
+    private static void writePlane(final DataOutputStream data, final ByteBuffer plane) throws IOException {
+        final ByteBuffer copy = plane.duplicate();
+        final byte[] bytes = new byte[copy.remaining()];
+        copy.get(bytes);
+        data.write(bytes);
+    }
+}
@@ -0,0 +1,64 @@
+package engine;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.graphics.Bitmap;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Compressed texture request class.
+ * Requests ETC1 texture compressed at build time from a drawable.
+ * The texture is mapped from an uncompressed asset and uploaded as is, so it is not resized
+ * and gets its own atlas page.
+ */
+public class CompressedTextureRequest extends BitmapRequest {
+    // Asset directory of compressed textures.
+    public static final String TEXTURE_DIRECTORY = "textures";
+
+    // Application assets.
+    private final AssetManager mAssets;
+    // Drawable name.
+    private final String mName;
+
+    /**
+     * Compressed texture request constructor.
+     * @param assets application assets.
+     * @param name drawable name.
+     */
+    public CompressedTextureRequest(final AssetManager assets, final String name) {
+        super(null, 0);
+        mAssets = assets;
+        mName = name;
+    }
+
+    @Override
+    public String getKey() {
+        return "etc:" + mName;
+    }
+
+    @Override
+    public CompressedTexture loadCompressed() {
+        try {
+            final AssetFileDescriptor descriptor = mAssets.openFd(
+                    TEXTURE_DIRECTORY + "/" + mName + CompressedTexture.FILE_EXTENSION);
+            final FileInputStream stream = new FileInputStream(descriptor.getFileDescriptor());
+            try {
+                return CompressedTexture.read(stream.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                        descriptor.getStartOffset(), descriptor.getLength()));
+            } finally {
+                stream.close();
+                descriptor.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Compressed texture " + mName + " can not be loaded", e);
+        }
+    }
+
+    @Override
+    public Bitmap decode() {
+        throw new UnsupportedOperationException("Compressed texture " + mName + " has no bitmap");
+    }
+}
@@ -6,17 +6,16 @@ package engine;
 public class Const {
     // Vertex buffer size;
     public static final int VERTEX_BUFFER_SIZE = 60000;
-    // Texture buffer size.
-    public static final int TEXTURE_BUFFER_SIZE = 60000;
-
-    // Square texture coordinates.
-    public static final float[] SQUARE_TEXTURE_COORDINATES = new float[] {0, 1, 0, 0, 1, 0, 1, 1};
+    // Max sprites in vertex buffer addressable by short indices.
+    public static final int MAX_BATCH_SPRITES = 65536 / 4;
 
     // State numbers.
     public static final int STATE_MAIN_MENU = 0;
     public static final int STATE_SCORE = 1;
     public static final int STATE_LOADING = 2;
     public static final int STATE_LEVEL = 3;
+    // Count of states.
+    public static final int STATE_COUNT = 4;
 
     // Empty drawable object state.
     public static final String EMPTY_STATE = "";
@@ -31,17 +30,79 @@ public class Const {
     // Full state.
     public static final String FULL_STATE = "full";
 
+    // Interned state ids.
+    public static final int EMPTY_STATE_ID = StateRegistry.intern(EMPTY_STATE);
+    public static final int DRAG_ANIMATION_ID = StateRegistry.intern(DRAG_ANIMATION);
+    public static final int NORMAL_STATE_ID = StateRegistry.intern(NORMAL_STATE);
+    public static final int NORMAL_ANIMATION_STATE_ID = StateRegistry.intern(NORMAL_ANIMATION_STATE);
+    public static final int BUTTON_PRESSED_STATE_ID = StateRegistry.intern(BUTTON_PRESSED_STATE);
+    public static final int FULL_STATE_ID = StateRegistry.intern(FULL_STATE);
+
     // Max lives count.
     public static final int MAX_LIVES_COUNT = 3;
     // Min lives count.
     public static final int MIN_LIVES_COUNT = 0;
 
-    // Delay between animation frames.
+    // Level simulation ticks per second.
+    public static final int LEVEL_TICK_RATE = 33;
+    // Max simulation ticks run to catch up after stall.
+    public static final int MAX_CATCH_UP_TICKS = 5;
+
+    // Max frames per second of menu and loading screens and of level, 0 for no cap.
+    public static final int MENU_FRAME_CAP = 30;
+    public static final int LEVEL_FRAME_CAP = 60;
+
+    // Scheduler worker threads, they load game states and decode bitmaps.
+    public static final int WORKER_THREAD_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    // Max bytes of textures uploaded per frame.
+    public static final long UPLOAD_BYTE_BUDGET = 4 * 1024 * 1024;
+    // Max time of texture uploads per frame in milliseconds.
+    public static final long UPLOAD_TIME_BUDGET = 4;
+
+    // Max size of resident textures in bytes.
+    public static final long TEXTURE_CACHE_BUDGET = 32 * 1024 * 1024;
+    // Max bytes of decoded textures held by preloaded scenes before they are shown.
+    public static final long PRELOAD_BYTE_BUDGET = 12 * 1024 * 1024;
+
+    // Count of mixer voices.
+    public static final int VOICE_COUNT = 8;
+    // Mixer sample rate.
+    public static final int MIXER_SAMPLE_RATE = 44100;
+    // Samples mixed per write to audio track.
+    public static final int MIXER_BUFFER_SIZE = 512;
+    // Sound priorities, higher priority steals voices of lower one.
+    public static final int SOUND_PRIORITY_AMBIENT = 0;
+    public static final int SOUND_PRIORITY_UI = 1;
+    public static final int SOUND_PRIORITY_EVENT = 2;
+
+    // Cell size of touch target grid in GL coordinates.
+    public static final float TOUCH_GRID_CELL_SIZE = 0.25f;
+    // Capacity of touch input queue.
+    public static final int INPUT_QUEUE_SIZE = 64;
+    // Capacity of queue of finished animations per scene.
+    public static final int ANIMATION_END_QUEUE_SIZE = 64;
+    // Max touch targets under one point.
+    public static final int MAX_TOUCH_HITS = 4;
+    // Text size of HUD glyph sheet in pixels.
+    public static final int HUD_TEXT_SIZE = 48;
+    // Max char count of HUD label.
+    public static final int HUD_TEXT_CAPACITY = 16;
+
+    // True if profiler records engine stages.
+    public static final boolean PROFILER_ENABLED = false;
+    // Profiler events kept per thread.
+    public static final int PROFILER_EVENTS_PER_THREAD = 16384;
+
+    // Default delay between animation frames in milliseconds.
     public static final int ANIMATION_DELAY = 150;
 
-    // Delay of red screen.
+    // Delay of red screen in milliseconds.
     public static final int RED_SCREEN_DELAY = 500;
 
+    // Loading bar x at start and end of loading.
+    public static final float LOADING_BAR_MIN_X = -0.5f;
+    public static final float LOADING_BAR_MAX_X = 0.5f;
+
     public static final float FISH_MOVE_RADIUS = 1;
     public static final float CENTER_X = -2;
     public static final float CENTER_Y = 0;
@@ -1,59 +1,86 @@
 package engine;
 
-import java.nio.FloatBuffer;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * Drawable layer class.
+ * Keeps entity indices of layer objects in draw order.
+ * Removal swaps the last object into the place of removed one.
  */
 public class DrawableLayer {
-    // Layer objects.
-    private final List<DrawableObject> mObjects = new ArrayList<>();
+    // Entity indices of layer objects.
+    private int[] mIndices = new int[16];
+    // Object count.
+    private int mCount = 0;
+    // Positions in layer by entity index, EntityStore.NONE if entity is not in layer.
+    private int[] mPositions = new int[0];
 
     /**
      * Adds object to layer.
+     * Object must already be in the store of the scene.
      * @param object object to add.
      */
     public void add(final DrawableObject object) {
-        mObjects.add(object);
+        if (mCount == mIndices.length) {
+            final int[] indices = new int[mCount * 2];
+            System.arraycopy(mIndices, 0, indices, 0, mCount);
+            mIndices = indices;
+        }
+        final int index = object.getIndex();
+        if (index >= mPositions.length) {
+            final int oldLength = mPositions.length;
+            mPositions = Arrays.copyOf(mPositions, Math.max(index + 1, oldLength * 2));
+            Arrays.fill(mPositions, oldLength, mPositions.length, EntityStore.NONE);
+        }
+        mPositions[index] = mCount;
+        mIndices[mCount++] = index;
     }
 
     /**
-     * Puts layer to buffers.
-     * @param startPos start pos in buffer.
-     * @param vertexBuffer OpenGL vertex buffer.
-     * @param textureCoordinates OpenGL texture coordinates.
-     * @return new start pos in buffer.
+     * Removes object from layer in O(1).
+     * Last object of layer takes place of removed object in draw order.
+     * @param object object to remove.
+     * @return true if object was in layer.
      */
-    public int putToBuffer(final int startPos, final FloatBuffer vertexBuffer, final FloatBuffer textureCoordinates) {
-        int pos = startPos;
-        for (final DrawableObject object : mObjects) {
-            pos = object.putToBuffer(pos, vertexBuffer, textureCoordinates);
+    public boolean remove(final DrawableObject object) {
+        final int index = object.getIndex();
+        if (!contains(object)) {
+            return false;
         }
-        return pos;
+        final int pos = mPositions[index];
+        final int last = mIndices[--mCount];
+        mIndices[pos] = last;
+        mPositions[last] = pos;
+        mPositions[index] = EntityStore.NONE;
+        return true;
     }
 
     /**
-     * Draws layer.
-     * @param matrixLocation OpenGL matrix location.
-     * @param modelMatrix OpenGL model matrix.
+     * Returns true if object is in layer.
+     * @param object object.
+     * @return true if object is in layer.
      */
-    public void draw(final int matrixLocation, final float[] modelMatrix) {
-        for (final DrawableObject object : mObjects) {
-            object.draw(matrixLocation, modelMatrix);
-        }
+    public boolean contains(final DrawableObject object) {
+        final int index = object.getIndex();
+        return index < mPositions.length && mPositions[index] != EntityStore.NONE;
     }
 
     /**
-     * Gets texture ids of layer.
-     * @return texture ids of layer.
+     * Puts entity indices of layer to draw order.
+     * @param order draw order.
+     * @param pos start pos in draw order.
+     * @return new pos in draw order.
      */
-    public List<Integer> getTextureIds() {
-        final List<Integer> textureIds = new ArrayList<>();
-        for (final DrawableObject obj : mObjects) {
-            textureIds.addAll(obj.getTextureIds());
-        }
-        return textureIds;
+    public int putOrder(final int[] order, final int pos) {
+        System.arraycopy(mIndices, 0, order, pos, mCount);
+        return pos + mCount;
+    }
+
+    /**
+     * Gets object count.
+     * @return object count.
+     */
+    public int getCount() {
+        return mCount;
     }
 }
@@ -1,16 +1,14 @@
 package engine;
 
-import android.opengl.GLES20;
-import android.opengl.Matrix;
-
-import java.nio.FloatBuffer;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Drawable object class.
+ * Handle to one entity of an entity store. A new object lives in its own store
+ * and moves to the scene store when it is added to a scene.
+ * Setters change state of simulation side and mark the store changed. The state reaches renderer
+ * only when the scene is published, so setters take no locks.
  */
 public class DrawableObject {
     // Sprite type.
@@ -20,63 +18,48 @@ public class DrawableObject {
     // Object id.
     private int mId;
 
-    // X coordinate.
-    private float mX;
-    // Y coordinate.
-    private float mY;
-    // Width.
-    private float mWidth;
-    // Height.
-    private float mHeight;
-
-    // Vertex array.
-    private float[] mVertices;
-    // Buffer position.
-    private int mBufferPos;
-
-    // Drawable object textures.
-    private Map<String, Integer> mTextures = new HashMap<>();
-    // Animation parameters.
-    private Map<String, List<Integer>> mAnimations = new HashMap<>();
-    private int mAnimationIndex = 0;
-    private long mAnimationTime = 0;
-    private boolean mLooped = false;
-
-    // Object states.
-    private String mState = Const.EMPTY_STATE;
-    private String mAnimationState = Const.EMPTY_STATE;
+    // Entity store.
+    private EntityStore mStore;
+    // Entity index in store.
+    private int mIndex;
 
-    // Objects properties.
-    private boolean mVisible = true;
-
-    // Synchronized semaphore.
-    private final Object mLock = new Object();
+    // Texture indices in store by state id.
+    private int[] mTextures = new int[0];
+    // Animation indices in store by state id.
+    private int[] mAnimations = new int[0];
+    // True if object has no textures.
+    private boolean mHasNoTextures = true;
 
     /**
      * Drawable object constructor.
+     * Square sprite size is in units of longer screen side, it is scaled by projection.
      * @param width width.
      * @param height height.
      * @param type square type.
      */
     public DrawableObject(final float width, final float height, final int type) {
-        synchronized (mLock) {
-            mId = IdGenerator.getId();
-
-            mWidth = width;
-            mHeight = height;
-
-            if (type == SQUARE_SPRITE) {
-                mWidth*= Game.getScreenXFactor();
-                mHeight*= Game.getScreenYFactor();
-            }
+        mId = IdGenerator.getId();
+        mStore = new EntityStore(1);
+        mIndex = mStore.add(width, height);
+        mStore.setSquare(mIndex, type == SQUARE_SPRITE);
+    }
 
-            mVertices = new float[]{
-                    -mWidth / 2, -mHeight / 2,
-                    -mWidth / 2, mHeight / 2,
-                    mWidth / 2, mHeight / 2,
-                    mWidth / 2, -mHeight / 2
-            };
-        }
+    /**
+     * Drawable object constructor.
+     * Adds entity to store of prototype and copies size, state and texture bindings of prototype.
+     * Textures and animations are shared with prototype, so tables of store do not grow.
+     * Used by object pool.
+     * @param prototype prototype object.
+     */
+    DrawableObject(final DrawableObject prototype) {
+        mId = IdGenerator.getId();
+        mStore = prototype.mStore;
+        mIndex = mStore.copy(mStore, prototype.mIndex);
+        mTextures = Arrays.copyOf(prototype.mTextures, prototype.mTextures.length);
+        mAnimations = Arrays.copyOf(prototype.mAnimations, prototype.mAnimations.length);
+        mHasNoTextures = prototype.mHasNoTextures;
+        stopAnimation();
+        resolve();
     }
 
     @Override
@@ -86,17 +69,35 @@ public class DrawableObject {
     }
 
     /**
-     * Puts object to buffers.
-     * @param pos start pos in buffer.
-     * @param buffer OpenGL vertex buffer.
-     * @param textureCoordinates OpenGL texture coordinates.
-     * @return new start pos in buffer.
+     * Moves object to store.
+     * @param store entity store.
      */
-    public int putToBuffer(final int pos, final FloatBuffer buffer, final FloatBuffer textureCoordinates) {
-        mBufferPos = pos;
-        buffer.put(mVertices);
-        textureCoordinates.put(Const.SQUARE_TEXTURE_COORDINATES);
-        return pos + mVertices.length / 2;
+    void attach(final EntityStore store) {
+        if (store == mStore) {
+            return;
+        }
+        final EntityStore source = mStore;
+        mIndex = store.copy(source, mIndex);
+        mStore = store;
+        for (int i = 0; i < mTextures.length; i++) {
+            if (mTextures[i] != EntityStore.NONE) {
+                mTextures[i] = store.addRegion(source.getRegion(mTextures[i]));
+            }
+        }
+        for (int i = 0; i < mAnimations.length; i++) {
+            if (mAnimations[i] != EntityStore.NONE) {
+                mAnimations[i] = store.addClip(source.getClip(mAnimations[i]));
+            }
+        }
+        resolve();
+    }
+
+    /**
+     * Gets entity index in store.
+     * @return entity index.
+     */
+    int getIndex() {
+        return mIndex;
     }
 
     /**
@@ -104,9 +105,7 @@ public class DrawableObject {
      * @param visible true if object is visible.
      */
     public void setVisible(final boolean visible) {
-        synchronized (mLock) {
-            mVisible = visible;
-        }
+        mStore.setVisible(mIndex, visible);
     }
 
     /**
@@ -114,45 +113,7 @@ public class DrawableObject {
      * @return true if object is visible.
      */
     public boolean isVisible() {
-        return mVisible;
-    }
-
-    /**
-     * Draws the object.
-     * @param matrixLocation OpenGL matrix location.
-     * @param modelMatrix OpenGL model matrix.
-     */
-    public void draw(final int matrixLocation, final float[] modelMatrix) {
-        synchronized (mLock) {
-            if (mVisible) {
-                Integer texture = mTextures.get(mState);
-                if (!mAnimationState.equals(Const.EMPTY_STATE)) {
-                    final List<Integer> animationTexture = mAnimations.get(mAnimationState);
-                    if (animationTexture != null && 0 <= mAnimationIndex && mAnimationIndex < animationTexture.size()) {
-                        texture = animationTexture.get(mAnimationIndex);
-                        final long time = System.currentTimeMillis();
-                        if (time - mAnimationTime > Const.ANIMATION_DELAY) {
-                            mAnimationIndex++;
-                            if (mAnimationIndex >= animationTexture.size()) {
-                                mAnimationIndex = 0;
-                                if (!mLooped) {
-                                    stopAnimation();
-                                }
-                            }
-                            mAnimationTime = time;
-                        }
-                    }
-                }
-                if (texture != null) {
-                    GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, texture);
-
-                    Matrix.setIdentityM(modelMatrix, 0);
-                    Matrix.translateM(modelMatrix, 0, mX, mY, 0);
-                    GLES20.glUniformMatrix4fv(matrixLocation, 1, false, modelMatrix, 0);
-                    GLES20.glDrawArrays(GLES20.GL_TRIANGLE_FAN, mBufferPos, 4);
-                }
-            }
-        }
+        return mStore.isVisible(mIndex);
     }
 
     /**
@@ -160,9 +121,8 @@ public class DrawableObject {
      * @param x x to set.
      */
     public void setX(final float x) {
-        synchronized (mLock) {
-            mX = x;
-        }
+        mStore.mX[mIndex] = x;
+        mStore.mIsChanged = true;
     }
 
     /**
@@ -170,9 +130,17 @@ public class DrawableObject {
      * @param y y to set.
      */
     public void setY(final float y) {
-        synchronized (mLock) {
-            mY = y;
-        }
+        mStore.mY[mIndex] = y;
+        mStore.mIsChanged = true;
+    }
+
+    /**
+     * Stores position before simulation tick.
+     */
+    public void storePosition() {
+        mStore.mPrevX[mIndex] = mStore.mX[mIndex];
+        mStore.mPrevY[mIndex] = mStore.mY[mIndex];
+        mStore.mIsChanged = true;
     }
 
     /**
@@ -180,7 +148,7 @@ public class DrawableObject {
      * @return object x.
      */
     public float getX() {
-        return mX;
+        return mStore.mX[mIndex];
     }
 
     /**
@@ -188,58 +156,99 @@ public class DrawableObject {
      * @return object y.
      */
     public float getY() {
-        return mY;
+        return mStore.mY[mIndex];
+    }
+
+    /**
+     * Gets object width.
+     * @return object width in GL units for current projection.
+     */
+    public float getWidth() {
+        final float width = mStore.mWidth[mIndex];
+        return mStore.isSquare(mIndex) ? width * Game.getScreenXFactor() : width;
+    }
+
+    /**
+     * Gets object height.
+     * @return object height in GL units for current projection.
+     */
+    public float getHeight() {
+        final float height = mStore.mHeight[mIndex];
+        return mStore.isSquare(mIndex) ? height * Game.getScreenYFactor() : height;
     }
 
     /**
      * Adds texture.
      * @param name texture name.
-     * @param textureId texture id to set.
+     * @param texture texture region to set.
      */
-    public void addTexture(final String name, final int textureId) {
-        synchronized (mLock) {
-            if (mTextures.isEmpty()) {
-                mState = name;
-            }
-            mTextures.put(name, textureId);
-        }
+    public void addTexture(final String name, final TextureRegion texture) {
+        addTexture(StateRegistry.intern(name), texture);
     }
 
     /**
-     * Gets texture ids.
-     * @return texture ids.
+     * Adds texture.
+     * @param state state id of texture.
+     * @param texture texture region to set.
      */
-    public List<Integer> getTextureIds() {
-        final List<Integer> textureIds = new ArrayList<>();
-        for (final String texture : mTextures.keySet()) {
-            textureIds.add(mTextures.get(texture));
-        }
-        for (final String animation : mAnimations.keySet()) {
-            textureIds.addAll(mAnimations.get(animation));
+    public void addTexture(final int state, final TextureRegion texture) {
+        mTextures = ensureSize(mTextures, state);
+        mTextures[state] = mStore.addRegion(texture);
+        if (mHasNoTextures) {
+            mHasNoTextures = false;
+            setState(state);
+        } else {
+            resolve();
         }
-        return textureIds;
     }
 
     /**
      * Adds object animation.
      * @param animationName animation name.
-     * @param animationTextureIds list of animation textures.
+     * @param animationTextures list of animation frames.
      */
-    public void addAnimation(final String animationName, final List<Integer> animationTextureIds) {
-        synchronized (mLock) {
-            mAnimations.put(animationName, animationTextureIds);
-        }
+    public void addAnimation(final String animationName, final List<TextureRegion> animationTextures) {
+        addAnimation(StateRegistry.intern(animationName), animationTextures);
+    }
+
+    /**
+     * Adds object animation with default frame duration.
+     * @param animation state id of animation.
+     * @param animationTextures list of animation frames.
+     */
+    public void addAnimation(final int animation, final List<TextureRegion> animationTextures) {
+        addAnimation(animation, new AnimationClip(animationTextures, Const.ANIMATION_DELAY, AnimationClip.MODE_LOOP));
+    }
+
+    /**
+     * Adds object animation.
+     * @param animationName animation name.
+     * @param clip animation clip.
+     */
+    public void addAnimation(final String animationName, final AnimationClip clip) {
+        addAnimation(StateRegistry.intern(animationName), clip);
+    }
+
+    /**
+     * Adds object animation.
+     * @param animation state id of animation.
+     * @param clip animation clip.
+     */
+    public void addAnimation(final int animation, final AnimationClip clip) {
+        mAnimations = ensureSize(mAnimations, animation);
+        mAnimations[animation] = mStore.addClip(clip);
+        resolve();
     }
 
     /**
      * Stops animation.
      */
     public void stopAnimation() {
-        synchronized (mLock) {
-            mAnimationState = Const.EMPTY_STATE;
-            mLooped = false;
-            mAnimationIndex = 0;
-        }
+        mStore.mAnimationState[mIndex] = Const.EMPTY_STATE_ID;
+        mStore.mAnimation[mIndex] = EntityStore.NONE;
+        mStore.setAnimationMode(mIndex, AnimationClip.MODE_LOOP, null);
+        mStore.mAnimationSerial[mIndex]++;
+        mStore.mIsChanged = true;
     }
 
     /**
@@ -247,12 +256,18 @@ public class DrawableObject {
      * @param animationName animation name.
      */
     public void animateLoop(final String animationName) {
-        synchronized (mLock) {
-            if (!animationName.equals(mAnimationState)) {
-                mAnimationIndex = 0;
-            }
-            mAnimationState = animationName;
-            mLooped = true;
+        animateLoop(StateRegistry.intern(animationName));
+    }
+
+    /**
+     * Starts animation with looping.
+     * Does not restart animation that is already looped.
+     * @param animation state id of animation.
+     */
+    public void animateLoop(final int animation) {
+        if (animation != mStore.mAnimationState[mIndex]
+                || mStore.mAnimationMode[mIndex] != AnimationClip.MODE_LOOP) {
+            start(animation, AnimationClip.MODE_LOOP, null);
         }
     }
 
@@ -261,11 +276,25 @@ public class DrawableObject {
      * @param animationName animation name.
      */
     public void animate(final String animationName) {
-        synchronized (mLock) {
-            mState = animationName;
-            mLooped = false;
-            mAnimationIndex = 0;
-        }
+        animate(StateRegistry.intern(animationName), null);
+    }
+
+    /**
+     * Animate one time.
+     * @param animation state id of animation.
+     * @param listener listener of animation end, may be null.
+     */
+    public void animate(final int animation, final AnimationClip.AnimationListener listener) {
+        start(animation, AnimationClip.MODE_ONCE, listener);
+    }
+
+    /**
+     * Starts animation in default mode of its clip.
+     * @param animation state id of animation.
+     * @param listener listener of animation end, may be null.
+     */
+    public void play(final int animation, final AnimationClip.AnimationListener listener) {
+        start(animation, AnimationClip.MODE_DEFAULT, listener);
     }
 
     /**
@@ -273,9 +302,17 @@ public class DrawableObject {
      * @param name name of state.
      */
     public void setState(final String name) {
-        synchronized (mLock) {
-            mState = name;
-        }
+        setState(StateRegistry.intern(name));
+    }
+
+    /**
+     * Sets state.
+     * @param state state id.
+     */
+    public void setState(final int state) {
+        mStore.mState[mIndex] = state;
+        mStore.mTexture[mIndex] = find(mTextures, state);
+        mStore.mIsChanged = true;
     }
 
     /**
@@ -285,7 +322,59 @@ public class DrawableObject {
      * @return true if point is inside of object.
      */
     public boolean isInside (final float x, final float y) {
-        return mX - mWidth / 2 <= x && x <= mX + mWidth / 2 &&
-                mY - mHeight / 2 <= y && y <= mY + mHeight / 2;
+        final float objectX = mStore.mX[mIndex];
+        final float objectY = mStore.mY[mIndex];
+        final float width = getWidth();
+        final float height = getHeight();
+        return objectX - width / 2 <= x && x <= objectX + width / 2 &&
+                objectY - height / 2 <= y && y <= objectY + height / 2;
+    }
+
+    /**
+     * Starts animation from first frame.
+     * @param animation state id of animation.
+     * @param mode play mode.
+     * @param listener listener of animation end, may be null.
+     */
+    private void start(final int animation, final int mode, final AnimationClip.AnimationListener listener) {
+        mStore.mAnimationState[mIndex] = animation;
+        mStore.mAnimation[mIndex] = find(mAnimations, animation);
+        mStore.setAnimationMode(mIndex, mode, listener);
+        mStore.mAnimationSerial[mIndex]++;
+        mStore.mIsChanged = true;
+    }
+
+    /**
+     * Resolves texture and animation indices of current states.
+     */
+    private void resolve() {
+        mStore.mTexture[mIndex] = find(mTextures, mStore.mState[mIndex]);
+        mStore.mAnimation[mIndex] = find(mAnimations, mStore.mAnimationState[mIndex]);
+        mStore.mIsChanged = true;
+    }
+
+    /**
+     * Finds index by state id.
+     * @param indices indices by state id.
+     * @param state state id.
+     * @return index or EntityStore.NONE.
+     */
+    private static int find(final int[] indices, final int state) {
+        return state < indices.length ? indices[state] : EntityStore.NONE;
+    }
+
+    /**
+     * Grows indices to fit state id.
+     * @param indices indices by state id.
+     * @param state state id.
+     * @return indices that fit state id.
+     */
+    private static int[] ensureSize(final int[] indices, final int state) {
+        if (state < indices.length) {
+            return indices;
+        }
+        final int[] result = Arrays.copyOf(indices, Math.max(state + 1, StateRegistry.getCount()));
+        Arrays.fill(result, indices.length, result.length, EntityStore.NONE);
+        return result;
     }
 }
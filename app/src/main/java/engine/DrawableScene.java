@@ -1,19 +1,44 @@
 package engine;
 
-import android.view.MotionEvent;
-
-import java.nio.FloatBuffer;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Drawable scene class.
+ * Tracks changes of scene objects, so static scene is published once and renderer can tell
+ * when the scene needs no more frames.
  */
 public class DrawableScene {
     // Layers list.
     private final List<DrawableLayer> mLayers = new ArrayList<>();
+    // Simulation state of scene objects.
+    private final EntityStore mStore = new EntityStore();
+    // Published state of objects.
+    private final SceneState mSceneState = new SceneState();
+
+    // Animation progress by entity, owned by renderer.
+    private long[] mAnimationStart = new long[0];
+    private int[] mDrawnAnimationSerial = new int[0];
+    private long[] mAnimationFinished = new long[0];
+    // True if last drawn frame had a visible animation that is not finished, owned by renderer.
+    private boolean mIsAnimating = false;
+    // Time of last publish.
+    private long mPublishedTime = 0;
+    // Animations finished on render thread, delivered to listeners by publishing thread.
+    private final AnimationEndQueue mAnimationEnds = new AnimationEndQueue(Const.ANIMATION_END_QUEUE_SIZE);
+    // Calls listener of finished animation if entity did not start another animation since.
+    private final AnimationEndQueue.AnimationEndListener mAnimationEndListener =
+            new AnimationEndQueue.AnimationEndListener() {
+        @Override
+        public void onAnimationEnd(final int entity, final int animation, final int serial) {
+            if (entity < mStore.mCount && mStore.mAnimationSerial[entity] == serial) {
+                final AnimationClip.AnimationListener listener = mStore.mAnimationListener[entity];
+                if (listener != null) {
+                    listener.onAnimationEnd(animation);
+                }
+            }
+        }
+    };
 
     /**
      * Drawable scene constructor.
@@ -26,29 +51,138 @@ public class DrawableScene {
     }
 
     /**
-     * Puts scene to buffer.
-     * @param startPos start pos in buffer.
-     * @param vertexBuffer OpenGL vertex buffer.
-     * @param textureCoordinates OpenGL texture coordinates.
-     * @return new start pos in buffer.
+     * Draws scene.
+     * Must be called by render thread. Finished animations are queued for deliverAnimationEnds.
+     * @param batch sprite batch.
+     * @param snapshot scene snapshot.
+     * @param alpha interpolation factor between previous and current positions.
+     * @param time frame time in nanoseconds.
      */
-    public int putToBuffer(final int startPos, final FloatBuffer vertexBuffer, final FloatBuffer textureCoordinates) {
-        int pos = startPos;
-        for (final DrawableLayer layer : mLayers) {
-            pos = layer.putToBuffer(pos, vertexBuffer, textureCoordinates);
+    public void draw(final SpriteBatch batch, final SceneState.Snapshot snapshot, final float alpha,
+                     final long time) {
+        ensureRenderCapacity(snapshot.mCount);
+        final Projection projection = Game.getProjection();
+        final float scaleX = projection.getScaleX();
+        final float scaleY = projection.getScaleY();
+        boolean isAnimating = false;
+        final int[] order = snapshot.mOrder;
+        for (int k = 0; k < snapshot.mOrderCount; k++) {
+            final int i = order[k];
+            if (!EntityStore.getBit(snapshot.mVisible, i)) {
+                continue;
+            }
+            final int serial = snapshot.mAnimationSerial[i];
+            if (serial != mDrawnAnimationSerial[i]) {
+                mDrawnAnimationSerial[i] = serial;
+                mAnimationStart[i] = time;
+                EntityStore.setBit(mAnimationFinished, i, false);
+            }
+
+            final int textureIndex = snapshot.mTexture[i];
+            TextureRegion texture = textureIndex == EntityStore.NONE ? null : snapshot.mRegions[textureIndex];
+            final int animation = snapshot.mAnimation[i];
+            if (animation != EntityStore.NONE && !EntityStore.getBit(mAnimationFinished, i)) {
+                final AnimationClip clip = snapshot.mClips[animation];
+                final int frame = clip.getFrameIndex(time - mAnimationStart[i],
+                        clip.resolveMode(snapshot.mAnimationMode[i]));
+                if (frame == AnimationClip.FINISHED) {
+                    // If queue is full, animation is found finished again next frame.
+                    if (mAnimationEnds.offer(i, snapshot.mAnimationState[i], serial)) {
+                        EntityStore.setBit(mAnimationFinished, i, true);
+                    }
+                } else {
+                    texture = clip.getFrame(frame);
+                    isAnimating = true;
+                }
+            }
+
+            if (texture != null) {
+                final float prevX = snapshot.mPrevX[i];
+                final float prevY = snapshot.mPrevY[i];
+                float width = snapshot.mWidth[i];
+                float height = snapshot.mHeight[i];
+                if (EntityStore.getBit(snapshot.mSquare, i)) {
+                    width*= scaleX;
+                    height*= scaleY;
+                }
+                batch.draw(texture, prevX + (snapshot.mX[i] - prevX) * alpha, prevY + (snapshot.mY[i] - prevY) * alpha,
+                        width, height);
+            }
         }
-        return pos;
+        mIsAnimating = isAnimating;
     }
 
     /**
-     * Draws scene.
-     * @param matrixLocation OpenGL matrix location.
-     * @param modelMatrix OpenGL model matrix.
+     * Publishes state of objects to renderer.
+     * Does nothing if objects are not changed since last publish of the same time.
+     * Must be called by one thread at a time.
+     * @param time simulation time the state corresponds to.
      */
-    public void draw(final int matrixLocation, final float[] modelMatrix) {
-        for (final DrawableLayer layer : mLayers) {
-            layer.draw(matrixLocation, modelMatrix);
+    public void publish(final long time) {
+        if (!mStore.mIsChanged && time == mPublishedTime) {
+            return;
         }
+        mStore.mIsChanged = false;
+        mPublishedTime = time;
+        mSceneState.publish(mStore, mLayers, time);
+    }
+
+    /**
+     * Calls listeners of animations render thread found finished.
+     * Must be called by thread that publishes the scene.
+     * @return count of finished animations.
+     */
+    public int deliverAnimationEnds() {
+        return mAnimationEnds.drain(mAnimationEndListener);
+    }
+
+    /**
+     * Returns true if finished animations wait for delivery to listeners.
+     * @return true if animation ends are pending.
+     */
+    public boolean hasAnimationEnds() {
+        return !mAnimationEnds.isEmpty();
+    }
+
+    /**
+     * Returns true if objects are changed since last publish.
+     * @return true if scene is changed.
+     */
+    public boolean isChanged() {
+        return mStore.mIsChanged;
+    }
+
+    /**
+     * Returns true if last drawn frame had a visible animation that is not finished.
+     * Must be called by render thread.
+     * @return true if scene is animating.
+     */
+    public boolean isAnimating() {
+        return mIsAnimating;
+    }
+
+    /**
+     * Gets latest published snapshot.
+     * Must be called by render thread.
+     * @return snapshot.
+     */
+    public SceneState.Snapshot acquire() {
+        return mSceneState.acquire();
+    }
+
+    /**
+     * Stores positions of scene objects before simulation tick.
+     */
+    public void storePositions() {
+        mStore.storePositions();
+    }
+
+    /**
+     * Gets entity store of scene.
+     * @return entity store.
+     */
+    public EntityStore getStore() {
+        return mStore;
     }
 
     /**
@@ -59,24 +193,58 @@ public class DrawableScene {
     public void addToLayer(final int layerNum, final DrawableObject object) {
         if (-1 < layerNum && layerNum < mLayers.size()) {
             final DrawableLayer layer = mLayers.get(layerNum);
+            object.attach(mStore);
             layer.add(object);
+            mStore.mIsChanged = true;
         }
     }
 
     /**
-     * Gets textures.
-     * @return texture ids.
+     * Removes object from layer.
+     * Object stays in scene store and can be added again.
+     * @param layerNum layer number.
+     * @param object object to remove.
+     * @return true if object was in layer.
      */
-    public int[] getTextures() {
-        final List<Integer> textureIds = new ArrayList<>();
-        for (final DrawableLayer layer : mLayers) {
-            textureIds.addAll(layer.getTextureIds());
+    public boolean removeFromLayer(final int layerNum, final DrawableObject object) {
+        if (-1 < layerNum && layerNum < mLayers.size() && mLayers.get(layerNum).remove(object)) {
+            mStore.mIsChanged = true;
+            return true;
         }
-        int count = 0;
-        final int[] textures = new int[textureIds.size()];
-        for (int i = 0; i < textureIds.size(); i++) {
-            textures[count++] = textureIds.get(i);
+        return false;
+    }
+
+    /**
+     * Creates pool of objects drawn on layer.
+     * @param layerNum layer number.
+     * @param width object width.
+     * @param height object height.
+     * @param type sprite type.
+     * @param size count of objects created now.
+     * @return object pool.
+     */
+    public ObjectPool createPool(final int layerNum, final float width, final float height, final int type,
+                                 final int size) {
+        return new ObjectPool(this, layerNum, width, height, type, size);
+    }
+
+    /**
+     * Grows render side arrays to fit entities.
+     * @param count entity count.
+     */
+    private void ensureRenderCapacity(final int count) {
+        if (mAnimationStart.length >= count) {
+            return;
         }
-        return textures;
+        final int capacity = Math.max(count, mAnimationStart.length * 2);
+        final long[] animationStart = new long[capacity];
+        final int[] drawnAnimationSerial = new int[capacity];
+        final long[] animationFinished = new long[EntityStore.bitsetSize(capacity)];
+        System.arraycopy(mAnimationStart, 0, animationStart, 0, mAnimationStart.length);
+        System.arraycopy(mDrawnAnimationSerial, 0, drawnAnimationSerial, 0, mDrawnAnimationSerial.length);
+        System.arraycopy(mAnimationFinished, 0, animationFinished, 0, mAnimationFinished.length);
+        mAnimationStart = animationStart;
+        mDrawnAnimationSerial = drawnAnimationSerial;
+        mAnimationFinished = animationFinished;
     }
 }
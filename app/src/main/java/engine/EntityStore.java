@@ -0,0 +1,349 @@
+package engine;
+
+/**
+ * Entity store class.
+ * Keeps simulation state of scene objects in parallel primitive arrays indexed by entity,
+ * so hot loops iterate plain arrays instead of object graphs.
+ * DrawableObject is a handle to one entity of a store.
+ */
+public class EntityStore {
+    // No texture or animation.
+    public static final int NONE = -1;
+
+    // Initial capacity.
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Entity count.
+    int mCount = 0;
+
+    // Coordinates.
+    float[] mX;
+    float[] mY;
+    // Coordinates before last simulation tick.
+    float[] mPrevX;
+    float[] mPrevY;
+    // Sizes, square entities keep size in units of longer screen side.
+    float[] mWidth;
+    float[] mHeight;
+    // State ids of StateRegistry.
+    int[] mState;
+    int[] mAnimationState;
+    // Indices in texture and animation tables, NONE if not loaded.
+    int[] mTexture;
+    int[] mAnimation;
+    // Animation restart counters.
+    int[] mAnimationSerial;
+    // Animation play modes.
+    int[] mAnimationMode;
+    // Animation listeners, may be null.
+    AnimationClip.AnimationListener[] mAnimationListener;
+    // Visibility bitset.
+    long[] mVisible;
+    // Bitset of square entities, they are scaled by projection when drawn.
+    long[] mSquare;
+
+    // Texture table.
+    TextureRegion[] mRegions = new TextureRegion[INITIAL_CAPACITY];
+    int mRegionCount = 0;
+    // Animation table.
+    AnimationClip[] mClips = new AnimationClip[INITIAL_CAPACITY];
+    int mClipCount = 0;
+
+    // True if entities changed since last publish, set by mutators and cleared by publish.
+    boolean mIsChanged = true;
+
+    /**
+     * Entity store constructor.
+     */
+    public EntityStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Entity store constructor.
+     * @param capacity initial entity capacity.
+     */
+    public EntityStore(final int capacity) {
+        allocate(Math.max(1, capacity));
+    }
+
+    /**
+     * Adds entity.
+     * @param width entity width.
+     * @param height entity height.
+     * @return entity index.
+     */
+    public int add(final float width, final float height) {
+        if (mCount == mX.length) {
+            allocate(mCount * 2);
+        }
+        final int index = mCount++;
+        mIsChanged = true;
+        mX[index] = 0;
+        mY[index] = 0;
+        mPrevX[index] = 0;
+        mPrevY[index] = 0;
+        mWidth[index] = width;
+        mHeight[index] = height;
+        mState[index] = Const.EMPTY_STATE_ID;
+        mAnimationState[index] = Const.EMPTY_STATE_ID;
+        mTexture[index] = NONE;
+        mAnimation[index] = NONE;
+        mAnimationSerial[index] = 0;
+        mAnimationMode[index] = AnimationClip.MODE_LOOP;
+        mAnimationListener[index] = null;
+        setBit(mVisible, index, true);
+        setBit(mSquare, index, false);
+        return index;
+    }
+
+    /**
+     * Copies entity from other store or from this store.
+     * Texture tables are not copied.
+     * @param source source store.
+     * @param sourceIndex entity index in source store.
+     * @return entity index in this store.
+     */
+    public int copy(final EntityStore source, final int sourceIndex) {
+        final int index = add(source.mWidth[sourceIndex], source.mHeight[sourceIndex]);
+        mX[index] = source.mX[sourceIndex];
+        mY[index] = source.mY[sourceIndex];
+        mPrevX[index] = source.mPrevX[sourceIndex];
+        mPrevY[index] = source.mPrevY[sourceIndex];
+        mState[index] = source.mState[sourceIndex];
+        mAnimationState[index] = source.mAnimationState[sourceIndex];
+        mAnimationSerial[index] = source.mAnimationSerial[sourceIndex];
+        mAnimationMode[index] = source.mAnimationMode[sourceIndex];
+        mAnimationListener[index] = source.mAnimationListener[sourceIndex];
+        setBit(mVisible, index, getBit(source.mVisible, sourceIndex));
+        setBit(mSquare, index, getBit(source.mSquare, sourceIndex));
+        return index;
+    }
+
+    /**
+     * Gets entity count.
+     * @return entity count.
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Adds texture to texture table.
+     * @param region texture region.
+     * @return texture index.
+     */
+    public int addRegion(final TextureRegion region) {
+        if (mRegionCount == mRegions.length) {
+            final TextureRegion[] regions = new TextureRegion[mRegionCount * 2];
+            System.arraycopy(mRegions, 0, regions, 0, mRegionCount);
+            mRegions = regions;
+        }
+        mRegions[mRegionCount] = region;
+        return mRegionCount++;
+    }
+
+    /**
+     * Gets texture from texture table.
+     * @param index texture index.
+     * @return texture region.
+     */
+    public TextureRegion getRegion(final int index) {
+        return mRegions[index];
+    }
+
+    /**
+     * Adds animation to animation table.
+     * @param clip animation clip.
+     * @return animation index.
+     */
+    public int addClip(final AnimationClip clip) {
+        if (mClipCount == mClips.length) {
+            final AnimationClip[] clips = new AnimationClip[mClipCount * 2];
+            System.arraycopy(mClips, 0, clips, 0, mClipCount);
+            mClips = clips;
+        }
+        mClips[mClipCount] = clip;
+        return mClipCount++;
+    }
+
+    /**
+     * Gets animation from animation table.
+     * @param index animation index.
+     * @return animation clip.
+     */
+    public AnimationClip getClip(final int index) {
+        return mClips[index];
+    }
+
+    /**
+     * Sets entity visibility.
+     * @param index entity index.
+     * @param visible true if entity is visible.
+     */
+    public void setVisible(final int index, final boolean visible) {
+        setBit(mVisible, index, visible);
+        mIsChanged = true;
+    }
+
+    /**
+     * Returns true if entity is visible.
+     * @param index entity index.
+     * @return true if entity is visible.
+     */
+    public boolean isVisible(final int index) {
+        return getBit(mVisible, index);
+    }
+
+    /**
+     * Sets entity square.
+     * @param index entity index.
+     * @param square true if entity is scaled by projection to stay square.
+     */
+    public void setSquare(final int index, final boolean square) {
+        setBit(mSquare, index, square);
+        mIsChanged = true;
+    }
+
+    /**
+     * Returns true if entity is square.
+     * @param index entity index.
+     * @return true if entity is scaled by projection to stay square.
+     */
+    public boolean isSquare(final int index) {
+        return getBit(mSquare, index);
+    }
+
+    /**
+     * Sets entity animation play mode.
+     * @param index entity index.
+     * @param mode play mode of AnimationClip.
+     * @param listener listener of animation end, may be null.
+     */
+    public void setAnimationMode(final int index, final int mode, final AnimationClip.AnimationListener listener) {
+        mAnimationMode[index] = mode;
+        mAnimationListener[index] = listener;
+        mIsChanged = true;
+    }
+
+    /**
+     * Stores positions of all entities before simulation tick.
+     */
+    public void storePositions() {
+        System.arraycopy(mX, 0, mPrevX, 0, mCount);
+        System.arraycopy(mY, 0, mPrevY, 0, mCount);
+        mIsChanged = true;
+    }
+
+    /**
+     * Sets bit of bitset.
+     * @param bits bitset.
+     * @param index bit index.
+     * @param value bit value.
+     */
+    static void setBit(final long[] bits, final int index, final boolean value) {
+        if (value) {
+            bits[index >> 6]|= 1L << index;
+        } else {
+            bits[index >> 6]&= ~(1L << index);
+        }
+    }
+
+    /**
+     * Gets bit of bitset.
+     * @param bits bitset.
+     * @param index bit index.
+     * @return bit value.
+     */
+    static boolean getBit(final long[] bits, final int index) {
+        return (bits[index >> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Gets bitset size for entity capacity.
+     * @param capacity entity capacity.
+     * @return count of longs.
+     */
+    static int bitsetSize(final int capacity) {
+        return (capacity + 63) >> 6;
+    }
+
+    /**
+     * Allocates arrays of new capacity and keeps entities.
+     * @param capacity entity capacity.
+     */
+    private void allocate(final int capacity) {
+        mX = grow(mX, capacity);
+        mY = grow(mY, capacity);
+        mPrevX = grow(mPrevX, capacity);
+        mPrevY = grow(mPrevY, capacity);
+        mWidth = grow(mWidth, capacity);
+        mHeight = grow(mHeight, capacity);
+        mState = grow(mState, capacity);
+        mAnimationState = grow(mAnimationState, capacity);
+        mTexture = grow(mTexture, capacity);
+        mAnimation = grow(mAnimation, capacity);
+        mAnimationSerial = grow(mAnimationSerial, capacity);
+        mAnimationMode = grow(mAnimationMode, capacity);
+        mAnimationListener = grow(mAnimationListener, capacity);
+        mVisible = grow(mVisible, bitsetSize(capacity));
+        mSquare = grow(mSquare, bitsetSize(capacity));
+    }
+
+    /**
+     * Copies array to array of new capacity.
+     * @param array array, may be null.
+     * @param capacity new capacity.
+     * @return new array.
+     */
+    private float[] grow(final float[] array, final int capacity) {
+        final float[] result = new float[capacity];
+        if (array != null) {
+            System.arraycopy(array, 0, result, 0, mCount);
+        }
+        return result;
+    }
+
+    /**
+     * Copies array to array of new capacity.
+     * @param array array, may be null.
+     * @param capacity new capacity.
+     * @return new array.
+     */
+    private int[] grow(final int[] array, final int capacity) {
+        final int[] result = new int[capacity];
+        if (array != null) {
+            System.arraycopy(array, 0, result, 0, mCount);
+        }
+        return result;
+    }
+
+    /**
+     * Copies array to array of new capacity.
+     * @param array array, may be null.
+     * @param capacity new capacity.
+     * @return new array.
+     */
+    private AnimationClip.AnimationListener[] grow(final AnimationClip.AnimationListener[] array,
+                                                   final int capacity) {
+        final AnimationClip.AnimationListener[] result = new AnimationClip.AnimationListener[capacity];
+        if (array != null) {
+            System.arraycopy(array, 0, result, 0, mCount);
+        }
+        return result;
+    }
+
+    /**
+     * Copies array to array of new capacity.
+     * @param array array, may be null.
+     * @param capacity new capacity.
+     * @return new array.
+     */
+    private long[] grow(final long[] array, final int capacity) {
+        final long[] result = new long[capacity];
+        if (array != null) {
+            System.arraycopy(array, 0, result, 0, Math.min(array.length, capacity));
+        }
+        return result;
+    }
+}
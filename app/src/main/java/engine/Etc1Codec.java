@@ -0,0 +1,365 @@
+package engine;
+
+/**
+ * ETC1 codec class.
+ * Encodes and decodes ETC1 RGB textures, 4x4 pixel blocks of 8 bytes.
+ * Encoder tries both subblock flips in individual and differential mode and picks
+ * the modifier table and pixel modifiers with least squared error for every subblock.
+ * Has no Android dependencies, it is also compiled into the build-time texture compressor.
+ */
+public class Etc1Codec {
+    // Bytes per encoded block.
+    public static final int BLOCK_SIZE = 8;
+    // Pixels per block side.
+    public static final int BLOCK_PIXELS = 4;
+
+    // Intensity modifier tables, modifiers a and b of +a, +b, -a, -b.
+    private static final int[][] MODIFIERS = {
+            {2, 8}, {5, 17}, {9, 29}, {13, 42}, {18, 60}, {24, 80}, {33, 106}, {47, 183}
+    };
+    // Modifier of pixel index, pixel index is msb << 1 | lsb.
+    private static final int[][] PIXEL_MODIFIERS = new int[MODIFIERS.length][4];
+    static {
+        for (int i = 0; i < MODIFIERS.length; i++) {
+            PIXEL_MODIFIERS[i][0] = MODIFIERS[i][0];
+            PIXEL_MODIFIERS[i][1] = MODIFIERS[i][1];
+            PIXEL_MODIFIERS[i][2] = -MODIFIERS[i][0];
+            PIXEL_MODIFIERS[i][3] = -MODIFIERS[i][1];
+        }
+    }
+
+    /**
+     * Constructor is private.
+     */
+    private Etc1Codec() {
+    }
+
+    /**
+     * Gets size of encoded image.
+     * @param width image width.
+     * @param height image height.
+     * @return size in bytes.
+     */
+    public static int getEncodedSize(final int width, final int height) {
+        return ((width + 3) / BLOCK_PIXELS) * ((height + 3) / BLOCK_PIXELS) * BLOCK_SIZE;
+    }
+
+    /**
+     * Encodes image.
+     * Partial blocks at right and bottom edges repeat edge pixels.
+     * @param pixels ARGB pixels row by row, alpha is ignored.
+     * @param width image width.
+     * @param height image height.
+     * @param out output of getEncodedSize bytes.
+     * @param offset output offset.
+     */
+    public static void encode(final int[] pixels, final int width, final int height, final byte[] out,
+                              final int offset) {
+        final int[] block = new int[BLOCK_PIXELS * BLOCK_PIXELS];
+        final Encoder encoder = new Encoder();
+        int position = offset;
+        for (int blockY = 0; blockY < height; blockY+= BLOCK_PIXELS) {
+            for (int blockX = 0; blockX < width; blockX+= BLOCK_PIXELS) {
+                for (int y = 0; y < BLOCK_PIXELS; y++) {
+                    final int row = Math.min(blockY + y, height - 1) * width;
+                    for (int x = 0; x < BLOCK_PIXELS; x++) {
+                        block[y * BLOCK_PIXELS + x] = pixels[row + Math.min(blockX + x, width - 1)];
+                    }
+                }
+                writeLong(out, position, encoder.encodeBlock(block));
+                position+= BLOCK_SIZE;
+            }
+        }
+    }
+
+    /**
+     * Decodes image.
+     * @param data encoded image.
+     * @param offset data offset.
+     * @param width image width.
+     * @param height image height.
+     * @param pixels output of width * height opaque ARGB pixels row by row.
+     */
+    public static void decode(final byte[] data, final int offset, final int width, final int height,
+                              final int[] pixels) {
+        final int[] block = new int[BLOCK_PIXELS * BLOCK_PIXELS];
+        int position = offset;
+        for (int blockY = 0; blockY < height; blockY+= BLOCK_PIXELS) {
+            for (int blockX = 0; blockX < width; blockX+= BLOCK_PIXELS) {
+                decodeBlock(readLong(data, position), block);
+                position+= BLOCK_SIZE;
+                for (int y = 0; y < BLOCK_PIXELS && blockY + y < height; y++) {
+                    for (int x = 0; x < BLOCK_PIXELS && blockX + x < width; x++) {
+                        pixels[(blockY + y) * width + blockX + x] = block[y * BLOCK_PIXELS + x];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes block.
+     * @param bits block bits.
+     * @param block output of 16 opaque ARGB pixels row by row.
+     */
+    public static void decodeBlock(final long bits, final int[] block) {
+        final boolean flip = (bits >>> 32 & 1) != 0;
+        final boolean differential = (bits >>> 33 & 1) != 0;
+        final int[][] bases = new int[2][3];
+        for (int channel = 0; channel < 3; channel++) {
+            final int shift = 59 - channel * 8;
+            if (differential) {
+                final int base = (int) (bits >>> shift) & 0x1F;
+                int delta = (int) (bits >>> (shift - 3)) & 0x7;
+                if (delta >= 4) {
+                    delta-= 8;
+                }
+                bases[0][channel] = expand5(base);
+                bases[1][channel] = expand5(base + delta);
+            } else {
+                bases[0][channel] = expand4((int) (bits >>> (shift + 1)) & 0xF);
+                bases[1][channel] = expand4((int) (bits >>> (shift - 3)) & 0xF);
+            }
+        }
+        final int[] tables = {(int) (bits >>> 37) & 0x7, (int) (bits >>> 34) & 0x7};
+        for (int y = 0; y < BLOCK_PIXELS; y++) {
+            for (int x = 0; x < BLOCK_PIXELS; x++) {
+                final int subblock = flip ? y / 2 : x / 2;
+                final int bit = x * BLOCK_PIXELS + y;
+                final int index = (int) (bits >>> (16 + bit) & 1) << 1 | (int) (bits >>> bit & 1);
+                final int modifier = PIXEL_MODIFIERS[tables[subblock]][index];
+                final int[] base = bases[subblock];
+                block[y * BLOCK_PIXELS + x] = 0xFF000000 | clamp(base[0] + modifier) << 16
+                        | clamp(base[1] + modifier) << 8 | clamp(base[2] + modifier);
+            }
+        }
+    }
+
+    /**
+     * Expands 4 bit color component.
+     * @param value 4 bit value.
+     * @return 8 bit value.
+     */
+    private static int expand4(final int value) {
+        return value << 4 | value;
+    }
+
+    /**
+     * Expands 5 bit color component.
+     * @param value 5 bit value.
+     * @return 8 bit value.
+     */
+    private static int expand5(final int value) {
+        return value << 3 | value >> 2;
+    }
+
+    /**
+     * Clamps color component.
+     * @param value color component.
+     * @return value from 0 to 255.
+     */
+    private static int clamp(final int value) {
+        return value < 0 ? 0 : (value > 255 ? 255 : value);
+    }
+
+    /**
+     * Writes big endian long.
+     * @param out output.
+     * @param offset output offset.
+     * @param value value.
+     */
+    private static void writeLong(final byte[] out, final int offset, final long value) {
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            out[offset + i] = (byte) (value >>> (56 - i * 8));
+        }
+    }
+
+    /**
+     * Reads big endian long.
+     * @param data input.
+     * @param offset input offset.
+     * @return value.
+     */
+    private static long readLong(final byte[] data, final int offset) {
+        long value = 0;
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            value = value << 8 | (data[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * Block encoder.
+     * Keeps scratch state of one block, so blocks are encoded without allocation.
+     */
+    private static class Encoder {
+        // Pixel components of subblock.
+        private final int[] mRed = new int[8];
+        private final int[] mGreen = new int[8];
+        private final int[] mBlue = new int[8];
+        // Block pixels of subblock.
+        private final int[] mPixels = new int[8];
+        // Quantized base colors of subblocks.
+        private final int[][] mBases = new int[2][3];
+        // Pixel indices of best table of subblock.
+        private final int[] mIndices = new int[8];
+        private final int[] mBestIndices = new int[8];
+        // Best table of last subblock.
+        private int mBestTable;
+
+        /**
+         * Encodes block.
+         * @param block 16 ARGB pixels row by row.
+         * @return block bits.
+         */
+        long encodeBlock(final int[] block) {
+            long bestBits = 0;
+            long bestError = Long.MAX_VALUE;
+            for (int flip = 0; flip < 2; flip++) {
+                for (int differential = 0; differential < 2; differential++) {
+                    if (!quantizeBases(block, flip == 1, differential == 1)) {
+                        continue;
+                    }
+                    long bits = (long) differential << 33 | (long) flip << 32;
+                    long error = 0;
+                    for (int subblock = 0; subblock < 2; subblock++) {
+                        collect(block, flip == 1, subblock);
+                        error+= findTable(mBases[subblock], differential == 1);
+                        bits|= (long) mBestTable << (subblock == 0 ? 37 : 34);
+                        for (int i = 0; i < 8; i++) {
+                            final int pixel = mPixels[i];
+                            final int bit = pixel % BLOCK_PIXELS * BLOCK_PIXELS + pixel / BLOCK_PIXELS;
+                            bits|= (long) (mBestIndices[i] >> 1) << (16 + bit)
+                                    | (long) (mBestIndices[i] & 1) << bit;
+                        }
+                    }
+                    if (error < bestError) {
+                        bestError = error;
+                        bestBits = bits | baseBits(differential == 1);
+                    }
+                }
+            }
+            return bestBits;
+        }
+
+        /**
+         * Quantizes average colors of subblocks to base colors.
+         * @param block block pixels.
+         * @param flip true for top and bottom subblocks.
+         * @param differential true for differential mode.
+         * @return false if base colors can not be stored in mode.
+         */
+        private boolean quantizeBases(final int[] block, final boolean flip, final boolean differential) {
+            for (int subblock = 0; subblock < 2; subblock++) {
+                collect(block, flip, subblock);
+                final int max = differential ? 31 : 15;
+                mBases[subblock][0] = quantize(mRed, max);
+                mBases[subblock][1] = quantize(mGreen, max);
+                mBases[subblock][2] = quantize(mBlue, max);
+            }
+            if (differential) {
+                for (int channel = 0; channel < 3; channel++) {
+                    final int delta = mBases[1][channel] - mBases[0][channel];
+                    if (delta < -4 || delta > 3) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Quantizes average of subblock component.
+         * @param values component values of 8 pixels.
+         * @param max max quantized value.
+         * @return rounded quantized average.
+         */
+        private int quantize(final int[] values, final int max) {
+            int sum = 0;
+            for (final int value : values) {
+                sum+= value;
+            }
+            return (sum * max + 4 * 255) / (8 * 255);
+        }
+
+        /**
+         * Gets bits of quantized base colors.
+         * @param differential true for differential mode.
+         * @return base color bits.
+         */
+        private long baseBits(final boolean differential) {
+            long bits = 0;
+            for (int channel = 0; channel < 3; channel++) {
+                final int shift = 59 - channel * 8;
+                if (differential) {
+                    bits|= (long) mBases[0][channel] << shift;
+                    bits|= (long) ((mBases[1][channel] - mBases[0][channel]) & 0x7) << (shift - 3);
+                } else {
+                    bits|= (long) mBases[0][channel] << (shift + 1);
+                    bits|= (long) mBases[1][channel] << (shift - 3);
+                }
+            }
+            return bits;
+        }
+
+        /**
+         * Finds modifier table with least error for collected subblock.
+         * @param base quantized base color.
+         * @param differential true for differential mode.
+         * @return squared error of best table.
+         */
+        private long findTable(final int[] base, final boolean differential) {
+            final int red = differential ? expand5(base[0]) : expand4(base[0]);
+            final int green = differential ? expand5(base[1]) : expand4(base[1]);
+            final int blue = differential ? expand5(base[2]) : expand4(base[2]);
+            long bestError = Long.MAX_VALUE;
+            for (int table = 0; table < PIXEL_MODIFIERS.length; table++) {
+                long error = 0;
+                for (int i = 0; i < 8 && error < bestError; i++) {
+                    int pixelError = Integer.MAX_VALUE;
+                    for (int index = 0; index < 4; index++) {
+                        final int modifier = PIXEL_MODIFIERS[table][index];
+                        final int dr = clamp(red + modifier) - mRed[i];
+                        final int dg = clamp(green + modifier) - mGreen[i];
+                        final int db = clamp(blue + modifier) - mBlue[i];
+                        final int indexError = dr * dr + dg * dg + db * db;
+                        if (indexError < pixelError) {
+                            pixelError = indexError;
+                            mIndices[i] = index;
+                        }
+                    }
+                    error+= pixelError;
+                }
+                if (error < bestError) {
+                    bestError = error;
+                    mBestTable = table;
+                    System.arraycopy(mIndices, 0, mBestIndices, 0, 8);
+                }
+            }
+            return bestError;
+        }
+
+        /**
+         * Collects pixels of subblock.
+         * @param block block pixels.
+         * @param flip true for top and bottom subblocks.
+         * @param subblock subblock number.
+         */
+        private void collect(final int[] block, final boolean flip, final int subblock) {
+            int i = 0;
+            for (int y = 0; y < BLOCK_PIXELS; y++) {
+                for (int x = 0; x < BLOCK_PIXELS; x++) {
+                    if ((flip ? y / 2 : x / 2) != subblock) {
+                        continue;
+                    }
+                    final int pixel = block[y * BLOCK_PIXELS + x];
+                    mPixels[i] = y * BLOCK_PIXELS + x;
+                    mRed[i] = pixel >> 16 & 0xFF;
+                    mGreen[i] = pixel >> 8 & 0xFF;
+                    mBlue[i] = pixel & 0xFF;
+                    i++;
+                }
+            }
+        }
+    }
+}
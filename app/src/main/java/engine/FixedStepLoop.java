@@ -0,0 +1,158 @@
+package engine;
+
+/**
+ * Fixed time step simulation loop.
+ * Accumulates elapsed time and runs simulation ticks of constant duration,
+ * so simulation speed does not depend on scheduler jitter.
+ */
+public class FixedStepLoop {
+    // Nanoseconds in second.
+    private static final long NANOS_IN_SECOND = 1000000000L;
+
+    // Simulation.
+    private final Simulation mSimulation;
+    // Time source.
+    private final TimeSource mTimeSource;
+    // Tick duration in nanoseconds.
+    private final long mStep;
+    // Max ticks run by one advance.
+    private final int mMaxCatchUpTicks;
+
+    // Time of last advance.
+    private long mLastTime;
+    // Not simulated time.
+    private long mAccumulator;
+    // Time the last tick corresponds to.
+    private volatile long mTickTime;
+    // True if loop was advanced at least once.
+    private boolean mIsStarted = false;
+    // Tick count.
+    private long mTickCount = 0;
+    // Count of ticks dropped because of catch up limit.
+    private long mDroppedTickCount = 0;
+
+    /**
+     * Fixed step loop constructor.
+     * @param simulation simulation to tick.
+     * @param tickRate ticks per second.
+     * @param maxCatchUpTicks max ticks run by one advance.
+     * @param timeSource time source.
+     */
+    public FixedStepLoop(final Simulation simulation, final int tickRate, final int maxCatchUpTicks,
+                         final TimeSource timeSource) {
+        mSimulation = simulation;
+        mStep = NANOS_IN_SECOND / tickRate;
+        mMaxCatchUpTicks = maxCatchUpTicks;
+        mTimeSource = timeSource;
+    }
+
+    /**
+     * Runs all simulation ticks that are due.
+     * @return count of ticks run.
+     */
+    public int advance() {
+        final long time = mTimeSource.nanoTime();
+        if (!mIsStarted) {
+            mIsStarted = true;
+            mLastTime = time;
+            mTickTime = time;
+        }
+        mAccumulator+= time - mLastTime;
+        mLastTime = time;
+
+        final long maxAccumulator = mStep * mMaxCatchUpTicks;
+        if (mAccumulator > maxAccumulator) {
+            mDroppedTickCount+= (mAccumulator - maxAccumulator) / mStep;
+            mAccumulator = maxAccumulator;
+        }
+
+        int ticks = 0;
+        while (mAccumulator >= mStep) {
+            mSimulation.tick();
+            mAccumulator-= mStep;
+            ticks++;
+        }
+        mTickCount+= ticks;
+        mTickTime = time - mAccumulator;
+        return ticks;
+    }
+
+    /**
+     * Gets time to next tick.
+     * @return time in nanoseconds.
+     */
+    public long getTimeToNextTick() {
+        return Math.max(0, mStep - mAccumulator);
+    }
+
+    /**
+     * Gets interpolation factor between previous and last tick for render time.
+     * Can be called from render thread.
+     * @param time render time in nanoseconds.
+     * @return interpolation factor from 0 to 1.
+     */
+    public float getAlpha(final long time) {
+        return getAlpha(time, mTickTime);
+    }
+
+    /**
+     * Gets interpolation factor between previous and given tick for render time.
+     * @param time render time in nanoseconds.
+     * @param tickTime time of tick.
+     * @return interpolation factor from 0 to 1.
+     */
+    public float getAlpha(final long time, final long tickTime) {
+        final float alpha = (float) (time - tickTime) / mStep;
+        return Math.max(0, Math.min(alpha, 1));
+    }
+
+    /**
+     * Gets time the last tick corresponds to.
+     * @return tick time in nanoseconds.
+     */
+    public long getTickTime() {
+        return mTickTime;
+    }
+
+    /**
+     * Gets interpolation factor for current time.
+     * @return interpolation factor from 0 to 1.
+     */
+    public float getAlpha() {
+        return getAlpha(mTimeSource.nanoTime());
+    }
+
+    /**
+     * Gets tick count.
+     * @return tick count.
+     */
+    public long getTickCount() {
+        return mTickCount;
+    }
+
+    /**
+     * Gets count of ticks dropped because of catch up limit.
+     * @return dropped tick count.
+     */
+    public long getDroppedTickCount() {
+        return mDroppedTickCount;
+    }
+
+    /**
+     * Gets tick duration.
+     * @return tick duration in nanoseconds.
+     */
+    public long getStep() {
+        return mStep;
+    }
+
+    /**
+     * Simulation interface.
+     */
+    public interface Simulation {
+        /**
+         * Makes one simulation step.
+         */
+        void tick();
+    }
+}
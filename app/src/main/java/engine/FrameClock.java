@@ -0,0 +1,59 @@
+package engine;
+
+/**
+ * Frame clock class.
+ * Reads monotonic time once per frame, so everything drawn in one frame sees the same time.
+ */
+public class FrameClock {
+    // Time source.
+    private final TimeSource mTimeSource;
+    // Time of current frame.
+    private long mTime = 0;
+    // Time between previous and current frame.
+    private long mDelta = 0;
+    // Frame count.
+    private long mFrameCount = 0;
+
+    /**
+     * Frame clock constructor.
+     * @param timeSource time source.
+     */
+    public FrameClock(final TimeSource timeSource) {
+        mTimeSource = timeSource;
+    }
+
+    /**
+     * Starts new frame.
+     * Must be called by render thread once per frame before drawing.
+     */
+    public void tick() {
+        final long time = mTimeSource.nanoTime();
+        mDelta = mFrameCount == 0 ? 0 : time - mTime;
+        mTime = time;
+        mFrameCount++;
+    }
+
+    /**
+     * Gets time of current frame.
+     * @return monotonic time in nanoseconds.
+     */
+    public long getTime() {
+        return mTime;
+    }
+
+    /**
+     * Gets time between previous and current frame.
+     * @return time in nanoseconds, 0 for first frame.
+     */
+    public long getDelta() {
+        return mDelta;
+    }
+
+    /**
+     * Gets frame count.
+     * @return count of ticks.
+     */
+    public long getFrameCount() {
+        return mFrameCount;
+    }
+}
@@ -0,0 +1,111 @@
+package engine;
+
+/**
+ * Frame pacer class.
+ * Caps frame rate of render thread and counts drawn frames per screen, so savings of
+ * render on demand are measurable. Frames that are not drawn are not counted.
+ */
+public class FramePacer {
+    // No screen.
+    public static final int NONE = -1;
+
+    // Nanoseconds per second.
+    private static final long SECOND = 1000000000L;
+
+    // Time source.
+    private final TimeSource mTimeSource;
+    // Start time of last frame.
+    private long mFrameTime = 0;
+    // Frame count.
+    private long mFrameCount = 0;
+    // Current screen.
+    private int mScreen = NONE;
+    // Time current screen is shown since.
+    private long mScreenTime = 0;
+    // Frames drawn by screen.
+    private final long[] mScreenFrameCounts;
+    // Time shown by screen in nanoseconds, without current visit.
+    private final long[] mScreenDurations;
+
+    /**
+     * Frame pacer constructor.
+     * @param screenCount count of screens, screens are numbered from 0.
+     * @param timeSource time source.
+     */
+    public FramePacer(final int screenCount, final TimeSource timeSource) {
+        mTimeSource = timeSource;
+        mScreenFrameCounts = new long[screenCount];
+        mScreenDurations = new long[screenCount];
+    }
+
+    /**
+     * Gets time to wait before next frame to keep frame rate under cap.
+     * @param frameCap max frames per second, 0 for no cap.
+     * @return time in nanoseconds, 0 if frame can start now.
+     */
+    public long getWaitTime(final int frameCap) {
+        if (frameCap <= 0 || mFrameCount == 0) {
+            return 0;
+        }
+        return Math.max(0, mFrameTime + SECOND / frameCap - mTimeSource.nanoTime());
+    }
+
+    /**
+     * Starts frame of screen.
+     * Must be called by render thread once per drawn frame.
+     * @param screen drawn screen.
+     * @return previous screen if screen is switched, otherwise NONE.
+     */
+    public int beginFrame(final int screen) {
+        final long time = mTimeSource.nanoTime();
+        final int previous = mScreen;
+        if (screen != previous) {
+            if (previous != NONE) {
+                mScreenDurations[previous]+= time - mScreenTime;
+            }
+            mScreen = screen;
+            mScreenTime = time;
+        }
+        mFrameTime = time;
+        mFrameCount++;
+        mScreenFrameCounts[screen]++;
+        return screen != previous ? previous : NONE;
+    }
+
+    /**
+     * Gets count of drawn frames.
+     * @return frame count.
+     */
+    public long getFrameCount() {
+        return mFrameCount;
+    }
+
+    /**
+     * Gets count of frames drawn by screen.
+     * @param screen screen.
+     * @return frame count.
+     */
+    public long getFrameCount(final int screen) {
+        return mScreenFrameCounts[screen];
+    }
+
+    /**
+     * Gets time screen was shown, including current visit.
+     * @param screen screen.
+     * @return time in nanoseconds.
+     */
+    public long getScreenDuration(final int screen) {
+        final long duration = mScreenDurations[screen];
+        return screen == mScreen ? duration + mTimeSource.nanoTime() - mScreenTime : duration;
+    }
+
+    /**
+     * Gets average frame rate of screen.
+     * @param screen screen.
+     * @return frames per second, 0 if screen was not shown.
+     */
+    public float getFrameRate(final int screen) {
+        final long duration = getScreenDuration(screen);
+        return duration == 0 ? 0 : (float) mScreenFrameCounts[screen] * SECOND / duration;
+    }
+}
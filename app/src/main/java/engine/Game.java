@@ -1,26 +1,20 @@
 package engine;
 
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.opengl.GLES20;
-import android.opengl.GLUtils;
+import android.util.Log;
 import android.view.MotionEvent;
 
-import java.nio.FloatBuffer;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
-
-import javax.microedition.khronos.opengles.GL10;
 
 /**
  * Game class.
+ * Game outlives GL context: when context is recreated, game state is kept and lost textures
+ * are restored, textures of drawn state first.
  */
 public class Game implements GameListener{
-    private static float mScaleFactorX = 1;
-    private static float mScaleFactorY = 1;
-    private static float mScreenWidth = 240;
-    private static float mScreenHeight = 320;
+    // Projection of surface.
+    private static final Projection mProjection = new Projection();
 
     private LoadingHandler mLoadingHandler;
     private SceneHolder mLoading;
@@ -34,39 +28,152 @@ public class Game implements GameListener{
     private SceneHolder.SceneHolderHandler mLevelHandler;
     private SceneHolder mLevel;
 
-    private List<TextureTemplate> mTexturesToLoad = new CopyOnWriteArrayList<>();
-    private int[] mTexturesToRemove;
+    // Queue of texture pages to upload.
+    private final UploadQueue mUploadQueue = new UploadQueue(Const.UPLOAD_BYTE_BUDGET,
+            Const.UPLOAD_TIME_BUDGET * 1000000L, TimeSource.SYSTEM);
+    // Cache of uploaded textures.
+    private final TextureCache mTextureCache = new TextureCache(Const.TEXTURE_CACHE_BUDGET);
+    // Engine task scheduler.
+    private final TaskScheduler mScheduler;
+    // Scope of game state loads.
+    private final TaskScheduler.Scope mScope;
+    // Loader of scene textures.
+    private final AssetLoader mAssetLoader;
+    // Preloader of next game state.
+    private final ScenePreloader mPreloader;
+    // Uploader of texture pages.
+    private final UploadQueue.Uploader mTextureUploader = new UploadQueue.Uploader() {
+        @Override
+        public int upload(final TextureAtlas.Page page) {
+            return mBackend.uploadTexture(page);
+        }
+    };
+    // Deleter of evicted textures.
+    private final TextureCache.TextureDeleter mTextureDeleter = new TextureCache.TextureDeleter() {
+        @Override
+        public void deleteTextures(final int[] textureIds) {
+            mBackend.deleteTextures(textureIds);
+        }
+    };
 
-    private boolean mIsStateChanged = true;
+    private volatile boolean mIsStateChanged = true;
     private int mState = Const.STATE_LOADING;
+    // State drawn by render thread.
+    private int mDrawState = Const.STATE_LOADING;
+
+    // Clock of drawn frames.
+    private final FrameClock mFrameClock = new FrameClock(TimeSource.SYSTEM);
 
     private Object mLock;
     private Context mContext;
+    // Render backend.
+    private final RenderBackend mBackend;
 
     private static int mLifeCount = Const.MAX_LIVES_COUNT;
     private static int mCoinCount = 0;
 
-    private GameThread mGameThread;
+    // Last game state load, guarded by mLock.
+    private TaskScheduler.Task mLoadTask;
+    // Restore of textures lost with GL context, guarded by mLock.
+    private TaskScheduler.Task mRestoreTask;
+    // Time GL context was recreated at, 0 if textures of drawn state are restored.
+    private long mRestoreStartTime = 0;
+    // Time from GL context recreation to first frame with restored textures in nanoseconds.
+    private long mRestoreLatency = 0;
+
     /**
      * Game constructor.
      * @param context application context.
      * @param lock semaphore lock.
+     * @param backend render backend.
+     * @param scheduler engine task scheduler.
      */
-    public Game(final Context context, final Object lock) {
+    public Game(final Context context, final Object lock, final RenderBackend backend,
+                final TaskScheduler scheduler) {
         mContext = context;
         mLock = lock;
+        mBackend = backend;
+        mScheduler = scheduler;
+        mScope = scheduler.createScope();
+        mAssetLoader = new AssetLoader(scheduler, mUploadQueue, mTextureCache);
+        mPreloader = new ScenePreloader(scheduler, new ScenePreloader.Preparer() {
+            @Override
+            public ScenePreloader.Prepared prepare(final int state) {
+                return new GameState(state, true);
+            }
+        }, Const.PRELOAD_BYTE_BUDGET, TimeSource.SYSTEM);
     }
 
     /**
      * Sets up game.
+     * Loads main menu when called first time, later calls keep game state.
      */
     public void setUpGame() {
-        mLoadingHandler = new LoadingHandler(mContext, this);
-        mLoading = new SceneHolder(mLoadingHandler);
-        mTexturesToLoad = mLoadingHandler.getTexturesToLoad();
-        mIsStateChanged = true;
-        mGameThread = new GameThread(Const.STATE_MAIN_MENU);
-        mGameThread.start();
+        synchronized (mLock) {
+            if (mLoading == null) {
+                mLoadingHandler = new LoadingHandler(mContext, this);
+                mLoading = new SceneHolder(mLoadingHandler, mAssetLoader, mScheduler);
+                mIsStateChanged = true;
+                loadState(Const.STATE_MAIN_MENU);
+            }
+        }
+    }
+
+    /**
+     * Restores game after GL context is recreated.
+     * Textures of atlases referenced by scenes are rebuilt and uploaded again, atlases of drawn
+     * state first. Textures of released atlases are dropped and loaded again when needed.
+     * Must be called by render thread after render backend is initialized.
+     */
+    public void restoreContext() {
+        mRestoreStartTime = TimeSource.SYSTEM.nanoTime();
+        final List<TextureAtlas> lost = mTextureCache.invalidate();
+        final List<TextureAtlas> atlases = new ArrayList<>(lost.size());
+        for (final SceneHolder holder : getDrawnHolders()) {
+            if (lost.remove(holder.getAtlas())) {
+                atlases.add(holder.getAtlas());
+            }
+        }
+        atlases.addAll(lost);
+        synchronized (mLock) {
+            if (mRestoreTask != null) {
+                mRestoreTask.cancel();
+            }
+            mRestoreTask = mScope.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (final TextureAtlas atlas : atlases) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            return;
+                        }
+                        mAssetLoader.restoreAtlas(atlas);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Gets time from last GL context recreation to first frame with restored textures.
+     * @return time in nanoseconds, 0 if context was not recreated.
+     */
+    public long getRestoreLatency() {
+        return mRestoreLatency;
+    }
+
+    /**
+     * Releases game.
+     * Cancels state loads and level simulation, scene textures stay in texture cache.
+     */
+    public void release() {
+        synchronized (mLock) {
+            mScope.cancel();
+        }
+        mPreloader.cancel();
+        releaseScenes();
+        if (mLoading != null) {
+            mLoading.release();
+        }
     }
 
     /**
@@ -75,7 +182,7 @@ public class Game implements GameListener{
      * @return openGL x.
      */
     public static float getXByScreenX(final float screenX) {
-        return screenX / mScreenWidth * 2 - 1;
+        return mProjection.toX(screenX);
     }
 
     /**
@@ -84,7 +191,7 @@ public class Game implements GameListener{
      * @return openGL y.
      */
     public static float getYByScreenY(final float screenY) {
-        return 1 - screenY / mScreenHeight * 2;
+        return mProjection.toY(screenY);
     }
 
     /**
@@ -92,7 +199,7 @@ public class Game implements GameListener{
      * @return screen width.
      */
     public static float getScreenWidth() {
-        return mScreenWidth;
+        return mProjection.getScreenWidth();
     }
 
     /**
@@ -100,7 +207,7 @@ public class Game implements GameListener{
      * @return screen height.
      */
     public static float getScreenHeight() {
-        return mScreenHeight;
+        return mProjection.getScreenHeight();
     }
 
     /**
@@ -108,7 +215,7 @@ public class Game implements GameListener{
      * @return screen x factor.
      */
     public static float getScreenXFactor() {
-        return mScaleFactorX;
+        return mProjection.getScaleX();
     }
 
     /**
@@ -116,7 +223,15 @@ public class Game implements GameListener{
      * @return screen y factor.
      */
     public static float getScreenYFactor() {
-        return mScaleFactorY;
+        return mProjection.getScaleY();
+    }
+
+    /**
+     * Gets projection of surface.
+     * @return projection.
+     */
+    public static Projection getProjection() {
+        return mProjection;
     }
 
     /**
@@ -153,90 +268,91 @@ public class Game implements GameListener{
 
     /**
      * Check game state.
-     * @param vertexData vertex buffer.
-     * @param textureCoordinates texture coordinates.
+     * Uploads queued textures within frame budget and deletes evicted textures.
      */
-    public void checkState(final FloatBuffer vertexData, final FloatBuffer textureCoordinates) {
+    public void checkState() {
+        Profiler.begin(Profiler.CHECK_STATE);
+        Profiler.begin(Profiler.TEXTURE_UPLOAD);
+        mUploadQueue.process(mTextureUploader);
+        mTextureCache.deleteEvicted(mTextureDeleter);
+        Profiler.end();
         if (mIsStateChanged) {
-            vertexData.clear();
-            textureCoordinates.clear();
-            switch (mState) {
-                case Const.STATE_MAIN_MENU:
-                    mMainMenu.putToBuffer(0, vertexData, textureCoordinates);
-                    break;
-                case Const.STATE_LEVEL:
-                    int pos = mLevel.putToBuffer(0, vertexData, textureCoordinates);
-                    mUpBar.putToBuffer(pos, vertexData, textureCoordinates);
-                    break;
-                case Const.STATE_LOADING:
-                    mLoading.putToBuffer(0, vertexData, textureCoordinates);
-                    break;
-                default:
-                    break;
-            }
-            if (mTexturesToRemove != null) {
-                GLES20.glDeleteTextures(mTexturesToRemove.length, mTexturesToRemove, 0);
-                mTexturesToRemove = null;
-            }
-
-            for (final TextureTemplate template : mTexturesToLoad) {
-                final int type = template.getType();
-                final String name = template.getName();
-                final Bitmap bmp = template.getBitmap();
-                final List<DrawableObject> owners = template.getOwners();
-                switch (type) {
-                    case TextureTemplate.ANIMATION_TEXTURE:
-                        final List<Integer> textures = new ArrayList<>();
-                        final int count = bmp.getWidth() / bmp.getHeight();
-                        for (int i = 0; i < count; i++) {
-                            final Bitmap resizedBitmap = Bitmap.createBitmap(
-                                    bmp, bmp.getHeight() * i, 0, bmp.getHeight(), bmp.getHeight(), null, false);
-                            final int textureId = loadTexture(resizedBitmap);
-                            resizedBitmap.recycle();
-                            textures.add(textureId);
-                        }
-                        for (final DrawableObject owner : owners) {
-                            owner.addAnimation(name, textures);
-                        }
-                        break;
-                    case TextureTemplate.SIMPLE_TEXTURE:
-                        final int textureId = loadTexture(bmp);
-                        for (final DrawableObject owner : owners) {
-                            owner.addTexture(name, textureId);
-                        }
-                        break;
-                }
-                bmp.recycle();
+            synchronized (mLock) {
+                mDrawState = mState;
+                mIsStateChanged = false;
             }
-            mTexturesToLoad.clear();
-
-            mIsStateChanged = false;
         }
+        Profiler.end();
     }
 
     /**
      * Draws game.
-     * @param matrixLocation matrix location.
-     * @param matrix model matrix.
+     * @param batch sprite batch.
      */
-    public void draw(final int matrixLocation, final float[] matrix) {
-        GLES20.glEnable(GL10.GL_BLEND);
-        GLES20.glBlendFunc(GL10.GL_ONE, GL10.GL_ONE_MINUS_SRC_ALPHA);
-        switch (mState) {
+    public void draw(final SpriteBatch batch) {
+        mBackend.setBlending(true);
+        mFrameClock.tick();
+        Profiler.begin(Profiler.BUFFER_FILL);
+        batch.begin();
+        switch (mDrawState) {
             case Const.STATE_MAIN_MENU:
-                mMainMenu.draw(matrixLocation, matrix);
+                mMainMenu.draw(batch, mFrameClock);
                 break;
             case Const.STATE_LEVEL:
-                mLevel.draw(matrixLocation, matrix);
-                mUpBar.draw(matrixLocation, matrix);
+                mLevel.draw(batch, mFrameClock);
+                mUpBar.draw(batch, mFrameClock);
                 break;
             case Const.STATE_LOADING:
-                mLoading.draw(matrixLocation, matrix);
+                mLoadingHandler.setProgress(mAssetLoader.getProgress());
+                mLoading.draw(batch, mFrameClock);
                 break;
             default:
                 break;
         }
-        GLES20.glDisable(GL10.GL_BLEND);
+        batch.end();
+        Profiler.end();
+        mBackend.setBlending(false);
+        if (mRestoreStartTime != 0 && isDrawnStateUploaded()) {
+            mRestoreLatency = mFrameClock.getTime() - mRestoreStartTime;
+            mRestoreStartTime = 0;
+            Log.i("Game", "State " + mDrawState + " is restored in " + mRestoreLatency / 1000000 + " ms");
+        }
+    }
+
+    /**
+     * Returns true if game needs next frame without render request.
+     * Loading, state change, texture uploads and active scenes need frames, static screen does not.
+     * Must be called by render thread after draw.
+     * @return true if game is active.
+     */
+    public boolean isActive() {
+        if (mIsStateChanged || !mUploadQueue.isEmpty()) {
+            return true;
+        }
+        switch (mDrawState) {
+            case Const.STATE_MAIN_MENU:
+                return mMainMenu.isActive();
+            case Const.STATE_LEVEL:
+                return mLevel.isActive() || mUpBar.isActive();
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Gets state drawn by render thread.
+     * @return drawn state.
+     */
+    public int getDrawState() {
+        return mDrawState;
+    }
+
+    /**
+     * Gets frame cap of drawn state.
+     * @return max frames per second, 0 for no cap.
+     */
+    public int getFrameCap() {
+        return mDrawState == Const.STATE_LEVEL ? Const.LEVEL_FRAME_CAP : Const.MENU_FRAME_CAP;
     }
 
     /**
@@ -259,39 +375,15 @@ public class Game implements GameListener{
 
     /**
      * Recalculates projection parameters.
+     * Scenes are not reloaded, square sprites and labels follow projection when they are drawn.
+     * Preloaded scenes are dropped, their textures are sized for previous screen size.
      * @param width screen width.
      * @param height screen height.
      */
     public void recalculateProjection(final int width, final int height) {
-        float ratio;
-        if (width > height) {
-            ratio = (float) width / height;
-            mScaleFactorX = 1;
-            mScaleFactorY = ratio;
-        } else {
-            ratio = (float) height / width;
-            mScaleFactorX = ratio;
-            mScaleFactorY = 1;
+        if (mProjection.setSize(width, height)) {
+            mPreloader.cancel();
         }
-        mScreenWidth = width;
-        mScreenHeight = height;
-    }
-
-    /**
-     * Load texture from bitmap.
-     * @param bitmap bitmap to load texture.
-     * @return texture id.
-     */
-    private int loadTexture(final Bitmap bitmap) {
-        final int[] texture = new int[1];
-        GLES20.glGenTextures(1, texture, 0);
-        GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
-        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, texture[0]);
-        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR);
-        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
-        GLUtils.texImage2D(GLES20.GL_TEXTURE_2D, 0, bitmap, 0);
-        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, 0);
-        return texture[0];
     }
 
     @Override
@@ -310,17 +402,14 @@ public class Game implements GameListener{
     @Override
     public void onReturnToMenu() {
         synchronized (mLock) {
-            mGameThread = new GameThread(Const.STATE_MAIN_MENU);
-            mGameThread.start();
+            loadState(Const.STATE_MAIN_MENU);
         }
     }
 
     @Override
     public void onStartButtonPressed() {
         synchronized (mLock) {
-            mTexturesToRemove = mMainMenuHandler.getScene().getTextures();
-            mGameThread = new GameThread(Const.STATE_LEVEL);
-            mGameThread.start();
+            loadState(Const.STATE_LEVEL);
         }
     }
 
@@ -334,78 +423,233 @@ public class Game implements GameListener{
 
     }
 
-    private class GameThread extends Thread {
-        private int mStateToLoad = Const.STATE_LOADING;
-        private long mStartTime;
-        public GameThread (final int state) {
-            mState = Const.STATE_LOADING;
-            mIsStateChanged = true;
-            mStateToLoad = state;
-            mStartTime = System.currentTimeMillis();
+    /**
+     * Starts loading of game state.
+     * Cancels previous load, new load starts after previous one finishes.
+     * Must be called with mLock held.
+     * @param state state to load.
+     */
+    private void loadState(final int state) {
+        mPreloader.beginTransition();
+        mState = Const.STATE_LOADING;
+        mIsStateChanged = true;
+        mAssetLoader.reset();
+        final TaskScheduler.Task previous = mLoadTask;
+        if (previous != null) {
+            previous.cancel();
         }
-        @Override
-        public void run() {
-            int size = 0;
-            int[] mainMenuTextures = null;
-            if (mMainMenuHandler != null) {
-                mainMenuTextures = mMainMenuHandler.getScene().getTextures();
-                size+= mainMenuTextures.length;
-            }
-            int[] upBarTextures = null;
-            if (mUpBarHandler != null) {
-                upBarTextures = mUpBarHandler.getScene().getTextures();
-                size+= upBarTextures.length;
-            }
-            int[] levelTextures = null;
-            if (mLevelHandler != null) {
-                levelTextures =  mLevelHandler.getScene().getTextures();
-                size+= levelTextures.length;
-            }
+        mLoadTask = mScope.submit(new StateLoader(state, previous));
+    }
 
-            int c = 0;
-            mTexturesToRemove = new int[size];
-            if (mainMenuTextures != null) {
-                for (int i = 0; i < mainMenuTextures.length; i++) {
-                    mTexturesToRemove[c++] = mainMenuTextures[i];
-                }
-            }
-            if (upBarTextures != null) {
-                for (int i = 0; i < upBarTextures.length; i++) {
-                    mTexturesToRemove[c++] = upBarTextures[i];
-                }
+    /**
+     * Gets scene holders of drawn state.
+     * Must be called by render thread.
+     * @return drawn scene holders.
+     */
+    private SceneHolder[] getDrawnHolders() {
+        switch (mDrawState) {
+            case Const.STATE_MAIN_MENU:
+                return new SceneHolder[] {mMainMenu};
+            case Const.STATE_LEVEL:
+                return new SceneHolder[] {mLevel, mUpBar};
+            case Const.STATE_LOADING:
+                return new SceneHolder[] {mLoading};
+            default:
+                return new SceneHolder[0];
+        }
+    }
+
+    /**
+     * Returns true if textures of drawn state are uploaded.
+     * Must be called by render thread.
+     * @return true if drawn state is uploaded.
+     */
+    private boolean isDrawnStateUploaded() {
+        for (final SceneHolder holder : getDrawnHolders()) {
+            if (!holder.getAtlas().isUploaded()) {
+                return false;
             }
-            if (levelTextures != null) {
-                for (int i = 0; i < levelTextures.length; i++) {
-                    mTexturesToRemove[c++] = levelTextures[i];
+        }
+        return true;
+    }
+
+    /**
+     * Releases scene holders of menu and level.
+     */
+    private void releaseScenes() {
+        if (mMainMenu != null) {
+            mMainMenu.release();
+        }
+        if (mUpBar != null) {
+            mUpBar.release();
+        }
+        if (mLevel != null) {
+            mLevel.release();
+        }
+    }
+
+    /**
+     * Gets state that likely follows given state.
+     * @param state current state.
+     * @return state to preload.
+     */
+    private static int getNextState(final int state) {
+        return state == Const.STATE_MAIN_MENU ? Const.STATE_LEVEL : Const.STATE_MAIN_MENU;
+    }
+
+    /**
+     * Scene holders of one game state.
+     */
+    private class GameState implements ScenePreloader.Prepared {
+        // State.
+        private final int mGameState;
+        // Scene holders of state, null if state has no such scene.
+        private MainMenuHandler mMainMenuHandler;
+        private SceneHolder mMainMenu;
+        private UpBarHandler mUpBarHandler;
+        private SceneHolder mUpBar;
+        private SceneHolder.SceneHolderHandler mLevelHandler;
+        private SceneHolder mLevel;
+
+        /**
+         * Game state constructor.
+         * Creates scene holders, created holders are released if creation fails.
+         * @param state state.
+         * @param isPreload true to prepare scene textures without publishing them.
+         */
+        GameState(final int state, final boolean isPreload) {
+            mGameState = state;
+            try {
+                switch (state) {
+                    case Const.STATE_MAIN_MENU:
+                        mMainMenuHandler = new MainMenuHandler(mContext, Game.this);
+                        mMainMenu = createHolder(mMainMenuHandler, isPreload);
+                        break;
+                    case Const.STATE_LEVEL:
+                        mUpBarHandler = new UpBarHandler(mContext, Game.this);
+                        mUpBar = createHolder(mUpBarHandler, isPreload);
+                        mLevelHandler = new LevelHandler(mContext, Game.this);
+                        mLevel = createHolder(mLevelHandler, isPreload);
+                        break;
+                    default:
+                        break;
                 }
+            } catch (RuntimeException e) {
+                release();
+                throw e;
             }
+        }
 
-            switch (mStateToLoad) {
+        /**
+         * Shows state: publishes scene textures, replaces scene holders of game and starts level.
+         */
+        void show() {
+            switch (mGameState) {
                 case Const.STATE_MAIN_MENU:
-                    mMainMenuHandler = new MainMenuHandler(mContext, Game.this);
-                    mMainMenu = new SceneHolder(mMainMenuHandler);
-                    mTexturesToLoad = mMainMenuHandler.getTexturesToLoad();
-                    if (mLevel != null) {
-                        mLevel.stopLevelThread();
-                    }
+                    mMainMenu.publish();
+                    Game.this.mMainMenuHandler = mMainMenuHandler;
+                    Game.this.mMainMenu = mMainMenu;
                     break;
                 case Const.STATE_LEVEL:
-                    mUpBarHandler = new UpBarHandler(mContext, Game.this);
-                    mUpBar = new SceneHolder(mUpBarHandler);
-                    mLevelHandler = new LevelHandler(mContext, Game.this);
-                    mLevel = new SceneHolder(mLevelHandler);
-                    mTexturesToLoad = mLevelHandler.getTexturesToLoad();
-                    mTexturesToLoad.addAll(mUpBarHandler.getTexturesToLoad());
+                    mUpBar.publish();
+                    mLevel.publish();
+                    Game.this.mUpBarHandler = mUpBarHandler;
+                    Game.this.mUpBar = mUpBar;
+                    Game.this.mLevelHandler = mLevelHandler;
+                    Game.this.mLevel = mLevel;
                     mLevel.startLevelThread();
                     break;
                 default:
                     break;
             }
-            while (System.currentTimeMillis() - mStartTime < 1000) {}
+        }
+
+        @Override
+        public long getByteCount() {
+            long byteCount = 0;
+            for (final SceneHolder holder : new SceneHolder[] {mMainMenu, mUpBar, mLevel}) {
+                if (holder != null) {
+                    byteCount+= holder.getPreparedByteCount();
+                }
+            }
+            return byteCount;
+        }
+
+        @Override
+        public void release() {
+            for (final SceneHolder holder : new SceneHolder[] {mMainMenu, mUpBar, mLevel}) {
+                if (holder != null) {
+                    holder.release();
+                }
+            }
+        }
+
+        /**
+         * Creates scene holder.
+         * @param handler scene holder handler.
+         * @param isPreload true to prepare scene textures without publishing them.
+         * @return scene holder.
+         */
+        private SceneHolder createHolder(final SceneHolder.SceneHolderHandler handler, final boolean isPreload) {
+            return isPreload ? SceneHolder.prepare(handler, mAssetLoader, mScheduler)
+                    : new SceneHolder(handler, mAssetLoader, mScheduler);
+        }
+    }
+
+    /**
+     * Loader of game state, runs on scheduler worker.
+     * Takes preloaded state if it is ready, then preloads the likely next state.
+     */
+    private class StateLoader implements Runnable {
+        // State to load.
+        private final int mStateToLoad;
+        // Previous load, may be null.
+        private final TaskScheduler.Task mPrevious;
+
+        /**
+         * State loader constructor.
+         * @param state state to load.
+         * @param previous previous load, may be null.
+         */
+        StateLoader(final int state, final TaskScheduler.Task previous) {
+            mStateToLoad = state;
+            mPrevious = previous;
+        }
+
+        @Override
+        public void run() {
+            final ScenePreloader.Prepared preloaded;
+            try {
+                if (mPrevious != null) {
+                    mPrevious.join();
+                }
+                preloaded = mPreloader.take(mStateToLoad);
+            } catch (InterruptedException e) {
+                return;
+            }
+            Profiler.begin(Profiler.LOAD_STATE);
+            releaseScenes();
+            final GameState state = preloaded != null ? (GameState) preloaded : new GameState(mStateToLoad, false);
+            state.show();
+            Profiler.end();
+            try {
+                mUploadQueue.awaitEmpty();
+            } catch (InterruptedException e) {
+                return;
+            }
             synchronized (mLock) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
                 mState = mStateToLoad;
                 mIsStateChanged = true;
+                final long latency = mPreloader.endTransition();
+                Log.i("Game", "State " + mStateToLoad + " is shown in " + latency / 1000000 + " ms, "
+                        + (mPreloader.isTransitionPreloaded() ? "preloaded" : "loaded") + ", average "
+                        + mPreloader.getAverageTransitionLatency() / 1000000 + " ms, preload hits "
+                        + mPreloader.getHitCount() + ", misses " + mPreloader.getMissCount());
             }
+            mPreloader.preload(getNextState(mStateToLoad));
         }
     }
 }
@@ -0,0 +1,185 @@
+package engine;
+
+import android.opengl.ETC1;
+import android.opengl.GLES20;
+import android.opengl.GLUtils;
+import android.util.SparseIntArray;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * OpenGL ES 2.0 render backend.
+ * Compressed textures with alpha plane get a second texture that is bound to texture unit 1
+ * together with the color texture.
+ */
+public class GlesRenderBackend implements RenderBackend {
+    // Shader program.
+    private int mProgramId;
+    // Location of transform matrix uniform.
+    private int mMatrixLocation;
+    // Location of alpha plane switch uniform.
+    private int mAlphaPlaneLocation;
+    // Bound texture.
+    private int mBoundTexture = 0;
+    // Bound alpha plane texture.
+    private int mBoundAlpha = 0;
+    // Alpha plane textures by color texture.
+    private final SparseIntArray mAlphaPlanes = new SparseIntArray();
+    // Client side vertex data.
+    private FloatBuffer mVertexData;
+
+    @Override
+    public void init(final FloatBuffer vertexData, final ShortBuffer indices) {
+        mVertexData = vertexData;
+        GLES20.glClearColor(1f, 1f, 1f, 1f);
+        final int vertexShaderId = Shader.createShader(GLES20.GL_VERTEX_SHADER, Shader.VERTEX_SHADER);
+        final int fragmentShaderId = Shader.createShader(GLES20.GL_FRAGMENT_SHADER, Shader.FRAGMENT_SHADER);
+        mProgramId = Shader.createProgram(vertexShaderId, fragmentShaderId);
+        GLES20.glUseProgram(mProgramId);
+
+        final int positionLocation = GLES20.glGetAttribLocation(mProgramId, "a_Position");
+        final int textureLocation = GLES20.glGetAttribLocation(mProgramId, "a_Texture");
+        final int textureUnitLocation = GLES20.glGetUniformLocation(mProgramId, "u_TextureUnit");
+        final int alphaUnitLocation = GLES20.glGetUniformLocation(mProgramId, "u_AlphaUnit");
+        mAlphaPlaneLocation = GLES20.glGetUniformLocation(mProgramId, "u_AlphaPlane");
+        mMatrixLocation = GLES20.glGetUniformLocation(mProgramId, "u_Matrix");
+
+        final int[] buffers = new int[2];
+        GLES20.glGenBuffers(2, buffers, 0);
+        vertexData.position(0);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, buffers[0]);
+        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, vertexData.capacity() * 4, vertexData,
+                GLES20.GL_DYNAMIC_DRAW);
+        indices.position(0);
+        GLES20.glBindBuffer(GLES20.GL_ELEMENT_ARRAY_BUFFER, buffers[1]);
+        GLES20.glBufferData(GLES20.GL_ELEMENT_ARRAY_BUFFER, indices.limit() * 2, indices,
+                GLES20.GL_STATIC_DRAW);
+
+        final int stride = SpriteBatch.VERTEX_SIZE * 4;
+        GLES20.glVertexAttribPointer(positionLocation, 2, GLES20.GL_FLOAT, false, stride, 0);
+        GLES20.glEnableVertexAttribArray(positionLocation);
+        GLES20.glVertexAttribPointer(textureLocation, 2, GLES20.GL_FLOAT, false, stride,
+                SpriteBatch.TEXTURE_OFFSET * 4);
+        GLES20.glEnableVertexAttribArray(textureLocation);
+        GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
+        GLES20.glUniform1i(textureUnitLocation, 0);
+        GLES20.glUniform1i(alphaUnitLocation, 1);
+        GLES20.glUniform1f(mAlphaPlaneLocation, 0);
+        mBoundTexture = 0;
+        mBoundAlpha = 0;
+        mAlphaPlanes.clear();
+    }
+
+    @Override
+    public void updateVertices(final int offset, final int count) {
+        mVertexData.position(offset);
+        GLES20.glBufferSubData(GLES20.GL_ARRAY_BUFFER, offset * 4, count * 4, mVertexData);
+    }
+
+    @Override
+    public void setViewport(final int width, final int height) {
+        GLES20.glViewport(0, 0, width, height);
+    }
+
+    @Override
+    public void clear() {
+        GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT);
+    }
+
+    @Override
+    public void setBlending(final boolean enabled) {
+        if (enabled) {
+            GLES20.glEnable(GLES20.GL_BLEND);
+            GLES20.glBlendFunc(GLES20.GL_ONE, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+        } else {
+            GLES20.glDisable(GLES20.GL_BLEND);
+        }
+    }
+
+    @Override
+    public int uploadTexture(final TextureAtlas.Page page) {
+        final CompressedTexture compressed = page.getCompressed();
+        final int texture = createTexture();
+        if (compressed == null) {
+            GLUtils.texImage2D(GLES20.GL_TEXTURE_2D, 0, page.getBitmap(), 0);
+        } else {
+            uploadPlane(compressed, compressed.getColor());
+            if (compressed.getAlpha() != null) {
+                final int alpha = createTexture();
+                uploadPlane(compressed, compressed.getAlpha());
+                mAlphaPlanes.put(texture, alpha);
+            }
+        }
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, 0);
+        mBoundTexture = 0;
+        return texture;
+    }
+
+    @Override
+    public void deleteTextures(final int[] textureIds) {
+        GLES20.glDeleteTextures(textureIds.length, textureIds, 0);
+        for (final int texture : textureIds) {
+            final int alpha = mAlphaPlanes.get(texture, 0);
+            if (alpha != 0) {
+                GLES20.glDeleteTextures(1, new int[] {alpha}, 0);
+                mAlphaPlanes.delete(texture);
+            }
+        }
+        mBoundTexture = 0;
+        mBoundAlpha = 0;
+    }
+
+    @Override
+    public void setMatrix(final float[] matrix) {
+        GLES20.glUniformMatrix4fv(mMatrixLocation, 1, false, matrix, 0);
+    }
+
+    @Override
+    public void bindTexture(final int texture) {
+        if (texture != mBoundTexture) {
+            GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, texture);
+            mBoundTexture = texture;
+            final int alpha = mAlphaPlanes.get(texture, 0);
+            if (alpha != mBoundAlpha) {
+                GLES20.glActiveTexture(GLES20.GL_TEXTURE1);
+                GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, alpha);
+                GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
+                GLES20.glUniform1f(mAlphaPlaneLocation, alpha != 0 ? 1 : 0);
+                mBoundAlpha = alpha;
+            }
+        }
+    }
+
+    @Override
+    public void drawTriangles(final int firstIndex, final int indexCount) {
+        GLES20.glDrawElements(GLES20.GL_TRIANGLES, indexCount, GLES20.GL_UNSIGNED_SHORT, firstIndex * 2);
+    }
+
+    /**
+     * Creates texture with linear filter and clamped edges and binds it to texture unit 0.
+     * @return texture id.
+     */
+    private int createTexture() {
+        final int[] texture = new int[1];
+        GLES20.glGenTextures(1, texture, 0);
+        GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, texture[0]);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE);
+        return texture[0];
+    }
+
+    /**
+     * Uploads ETC1 plane to bound texture.
+     * @param compressed compressed texture.
+     * @param plane ETC1 plane.
+     */
+    private static void uploadPlane(final CompressedTexture compressed, final ByteBuffer plane) {
+        GLES20.glCompressedTexImage2D(GLES20.GL_TEXTURE_2D, 0, ETC1.ETC1_RGB8_OES, compressed.getWidth(),
+                compressed.getHeight(), 0, plane.remaining(), plane);
+    }
+}
@@ -0,0 +1,70 @@
+package engine;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+/**
+ * Glyph sheet request class.
+ * Measures glyphs of a paint and rasterises them into a glyph sheet of a bitmap font.
+ */
+public class GlyphSheetRequest extends BitmapRequest {
+    // Printable ASCII chars.
+    public static final String ASCII;
+    static {
+        final StringBuilder characters = new StringBuilder();
+        for (char c = ' '; c <= '~'; c++) {
+            characters.append(c);
+        }
+        ASCII = characters.toString();
+    }
+
+    // Paint of glyphs.
+    private final Paint mPaint;
+    // Font of glyph sheet.
+    private final BitmapFont mFont;
+    // Cache key.
+    private final String mKey;
+
+    /**
+     * Glyph sheet request constructor.
+     * @param characters glyph chars.
+     * @param paint paint of glyphs, must not change later.
+     */
+    public GlyphSheetRequest(final String characters, final Paint paint) {
+        super(null, 0);
+        mPaint = paint;
+        final float[] advances = new float[characters.length()];
+        paint.getTextWidths(characters, advances);
+        final Paint.FontMetricsInt metrics = paint.getFontMetricsInt();
+        mFont = new BitmapFont(characters, advances, metrics.descent - metrics.ascent);
+        mKey = "glyphs:" + characters.hashCode() + "@" + paint.getTextSize() + "#" + paint.getColor()
+                + (paint.isFakeBoldText() ? "b" : "");
+    }
+
+    /**
+     * Gets font of glyph sheet.
+     * @return bitmap font.
+     */
+    public BitmapFont getFont() {
+        return mFont;
+    }
+
+    @Override
+    public String getKey() {
+        return mKey;
+    }
+
+    @Override
+    public Bitmap decode() {
+        final Bitmap bitmap = Bitmap.createBitmap(mFont.getSheetWidth(), mFont.getSheetHeight(),
+                Bitmap.Config.ARGB_8888);
+        final Canvas canvas = new Canvas(bitmap);
+        final int ascent = -mPaint.getFontMetricsInt().ascent;
+        final String characters = mFont.getCharacters();
+        for (int i = 0; i < characters.length(); i++) {
+            canvas.drawText(characters, i, i + 1, mFont.getCellX(i), mFont.getCellY(i) + ascent, mPaint);
+        }
+        return bitmap;
+    }
+}
@@ -0,0 +1,170 @@
+package engine;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Headless render backend.
+ * Records render calls into counters instead of drawing, so render path can be measured
+ * and tested on a plain JVM.
+ */
+public class HeadlessRenderBackend implements RenderBackend {
+    // Bound texture.
+    private int mBoundTexture = 0;
+    // Next texture id.
+    private int mNextTexture = 1;
+    // Count of resident textures.
+    private int mTextureCount = 0;
+
+    // Counters.
+    private long mFrameCount = 0;
+    private long mDrawCallCount = 0;
+    private long mVertexCount = 0;
+    private long mTextureBindCount = 0;
+    private long mUniformUploadCount = 0;
+    private long mBufferBytes = 0;
+    private long mTextureUploadCount = 0;
+    private long mTextureUploadBytes = 0;
+
+    @Override
+    public void init(final FloatBuffer vertexData, final ShortBuffer indices) {
+        mBoundTexture = 0;
+    }
+
+    @Override
+    public void updateVertices(final int offset, final int count) {
+        mBufferBytes+= count * 4;
+    }
+
+    @Override
+    public void setViewport(final int width, final int height) {
+    }
+
+    @Override
+    public void clear() {
+        mFrameCount++;
+    }
+
+    @Override
+    public void setBlending(final boolean enabled) {
+    }
+
+    @Override
+    public int uploadTexture(final TextureAtlas.Page page) {
+        mTextureUploadCount++;
+        mTextureUploadBytes+= page.getByteCount();
+        mTextureCount++;
+        return mNextTexture++;
+    }
+
+    @Override
+    public void deleteTextures(final int[] textureIds) {
+        mTextureCount-= textureIds.length;
+        mBoundTexture = 0;
+    }
+
+    @Override
+    public void setMatrix(final float[] matrix) {
+        mUniformUploadCount++;
+    }
+
+    @Override
+    public void bindTexture(final int texture) {
+        if (texture != mBoundTexture) {
+            mTextureBindCount++;
+            mBoundTexture = texture;
+        }
+    }
+
+    @Override
+    public void drawTriangles(final int firstIndex, final int indexCount) {
+        mDrawCallCount++;
+        mVertexCount+= indexCount;
+    }
+
+    /**
+     * Resets counters.
+     */
+    public void resetCounters() {
+        mFrameCount = 0;
+        mDrawCallCount = 0;
+        mVertexCount = 0;
+        mTextureBindCount = 0;
+        mUniformUploadCount = 0;
+        mBufferBytes = 0;
+        mTextureUploadCount = 0;
+        mTextureUploadBytes = 0;
+    }
+
+    /**
+     * Gets count of cleared frames.
+     * @return frame count.
+     */
+    public long getFrameCount() {
+        return mFrameCount;
+    }
+
+    /**
+     * Gets count of draw calls.
+     * @return draw call count.
+     */
+    public long getDrawCallCount() {
+        return mDrawCallCount;
+    }
+
+    /**
+     * Gets count of drawn vertices, counted by indices.
+     * @return vertex count.
+     */
+    public long getVertexCount() {
+        return mVertexCount;
+    }
+
+    /**
+     * Gets count of texture binds.
+     * @return texture bind count.
+     */
+    public long getTextureBindCount() {
+        return mTextureBindCount;
+    }
+
+    /**
+     * Gets count of uniform uploads.
+     * @return uniform upload count.
+     */
+    public long getUniformUploadCount() {
+        return mUniformUploadCount;
+    }
+
+    /**
+     * Gets bytes of vertex data uploaded to GPU buffer.
+     * @return buffer bytes.
+     */
+    public long getBufferBytes() {
+        return mBufferBytes;
+    }
+
+    /**
+     * Gets count of texture uploads.
+     * @return texture upload count.
+     */
+    public long getTextureUploadCount() {
+        return mTextureUploadCount;
+    }
+
+    /**
+     * Gets bytes of uploaded textures.
+     * @return texture upload bytes.
+     */
+    public long getTextureUploadBytes() {
+        return mTextureUploadBytes;
+    }
+
+    /**
+     * Gets count of resident textures.
+     * @return texture count.
+     */
+    public int getTextureCount() {
+        return mTextureCount;
+    }
+}
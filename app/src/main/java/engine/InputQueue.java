@@ -0,0 +1,173 @@
+package engine;
+
+/**
+ * Input queue class.
+ * Lock-free single producer single consumer ring buffer of touch records.
+ * UI thread offers records, simulation drains them at the start of a tick.
+ * Records live in preallocated parallel arrays, so no input allocates.
+ */
+public class InputQueue {
+    // Input actions.
+    public static final int ACTION_DOWN = 0;
+    public static final int ACTION_UP = 1;
+    public static final int ACTION_MOVE = 2;
+
+    // Capacity, power of two.
+    private final int mCapacity;
+    // Index mask.
+    private final int mMask;
+    // Time source of drain time.
+    private final TimeSource mTimeSource;
+
+    // Records.
+    private final int[] mAction;
+    private final int[] mPointerId;
+    private final float[] mX;
+    private final float[] mY;
+    private final long[] mTime;
+
+    // Count of written records, written by producer only.
+    private volatile long mWritten = 0;
+    // Count of read records, written by consumer only.
+    private volatile long mRead = 0;
+    // Count of records dropped because queue was full, written by producer only.
+    private volatile long mDroppedCount = 0;
+
+    // Latency statistics, written by consumer only.
+    private volatile long mLatencyCount = 0;
+    private volatile long mTotalLatency = 0;
+    private volatile long mMaxLatency = 0;
+
+    /**
+     * Input queue constructor.
+     * @param capacity min record capacity.
+     * @param timeSource time source of event timestamps.
+     */
+    public InputQueue(final int capacity, final TimeSource timeSource) {
+        int size = 1;
+        while (size < capacity) {
+            size<<= 1;
+        }
+        mCapacity = size;
+        mMask = size - 1;
+        mTimeSource = timeSource;
+        mAction = new int[size];
+        mPointerId = new int[size];
+        mX = new float[size];
+        mY = new float[size];
+        mTime = new long[size];
+    }
+
+    /**
+     * Adds record.
+     * Must be called by producer thread.
+     * @param action input action.
+     * @param pointerId pointer id.
+     * @param x GL x.
+     * @param y GL y.
+     * @param time event time in nanoseconds of time source.
+     * @return false if queue is full and record is dropped.
+     */
+    public boolean offer(final int action, final int pointerId, final float x, final float y, final long time) {
+        final long written = mWritten;
+        if (written - mRead == mCapacity) {
+            mDroppedCount++;
+            return false;
+        }
+        final int i = (int) written & mMask;
+        mAction[i] = action;
+        mPointerId[i] = pointerId;
+        mX[i] = x;
+        mY[i] = y;
+        mTime[i] = time;
+        mWritten = written + 1;
+        return true;
+    }
+
+    /**
+     * Passes all queued records to listener in order.
+     * Must be called by consumer thread.
+     * @param listener input listener.
+     * @return count of drained records.
+     */
+    public int drain(final InputListener listener) {
+        final long written = mWritten;
+        long read = mRead;
+        if (read == written) {
+            return 0;
+        }
+        final long now = mTimeSource.nanoTime();
+        long totalLatency = mTotalLatency;
+        long maxLatency = mMaxLatency;
+        final int count = (int) (written - read);
+        while (read < written) {
+            final int i = (int) read & mMask;
+            final long latency = now - mTime[i];
+            totalLatency+= latency;
+            maxLatency = Math.max(maxLatency, latency);
+            listener.onInput(mAction[i], mPointerId[i], mX[i], mY[i], mTime[i]);
+            read++;
+            mRead = read;
+        }
+        mTotalLatency = totalLatency;
+        mMaxLatency = maxLatency;
+        mLatencyCount+= count;
+        return count;
+    }
+
+    /**
+     * Returns true if queue has no records.
+     * @return true if queue is empty.
+     */
+    public boolean isEmpty() {
+        return mRead == mWritten;
+    }
+
+    /**
+     * Gets count of dropped records.
+     * @return dropped count.
+     */
+    public long getDroppedCount() {
+        return mDroppedCount;
+    }
+
+    /**
+     * Gets count of drained records.
+     * @return drained count.
+     */
+    public long getDrainedCount() {
+        return mLatencyCount;
+    }
+
+    /**
+     * Gets average time from event to its drain.
+     * @return latency in nanoseconds.
+     */
+    public long getAverageLatency() {
+        final long count = mLatencyCount;
+        return count == 0 ? 0 : mTotalLatency / count;
+    }
+
+    /**
+     * Gets max time from event to its drain.
+     * @return latency in nanoseconds.
+     */
+    public long getMaxLatency() {
+        return mMaxLatency;
+    }
+
+    /**
+     * Input listener.
+     */
+    public interface InputListener {
+        /**
+         * Applies input record.
+         * @param action input action.
+         * @param pointerId pointer id.
+         * @param x GL x.
+         * @param y GL y.
+         * @param time event time in nanoseconds.
+         */
+        void onInput(final int action, final int pointerId, final float x, final float y, final long time);
+    }
+}
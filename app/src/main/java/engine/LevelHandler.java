@@ -1,11 +1,6 @@
 package engine;
 
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.view.MotionEvent;
-
-import com.flappyfishgame.R;
 
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -16,11 +11,14 @@ public class LevelHandler implements SceneHolder.SceneHolderHandler {
     private DrawableObject mPenguinRed;
     private GameListener mLevelListener;
     private Context mContext;
-    private boolean mGameIsBroken = false;
+    // True if level simulation is stopped, set by loading thread.
+    private volatile boolean mGameIsBroken = false;
     private float mFishX = -0.5f;
     private float mFishY = 0;
     private boolean mIsScreenTouched = false;
     private boolean mIsFirstTouched = false;
+    // Rotated fish position.
+    private final float[] mRotated = new float[2];
 
     private List<TextureTemplate> mTexturesToLoad = new CopyOnWriteArrayList<>();
 
@@ -35,56 +33,65 @@ public class LevelHandler implements SceneHolder.SceneHolderHandler {
     }
 
     @Override
-    public void processBeforeDraw(final int matrixLocation, final float[] matrix) {
+    public void processBeforeDraw(final SpriteBatch batch, final FrameClock clock) {
     }
 
     @Override
-    public void processAfterDraw(final int matrixLocation, final float[] matrix) {
+    public void processAfterDraw(final SpriteBatch batch) {
     }
 
     @Override
-    public void processTouch(final MotionEvent e) {
-        if (e.getAction() == MotionEvent.ACTION_DOWN) {
+    public void processTouch(final int action, final int pointerId, final float x, final float y, final long time) {
+        if (action == InputQueue.ACTION_DOWN) {
             mIsFirstTouched = true;
             mIsScreenTouched = true;
-            mPenguinRed.animateLoop(Const.DRAG_ANIMATION);
+            mPenguinRed.animateLoop(Const.DRAG_ANIMATION_ID);
             SoundPlayer.playWaterBubblesSound(mContext);
-        } else if (e.getAction() == MotionEvent.ACTION_UP) {
+        } else if (action == InputQueue.ACTION_UP) {
             mIsScreenTouched = false;
-            mPenguinRed.animateLoop(Const.NORMAL_ANIMATION_STATE);
+            mPenguinRed.animateLoop(Const.NORMAL_ANIMATION_STATE_ID);
         }
     }
 
+    /**
+     * Rotates point around rotation center.
+     * @param x point x.
+     * @param y point y.
+     * @param angle angle in degrees.
+     * @param result array for rotated x and y.
+     */
+    static void rotate(final float x, final float y, final float angle, final float[] result) {
+        final float cos = (float) Math.cos(angle * Const.ANGLE_FACTOR);
+        final float sin = (float) Math.sin(angle * Const.ANGLE_FACTOR);
+        result[0] = Const.CENTER_X + (x - Const.CENTER_X) * cos - (y - Const.CENTER_Y) * sin;
+        result[1] = Const.CENTER_Y + (y - Const.CENTER_Y) * cos + (x - Const.CENTER_X) * sin;
+    }
+
     @Override
     public void processLevelThread() {
-        while (!mGameIsBroken) {
-            try {
-                Thread.sleep(30);
-            } catch (InterruptedException e) {
-            }
-            if (mIsFirstTouched) {
-                float angle = -1;
-                if (mIsScreenTouched) {
-                    angle = 0.7f;
-                }
-                final float newX = Const.CENTER_X + (mFishX - Const.CENTER_X) * (float) Math.cos(angle * Const.ANGLE_FACTOR) -
-                        (mFishY - Const.CENTER_Y) * (float) Math.sin(angle * Const.ANGLE_FACTOR);
-                final float newY = Const.CENTER_Y + (mFishY - Const.CENTER_Y) * (float) Math.cos(angle * Const.ANGLE_FACTOR) +
-                        (mFishX - Const.CENTER_X) * (float) Math.sin(angle * Const.ANGLE_FACTOR);
-                if (-0.9f < newY && newY < 0.75f) {
-                    mFishX = newX;
-                    mFishY = newY;
-                    mPenguinRed.setX(mFishX);
-                    mPenguinRed.setY(mFishY);
-                }
-                if (-0.85f > newY) {
-                    mFishX = -0.5f;
-                    mFishY = 0;
-                    mPenguinRed.setX(mFishX);
-                    mPenguinRed.setY(mFishY);
-                    mLevelListener.onLevelMistake();
-                }
-            }
+        if (mGameIsBroken || !mIsFirstTouched) {
+            return;
+        }
+        float angle = -1;
+        if (mIsScreenTouched) {
+            angle = 0.7f;
+        }
+        rotate(mFishX, mFishY, angle, mRotated);
+        final float newX = mRotated[0];
+        final float newY = mRotated[1];
+        if (-0.9f < newY && newY < 0.75f) {
+            mFishX = newX;
+            mFishY = newY;
+            mPenguinRed.setX(mFishX);
+            mPenguinRed.setY(mFishY);
+        }
+        if (-0.85f > newY) {
+            mFishX = -0.5f;
+            mFishY = 0;
+            mPenguinRed.setX(mFishX);
+            mPenguinRed.setY(mFishY);
+            mPenguinRed.storePosition();
+            mLevelListener.onLevelMistake();
         }
     }
 
@@ -95,33 +102,13 @@ public class LevelHandler implements SceneHolder.SceneHolderHandler {
 
     @Override
     public void init() {
-        mScene = new DrawableScene(1);
-
-        // Mat
-        mMat = new DrawableObject(2, 2, DrawableObject.NORMAL_SPRITE);
-        final Bitmap iconMat = (BitmapFactory.decodeResource(mContext.getResources(), R.drawable.level_mat));
-        final TextureTemplate matTemplate = new TextureTemplate(Const.NORMAL_STATE, TextureTemplate.SIMPLE_TEXTURE,
-                iconMat, mMat);
-        mTexturesToLoad.add(matTemplate);
-        mScene.addToLayer(0, mMat);
-
-        // Red penguin.
-        mPenguinRed = new DrawableObject(0.25f, 0.25f, DrawableObject.SQUARE_SPRITE);
+        final SceneInstance scene = SceneInstance.load(mContext, "level");
+        mScene = scene.getScene();
+        mTexturesToLoad.addAll(scene.getTexturesToLoad());
+        mMat = scene.getObject("mat");
+        mPenguinRed = scene.getObject("penguin_red");
         mPenguinRed.setX(mFishX);
         mPenguinRed.setY(mFishY);
-        final Bitmap iconPenguinRed = BitmapFactory.decodeResource(mContext.getResources(), R.drawable.penguin_red);
-        final Bitmap normalAnimationPenguinRed = BitmapFactory.decodeResource(mContext.getResources(), R.drawable.penguin_red_animation1);
-        final Bitmap dragAnimationPenguinRed = BitmapFactory.decodeResource(mContext.getResources(), R.drawable.penguin_red_animation2);
-        final TextureTemplate penguinRedTemplate = new TextureTemplate(Const.NORMAL_STATE, TextureTemplate.SIMPLE_TEXTURE,
-                iconPenguinRed, mPenguinRed);
-        final TextureTemplate penguinRedNormalAnimationTemplate = new TextureTemplate(Const.NORMAL_ANIMATION_STATE,
-                TextureTemplate.ANIMATION_TEXTURE, normalAnimationPenguinRed, mPenguinRed);
-        final TextureTemplate penguinRedDragAnimationTemplate = new TextureTemplate(Const.DRAG_ANIMATION,
-                TextureTemplate.ANIMATION_TEXTURE, dragAnimationPenguinRed, mPenguinRed);
-        mTexturesToLoad.add(penguinRedTemplate);
-        mTexturesToLoad.add(penguinRedNormalAnimationTemplate);
-        mTexturesToLoad.add(penguinRedDragAnimationTemplate);
-        mScene.addToLayer(0, mPenguinRed);
     }
 
     @Override
@@ -0,0 +1,63 @@
+package engine;
+
+import java.util.List;
+
+/**
+ * Lives indicator class.
+ * Shows lives count by hearts of up bar. Count may be set by any thread, hearts are changed
+ * only when thread that publishes up bar scene applies the count, so scene store is written
+ * by one thread.
+ */
+public class LivesIndicator {
+    // Hearts, one per life.
+    private final List<DrawableObject> mHearts;
+    // Count set by any thread.
+    private volatile int mLivesCount;
+    // Count hearts show, accessed by publishing thread only.
+    private int mShownCount;
+
+    /**
+     * Lives indicator constructor.
+     * Hearts are expected to be visible.
+     * @param hearts hearts, one per life.
+     */
+    public LivesIndicator(final List<DrawableObject> hearts) {
+        mHearts = hearts;
+        mLivesCount = hearts.size();
+        mShownCount = hearts.size();
+    }
+
+    /**
+     * Sets lives count.
+     * May be called by any thread.
+     * @param livesCount lives count.
+     */
+    public void setLivesCount(final int livesCount) {
+        mLivesCount = livesCount;
+    }
+
+    /**
+     * Gets lives count.
+     * @return last set lives count.
+     */
+    public int getLivesCount() {
+        return mLivesCount;
+    }
+
+    /**
+     * Shows last set lives count by hearts.
+     * Must be called by thread that publishes scene of hearts.
+     * @return true if hearts are changed.
+     */
+    public boolean apply() {
+        final int livesCount = mLivesCount;
+        if (livesCount == mShownCount) {
+            return false;
+        }
+        for (int i = 0; i < mHearts.size(); i++) {
+            mHearts.get(i).setVisible(i < livesCount);
+        }
+        mShownCount = livesCount;
+        return true;
+    }
+}
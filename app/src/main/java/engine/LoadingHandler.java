@@ -1,11 +1,6 @@
 package engine;
 
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.view.MotionEvent;
-
-import com.flappyfishgame.R;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -14,6 +9,8 @@ public class LoadingHandler implements SceneHolder.SceneHolderHandler {
     private DrawableScene mScene;
     private DrawableObject mMat;
     private DrawableObject mLoadingBar;
+    // Shown loading progress.
+    private float mProgress = 0;
     private Context mContext;
 
     private List<TextureTemplate> mTexturesToLoad = new ArrayList<>();
@@ -23,15 +20,25 @@ public class LoadingHandler implements SceneHolder.SceneHolderHandler {
     }
 
     @Override
-    public void processBeforeDraw(final int matrixLocation, final float[] matrix) {
+    public void processBeforeDraw(final SpriteBatch batch, final FrameClock clock) {
+        mLoadingBar.setX(Const.LOADING_BAR_MIN_X + (Const.LOADING_BAR_MAX_X - Const.LOADING_BAR_MIN_X) * mProgress);
+    }
+
+    /**
+     * Sets loading progress.
+     * Must be called by render thread.
+     * @param progress progress from 0 to 1.
+     */
+    public void setProgress(final float progress) {
+        mProgress = progress;
     }
 
     @Override
-    public void processAfterDraw(final int matrixLocation, final float[] matrix) {
+    public void processAfterDraw(final SpriteBatch batch) {
     }
 
     @Override
-    public void processTouch(final MotionEvent e) {
+    public void processTouch(final int action, final int pointerId, final float x, final float y, final long time) {
     }
 
     @Override
@@ -44,24 +51,11 @@ public class LoadingHandler implements SceneHolder.SceneHolderHandler {
 
     @Override
     public void init() {
-        mScene = new DrawableScene(1);
-
-        mMat = new DrawableObject(2, 2, DrawableObject.NORMAL_SPRITE);
-        final Bitmap iconMat = Utils.getResizedBitmap(BitmapFactory.decodeResource(mContext.getResources(),
-                R.drawable.mat), Game.getScreenWidth(), Game.getScreenHeight());
-        final TextureTemplate matTemplate = new TextureTemplate(Const.NORMAL_STATE, TextureTemplate.SIMPLE_TEXTURE,
-                iconMat, mMat);
-        mTexturesToLoad.add(matTemplate);
-        mScene.addToLayer(0, mMat);
-
-        mLoadingBar = new DrawableObject(0.25f, 0.25f, DrawableObject.SQUARE_SPRITE);
-        mLoadingBar.animateLoop(Const.NORMAL_ANIMATION_STATE);
-        final Bitmap iconLoadingBar = Utils.getResizedBitmap(BitmapFactory.decodeResource(mContext.getResources(),
-                R.drawable.loading), 800, 100);
-        final TextureTemplate loadingBarTemplate = new TextureTemplate(Const.NORMAL_ANIMATION_STATE,
-                TextureTemplate.ANIMATION_TEXTURE, iconLoadingBar, mLoadingBar);
-        mTexturesToLoad.add(loadingBarTemplate);
-        mScene.addToLayer(0, mLoadingBar);
+        final SceneInstance scene = SceneInstance.load(mContext, "loading");
+        mScene = scene.getScene();
+        mTexturesToLoad.addAll(scene.getTexturesToLoad());
+        mMat = scene.getObject("mat");
+        mLoadingBar = scene.getObject("loading_bar");
     }
 
     @Override
@@ -1,17 +1,16 @@
 package engine;
 
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.support.v7.app.AppCompatActivity;
-import android.view.MotionEvent;
-
-import com.flappyfishgame.R;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class MainMenuHandler implements SceneHolder.SceneHolderHandler {
+    // Touch target ids.
+    private static final int START_BUTTON = 0;
+    private static final int EXIT_BUTTON = 1;
+
     private DrawableScene mScene;
     private DrawableObject mMat;
     private DrawableObject mStartButton;
@@ -23,48 +22,71 @@ public class MainMenuHandler implements SceneHolder.SceneHolderHandler {
 
     private List<TextureTemplate> mTexturesToLoad = new ArrayList<>();
 
+    // Touch targets.
+    private final SpatialHash mTouchTargets = new SpatialHash(-1, -1, 1, 1, Const.TOUCH_GRID_CELL_SIZE, 2);
+    // Touch targets under touch point.
+    private final int[] mHits = new int[Const.MAX_TOUCH_HITS];
+    // Projection version touch targets are laid out for.
+    private int mTouchTargetVersion;
+
     public MainMenuHandler(final Context context, final GameListener levelListener) {
         mContext = context;
         mLevelListener = levelListener;
     }
 
     @Override
-    public void processBeforeDraw(final int matrixLocation, final float[] matrix) {
+    public void processBeforeDraw(final SpriteBatch batch, final FrameClock clock) {
     }
 
     @Override
-    public void processAfterDraw(int matrixLocation, float[] matrix) {
+    public void processAfterDraw(final SpriteBatch batch) {
     }
 
     @Override
-    public void processTouch(final MotionEvent e) {
-        final float x = e.getX();
-        final float y = e.getY();
-        final float glX = Game.getXByScreenX(x);
-        final float glY = Game.getYByScreenY(y);
-        if (e.getAction() == MotionEvent.ACTION_DOWN) {
-            if (mStartButton.isInside(glX, glY)) {
-                mStartButton.setState(Const.BUTTON_PRESSED_STATE);
+    public void processTouch(final int action, final int pointerId, final float x, final float y, final long time) {
+        updateTouchTargets();
+        final int target = mTouchTargets.queryPoint(x, y, mHits) > 0 ? mHits[0] : SpatialHash.NONE;
+        if (action == InputQueue.ACTION_DOWN) {
+            if (target == START_BUTTON) {
+                mStartButton.setState(Const.BUTTON_PRESSED_STATE_ID);
                 mIsStartPressed = true;
-            } else if (mExitButton.isInside(glX, glY)) {
-                mExitButton.setState(Const.BUTTON_PRESSED_STATE);
+            } else if (target == EXIT_BUTTON) {
+                mExitButton.setState(Const.BUTTON_PRESSED_STATE_ID);
                 mIsExitPressed = true;
             }
-        } else if (e.getAction() == MotionEvent.ACTION_UP) {
-            mStartButton.setState(Const.NORMAL_STATE);
-            mExitButton.setState(Const.NORMAL_STATE);
-            if (mIsStartPressed && mStartButton.isInside(glX, glY)) {
+        } else if (action == InputQueue.ACTION_UP) {
+            mStartButton.setState(Const.NORMAL_STATE_ID);
+            mExitButton.setState(Const.NORMAL_STATE_ID);
+            if (mIsStartPressed && target == START_BUTTON) {
                 mLevelListener.onStartButtonPressed();
                 SoundPlayer.playClickSound(mContext);
-            } else if (mIsExitPressed && mExitButton.isInside(glX, glY)) {
+            } else if (mIsExitPressed && target == EXIT_BUTTON) {
                 SoundPlayer.playClickSound(mContext);
-                ((AppCompatActivity)mContext).finish();
+                final AppCompatActivity activity = (AppCompatActivity) mContext;
+                activity.runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        activity.finish();
+                    }
+                });
             }
             mIsStartPressed = false;
             mIsExitPressed = false;
         }
     }
 
+    /**
+     * Moves touch targets of buttons if projection is changed since they were laid out.
+     */
+    private void updateTouchTargets() {
+        final int version = Game.getProjection().getVersion();
+        if (version != mTouchTargetVersion) {
+            mTouchTargetVersion = version;
+            mTouchTargets.move(START_BUTTON, mStartButton);
+            mTouchTargets.move(EXIT_BUTTON, mExitButton);
+        }
+    }
+
     @Override
     public void processLevelThread() {
     }
@@ -76,42 +98,15 @@ public class MainMenuHandler implements SceneHolder.SceneHolderHandler {
 
     @Override
     public void init() {
-        mScene = new DrawableScene(1);
-
-        // Mat
-        mMat = new DrawableObject(2, 2, DrawableObject.NORMAL_SPRITE);
-        final Bitmap iconMat = Utils.getResizedBitmap(BitmapFactory.decodeResource(mContext.getResources(),
-                R.drawable.mat), Game.getScreenWidth(), Game.getScreenHeight());
-        final TextureTemplate matTemplate = new TextureTemplate(Const.NORMAL_STATE, TextureTemplate.SIMPLE_TEXTURE,
-                iconMat, mMat);
-        mTexturesToLoad.add(matTemplate);
-        mScene.addToLayer(0, mMat);
-
-        // Start button.
-        mStartButton = new DrawableObject(0.7f, 0.7f, DrawableObject.SQUARE_SPRITE);
-        final Bitmap iconStartButton = BitmapFactory.decodeResource(mContext.getResources(), R.drawable.start_button);
-        final Bitmap iconStartButtonPressed = BitmapFactory.decodeResource(mContext.getResources(), R.drawable.start_button_pressed);
-        final TextureTemplate startButtonTemplate = new TextureTemplate(Const.NORMAL_STATE, TextureTemplate.SIMPLE_TEXTURE,
-                iconStartButton, mStartButton);
-        final TextureTemplate startButtonPressedTemplate = new TextureTemplate(Const.BUTTON_PRESSED_STATE, TextureTemplate.SIMPLE_TEXTURE,
-                iconStartButtonPressed, mStartButton);
-        mTexturesToLoad.add(startButtonTemplate);
-        mTexturesToLoad.add(startButtonPressedTemplate);
-        mScene.addToLayer(0, mStartButton);
-
-        // Exit button.
-        mExitButton = new DrawableObject(0.3f, 0.3f, DrawableObject.SQUARE_SPRITE);
-        mExitButton.setX(0.6f);
-        mExitButton.setY(0.8f);
-        final Bitmap iconExitButton = BitmapFactory.decodeResource(mContext.getResources(), R.drawable.exit_button);
-        final Bitmap iconExitButtonPressed = BitmapFactory.decodeResource(mContext.getResources(), R.drawable.exit_button_pressed);
-        final TextureTemplate exitButtonTemplate = new TextureTemplate(Const.NORMAL_STATE, TextureTemplate.SIMPLE_TEXTURE,
-                iconExitButton, mExitButton);
-        final TextureTemplate exitButtonPressedTemplate = new TextureTemplate(Const.BUTTON_PRESSED_STATE, TextureTemplate.SIMPLE_TEXTURE,
-                iconExitButtonPressed, mExitButton);
-        mTexturesToLoad.add(exitButtonTemplate);
-        mTexturesToLoad.add(exitButtonPressedTemplate);
-        mScene.addToLayer(0, mExitButton);
+        final SceneInstance scene = SceneInstance.load(mContext, "main_menu");
+        mScene = scene.getScene();
+        mTexturesToLoad.addAll(scene.getTexturesToLoad());
+        mMat = scene.getObject("mat");
+        mStartButton = scene.getObject("start_button");
+        mTouchTargets.add(START_BUTTON, mStartButton);
+        mExitButton = scene.getObject("exit_button");
+        mTouchTargets.add(EXIT_BUTTON, mExitButton);
+        mTouchTargetVersion = Game.getProjection().getVersion();
     }
 
     @Override
@@ -0,0 +1,180 @@
+package engine;
+
+/**
+ * Mixer class.
+ * Mixes sound clips played on a fixed set of voices to mono 16 bit PCM.
+ * When all voices are busy a new sound steals the voice of lowest priority,
+ * the oldest one if priorities are equal, or is dropped if all voices have higher priority.
+ * Platform independent, audio output writes mixed buffers to the device.
+ */
+public class Mixer {
+    // No voice.
+    public static final int NO_VOICE = -1;
+    // Full volume.
+    private static final int MAX_VOLUME = 256;
+
+    // Clips played by voices, null if voice is free.
+    private final SoundClip[] mClips;
+    // Play positions of voices.
+    private final int[] mPositions;
+    // Priorities of voices.
+    private final int[] mPriorities;
+    // Volumes of voices, 256 is full volume.
+    private final int[] mVolumes;
+    // Start order of voices.
+    private final long[] mStarts;
+    // Mix accumulator.
+    private int[] mAccumulator = new int[0];
+    // Start counter.
+    private long mStartCount = 0;
+    // Count of sounds that stole a voice.
+    private long mStolenCount = 0;
+    // Count of dropped sounds.
+    private long mDroppedCount = 0;
+
+    /**
+     * Mixer constructor.
+     * @param voiceCount count of voices.
+     */
+    public Mixer(final int voiceCount) {
+        mClips = new SoundClip[voiceCount];
+        mPositions = new int[voiceCount];
+        mPriorities = new int[voiceCount];
+        mVolumes = new int[voiceCount];
+        mStarts = new long[voiceCount];
+    }
+
+    /**
+     * Plays sound clip.
+     * @param clip sound clip.
+     * @param priority priority, higher priority steals voices of lower one.
+     * @param volume volume from 0 to 1.
+     * @return voice index or NO_VOICE if sound is dropped.
+     */
+    public synchronized int play(final SoundClip clip, final int priority, final float volume) {
+        int voice = NO_VOICE;
+        for (int i = 0; i < mClips.length; i++) {
+            if (mClips[i] == null) {
+                voice = i;
+                break;
+            }
+            if (voice == NO_VOICE || mPriorities[i] < mPriorities[voice]
+                    || mPriorities[i] == mPriorities[voice] && mStarts[i] < mStarts[voice]) {
+                voice = i;
+            }
+        }
+        if (voice == NO_VOICE || mClips[voice] != null && mPriorities[voice] > priority) {
+            mDroppedCount++;
+            return NO_VOICE;
+        }
+        if (mClips[voice] != null) {
+            mStolenCount++;
+        }
+        mClips[voice] = clip;
+        mPositions[voice] = 0;
+        mPriorities[voice] = priority;
+        mVolumes[voice] = Math.round(Math.max(0, Math.min(1, volume)) * MAX_VOLUME);
+        mStarts[voice] = mStartCount++;
+        return voice;
+    }
+
+    /**
+     * Stops voice.
+     * @param voice voice index.
+     */
+    public synchronized void stop(final int voice) {
+        mClips[voice] = null;
+    }
+
+    /**
+     * Stops all voices.
+     */
+    public synchronized void stopAll() {
+        for (int i = 0; i < mClips.length; i++) {
+            mClips[i] = null;
+        }
+    }
+
+    /**
+     * Returns true if clip is played by any voice.
+     * @param clip sound clip.
+     * @return true if clip is played.
+     */
+    public synchronized boolean isPlaying(final SoundClip clip) {
+        for (final SoundClip voiceClip : mClips) {
+            if (voiceClip == clip) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets count of playing voices.
+     * @return active voice count.
+     */
+    public synchronized int getActiveVoiceCount() {
+        int count = 0;
+        for (final SoundClip clip : mClips) {
+            if (clip != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets count of sounds that stole a voice.
+     * @return stolen voice count.
+     */
+    public synchronized long getStolenCount() {
+        return mStolenCount;
+    }
+
+    /**
+     * Gets count of dropped sounds.
+     * @return dropped sound count.
+     */
+    public synchronized long getDroppedCount() {
+        return mDroppedCount;
+    }
+
+    /**
+     * Mixes playing voices and advances them.
+     * Must be called by one audio thread.
+     * @param out output buffer.
+     * @param offset output offset.
+     * @param length count of samples to mix.
+     */
+    public synchronized void mix(final short[] out, final int offset, final int length) {
+        if (mAccumulator.length < length) {
+            mAccumulator = new int[length];
+        }
+        final int[] accumulator = mAccumulator;
+        for (int i = 0; i < length; i++) {
+            accumulator[i] = 0;
+        }
+        for (int v = 0; v < mClips.length; v++) {
+            final SoundClip clip = mClips[v];
+            if (clip == null) {
+                continue;
+            }
+            final short[] samples = clip.getSamples();
+            final int position = mPositions[v];
+            final int count = Math.min(length, samples.length - position);
+            final int volume = mVolumes[v];
+            for (int i = 0; i < count; i++) {
+                accumulator[i]+= samples[position + i] * volume >> 8;
+            }
+            mPositions[v] = position + count;
+            if (mPositions[v] >= samples.length) {
+                mClips[v] = null;
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            final int sample = accumulator[i];
+            out[offset + i] = (short) (sample > Short.MAX_VALUE ? Short.MAX_VALUE
+                    : sample < Short.MIN_VALUE ? Short.MIN_VALUE : sample);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Object pool class.
+ * Keeps objects of one kind in the store of a scene, so spawning and despawning at runtime
+ * only adds objects to a layer and removes them from it. Released objects keep their
+ * entity slot and textures. When the pool is empty, a new object is added to the scene store and shares
+ * texture bindings of a pooled object.
+ * Must be used by the thread that publishes the scene.
+ */
+public class ObjectPool {
+    // Scene of objects.
+    private final DrawableScene mScene;
+    // Layer of active objects.
+    private final int mLayerNum;
+    // All objects of pool.
+    private final List<DrawableObject> mObjects = new ArrayList<>();
+    // Free objects.
+    private final List<DrawableObject> mFree = new ArrayList<>();
+
+    // Count of acquired objects.
+    private int mActiveCount = 0;
+    // Max count of acquired objects.
+    private int mHighWaterMark = 0;
+    // Count of acquires that created an object.
+    private int mMissCount = 0;
+
+    /**
+     * Object pool constructor.
+     * @param scene scene of objects.
+     * @param layerNum layer of active objects.
+     * @param width object width.
+     * @param height object height.
+     * @param type sprite type.
+     * @param size count of objects created now, at least one.
+     */
+    ObjectPool(final DrawableScene scene, final int layerNum, final float width, final float height,
+               final int type, final int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Pool size must be positive");
+        }
+        mScene = scene;
+        mLayerNum = layerNum;
+        for (int i = 0; i < size; i++) {
+            add(new DrawableObject(width, height, type));
+        }
+    }
+
+    /**
+     * Gets objects created by constructor and later ones.
+     * Pass them as owners of texture templates.
+     * @return pool objects.
+     */
+    public List<DrawableObject> getObjects() {
+        return Collections.unmodifiableList(mObjects);
+    }
+
+    /**
+     * Takes object from pool and adds it to layer.
+     * @param x object x.
+     * @param y object y.
+     * @return object.
+     */
+    public DrawableObject acquire(final float x, final float y) {
+        if (mFree.isEmpty()) {
+            mMissCount++;
+            add(new DrawableObject(mObjects.get(0)));
+        }
+        final DrawableObject object = mFree.remove(mFree.size() - 1);
+        object.setX(x);
+        object.setY(y);
+        object.storePosition();
+        object.setVisible(true);
+        mScene.addToLayer(mLayerNum, object);
+        mActiveCount++;
+        mHighWaterMark = Math.max(mHighWaterMark, mActiveCount);
+        return object;
+    }
+
+    /**
+     * Removes object from layer and returns it to pool.
+     * @param object object acquired from this pool.
+     */
+    public void release(final DrawableObject object) {
+        if (!mScene.removeFromLayer(mLayerNum, object)) {
+            throw new IllegalArgumentException("Object is not acquired from pool");
+        }
+        object.stopAnimation();
+        mFree.add(object);
+        mActiveCount--;
+    }
+
+    /**
+     * Gets count of acquired objects.
+     * @return active count.
+     */
+    public int getActiveCount() {
+        return mActiveCount;
+    }
+
+    /**
+     * Gets count of free objects.
+     * @return free count.
+     */
+    public int getFreeCount() {
+        return mFree.size();
+    }
+
+    /**
+     * Gets max count of objects acquired at once.
+     * @return high-water mark.
+     */
+    public int getHighWaterMark() {
+        return mHighWaterMark;
+    }
+
+    /**
+     * Gets count of acquires that found pool empty.
+     * @return miss count.
+     */
+    public int getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Moves new object to scene store and puts it to free objects.
+     * @param object object.
+     */
+    private void add(final DrawableObject object) {
+        object.attach(mScene.getStore());
+        mObjects.add(object);
+        mFree.add(object);
+    }
+}
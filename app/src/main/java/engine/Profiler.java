@@ -0,0 +1,80 @@
+package engine;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Profiler class.
+ * Scoped profiler of engine stages. Calls are removed by compiler when Const.PROFILER_ENABLED
+ * is false.
+ * Usage: Profiler.begin(Profiler.DRAW); ... Profiler.end();
+ */
+public class Profiler {
+    // True if profiler records scopes.
+    public static final boolean ENABLED = Const.PROFILER_ENABLED;
+
+    // Scope names.
+    public static final String FRAME = "frame";
+    public static final String CHECK_STATE = "Game.checkState";
+    public static final String TEXTURE_UPLOAD = "textureUpload";
+    public static final String BUFFER_FILL = "bufferFill";
+    public static final String FLUSH = "flush";
+    public static final String SCENE_DRAW = "SceneHolder.draw";
+    public static final String TICK = "processLevelThread";
+    public static final String INIT = "handler.init";
+    public static final String LOAD_ATLAS = "loadAtlas";
+    public static final String PREPARE_ATLAS = "prepareAtlas";
+    public static final String PRELOAD = "preload";
+    public static final String RESTORE_ATLAS = "restoreAtlas";
+    public static final String LOAD_SCENE = "loadScene";
+    public static final String DECODE = "decode";
+    public static final String LOAD_STATE = "Game.loadState";
+
+    // Trace recorder, null if profiler is disabled.
+    private static final TraceRecorder mRecorder = ENABLED
+            ? new TraceRecorder(Const.PROFILER_EVENTS_PER_THREAD, TimeSource.SYSTEM) : null;
+
+    /**
+     * Begins scope on current thread.
+     * @param name scope name.
+     */
+    public static void begin(final String name) {
+        if (ENABLED) {
+            mRecorder.begin(name);
+        }
+    }
+
+    /**
+     * Ends last scope of current thread.
+     */
+    public static void end() {
+        if (ENABLED) {
+            mRecorder.end();
+        }
+    }
+
+    /**
+     * Writes trace file in Chrome trace event format.
+     * Does nothing if profiler is disabled.
+     * @param file trace file.
+     * @throws IOException if trace can not be written.
+     */
+    public static void writeTrace(final File file) throws IOException {
+        if (ENABLED) {
+            final Writer writer = new FileWriter(file);
+            try {
+                mRecorder.writeTrace(writer);
+            } finally {
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * Constructor is private.
+     */
+    private Profiler() {
+    }
+}
@@ -0,0 +1,109 @@
+package engine;
+
+/**
+ * Projection class.
+ * Maps screen pixels to GL coordinates and keeps scale of square sprites for surface size.
+ * Square sprites keep their size in units of the longer screen side and are scaled when they
+ * are drawn or touched, so surface size change only updates projection and reloads nothing.
+ */
+public class Projection {
+    // Screen size in pixels.
+    private volatile float mScreenWidth = 240;
+    private volatile float mScreenHeight = 320;
+    // Scale of square sprite sizes.
+    private volatile float mScaleX = 1;
+    private volatile float mScaleY = 1;
+    // Size version, changed by every size change.
+    private volatile int mVersion = 0;
+
+    /**
+     * Sets surface size.
+     * Must be called by one thread at a time.
+     * @param width screen width.
+     * @param height screen height.
+     * @return true if size is changed.
+     */
+    public boolean setSize(final int width, final int height) {
+        if (mVersion > 0 && width == mScreenWidth && height == mScreenHeight) {
+            return false;
+        }
+        if (width > height) {
+            mScaleX = 1;
+            mScaleY = (float) width / height;
+        } else {
+            mScaleX = (float) height / width;
+            mScaleY = 1;
+        }
+        mScreenWidth = width;
+        mScreenHeight = height;
+        mVersion++;
+        return true;
+    }
+
+    /**
+     * Gets x scale of square sprites.
+     * @return x scale.
+     */
+    public float getScaleX() {
+        return mScaleX;
+    }
+
+    /**
+     * Gets y scale of square sprites.
+     * @return y scale.
+     */
+    public float getScaleY() {
+        return mScaleY;
+    }
+
+    /**
+     * Gets width of a pixel relative to its height in GL units.
+     * @return aspect.
+     */
+    public float getAspect() {
+        return mScaleX / mScaleY;
+    }
+
+    /**
+     * Gets screen width.
+     * @return screen width in pixels.
+     */
+    public float getScreenWidth() {
+        return mScreenWidth;
+    }
+
+    /**
+     * Gets screen height.
+     * @return screen height in pixels.
+     */
+    public float getScreenHeight() {
+        return mScreenHeight;
+    }
+
+    /**
+     * Gets size version.
+     * Holders of derived geometry compare it to find out they must derive it again.
+     * @return version.
+     */
+    public int getVersion() {
+        return mVersion;
+    }
+
+    /**
+     * Gets GL x by screen x.
+     * @param screenX screen x.
+     * @return GL x.
+     */
+    public float toX(final float screenX) {
+        return screenX / mScreenWidth * 2 - 1;
+    }
+
+    /**
+     * Gets GL y by screen y.
+     * @param screenY screen y.
+     * @return GL y.
+     */
+    public float toY(final float screenY) {
+        return 1 - screenY / mScreenHeight * 2;
+    }
+}
@@ -0,0 +1,75 @@
+package engine;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Render backend interface.
+ * Engine draws through backend, so render path can run on device or headless.
+ * All methods must be called by render thread.
+ */
+public interface RenderBackend {
+    /**
+     * Initializes shader program, GPU buffers and vertex attributes.
+     * @param vertexData interleaved vertex buffer, SpriteBatch.VERTEX_SIZE floats per vertex.
+     * @param indices index buffer, uploaded once.
+     */
+    void init(final FloatBuffer vertexData, final ShortBuffer indices);
+
+    /**
+     * Uploads part of vertex buffer to GPU vertex buffer.
+     * @param offset first float.
+     * @param count float count.
+     */
+    void updateVertices(final int offset, final int count);
+
+    /**
+     * Sets viewport.
+     * @param width surface width.
+     * @param height surface height.
+     */
+    void setViewport(final int width, final int height);
+
+    /**
+     * Clears frame.
+     */
+    void clear();
+
+    /**
+     * Enables or disables alpha blending.
+     * @param enabled true to enable blending.
+     */
+    void setBlending(final boolean enabled);
+
+    /**
+     * Uploads page bitmap to texture.
+     * @param page atlas page.
+     * @return texture id.
+     */
+    int uploadTexture(final TextureAtlas.Page page);
+
+    /**
+     * Deletes textures.
+     * @param textureIds texture ids.
+     */
+    void deleteTextures(final int[] textureIds);
+
+    /**
+     * Uploads transform matrix.
+     * @param matrix 4x4 column major matrix.
+     */
+    void setMatrix(final float[] matrix);
+
+    /**
+     * Binds texture.
+     * @param texture texture id.
+     */
+    void bindTexture(final int texture);
+
+    /**
+     * Draws indexed triangles from GPU buffers.
+     * @param firstIndex first index.
+     * @param indexCount index count.
+     */
+    void drawTriangles(final int firstIndex, final int indexCount);
+}
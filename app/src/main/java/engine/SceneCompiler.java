@@ -0,0 +1,300 @@
+package engine;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scene compiler class.
+ * Compiles text scene descriptions into binary scene files at build time.
+ * One statement per line, '#' starts a comment:
+ * layers count
+ * object name layer square|normal width height [at x y] [hidden] [loop animation]
+ * texture state drawable [size width height|size screen] owner...
+ * animation state drawable [size width height|size screen] [frame ms] [mode loop|once|ping_pong] owner...
+ * Objects are added to their layer in declaration order.
+ */
+public class SceneCompiler {
+    // Extension of scene descriptions.
+    public static final String SOURCE_EXTENSION = ".scene";
+    // Extension of scene files.
+    public static final String FILE_EXTENSION = ".bin";
+
+    /**
+     * Compiles all scene descriptions of source directory.
+     * @param args source directory and output directory.
+     * @throws IOException if a description can not be read or compiled.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: SceneCompiler <source dir> <output dir>");
+        }
+        final File sourceDir = new File(args[0]);
+        final File outputDir = new File(args[1]);
+        final File[] sources = sourceDir.listFiles();
+        if (sources == null) {
+            throw new IOException("Can not list " + sourceDir);
+        }
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Can not create " + outputDir);
+        }
+        for (final File source : sources) {
+            final String name = source.getName();
+            if (!name.endsWith(SOURCE_EXTENSION)) {
+                continue;
+            }
+            final SceneFile file;
+            final Reader reader = new InputStreamReader(new FileInputStream(source), "UTF-8");
+            try {
+                file = parse(reader, name);
+            } finally {
+                reader.close();
+            }
+            final String outputName = name.substring(0, name.length() - SOURCE_EXTENSION.length()) + FILE_EXTENSION;
+            final OutputStream out = new BufferedOutputStream(new FileOutputStream(new File(outputDir, outputName)));
+            try {
+                file.write(out);
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Parses scene description.
+     * @param reader description reader.
+     * @param sourceName description name for error messages.
+     * @return scene file.
+     * @throws IOException if description can not be read or has errors.
+     */
+    public static SceneFile parse(final Reader reader, final String sourceName) throws IOException {
+        final SceneFile.Builder builder = new SceneFile.Builder();
+        final BufferedReader lines = new BufferedReader(reader);
+        int lineNumber = 0;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            final int comment = line.indexOf('#');
+            if (comment >= 0) {
+                line = line.substring(0, comment);
+            }
+            final String[] tokens = line.trim().split("\\s+");
+            if (tokens[0].isEmpty()) {
+                continue;
+            }
+            try {
+                parseStatement(builder, new Tokens(tokens));
+            } catch (IllegalArgumentException e) {
+                throw new IOException(sourceName + ":" + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        try {
+            return builder.build();
+        } catch (IllegalArgumentException e) {
+            throw new IOException(sourceName + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parses one statement.
+     * @param builder scene file builder.
+     * @param tokens statement tokens.
+     */
+    private static void parseStatement(final SceneFile.Builder builder, final Tokens tokens) {
+        final String keyword = tokens.next();
+        switch (keyword) {
+            case "layers":
+                builder.setLayerCount(tokens.nextInt());
+                break;
+            case "object":
+                parseObject(builder, tokens);
+                break;
+            case "texture":
+            case "animation":
+                parseTexture(builder, tokens, keyword.equals("animation"));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown statement " + keyword);
+        }
+        if (tokens.hasNext()) {
+            throw new IllegalArgumentException("Unexpected " + tokens.next());
+        }
+    }
+
+    /**
+     * Parses object statement.
+     * @param builder scene file builder.
+     * @param tokens tokens after keyword.
+     */
+    private static void parseObject(final SceneFile.Builder builder, final Tokens tokens) {
+        final String name = tokens.next();
+        final int layer = tokens.nextInt();
+        final String type = tokens.next();
+        final int spriteType;
+        if (type.equals("square")) {
+            spriteType = SceneFile.SQUARE_SPRITE;
+        } else if (type.equals("normal")) {
+            spriteType = SceneFile.NORMAL_SPRITE;
+        } else {
+            throw new IllegalArgumentException("Unknown sprite type " + type);
+        }
+        final float width = tokens.nextFloat();
+        final float height = tokens.nextFloat();
+        float x = 0;
+        float y = 0;
+        boolean hidden = false;
+        String loop = null;
+        while (tokens.hasNext()) {
+            final String option = tokens.next();
+            if (option.equals("at")) {
+                x = tokens.nextFloat();
+                y = tokens.nextFloat();
+            } else if (option.equals("hidden")) {
+                hidden = true;
+            } else if (option.equals("loop")) {
+                loop = tokens.next();
+            } else {
+                throw new IllegalArgumentException("Unknown object option " + option);
+            }
+        }
+        builder.addObject(name, layer, spriteType, width, height, x, y, hidden, loop);
+    }
+
+    /**
+     * Parses texture or animation statement.
+     * @param builder scene file builder.
+     * @param tokens tokens after keyword.
+     * @param isAnimation true for animation statement.
+     */
+    private static void parseTexture(final SceneFile.Builder builder, final Tokens tokens, final boolean isAnimation) {
+        final String state = tokens.next();
+        final String drawable = tokens.next();
+        float width = SceneFile.SIZE_ORIGINAL;
+        float height = SceneFile.SIZE_ORIGINAL;
+        int frameDuration = SceneFile.DEFAULT_FRAME_DURATION;
+        int mode = SceneFile.MODE_LOOP;
+        final List<String> owners = new ArrayList<>();
+        while (tokens.hasNext()) {
+            final String token = tokens.next();
+            if (!owners.isEmpty()) {
+                owners.add(token);
+            } else if (token.equals("size")) {
+                if (tokens.peek().equals("screen")) {
+                    tokens.next();
+                    width = SceneFile.SIZE_SCREEN;
+                    height = SceneFile.SIZE_SCREEN;
+                } else {
+                    width = tokens.nextFloat();
+                    height = tokens.nextFloat();
+                }
+            } else if (isAnimation && token.equals("frame")) {
+                frameDuration = tokens.nextInt();
+            } else if (isAnimation && token.equals("mode")) {
+                mode = parseMode(tokens.next());
+            } else {
+                owners.add(token);
+            }
+        }
+        builder.addTexture(state, isAnimation ? SceneFile.ANIMATION_TEXTURE : SceneFile.SIMPLE_TEXTURE, drawable,
+                width, height, frameDuration, mode, owners);
+    }
+
+    /**
+     * Parses animation mode.
+     * @param mode mode name.
+     * @return mode of scene file.
+     */
+    private static int parseMode(final String mode) {
+        switch (mode) {
+            case "loop":
+                return SceneFile.MODE_LOOP;
+            case "once":
+                return SceneFile.MODE_ONCE;
+            case "ping_pong":
+                return SceneFile.MODE_PING_PONG;
+            default:
+                throw new IllegalArgumentException("Unknown animation mode " + mode);
+        }
+    }
+
+    /**
+     * Tokens of one statement.
+     */
+    private static class Tokens {
+        // Tokens.
+        private final String[] mTokens;
+        // Next token index.
+        private int mNext = 0;
+
+        /**
+         * Tokens constructor.
+         * @param tokens tokens.
+         */
+        Tokens(final String[] tokens) {
+            mTokens = tokens;
+        }
+
+        /**
+         * Returns true if tokens are left.
+         * @return true if next token exists.
+         */
+        boolean hasNext() {
+            return mNext < mTokens.length;
+        }
+
+        /**
+         * Gets next token without consuming it.
+         * @return next token.
+         */
+        String peek() {
+            if (!hasNext()) {
+                throw new IllegalArgumentException("Unexpected end of statement");
+            }
+            return mTokens[mNext];
+        }
+
+        /**
+         * Consumes next token.
+         * @return next token.
+         */
+        String next() {
+            final String token = peek();
+            mNext++;
+            return token;
+        }
+
+        /**
+         * Consumes next token as integer.
+         * @return integer value.
+         */
+        int nextInt() {
+            final String token = next();
+            try {
+                return Integer.parseInt(token);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Integer expected instead of " + token);
+            }
+        }
+
+        /**
+         * Consumes next token as float.
+         * @return float value.
+         */
+        float nextFloat() {
+            final String token = next();
+            try {
+                return Float.parseFloat(token);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Number expected instead of " + token);
+            }
+        }
+    }
+}
@@ -0,0 +1,595 @@
+package engine;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scene file class.
+ * Compact binary description of a scene: layers, objects and texture templates with their owners.
+ * Values are kept in parallel arrays and read by one pass over a byte buffer.
+ * Layout, big endian:
+ * magic int, version short,
+ * string count short, strings (length short, UTF-8 bytes),
+ * layer count byte, object count short, texture count short,
+ * objects (name short, layer byte, type byte, width, height, x, y float,
+ * flags byte, loop animation short),
+ * textures (state short, type byte, drawable short, width, height float,
+ * frame duration int, mode byte, owner count short, owners short).
+ * Has no Android dependencies, it is also compiled into the build-time scene compiler.
+ */
+public class SceneFile {
+    // File magic, "FSCN".
+    public static final int MAGIC = 0x4653434E;
+    // Format version.
+    public static final int VERSION = 1;
+
+    // Object types, values of DrawableObject types.
+    public static final int SQUARE_SPRITE = 0;
+    public static final int NORMAL_SPRITE = 1;
+    // Texture types, values of TextureTemplate types.
+    public static final int SIMPLE_TEXTURE = 0;
+    public static final int ANIMATION_TEXTURE = 1;
+    // Animation modes, values of AnimationClip modes.
+    public static final int MODE_LOOP = 0;
+    public static final int MODE_ONCE = 1;
+    public static final int MODE_PING_PONG = 2;
+
+    // Object flag of hidden object.
+    public static final int FLAG_HIDDEN = 1;
+    // No string.
+    public static final int NONE = -1;
+    // Requested bitmap size: original bitmap size.
+    public static final float SIZE_ORIGINAL = -1;
+    // Requested bitmap size: screen size.
+    public static final float SIZE_SCREEN = -2;
+    // Default frame duration in milliseconds.
+    public static final int DEFAULT_FRAME_DURATION = 150;
+
+    // Charset of strings.
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // String table.
+    private final String[] mStrings;
+    // Layer count.
+    private final int mLayerCount;
+
+    // Objects.
+    private final int mObjectCount;
+    private final short[] mObjectName;
+    private final byte[] mObjectLayer;
+    private final byte[] mObjectType;
+    private final float[] mObjectWidth;
+    private final float[] mObjectHeight;
+    private final float[] mObjectX;
+    private final float[] mObjectY;
+    private final byte[] mObjectFlags;
+    private final short[] mObjectLoop;
+
+    // Textures.
+    private final int mTextureCount;
+    private final short[] mTextureState;
+    private final byte[] mTextureType;
+    private final short[] mTextureDrawable;
+    private final float[] mTextureWidth;
+    private final float[] mTextureHeight;
+    private final int[] mFrameDuration;
+    private final byte[] mMode;
+    private final short[][] mOwners;
+
+    /**
+     * Scene file constructor.
+     * @param strings string table.
+     * @param layerCount layer count.
+     * @param objectCount object count.
+     * @param textureCount texture count.
+     */
+    private SceneFile(final String[] strings, final int layerCount, final int objectCount, final int textureCount) {
+        mStrings = strings;
+        mLayerCount = layerCount;
+        mObjectCount = objectCount;
+        mObjectName = new short[objectCount];
+        mObjectLayer = new byte[objectCount];
+        mObjectType = new byte[objectCount];
+        mObjectWidth = new float[objectCount];
+        mObjectHeight = new float[objectCount];
+        mObjectX = new float[objectCount];
+        mObjectY = new float[objectCount];
+        mObjectFlags = new byte[objectCount];
+        mObjectLoop = new short[objectCount];
+        mTextureCount = textureCount;
+        mTextureState = new short[textureCount];
+        mTextureType = new byte[textureCount];
+        mTextureDrawable = new short[textureCount];
+        mTextureWidth = new float[textureCount];
+        mTextureHeight = new float[textureCount];
+        mFrameDuration = new int[textureCount];
+        mMode = new byte[textureCount];
+        mOwners = new short[textureCount][];
+    }
+
+    /**
+     * Reads scene file.
+     * @param buffer big endian buffer positioned at file start.
+     * @return scene file.
+     * @throws IOException if buffer is not a scene file of supported version.
+     */
+    public static SceneFile read(final ByteBuffer buffer) throws IOException {
+        try {
+            return readFile(buffer);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Scene file is truncated", e);
+        }
+    }
+
+    /**
+     * Reads scene file without bounds check of sections.
+     * @param buffer big endian buffer positioned at file start.
+     * @return scene file.
+     * @throws IOException if buffer is not a scene file of supported version.
+     */
+    private static SceneFile readFile(final ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 6 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a scene file");
+        }
+        final int version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported scene file version " + version);
+        }
+        final String[] strings = new String[buffer.getShort()];
+        for (int i = 0; i < strings.length; i++) {
+            final byte[] bytes = new byte[buffer.getShort()];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, UTF_8);
+        }
+        final int layerCount = buffer.get();
+        final int objectCount = buffer.getShort();
+        final int textureCount = buffer.getShort();
+        final SceneFile file = new SceneFile(strings, layerCount, objectCount, textureCount);
+        for (int i = 0; i < objectCount; i++) {
+            file.mObjectName[i] = buffer.getShort();
+            file.mObjectLayer[i] = buffer.get();
+            file.mObjectType[i] = buffer.get();
+            file.mObjectWidth[i] = buffer.getFloat();
+            file.mObjectHeight[i] = buffer.getFloat();
+            file.mObjectX[i] = buffer.getFloat();
+            file.mObjectY[i] = buffer.getFloat();
+            file.mObjectFlags[i] = buffer.get();
+            file.mObjectLoop[i] = buffer.getShort();
+        }
+        for (int i = 0; i < textureCount; i++) {
+            file.mTextureState[i] = buffer.getShort();
+            file.mTextureType[i] = buffer.get();
+            file.mTextureDrawable[i] = buffer.getShort();
+            file.mTextureWidth[i] = buffer.getFloat();
+            file.mTextureHeight[i] = buffer.getFloat();
+            file.mFrameDuration[i] = buffer.getInt();
+            file.mMode[i] = buffer.get();
+            final short[] owners = new short[buffer.getShort()];
+            for (int j = 0; j < owners.length; j++) {
+                owners[j] = buffer.getShort();
+            }
+            file.mOwners[i] = owners;
+        }
+        return file;
+    }
+
+    /**
+     * Writes scene file.
+     * @param out output stream.
+     * @throws IOException if stream can not be written.
+     */
+    public void write(final OutputStream out) throws IOException {
+        final DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeShort(mStrings.length);
+        for (final String string : mStrings) {
+            final byte[] bytes = string.getBytes(UTF_8);
+            data.writeShort(bytes.length);
+            data.write(bytes);
+        }
+        data.writeByte(mLayerCount);
+        data.writeShort(mObjectCount);
+        data.writeShort(mTextureCount);
+        for (int i = 0; i < mObjectCount; i++) {
+            data.writeShort(mObjectName[i]);
+            data.writeByte(mObjectLayer[i]);
+            data.writeByte(mObjectType[i]);
+            data.writeFloat(mObjectWidth[i]);
+            data.writeFloat(mObjectHeight[i]);
+            data.writeFloat(mObjectX[i]);
+            data.writeFloat(mObjectY[i]);
+            data.writeByte(mObjectFlags[i]);
+            data.writeShort(mObjectLoop[i]);
+        }
+        for (int i = 0; i < mTextureCount; i++) {
+            data.writeShort(mTextureState[i]);
+            data.writeByte(mTextureType[i]);
+            data.writeShort(mTextureDrawable[i]);
+            data.writeFloat(mTextureWidth[i]);
+            data.writeFloat(mTextureHeight[i]);
+            data.writeInt(mFrameDuration[i]);
+            data.writeByte(mMode[i]);
+            data.writeShort(mOwners[i].length);
+            for (final short owner : mOwners[i]) {
+                data.writeShort(owner);
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Gets string of string table.
+     * @param index string index.
+     * @return string, null for NONE.
+     */
+    public String getString(final int index) {
+        return index == NONE ? null : mStrings[index];
+    }
+
+    /**
+     * Gets layer count.
+     * @return layer count.
+     */
+    public int getLayerCount() {
+        return mLayerCount;
+    }
+
+    /**
+     * Gets object count.
+     * @return object count.
+     */
+    public int getObjectCount() {
+        return mObjectCount;
+    }
+
+    /**
+     * Gets object name.
+     * @param object object index.
+     * @return object name.
+     */
+    public String getObjectName(final int object) {
+        return mStrings[mObjectName[object]];
+    }
+
+    /**
+     * Gets object layer.
+     * @param object object index.
+     * @return layer number.
+     */
+    public int getObjectLayer(final int object) {
+        return mObjectLayer[object];
+    }
+
+    /**
+     * Gets object type.
+     * @param object object index.
+     * @return SQUARE_SPRITE or NORMAL_SPRITE.
+     */
+    public int getObjectType(final int object) {
+        return mObjectType[object];
+    }
+
+    /**
+     * Gets object width.
+     * @param object object index.
+     * @return width in GL units.
+     */
+    public float getObjectWidth(final int object) {
+        return mObjectWidth[object];
+    }
+
+    /**
+     * Gets object height.
+     * @param object object index.
+     * @return height in GL units.
+     */
+    public float getObjectHeight(final int object) {
+        return mObjectHeight[object];
+    }
+
+    /**
+     * Gets object x.
+     * @param object object index.
+     * @return center x.
+     */
+    public float getObjectX(final int object) {
+        return mObjectX[object];
+    }
+
+    /**
+     * Gets object y.
+     * @param object object index.
+     * @return center y.
+     */
+    public float getObjectY(final int object) {
+        return mObjectY[object];
+    }
+
+    /**
+     * Returns true if object is hidden at start.
+     * @param object object index.
+     * @return true if object is hidden.
+     */
+    public boolean isObjectHidden(final int object) {
+        return (mObjectFlags[object] & FLAG_HIDDEN) != 0;
+    }
+
+    /**
+     * Gets animation looped at start.
+     * @param object object index.
+     * @return animation name, null if none.
+     */
+    public String getObjectLoop(final int object) {
+        return getString(mObjectLoop[object]);
+    }
+
+    /**
+     * Gets texture count.
+     * @return texture count.
+     */
+    public int getTextureCount() {
+        return mTextureCount;
+    }
+
+    /**
+     * Gets texture state name.
+     * @param texture texture index.
+     * @return state or animation name.
+     */
+    public String getTextureState(final int texture) {
+        return mStrings[mTextureState[texture]];
+    }
+
+    /**
+     * Gets texture type.
+     * @param texture texture index.
+     * @return SIMPLE_TEXTURE or ANIMATION_TEXTURE.
+     */
+    public int getTextureType(final int texture) {
+        return mTextureType[texture];
+    }
+
+    /**
+     * Gets drawable name of texture.
+     * @param texture texture index.
+     * @return drawable resource name.
+     */
+    public String getTextureDrawable(final int texture) {
+        return mStrings[mTextureDrawable[texture]];
+    }
+
+    /**
+     * Gets requested bitmap width.
+     * @param texture texture index.
+     * @return width in pixels, SIZE_ORIGINAL or SIZE_SCREEN.
+     */
+    public float getTextureWidth(final int texture) {
+        return mTextureWidth[texture];
+    }
+
+    /**
+     * Gets requested bitmap height.
+     * @param texture texture index.
+     * @return height in pixels, SIZE_ORIGINAL or SIZE_SCREEN.
+     */
+    public float getTextureHeight(final int texture) {
+        return mTextureHeight[texture];
+    }
+
+    /**
+     * Gets animation frame duration.
+     * @param texture texture index.
+     * @return frame duration in milliseconds.
+     */
+    public int getFrameDuration(final int texture) {
+        return mFrameDuration[texture];
+    }
+
+    /**
+     * Gets animation mode.
+     * @param texture texture index.
+     * @return MODE_LOOP, MODE_ONCE or MODE_PING_PONG.
+     */
+    public int getMode(final int texture) {
+        return mMode[texture];
+    }
+
+    /**
+     * Gets owners of texture.
+     * @param texture texture index.
+     * @return object indices.
+     */
+    public short[] getOwners(final int texture) {
+        return mOwners[texture];
+    }
+
+    /**
+     * Scene file builder.
+     * Used by scene compiler.
+     */
+    public static class Builder {
+        // String table.
+        private final List<String> mStrings = new ArrayList<>();
+        // Object names.
+        private final List<String> mObjectNames = new ArrayList<>();
+        // Objects.
+        private final List<ObjectRecord> mObjects = new ArrayList<>();
+        // Textures.
+        private final List<TextureRecord> mTextures = new ArrayList<>();
+        // Layer count.
+        private int mLayerCount = 1;
+
+        /**
+         * Sets layer count.
+         * @param layerCount layer count.
+         * @return this builder.
+         */
+        public Builder setLayerCount(final int layerCount) {
+            if (layerCount < 1 || layerCount > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("Bad layer count " + layerCount);
+            }
+            mLayerCount = layerCount;
+            return this;
+        }
+
+        /**
+         * Adds object.
+         * @param name unique object name.
+         * @param layer layer number.
+         * @param type SQUARE_SPRITE or NORMAL_SPRITE.
+         * @param width width in GL units.
+         * @param height height in GL units.
+         * @param x center x.
+         * @param y center y.
+         * @param hidden true if object is hidden at start.
+         * @param loop animation looped at start, null if none.
+         * @return this builder.
+         */
+        public Builder addObject(final String name, final int layer, final int type, final float width,
+                                 final float height, final float x, final float y, final boolean hidden,
+                                 final String loop) {
+            if (mObjectNames.contains(name)) {
+                throw new IllegalArgumentException("Object " + name + " is already added");
+            }
+            final ObjectRecord object = new ObjectRecord();
+            object.mName = intern(name);
+            object.mLayer = layer;
+            object.mType = type;
+            object.mWidth = width;
+            object.mHeight = height;
+            object.mX = x;
+            object.mY = y;
+            object.mFlags = hidden ? FLAG_HIDDEN : 0;
+            object.mLoop = loop == null ? NONE : intern(loop);
+            mObjectNames.add(name);
+            mObjects.add(object);
+            return this;
+        }
+
+        /**
+         * Adds texture.
+         * @param state state or animation name.
+         * @param type SIMPLE_TEXTURE or ANIMATION_TEXTURE.
+         * @param drawable drawable resource name.
+         * @param width requested bitmap width, SIZE_ORIGINAL or SIZE_SCREEN.
+         * @param height requested bitmap height, SIZE_ORIGINAL or SIZE_SCREEN.
+         * @param frameDuration animation frame duration in milliseconds.
+         * @param mode animation mode.
+         * @param owners names of added owner objects.
+         * @return this builder.
+         */
+        public Builder addTexture(final String state, final int type, final String drawable, final float width,
+                                  final float height, final int frameDuration, final int mode,
+                                  final List<String> owners) {
+            if (owners.isEmpty()) {
+                throw new IllegalArgumentException("Texture " + drawable + " has no owners");
+            }
+            final TextureRecord texture = new TextureRecord();
+            texture.mOwners = new short[owners.size()];
+            for (int i = 0; i < owners.size(); i++) {
+                final int index = mObjectNames.indexOf(owners.get(i));
+                if (index < 0) {
+                    throw new IllegalArgumentException("Unknown object " + owners.get(i));
+                }
+                texture.mOwners[i] = (short) index;
+            }
+            texture.mState = intern(state);
+            texture.mType = type;
+            texture.mDrawable = intern(drawable);
+            texture.mWidth = width;
+            texture.mHeight = height;
+            texture.mFrameDuration = frameDuration;
+            texture.mMode = mode;
+            mTextures.add(texture);
+            return this;
+        }
+
+        /**
+         * Builds scene file.
+         * @return scene file.
+         */
+        public SceneFile build() {
+            final SceneFile file = new SceneFile(mStrings.toArray(new String[mStrings.size()]), mLayerCount,
+                    mObjects.size(), mTextures.size());
+            for (int i = 0; i < mObjects.size(); i++) {
+                final ObjectRecord object = mObjects.get(i);
+                if (object.mLayer < 0 || object.mLayer >= mLayerCount) {
+                    throw new IllegalArgumentException("Object " + mObjectNames.get(i) + " is out of layers");
+                }
+                file.mObjectName[i] = object.mName;
+                file.mObjectLayer[i] = (byte) object.mLayer;
+                file.mObjectType[i] = (byte) object.mType;
+                file.mObjectWidth[i] = object.mWidth;
+                file.mObjectHeight[i] = object.mHeight;
+                file.mObjectX[i] = object.mX;
+                file.mObjectY[i] = object.mY;
+                file.mObjectFlags[i] = (byte) object.mFlags;
+                file.mObjectLoop[i] = object.mLoop;
+            }
+            for (int i = 0; i < mTextures.size(); i++) {
+                final TextureRecord texture = mTextures.get(i);
+                file.mTextureState[i] = texture.mState;
+                file.mTextureType[i] = (byte) texture.mType;
+                file.mTextureDrawable[i] = texture.mDrawable;
+                file.mTextureWidth[i] = texture.mWidth;
+                file.mTextureHeight[i] = texture.mHeight;
+                file.mFrameDuration[i] = texture.mFrameDuration;
+                file.mMode[i] = (byte) texture.mMode;
+                file.mOwners[i] = texture.mOwners;
+            }
+            return file;
+        }
+
+        /**
+         * Adds string to string table.
+         * @param string string.
+         * @return string index.
+         */
+        private short intern(final String string) {
+            int index = mStrings.indexOf(string);
+            if (index < 0) {
+                index = mStrings.size();
+                mStrings.add(string);
+            }
+            return (short) index;
+        }
+    }
+
+    /**
+     * Object record of builder.
+     */
+    private static class ObjectRecord {
+        // Object values, see SceneFile arrays.
+        private short mName;
+        private int mLayer;
+        private int mType;
+        private float mWidth;
+        private float mHeight;
+        private float mX;
+        private float mY;
+        private int mFlags;
+        private short mLoop;
+    }
+
+    /**
+     * Texture record of builder.
+     */
+    private static class TextureRecord {
+        // Texture values, see SceneFile arrays.
+        private short mState;
+        private int mType;
+        private short mDrawable;
+        private float mWidth;
+        private float mHeight;
+        private int mFrameDuration;
+        private int mMode;
+        private short[] mOwners;
+    }
+}
@@ -1,66 +1,79 @@
 package engine;
 
 import android.content.Context;
-import android.opengl.GLES20;
 import android.opengl.GLSurfaceView;
+import android.util.Log;
 import android.view.MotionEvent;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.FloatBuffer;
-
 import javax.microedition.khronos.egl.EGLConfig;
 import javax.microedition.khronos.opengles.GL10;
 
 /**
  * OpenGL renderer class.
+ * Renders continuously while game is active and switches view to render on demand when the
+ * drawn screen is static, frame rate is capped by frame cap of drawn state.
+ * Game survives recreation of GL context, only shaders and lost textures are created again.
  */
 public class SceneGLRenderer implements GLSurfaceView.Renderer {
+    // Engine task scheduler, threads are shared by games of all surfaces.
+    private static final TaskScheduler mScheduler = new TaskScheduler(Const.WORKER_THREAD_COUNT, TimeSource.SYSTEM);
+
     private Game mGame;
     private Context mContext;
-    private FloatBuffer mVertexData;
-    private FloatBuffer mTextureCoordinates;
-    private float[] mMatrix = new float[16];
-    private int mMatrixLocation;
-    private int mPositionLocation;
-    private int mATextureLocation;
-    private int mUTextureUnitLocation;
-    private int mProgramId;
+    // View rendered by renderer.
+    private final GLSurfaceView mView;
+    // Frame cap and frame counts of screens.
+    private final FramePacer mFramePacer = new FramePacer(Const.STATE_COUNT, TimeSource.SYSTEM);
+    // True if view renders continuously, owned by render thread.
+    private boolean mIsContinuous = true;
+    // Render backend.
+    private final RenderBackend mBackend = new GlesRenderBackend();
+    // Renderer of sprite batch.
+    private final BatchRenderer mBatchRenderer = new BatchRenderer(mBackend);
 
     private final Object mLock = new Object();
 
     /**
      * Gl renderer constructor.
      * @param context application context.
+     * @param view view rendered by renderer.
      */
-    public SceneGLRenderer(final Context context) {
+    public SceneGLRenderer(final Context context, final GLSurfaceView view) {
         mContext = context;
+        mView = view;
     }
 
     @Override
     public void onDrawFrame(final GL10 arg0) {
-        synchronized (mLock) {
-            GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT);
-            mGame.checkState(mVertexData, mTextureCoordinates);
-            mGame.draw(mMatrixLocation, mMatrix);
+        waitForFrame(mGame.getFrameCap());
+        Profiler.begin(Profiler.FRAME);
+        mBackend.clear();
+        mGame.checkState();
+        final int previous = mFramePacer.beginFrame(mGame.getDrawState());
+        if (previous != FramePacer.NONE) {
+            Log.i("SceneGLRenderer", "State " + previous + " drew " + mFramePacer.getFrameCount(previous)
+                    + " frames, " + mFramePacer.getFrameRate(previous) + " fps, total frames "
+                    + mFramePacer.getFrameCount());
         }
+        mGame.draw(mBatchRenderer.getSpriteBatch());
+        setContinuous(mGame.isActive());
+        Profiler.end();
     }
 
     @Override
     public void onSurfaceCreated(final GL10 arg0, final EGLConfig arg1) {
-        GLES20.glClearColor(1f, 1f, 1f, 1f);
-        final int vertexShaderId = Shader.createShader(GLES20.GL_VERTEX_SHADER, Shader.VERTEX_SHADER);
-        final int fragmentShaderId = Shader.createShader(GLES20.GL_FRAGMENT_SHADER, Shader.FRAGMENT_SHADER);
-        mProgramId = Shader.createProgram(vertexShaderId, fragmentShaderId);
-        GLES20.glUseProgram(mProgramId);
-        prepareBuffers();
-        bindData();
-        mGame = new Game(mContext, mLock);
+        mBatchRenderer.init();
+        if (mGame == null) {
+            mGame = new Game(mContext, mLock, mBackend, mScheduler);
+        } else {
+            // GL context was lost with all its textures, game state is kept.
+            mGame.restoreContext();
+        }
     }
 
     @Override
     public void onSurfaceChanged(final GL10 arg0, final int width, final int height) {
-        GLES20.glViewport(0, 0, width, height);
+        mBackend.setViewport(width, height);
         mGame.recalculateProjection(width, height);
         mGame.setUpGame();
     }
@@ -74,41 +87,30 @@ public class SceneGLRenderer implements GLSurfaceView.Renderer {
     }
 
     /**
-     * Prepares buffers.
+     * Sleeps until frame cap allows next frame.
+     * @param frameCap max frames per second, 0 for no cap.
      */
-    private void prepareBuffers() {
-        mVertexData = ByteBuffer
-                .allocateDirect(Const.VERTEX_BUFFER_SIZE * 4)
-                .order(ByteOrder.nativeOrder())
-                .asFloatBuffer();
-
-        mTextureCoordinates = ByteBuffer
-                .allocateDirect(Const.TEXTURE_BUFFER_SIZE * 4)
-                .order(ByteOrder.nativeOrder())
-                .asFloatBuffer();
+    private void waitForFrame(final int frameCap) {
+        final long waitTime = mFramePacer.getWaitTime(frameCap);
+        if (waitTime > 0) {
+            try {
+                Thread.sleep(waitTime / 1000000, (int) (waitTime % 1000000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 
     /**
-     * Binds shader data.
+     * Switches render mode of view.
+     * Touch or render request wakes view that renders on demand.
+     * @param isContinuous true to render continuously, false to render on demand.
      */
-    private void bindData(){
-        mPositionLocation = GLES20.glGetAttribLocation(mProgramId, "a_Position");
-        mMatrixLocation = GLES20.glGetUniformLocation(mProgramId, "u_Matrix");
-        mATextureLocation = GLES20.glGetAttribLocation(mProgramId, "a_Texture");
-        mUTextureUnitLocation = GLES20.glGetUniformLocation(mProgramId, "u_TextureUnit");
-        mPositionLocation = GLES20.glGetAttribLocation(mProgramId, "a_Position");
-
-        mVertexData.position(0);
-        GLES20.glVertexAttribPointer(mPositionLocation, 2, GLES20.GL_FLOAT,
-                false, 0, mVertexData);
-        GLES20.glEnableVertexAttribArray(mPositionLocation);
-
-        mTextureCoordinates.position(0);
-        GLES20.glVertexAttribPointer(mATextureLocation, 2, GLES20.GL_FLOAT,
-                false, 0, mTextureCoordinates);
-        GLES20.glEnableVertexAttribArray(mATextureLocation);
-        GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
-        GLES20.glUniform1i(mUTextureUnitLocation, 0);
+    private void setContinuous(final boolean isContinuous) {
+        if (isContinuous != mIsContinuous) {
+            mIsContinuous = isContinuous;
+            mView.setRenderMode(isContinuous ? GLSurfaceView.RENDERMODE_CONTINUOUSLY
+                    : GLSurfaceView.RENDERMODE_WHEN_DIRTY);
+        }
     }
 }
-
@@ -2,115 +2,310 @@ package engine;
 
 import android.view.MotionEvent;
 
-import java.nio.FloatBuffer;
 import java.util.List;
 
 /**
  * Scene holder class.
+ * Level simulation runs on scheduler simulation thread in the scope of scene holder,
+ * the scope is cancelled when scene holder is stopped or released.
  */
 public class SceneHolder {
-    // Scene holder thread.
-    private SceneHolderThread mSceneHolderThread = new SceneHolderThread();
+    // Scope of scene holder tasks.
+    private final TaskScheduler.Scope mScope;
     // Scene holder handler.
     private SceneHolderHandler mSceneHolderHandler;
     // Scene.
     private DrawableScene mScene;
+    // Scene textures.
+    private TextureAtlas mAtlas;
+    // Loader of scene textures.
+    private final AssetLoader mAssetLoader;
+    // Key of scene textures in texture cache.
+    private final String mAtlasKey;
+    // True if scene textures are released.
+    private boolean mIsReleased = false;
+    // True if scene atlas is cached and queued for upload, false for prepared atlas.
+    private boolean mIsPublished;
+    // Scene simulation loop.
+    private final FixedStepLoop mLoop;
+    // Steps simulation loop on simulation thread.
+    private final TaskScheduler.Periodic mStep = new TaskScheduler.Periodic() {
+        @Override
+        public long run() {
+            if (mLoop.advance() > 0) {
+                mScene.publish(mLoop.getTickTime());
+            }
+            return mLoop.getTimeToNextTick();
+        }
+    };
+    // True if level simulation is running.
+    private volatile boolean mIsRunning = false;
+    // True if scene is published by simulation thread, otherwise by render thread.
+    private volatile boolean mIsSimulated = false;
+    // Touch input from UI thread, drained by thread that publishes the scene.
+    private final InputQueue mInputQueue = new InputQueue(Const.INPUT_QUEUE_SIZE, TimeSource.SYSTEM);
+    // Passes drained input to handler.
+    private final InputQueue.InputListener mInputListener = new InputQueue.InputListener() {
+        @Override
+        public void onInput(final int action, final int pointerId, final float x, final float y, final long time) {
+            mSceneHolderHandler.processTouch(action, pointerId, x, y, time);
+        }
+    };
+
+    /**
+     * Scene holder constructor.
+     * Loads scene textures and queues them for upload.
+     * @param levelHandler level handler.
+     * @param assetLoader loader of scene textures.
+     * @param scheduler scheduler of level simulation.
+     */
+    public SceneHolder(final SceneHolderHandler levelHandler, final AssetLoader assetLoader,
+                       final TaskScheduler scheduler) {
+        this(levelHandler, assetLoader, scheduler, false);
+    }
 
     /**
      * Scene holder constructor.
      * @param levelHandler level handler.
+     * @param assetLoader loader of scene textures.
+     * @param scheduler scheduler of level simulation.
+     * @param isPreload true to prepare scene textures without publishing them.
      */
-    public SceneHolder(final SceneHolderHandler levelHandler) {
+    private SceneHolder(final SceneHolderHandler levelHandler, final AssetLoader assetLoader,
+                        final TaskScheduler scheduler, final boolean isPreload) {
+        Profiler.begin(Profiler.INIT);
         levelHandler.init();
+        Profiler.end();
         mSceneHolderHandler = levelHandler;
         mScene = levelHandler.getScene();
+        mAssetLoader = assetLoader;
+        mAtlasKey = TextureAtlas.getKey(levelHandler.getTexturesToLoad());
+        if (isPreload) {
+            mAtlas = assetLoader.prepareAtlas(levelHandler.getTexturesToLoad());
+            mIsPublished = assetLoader.isPublished(mAtlasKey, mAtlas);
+        } else {
+            mAtlas = assetLoader.loadAtlas(levelHandler.getTexturesToLoad());
+            mIsPublished = true;
+        }
+        mScene.storePositions();
+        mScene.publish(0);
+        mLoop = new FixedStepLoop(new FixedStepLoop.Simulation() {
+            @Override
+            public void tick() {
+                Profiler.begin(Profiler.TICK);
+                mInputQueue.drain(mInputListener);
+                mScene.deliverAnimationEnds();
+                mScene.storePositions();
+                mSceneHolderHandler.processLevelThread();
+                Profiler.end();
+            }
+        }, Const.LEVEL_TICK_RATE, Const.MAX_CATCH_UP_TICKS, TimeSource.SYSTEM);
+        mScope = scheduler.createScope();
+    }
+
+    /**
+     * Prepares scene holder for preloading.
+     * Scene textures are decoded and packed by low priority tasks, but not uploaded until publish.
+     * @param levelHandler level handler.
+     * @param assetLoader loader of scene textures.
+     * @param scheduler scheduler of level simulation.
+     * @return prepared scene holder.
+     */
+    public static SceneHolder prepare(final SceneHolderHandler levelHandler, final AssetLoader assetLoader,
+                                      final TaskScheduler scheduler) {
+        return new SceneHolder(levelHandler, assetLoader, scheduler, true);
+    }
+
+    /**
+     * Publishes prepared scene textures, queues them for upload.
+     * Does nothing if textures are published.
+     */
+    public synchronized void publish() {
+        if (!mIsPublished && !mIsReleased) {
+            mAtlas = mAssetLoader.publishAtlas(mSceneHolderHandler.getTexturesToLoad(), mAtlas);
+            mIsPublished = true;
+        }
+    }
+
+    /**
+     * Gets size of prepared scene textures that are not published.
+     * @return size in bytes.
+     */
+    public synchronized long getPreparedByteCount() {
+        return mIsPublished || mIsReleased ? 0 : mAtlas.getByteCount();
+    }
+
+    /**
+     * Gets scene texture atlas.
+     * @return texture atlas.
+     */
+    public TextureAtlas getAtlas() {
+        return mAtlas;
+    }
+
+    /**
+     * Stops level simulation and releases scene textures.
+     * Textures stay in texture cache until they are evicted.
+     */
+    public synchronized void release() {
+        stopLevelThread();
+        if (!mIsReleased) {
+            mIsReleased = true;
+            if (mIsPublished) {
+                mAssetLoader.releaseAtlas(mAtlasKey);
+            } else {
+                mAssetLoader.discardAtlas(mAtlas);
+            }
+        }
     }
 
     /**
      * Touch event.
+     * Queues touch in GL coordinates, handler gets it on the thread that publishes the scene.
+     * Must be called by UI thread.
      * @param e motion event.
      */
     public void touchEvent(final MotionEvent e) {
-        mSceneHolderHandler.processTouch(e);
+        final int action;
+        switch (e.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                action = InputQueue.ACTION_DOWN;
+                break;
+            case MotionEvent.ACTION_UP:
+                action = InputQueue.ACTION_UP;
+                break;
+            case MotionEvent.ACTION_MOVE:
+                action = InputQueue.ACTION_MOVE;
+                break;
+            default:
+                return;
+        }
+        // Event time is uptime, which shares monotonic clock with System.nanoTime.
+        mInputQueue.offer(action, e.getPointerId(0), Game.getXByScreenX(e.getX()), Game.getYByScreenY(e.getY()),
+                e.getEventTime() * 1000000L);
+    }
+
+    /**
+     * Gets touch input queue.
+     * @return input queue.
+     */
+    public InputQueue getInputQueue() {
+        return mInputQueue;
     }
 
     /**
-     * Starts level thread.
+     * Starts level simulation on scheduler simulation thread.
+     * Does nothing if scene holder is stopped.
      */
     public void startLevelThread() {
-        mSceneHolderThread.start();
+        if (mScope.isCancelled()) {
+            return;
+        }
+        mIsRunning = true;
+        mIsSimulated = true;
+        mScope.schedule(mStep);
     }
 
     /**
-     * Stops level thread.
+     * Stops level simulation and cancels all tasks of scene holder.
+     * No simulation step runs after return.
      */
     public void stopLevelThread() {
+        mIsRunning = false;
+        mScope.cancel();
         mSceneHolderHandler.stopLevelThread();
     }
 
     /**
-     * Puts scene holder to buffer.
-     * @param startPos start pos in buffer.
-     * @param vertexData vertex buffer.
-     * @param textureCoordinates texture coordinates.
-     * @return new pos in buffer.
+     * Gets scope of scene holder tasks.
+     * @return task scope.
      */
-    public int putToBuffer(final int startPos, final FloatBuffer vertexData, final FloatBuffer textureCoordinates) {
-        return mScene.putToBuffer(startPos, vertexData, textureCoordinates);
+    public TaskScheduler.Scope getScope() {
+        return mScope;
     }
 
     /**
-     * Draws scene holder.
-     * @param matrixLocation matrix location.
-     * @param matrix model matrix.
+     * Returns true if scene holder needs next frame without render request.
+     * Level simulation, running animations, changes not yet drawn, pending uploads and animation ends
+     * not yet delivered need frames.
+     * Must be called by render thread after draw.
+     * @return true if scene holder is active.
      */
-    public void draw(final int matrixLocation, final float[] matrix) {
-        mSceneHolderHandler.processBeforeDraw(matrixLocation, matrix);
-        mScene.draw(matrixLocation, matrix);
-        mSceneHolderHandler.processAfterDraw(matrixLocation, matrix);
+    public boolean isActive() {
+        return mIsRunning || !mAtlas.isUploaded() || mScene.isAnimating() || mScene.isChanged()
+                || !mInputQueue.isEmpty() || mScene.hasAnimationEnds();
     }
 
     /**
-     * Scene holder thread.
+     * Draws scene holder.
+     * @param batch sprite batch.
+     * @param clock frame clock.
      */
-    private class SceneHolderThread extends Thread{
-        @Override
-        public void run() {
-            mSceneHolderHandler.processLevelThread();
+    public void draw(final SpriteBatch batch, final FrameClock clock) {
+        if (!mAtlas.isUploaded()) {
+            return;
+        }
+        Profiler.begin(Profiler.SCENE_DRAW);
+        if (!mIsSimulated) {
+            mInputQueue.drain(mInputListener);
+            mScene.deliverAnimationEnds();
+        }
+        mSceneHolderHandler.processBeforeDraw(batch, clock);
+        if (!mIsSimulated) {
+            mScene.publish(0);
         }
+        final SceneState.Snapshot snapshot = mScene.acquire();
+        final long time = clock.getTime();
+        final float alpha = mIsRunning ? mLoop.getAlpha(time, snapshot.getTime()) : 1;
+        mScene.draw(batch, snapshot, alpha, time);
+        mSceneHolderHandler.processAfterDraw(batch);
+        Profiler.end();
     }
 
     /**
      * Scene holder handler interface.
+     * Handler changes objects of its scene only on the thread that publishes the scene: simulation
+     * thread if level simulation runs, otherwise render thread. Requests of other threads, like
+     * game listener calls from another scene, are kept in volatile fields and applied by handler
+     * on the publishing thread.
      */
     public interface SceneHolderHandler {
         /**
          * Action before draw.
-         * @param matrixLocation matrix location.
-         * @param matrix model matrix.
+         * Called by render thread before scene is published if level simulation does not run.
+         * @param batch sprite batch.
+         * @param clock frame clock.
          */
-        void processBeforeDraw(final int matrixLocation, final float[] matrix);
+        void processBeforeDraw(final SpriteBatch batch, final FrameClock clock);
 
         /**
          * Action after draw.
-         * @param matrixLocation matrix location.
-         * @param matrix model matrix.
+         * Called by render thread.
+         * @param batch sprite batch.
          */
-        void processAfterDraw(final int matrixLocation, final float[] matrix);
+        void processAfterDraw(final SpriteBatch batch);
 
         /**
          * Touch action.
-         * @param e motion event.
+         * Called by simulation thread if level simulation runs, otherwise by render thread,
+         * so handler may change objects of its scene.
+         * @param action action of InputQueue.
+         * @param pointerId pointer id.
+         * @param x GL x.
+         * @param y GL y.
+         * @param time event time in nanoseconds.
          */
-        void processTouch(final MotionEvent e);
+        void processTouch(final int action, final int pointerId, final float x, final float y, final long time);
 
         /**
-         * Body of level thread.
+         * One fixed time step of level simulation.
+         * Called by simulation thread.
          */
         void processLevelThread();
 
         /**
-         * Stops level thread.
+         * Stops level simulation.
+         * Called after last simulation step.
          */
         void stopLevelThread();
 
@@ -0,0 +1,202 @@
+package engine;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.content.res.Resources;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Scene instance class.
+ * Creates drawable scene, objects and texture templates described by a scene file.
+ */
+public class SceneInstance {
+    // Asset directory of compiled scene files.
+    public static final String SCENE_DIRECTORY = "scenes/";
+
+    // Drawable scene.
+    private final DrawableScene mScene;
+    // Objects by name.
+    private final Map<String, DrawableObject> mObjects;
+    // Texture templates of objects.
+    private final List<TextureTemplate> mTexturesToLoad;
+
+    /**
+     * Scene instance constructor.
+     * @param file scene file.
+     * @param requestFactory factory of bitmap requests.
+     */
+    public SceneInstance(final SceneFile file, final RequestFactory requestFactory) {
+        mScene = new DrawableScene(file.getLayerCount());
+        final int objectCount = file.getObjectCount();
+        final DrawableObject[] objects = new DrawableObject[objectCount];
+        mObjects = new HashMap<>(objectCount * 2);
+        for (int i = 0; i < objectCount; i++) {
+            final int type = file.getObjectType(i) == SceneFile.SQUARE_SPRITE
+                    ? DrawableObject.SQUARE_SPRITE : DrawableObject.NORMAL_SPRITE;
+            final DrawableObject object = new DrawableObject(file.getObjectWidth(i), file.getObjectHeight(i), type);
+            object.setX(file.getObjectX(i));
+            object.setY(file.getObjectY(i));
+            if (file.isObjectHidden(i)) {
+                object.setVisible(false);
+            }
+            final String loop = file.getObjectLoop(i);
+            if (loop != null) {
+                object.animateLoop(StateRegistry.intern(loop));
+            }
+            objects[i] = object;
+            mObjects.put(file.getObjectName(i), object);
+            mScene.addToLayer(file.getObjectLayer(i), object);
+        }
+
+        final int textureCount = file.getTextureCount();
+        mTexturesToLoad = new ArrayList<>(textureCount);
+        for (int i = 0; i < textureCount; i++) {
+            final short[] ownerIndices = file.getOwners(i);
+            final List<DrawableObject> owners = new ArrayList<>(ownerIndices.length);
+            for (final short owner : ownerIndices) {
+                owners.add(objects[owner]);
+            }
+            final BitmapRequest request = requestFactory.createRequest(file.getTextureDrawable(i),
+                    getSize(file.getTextureWidth(i), Game.getScreenWidth()),
+                    getSize(file.getTextureHeight(i), Game.getScreenHeight()));
+            final TextureTemplate template;
+            if (file.getTextureType(i) == SceneFile.ANIMATION_TEXTURE) {
+                template = new TextureTemplate(file.getTextureState(i), request, owners, file.getFrameDuration(i),
+                        getMode(file.getMode(i)));
+            } else {
+                template = new TextureTemplate(file.getTextureState(i), TextureTemplate.SIMPLE_TEXTURE, request,
+                        owners);
+            }
+            mTexturesToLoad.add(template);
+        }
+    }
+
+    /**
+     * Loads compiled scene from assets.
+     * Scene files are stored uncompressed and mapped into memory.
+     * Drawables that are compressed at build time are requested as compressed textures.
+     * @param context application context.
+     * @param name scene name.
+     * @return scene instance.
+     */
+    public static SceneInstance load(final Context context, final String name) {
+        Profiler.begin(Profiler.LOAD_SCENE);
+        try {
+            final AssetFileDescriptor descriptor = context.getAssets().openFd(
+                    SCENE_DIRECTORY + name + SceneCompiler.FILE_EXTENSION);
+            final ByteBuffer buffer;
+            final FileInputStream stream = new FileInputStream(descriptor.getFileDescriptor());
+            try {
+                buffer = stream.getChannel().map(FileChannel.MapMode.READ_ONLY, descriptor.getStartOffset(),
+                        descriptor.getLength());
+            } finally {
+                stream.close();
+                descriptor.close();
+            }
+            final AssetManager assets = context.getAssets();
+            final Resources resources = context.getResources();
+            final String packageName = context.getPackageName();
+            final Set<String> compressed = new HashSet<>(Arrays.asList(
+                    assets.list(CompressedTextureRequest.TEXTURE_DIRECTORY)));
+            return new SceneInstance(SceneFile.read(buffer), new RequestFactory() {
+                @Override
+                public BitmapRequest createRequest(final String drawable, final float width, final float height) {
+                    if (compressed.contains(drawable + CompressedTexture.FILE_EXTENSION)) {
+                        return new CompressedTextureRequest(assets, drawable);
+                    }
+                    final int id = resources.getIdentifier(drawable, "drawable", packageName);
+                    if (id == 0) {
+                        throw new IllegalStateException("Drawable " + drawable + " of scene " + name
+                                + " is not found");
+                    }
+                    return new BitmapRequest(resources, id, width, height);
+                }
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException("Scene " + name + " can not be loaded", e);
+        } finally {
+            Profiler.end();
+        }
+    }
+
+    /**
+     * Gets drawable scene.
+     * @return drawable scene.
+     */
+    public DrawableScene getScene() {
+        return mScene;
+    }
+
+    /**
+     * Gets object by name.
+     * @param name object name.
+     * @return drawable object.
+     */
+    public DrawableObject getObject(final String name) {
+        final DrawableObject object = mObjects.get(name);
+        if (object == null) {
+            throw new IllegalArgumentException("Scene has no object " + name);
+        }
+        return object;
+    }
+
+    /**
+     * Gets texture templates of objects.
+     * @return texture templates.
+     */
+    public List<TextureTemplate> getTexturesToLoad() {
+        return mTexturesToLoad;
+    }
+
+    /**
+     * Converts requested bitmap size of scene file.
+     * @param size size of scene file.
+     * @param screenSize screen size.
+     * @return size of bitmap request.
+     */
+    private static float getSize(final float size, final float screenSize) {
+        return size == SceneFile.SIZE_SCREEN ? screenSize : size;
+    }
+
+    /**
+     * Converts animation mode of scene file.
+     * @param mode mode of scene file.
+     * @return mode of AnimationClip.
+     */
+    private static int getMode(final int mode) {
+        switch (mode) {
+            case SceneFile.MODE_ONCE:
+                return AnimationClip.MODE_ONCE;
+            case SceneFile.MODE_PING_PONG:
+                return AnimationClip.MODE_PING_PONG;
+            default:
+                return AnimationClip.MODE_LOOP;
+        }
+    }
+
+    /**
+     * Factory of bitmap requests.
+     */
+    public interface RequestFactory {
+        /**
+         * Creates request of drawable.
+         * @param drawable drawable resource name.
+         * @param width width to resize bitmap to, -1 for original size.
+         * @param height height to resize bitmap to, -1 for original size.
+         * @return bitmap request.
+         */
+        BitmapRequest createRequest(final String drawable, final float width, final float height);
+    }
+}
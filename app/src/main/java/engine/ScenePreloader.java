@@ -0,0 +1,257 @@
+package engine;
+
+/**
+ * Scene preloader class.
+ * Prepares the likely next game state on a low priority worker while the current state runs,
+ * so state switch takes prepared scenes instead of decoding them. Prepared state whose
+ * unpublished textures exceed the byte budget is dropped. Records latency of state transitions.
+ */
+public class ScenePreloader {
+    // No state.
+    public static final int NONE = -1;
+
+    // Scope of preload tasks.
+    private final TaskScheduler.Scope mScope;
+    // Preparer of states.
+    private final Preparer mPreparer;
+    // Max bytes of prepared textures that are not published.
+    private final long mByteBudget;
+    // Time source.
+    private final TimeSource mTimeSource;
+
+    // Preloaded state, guarded by this.
+    private int mState = NONE;
+    // Preload generation, changed by every preload and cancel, guarded by this.
+    private int mGeneration = 0;
+    // Preload task, guarded by this.
+    private TaskScheduler.Task mTask;
+    // Prepared state, guarded by this.
+    private Prepared mPrepared;
+    // Preload counters, guarded by this.
+    private long mHitCount = 0;
+    private long mMissCount = 0;
+    private long mDroppedCount = 0;
+    // Start time of current transition, guarded by this.
+    private long mTransitionStartTime = 0;
+    // True if current transition takes prepared state, guarded by this.
+    private boolean mIsTransitionPreloaded = false;
+    // Transition counters, guarded by this.
+    private long mTransitionCount = 0;
+    private long mLastTransitionLatency = 0;
+    private long mMaxTransitionLatency = 0;
+    private long mTotalTransitionLatency = 0;
+
+    /**
+     * Scene preloader constructor.
+     * @param scheduler scheduler of preload tasks.
+     * @param preparer preparer of states.
+     * @param byteBudget max bytes of prepared textures that are not published.
+     * @param timeSource time source.
+     */
+    public ScenePreloader(final TaskScheduler scheduler, final Preparer preparer, final long byteBudget,
+                          final TimeSource timeSource) {
+        mScope = scheduler.createScope();
+        mPreparer = preparer;
+        mByteBudget = byteBudget;
+        mTimeSource = timeSource;
+    }
+
+    /**
+     * Starts preloading of state on a low priority worker.
+     * Cancels preload of other state, does nothing if state is already preloaded.
+     * @param state state to preload.
+     */
+    public synchronized void preload(final int state) {
+        if (mState == state) {
+            return;
+        }
+        cancel();
+        mState = state;
+        final int generation = ++mGeneration;
+        mTask = mScope.submit(new Runnable() {
+            @Override
+            public void run() {
+                Profiler.begin(Profiler.PRELOAD);
+                final Prepared prepared = mPreparer.prepare(state);
+                Profiler.end();
+                onPrepared(generation, prepared);
+            }
+        }, TaskScheduler.PRIORITY_LOW);
+    }
+
+    /**
+     * Takes prepared state.
+     * Waits for running preload of the state, cancels preload of other state.
+     * @param state state to switch to.
+     * @return prepared state that caller owns, null if state is not preloaded.
+     * @throws InterruptedException if waiting is interrupted.
+     */
+    public Prepared take(final int state) throws InterruptedException {
+        final TaskScheduler.Task task;
+        synchronized (this) {
+            if (mState != state) {
+                cancel();
+                mMissCount++;
+                return null;
+            }
+            task = mTask;
+        }
+        task.join();
+        synchronized (this) {
+            if (mTask != task) {
+                mMissCount++;
+                return null;
+            }
+            final Prepared prepared = mPrepared;
+            mPrepared = null;
+            mTask = null;
+            mState = NONE;
+            if (prepared == null) {
+                mMissCount++;
+            } else {
+                mHitCount++;
+                mIsTransitionPreloaded = true;
+            }
+            return prepared;
+        }
+    }
+
+    /**
+     * Cancels preload and releases prepared state.
+     */
+    public synchronized void cancel() {
+        mGeneration++;
+        if (mTask != null) {
+            mTask.cancel();
+            mTask = null;
+        }
+        if (mPrepared != null) {
+            mPrepared.release();
+            mPrepared = null;
+        }
+        mState = NONE;
+    }
+
+    /**
+     * Marks start of state transition.
+     */
+    public synchronized void beginTransition() {
+        mTransitionStartTime = mTimeSource.nanoTime();
+        mIsTransitionPreloaded = false;
+    }
+
+    /**
+     * Marks end of state transition, when new state is shown.
+     * @return transition latency in nanoseconds.
+     */
+    public synchronized long endTransition() {
+        mLastTransitionLatency = mTimeSource.nanoTime() - mTransitionStartTime;
+        mMaxTransitionLatency = Math.max(mMaxTransitionLatency, mLastTransitionLatency);
+        mTotalTransitionLatency+= mLastTransitionLatency;
+        mTransitionCount++;
+        return mLastTransitionLatency;
+    }
+
+    /**
+     * Returns true if last transition took prepared state.
+     * @return true if last transition was preloaded.
+     */
+    public synchronized boolean isTransitionPreloaded() {
+        return mIsTransitionPreloaded;
+    }
+
+    /**
+     * Gets latency of last transition.
+     * @return latency in nanoseconds.
+     */
+    public synchronized long getLastTransitionLatency() {
+        return mLastTransitionLatency;
+    }
+
+    /**
+     * Gets max transition latency.
+     * @return latency in nanoseconds.
+     */
+    public synchronized long getMaxTransitionLatency() {
+        return mMaxTransitionLatency;
+    }
+
+    /**
+     * Gets average transition latency.
+     * @return latency in nanoseconds, 0 if there was no transition.
+     */
+    public synchronized long getAverageTransitionLatency() {
+        return mTransitionCount == 0 ? 0 : mTotalTransitionLatency / mTransitionCount;
+    }
+
+    /**
+     * Gets count of transitions that took prepared state.
+     * @return hit count.
+     */
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * Gets count of transitions that found no prepared state.
+     * @return miss count.
+     */
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Gets count of prepared states dropped because of byte budget.
+     * @return dropped count.
+     */
+    public synchronized long getDroppedCount() {
+        return mDroppedCount;
+    }
+
+    /**
+     * Keeps prepared state if it is still wanted and fits budget.
+     * @param generation preload generation.
+     * @param prepared prepared state.
+     */
+    private void onPrepared(final int generation, final Prepared prepared) {
+        synchronized (this) {
+            if (mGeneration == generation) {
+                if (prepared.getByteCount() <= mByteBudget) {
+                    mPrepared = prepared;
+                    return;
+                }
+                mDroppedCount++;
+            }
+        }
+        prepared.release();
+    }
+
+    /**
+     * Prepared game state.
+     */
+    public interface Prepared {
+        /**
+         * Gets size of prepared textures that are not published.
+         * @return size in bytes.
+         */
+        long getByteCount();
+
+        /**
+         * Releases prepared state that is not taken.
+         */
+        void release();
+    }
+
+    /**
+     * Preparer of game states.
+     */
+    public interface Preparer {
+        /**
+         * Prepares state.
+         * Called by low priority worker, preparation is cancelled by interrupt.
+         * @param state state to prepare.
+         * @return prepared state.
+         */
+        Prepared prepare(final int state);
+    }
+}
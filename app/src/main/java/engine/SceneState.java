@@ -0,0 +1,173 @@
+package engine;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Triple buffered scene state.
+ * One writer thread publishes snapshots of the entity store, one reader thread draws the latest
+ * published snapshot. Writer and reader never touch the same snapshot, and a snapshot is handed
+ * over by a single atomic swap, so neither side takes a lock.
+ */
+public class SceneState {
+    // Snapshot being filled by writer.
+    private Snapshot mBack = new Snapshot();
+    // Latest published snapshot.
+    private final AtomicReference<Snapshot> mReady = new AtomicReference<>(new Snapshot());
+    // Snapshot being read by reader.
+    private Snapshot mFront = new Snapshot();
+    // Sequence number of last published snapshot.
+    private long mSequence = 0;
+
+    /**
+     * Publishes state of entities.
+     * Must be called by one writer thread at a time.
+     * @param store entity store.
+     * @param layers scene layers in draw order.
+     * @param time simulation time the state corresponds to.
+     */
+    public void publish(final EntityStore store, final List<DrawableLayer> layers, final long time) {
+        final Snapshot back = mBack;
+        back.copy(store);
+        int orderCount = 0;
+        for (final DrawableLayer layer : layers) {
+            orderCount = layer.putOrder(back.mOrder, orderCount);
+        }
+        back.mOrderCount = orderCount;
+        back.mTime = time;
+        back.mSequence = ++mSequence;
+        mBack = mReady.getAndSet(back);
+    }
+
+    /**
+     * Gets latest published snapshot.
+     * Must be called by one reader thread. Snapshot stays valid until next acquire.
+     * @return snapshot.
+     */
+    public Snapshot acquire() {
+        if (mReady.get().mSequence > mFront.mSequence) {
+            mFront = mReady.getAndSet(mFront);
+        }
+        return mFront;
+    }
+
+    /**
+     * Scene snapshot.
+     * Arrays are indexed by entity like arrays of entity store.
+     */
+    public static class Snapshot {
+        // Entity count.
+        int mCount = 0;
+        // Simulation time.
+        long mTime = 0;
+        // Publish sequence number.
+        long mSequence = 0;
+
+        // Entity arrays.
+        float[] mX = new float[0];
+        float[] mY = new float[0];
+        float[] mPrevX = new float[0];
+        float[] mPrevY = new float[0];
+        float[] mWidth = new float[0];
+        float[] mHeight = new float[0];
+        int[] mTexture = new int[0];
+        int[] mAnimation = new int[0];
+        int[] mAnimationState = new int[0];
+        int[] mAnimationSerial = new int[0];
+        int[] mAnimationMode = new int[0];
+        long[] mVisible = new long[0];
+        long[] mSquare = new long[0];
+
+        // Entities in draw order.
+        int[] mOrder = new int[0];
+        int mOrderCount = 0;
+
+        // Texture and animation tables.
+        TextureRegion[] mRegions;
+        AnimationClip[] mClips;
+
+        /**
+         * Gets entity count.
+         * @return entity count.
+         */
+        public int getCount() {
+            return mCount;
+        }
+
+        /**
+         * Gets simulation time.
+         * @return simulation time in nanoseconds.
+         */
+        public long getTime() {
+            return mTime;
+        }
+
+        /**
+         * Gets entity x.
+         * @param index entity index.
+         * @return entity x.
+         */
+        public float getX(final int index) {
+            return mX[index];
+        }
+
+        /**
+         * Gets entity y.
+         * @param index entity index.
+         * @return entity y.
+         */
+        public float getY(final int index) {
+            return mY[index];
+        }
+
+        /**
+         * Returns true if entity is visible.
+         * @param index entity index.
+         * @return true if entity is visible.
+         */
+        public boolean isVisible(final int index) {
+            return EntityStore.getBit(mVisible, index);
+        }
+
+        /**
+         * Copies entity store.
+         * @param store entity store.
+         */
+        private void copy(final EntityStore store) {
+            final int count = store.mCount;
+            if (mX.length < count) {
+                final int capacity = Math.max(count, mX.length * 2);
+                mX = new float[capacity];
+                mY = new float[capacity];
+                mPrevX = new float[capacity];
+                mPrevY = new float[capacity];
+                mWidth = new float[capacity];
+                mHeight = new float[capacity];
+                mTexture = new int[capacity];
+                mAnimation = new int[capacity];
+                mAnimationState = new int[capacity];
+                mAnimationSerial = new int[capacity];
+                mAnimationMode = new int[capacity];
+                mVisible = new long[EntityStore.bitsetSize(capacity)];
+                mSquare = new long[EntityStore.bitsetSize(capacity)];
+                mOrder = new int[capacity];
+            }
+            System.arraycopy(store.mX, 0, mX, 0, count);
+            System.arraycopy(store.mY, 0, mY, 0, count);
+            System.arraycopy(store.mPrevX, 0, mPrevX, 0, count);
+            System.arraycopy(store.mPrevY, 0, mPrevY, 0, count);
+            System.arraycopy(store.mWidth, 0, mWidth, 0, count);
+            System.arraycopy(store.mHeight, 0, mHeight, 0, count);
+            System.arraycopy(store.mTexture, 0, mTexture, 0, count);
+            System.arraycopy(store.mAnimation, 0, mAnimation, 0, count);
+            System.arraycopy(store.mAnimationState, 0, mAnimationState, 0, count);
+            System.arraycopy(store.mAnimationSerial, 0, mAnimationSerial, 0, count);
+            System.arraycopy(store.mAnimationMode, 0, mAnimationMode, 0, count);
+            System.arraycopy(store.mVisible, 0, mVisible, 0, EntityStore.bitsetSize(count));
+            System.arraycopy(store.mSquare, 0, mSquare, 0, EntityStore.bitsetSize(count));
+            mRegions = store.mRegions;
+            mClips = store.mClips;
+            mCount = count;
+        }
+    }
+}
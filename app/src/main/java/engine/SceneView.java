@@ -2,11 +2,13 @@ package engine;
 
 import android.content.Context;
 import android.opengl.GLSurfaceView;
+import android.os.Build;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 
 /**
  * OpenGL GL Surface View.
+ * Renderer switches view to render on demand on static screens, touch requests a frame.
  */
 public class SceneView extends GLSurfaceView {
     private SceneGLRenderer mRenderer;
@@ -33,6 +35,7 @@ public class SceneView extends GLSurfaceView {
     @Override
     public boolean onTouchEvent(final MotionEvent e) {
         mRenderer.touchEvent(e);
+        requestRender();
         return true;
     }
 
@@ -41,7 +44,11 @@ public class SceneView extends GLSurfaceView {
      */
     private void init() {
         setEGLContextClientVersion(2);
-        mRenderer = new SceneGLRenderer(getContext());
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB) {
+            // Devices that can keep GL context while paused skip texture restore on resume.
+            setPreserveEGLContextOnPause(true);
+        }
+        mRenderer = new SceneGLRenderer(getContext(), this);
         setRenderer(mRenderer);
     }
 }
@@ -19,10 +19,14 @@ public class Shader {
     public static final String FRAGMENT_SHADER =
             "precision mediump float;\n" +
                     "uniform sampler2D u_TextureUnit;\n" +
+                    "uniform sampler2D u_AlphaUnit;\n" +
+                    "uniform float u_AlphaPlane;\n" +
                     "varying vec2 v_Texture;\n" +
                     "void main()\n" +
                     "{\n" +
-                    "    gl_FragColor = texture2D(u_TextureUnit, v_Texture);\n" +
+                    "    vec4 color = texture2D(u_TextureUnit, v_Texture);\n" +
+                    "    color.a = mix(color.a, texture2D(u_AlphaUnit, v_Texture).g, u_AlphaPlane);\n" +
+                    "    gl_FragColor = color;\n" +
                     "}";
 
     /**
@@ -0,0 +1,46 @@
+package engine;
+
+/**
+ * Sound clip class.
+ * Decoded mono 16 bit PCM samples of a short sound.
+ */
+public class SoundClip {
+    // PCM samples.
+    private final short[] mSamples;
+    // Sample rate.
+    private final int mSampleRate;
+
+    /**
+     * Sound clip constructor.
+     * @param samples mono 16 bit PCM samples.
+     * @param sampleRate sample rate.
+     */
+    public SoundClip(final short[] samples, final int sampleRate) {
+        mSamples = samples;
+        mSampleRate = sampleRate;
+    }
+
+    /**
+     * Gets samples.
+     * @return PCM samples.
+     */
+    public short[] getSamples() {
+        return mSamples;
+    }
+
+    /**
+     * Gets sample count.
+     * @return sample count.
+     */
+    public int getLength() {
+        return mSamples.length;
+    }
+
+    /**
+     * Gets sample rate.
+     * @return sample rate.
+     */
+    public int getSampleRate() {
+        return mSampleRate;
+    }
+}
@@ -2,24 +2,64 @@ package engine;
 
 import android.content.Context;
 import android.media.MediaPlayer;
+import android.util.Log;
 
 import com.flappyfishgame.R;
 
+import java.io.IOException;
+
 /**
  * Sound player class.
+ * Short sounds are decoded once and played by audio engine, background music is streamed.
  */
 public class SoundPlayer {
     private static MediaPlayer mp;
-    private static MediaPlayer mp2;
+
+    // Audio engine of short sounds.
+    private static volatile AudioEngine mAudioEngine;
+    // Decoded sounds.
+    private static SoundClip mWaterBubbles;
+    private static SoundClip mClick;
+    private static SoundClip mMistake;
+    private static SoundClip mWin;
+
+    /**
+     * Decodes sounds and starts audio engine.
+     * Decodes sounds only on first call.
+     * @param context application context.
+     */
+    public static synchronized void start(final Context context) {
+        if (mAudioEngine == null) {
+            final AudioEngine engine = new AudioEngine(Const.VOICE_COUNT, Const.MIXER_SAMPLE_RATE);
+            try {
+                mWaterBubbles = engine.load(context.getResources(), R.raw.water_bubbles);
+                mClick = engine.load(context.getResources(), R.raw.click);
+                mMistake = engine.load(context.getResources(), R.raw.mistake);
+                mWin = engine.load(context.getResources(), R.raw.win);
+            } catch (IOException e) {
+                Log.e("SoundPlayer", "Sounds are not loaded", e);
+                return;
+            }
+            mAudioEngine = engine;
+        }
+        mAudioEngine.start();
+    }
+
+    /**
+     * Stops audio engine.
+     */
+    public static synchronized void stop() {
+        if (mAudioEngine != null) {
+            mAudioEngine.stop();
+        }
+    }
 
     /**
      * Starts playing background music.
      * @param context application context.
      */
     public static void playBackgroundMusic(final Context context) {
-        if (mp != null && mp.isPlaying()) {
-            mp.stop();
-        }
+        stopBackgroundMusic();
         mp = MediaPlayer.create(context, R.raw.water);
         mp.setLooping(true);
         mp.start();
@@ -29,19 +69,22 @@ public class SoundPlayer {
      * Stops playing background music.
      */
     public static void stopBackgroundMusic() {
-        if (mp != null && mp.isPlaying()) {
+        if (mp != null) {
             mp.stop();
+            mp.release();
+            mp = null;
         }
     }
 
     /**
      * Plays water bubbles sound.
+     * Does not restart sound that is playing.
      * @param context application context.
      */
     public static void playWaterBubblesSound(final Context context) {
-        if (mp2 == null || mp2 != null && !mp2.isPlaying()) {
-            mp2 = MediaPlayer.create(context, R.raw.water_bubbles);
-            mp2.start();
+        final AudioEngine engine = mAudioEngine;
+        if (engine != null && !engine.isPlaying(mWaterBubbles)) {
+            engine.play(mWaterBubbles, Const.SOUND_PRIORITY_AMBIENT, 1);
         }
     }
 
@@ -50,7 +93,7 @@ public class SoundPlayer {
      * @param context application context.
      */
     public static void playClickSound(final Context context) {
-        MediaPlayer.create(context, R.raw.click).start();
+        play(mClick, Const.SOUND_PRIORITY_UI);
     }
 
     /**
@@ -58,7 +101,7 @@ public class SoundPlayer {
      * @param context application context.
      */
     public static void playMistakeSound(final Context context) {
-        MediaPlayer.create(context, R.raw.mistake).start();
+        play(mMistake, Const.SOUND_PRIORITY_EVENT);
     }
 
     /**
@@ -66,6 +109,18 @@ public class SoundPlayer {
      * @param context application context.
      */
     public static void playWinSound(final Context context) {
-        MediaPlayer.create(context, R.raw.win).start();
+        play(mWin, Const.SOUND_PRIORITY_EVENT);
+    }
+
+    /**
+     * Plays sound if audio engine is started.
+     * @param clip sound clip.
+     * @param priority sound priority.
+     */
+    private static void play(final SoundClip clip, final int priority) {
+        final AudioEngine engine = mAudioEngine;
+        if (engine != null) {
+            engine.play(clip, priority, 1);
+        }
     }
 }
@@ -0,0 +1,405 @@
+package engine;
+
+/**
+ * Spatial hash class.
+ * Uniform grid over GL coordinate space for point and AABB queries.
+ * Entries are identified by ids chosen by caller. Every entry is linked into the cells its AABB covers,
+ * cell lists are intrusive int arrays, so moving entries does not allocate once node pool is warm.
+ * Entries outside of the grid are kept in border cells.
+ * Not thread safe.
+ */
+public class SpatialHash {
+    // No node or entry.
+    public static final int NONE = -1;
+
+    // Grid origin.
+    private final float mMinX;
+    private final float mMinY;
+    // Cell size.
+    private final float mCellSize;
+    // Grid size in cells.
+    private final int mColumns;
+    private final int mRows;
+    // First node of every cell.
+    private final int[] mCellHead;
+
+    // Node pool: entry id, cell, links in cell list and next node of the same entry.
+    private int[] mNodeId;
+    private int[] mNodeCell;
+    private int[] mNodePrev;
+    private int[] mNodeNext;
+    private int[] mNodeSibling;
+    // First free node.
+    private int mFreeNode = NONE;
+
+    // Entry bounds by id.
+    private float[] mLeft;
+    private float[] mBottom;
+    private float[] mRight;
+    private float[] mTop;
+    // Entry cell ranges by id.
+    private int[] mMinColumn;
+    private int[] mMinRow;
+    private int[] mMaxColumn;
+    private int[] mMaxRow;
+    // First node of entry by id, NONE if entry is not added.
+    private int[] mFirstNode;
+    // Last query that visited entry, used to report entries covering several cells once.
+    private int[] mQueryStamp;
+    // Current query.
+    private int mQuery = 0;
+    // Entry count.
+    private int mCount = 0;
+
+    /**
+     * Spatial hash constructor.
+     * @param minX left of grid.
+     * @param minY bottom of grid.
+     * @param maxX right of grid.
+     * @param maxY top of grid.
+     * @param cellSize cell size.
+     * @param capacity initial entry capacity.
+     */
+    public SpatialHash(final float minX, final float minY, final float maxX, final float maxY,
+                       final float cellSize, final int capacity) {
+        mMinX = minX;
+        mMinY = minY;
+        mCellSize = cellSize;
+        mColumns = Math.max(1, (int) Math.ceil((maxX - minX) / cellSize));
+        mRows = Math.max(1, (int) Math.ceil((maxY - minY) / cellSize));
+        mCellHead = new int[mColumns * mRows];
+        for (int i = 0; i < mCellHead.length; i++) {
+            mCellHead[i] = NONE;
+        }
+        allocateEntries(Math.max(1, capacity));
+        allocateNodes(Math.max(1, capacity) * 4);
+    }
+
+    /**
+     * Adds entry.
+     * @param id entry id, not negative.
+     * @param left left of AABB.
+     * @param bottom bottom of AABB.
+     * @param right right of AABB.
+     * @param top top of AABB.
+     */
+    public void add(final int id, final float left, final float bottom, final float right, final float top) {
+        if (id >= mFirstNode.length) {
+            allocateEntries(Math.max(id + 1, mFirstNode.length * 2));
+        }
+        if (mFirstNode[id] != NONE) {
+            throw new IllegalArgumentException("Entry " + id + " is already added");
+        }
+        mCount++;
+        setBounds(id, left, bottom, right, top);
+        link(id);
+    }
+
+    /**
+     * Adds drawable object.
+     * @param id entry id, not negative.
+     * @param object drawable object.
+     */
+    public void add(final int id, final DrawableObject object) {
+        final float halfWidth = object.getWidth() / 2;
+        final float halfHeight = object.getHeight() / 2;
+        add(id, object.getX() - halfWidth, object.getY() - halfHeight,
+                object.getX() + halfWidth, object.getY() + halfHeight);
+    }
+
+    /**
+     * Moves entry.
+     * Relinks entry only if it covers other cells.
+     * @param id entry id.
+     * @param left left of AABB.
+     * @param bottom bottom of AABB.
+     * @param right right of AABB.
+     * @param top top of AABB.
+     */
+    public void move(final int id, final float left, final float bottom, final float right, final float top) {
+        if (!contains(id)) {
+            throw new IllegalArgumentException("Entry " + id + " is not added");
+        }
+        final int minColumn = mMinColumn[id];
+        final int minRow = mMinRow[id];
+        final int maxColumn = mMaxColumn[id];
+        final int maxRow = mMaxRow[id];
+        setBounds(id, left, bottom, right, top);
+        if (minColumn != mMinColumn[id] || minRow != mMinRow[id]
+                || maxColumn != mMaxColumn[id] || maxRow != mMaxRow[id]) {
+            unlink(id);
+            link(id);
+        }
+    }
+
+    /**
+     * Moves drawable object.
+     * @param id entry id.
+     * @param object drawable object.
+     */
+    public void move(final int id, final DrawableObject object) {
+        final float halfWidth = object.getWidth() / 2;
+        final float halfHeight = object.getHeight() / 2;
+        move(id, object.getX() - halfWidth, object.getY() - halfHeight,
+                object.getX() + halfWidth, object.getY() + halfHeight);
+    }
+
+    /**
+     * Removes entry.
+     * @param id entry id.
+     */
+    public void remove(final int id) {
+        if (contains(id)) {
+            unlink(id);
+            mCount--;
+        }
+    }
+
+    /**
+     * Returns true if entry is added.
+     * @param id entry id.
+     * @return true if entry is added.
+     */
+    public boolean contains(final int id) {
+        return id >= 0 && id < mFirstNode.length && mFirstNode[id] != NONE;
+    }
+
+    /**
+     * Gets entry count.
+     * @return entry count.
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Finds entries whose AABB contains point.
+     * @param x point x.
+     * @param y point y.
+     * @param result array for entry ids.
+     * @return count of found entries, not more than result length.
+     */
+    public int queryPoint(final float x, final float y, final int[] result) {
+        int count = 0;
+        for (int node = mCellHead[getRow(y) * mColumns + getColumn(x)]; node != NONE; node = mNodeNext[node]) {
+            final int id = mNodeId[node];
+            if (mLeft[id] <= x && x <= mRight[id] && mBottom[id] <= y && y <= mTop[id]) {
+                if (count == result.length) {
+                    break;
+                }
+                result[count++] = id;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds entries whose AABB overlaps AABB.
+     * @param left left of AABB.
+     * @param bottom bottom of AABB.
+     * @param right right of AABB.
+     * @param top top of AABB.
+     * @param result array for entry ids.
+     * @return count of found entries, not more than result length.
+     */
+    public int queryBox(final float left, final float bottom, final float right, final float top,
+                        final int[] result) {
+        final int query = nextQuery();
+        final int minColumn = getColumn(left);
+        final int maxColumn = getColumn(right);
+        final int maxRow = getRow(top);
+        int count = 0;
+        for (int row = getRow(bottom); row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                for (int node = mCellHead[row * mColumns + column]; node != NONE; node = mNodeNext[node]) {
+                    final int id = mNodeId[node];
+                    if (mQueryStamp[id] == query) {
+                        continue;
+                    }
+                    mQueryStamp[id] = query;
+                    if (mLeft[id] <= right && left <= mRight[id] && mBottom[id] <= top && bottom <= mTop[id]) {
+                        if (count == result.length) {
+                            return count;
+                        }
+                        result[count++] = id;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Sets entry bounds and cell range.
+     * @param id entry id.
+     * @param left left of AABB.
+     * @param bottom bottom of AABB.
+     * @param right right of AABB.
+     * @param top top of AABB.
+     */
+    private void setBounds(final int id, final float left, final float bottom, final float right, final float top) {
+        mLeft[id] = left;
+        mBottom[id] = bottom;
+        mRight[id] = right;
+        mTop[id] = top;
+        mMinColumn[id] = getColumn(left);
+        mMinRow[id] = getRow(bottom);
+        mMaxColumn[id] = getColumn(right);
+        mMaxRow[id] = getRow(top);
+    }
+
+    /**
+     * Links entry into cells of its cell range.
+     * @param id entry id.
+     */
+    private void link(final int id) {
+        int first = NONE;
+        for (int row = mMinRow[id]; row <= mMaxRow[id]; row++) {
+            for (int column = mMinColumn[id]; column <= mMaxColumn[id]; column++) {
+                if (mFreeNode == NONE) {
+                    allocateNodes(mNodeId.length * 2);
+                }
+                final int node = mFreeNode;
+                mFreeNode = mNodeNext[node];
+                final int cell = row * mColumns + column;
+                mNodeId[node] = id;
+                mNodeCell[node] = cell;
+                mNodePrev[node] = NONE;
+                mNodeNext[node] = mCellHead[cell];
+                if (mCellHead[cell] != NONE) {
+                    mNodePrev[mCellHead[cell]] = node;
+                }
+                mCellHead[cell] = node;
+                mNodeSibling[node] = first;
+                first = node;
+            }
+        }
+        mFirstNode[id] = first;
+    }
+
+    /**
+     * Unlinks entry from its cells and frees its nodes.
+     * @param id entry id.
+     */
+    private void unlink(final int id) {
+        int node = mFirstNode[id];
+        while (node != NONE) {
+            final int prev = mNodePrev[node];
+            final int next = mNodeNext[node];
+            if (prev == NONE) {
+                mCellHead[mNodeCell[node]] = next;
+            } else {
+                mNodeNext[prev] = next;
+            }
+            if (next != NONE) {
+                mNodePrev[next] = prev;
+            }
+            final int sibling = mNodeSibling[node];
+            mNodeNext[node] = mFreeNode;
+            mFreeNode = node;
+            node = sibling;
+        }
+        mFirstNode[id] = NONE;
+    }
+
+    /**
+     * Gets column of x, clamped to grid.
+     * @param x x.
+     * @return column.
+     */
+    private int getColumn(final float x) {
+        final int column = (int) Math.floor((x - mMinX) / mCellSize);
+        return column < 0 ? 0 : (column >= mColumns ? mColumns - 1 : column);
+    }
+
+    /**
+     * Gets row of y, clamped to grid.
+     * @param y y.
+     * @return row.
+     */
+    private int getRow(final float y) {
+        final int row = (int) Math.floor((y - mMinY) / mCellSize);
+        return row < 0 ? 0 : (row >= mRows ? mRows - 1 : row);
+    }
+
+    /**
+     * Starts new query.
+     * @return query stamp.
+     */
+    private int nextQuery() {
+        mQuery++;
+        if (mQuery == Integer.MAX_VALUE) {
+            mQuery = 1;
+            for (int i = 0; i < mQueryStamp.length; i++) {
+                mQueryStamp[i] = 0;
+            }
+        }
+        return mQuery;
+    }
+
+    /**
+     * Grows entry arrays and keeps entries.
+     * @param capacity entry capacity.
+     */
+    private void allocateEntries(final int capacity) {
+        final int oldCapacity = mFirstNode == null ? 0 : mFirstNode.length;
+        mLeft = grow(mLeft, capacity);
+        mBottom = grow(mBottom, capacity);
+        mRight = grow(mRight, capacity);
+        mTop = grow(mTop, capacity);
+        mMinColumn = grow(mMinColumn, capacity);
+        mMinRow = grow(mMinRow, capacity);
+        mMaxColumn = grow(mMaxColumn, capacity);
+        mMaxRow = grow(mMaxRow, capacity);
+        mFirstNode = grow(mFirstNode, capacity);
+        mQueryStamp = grow(mQueryStamp, capacity);
+        for (int i = oldCapacity; i < capacity; i++) {
+            mFirstNode[i] = NONE;
+        }
+    }
+
+    /**
+     * Grows node pool and puts new nodes to free list.
+     * @param capacity node capacity.
+     */
+    private void allocateNodes(final int capacity) {
+        final int oldCapacity = mNodeId == null ? 0 : mNodeId.length;
+        mNodeId = grow(mNodeId, capacity);
+        mNodeCell = grow(mNodeCell, capacity);
+        mNodePrev = grow(mNodePrev, capacity);
+        mNodeNext = grow(mNodeNext, capacity);
+        mNodeSibling = grow(mNodeSibling, capacity);
+        for (int i = capacity - 1; i >= oldCapacity; i--) {
+            mNodeNext[i] = mFreeNode;
+            mFreeNode = i;
+        }
+    }
+
+    /**
+     * Copies array to array of new capacity.
+     * @param array array, may be null.
+     * @param capacity new capacity.
+     * @return new array.
+     */
+    private static float[] grow(final float[] array, final int capacity) {
+        final float[] result = new float[capacity];
+        if (array != null) {
+            System.arraycopy(array, 0, result, 0, array.length);
+        }
+        return result;
+    }
+
+    /**
+     * Copies array to array of new capacity.
+     * @param array array, may be null.
+     * @param capacity new capacity.
+     * @return new array.
+     */
+    private static int[] grow(final int[] array, final int capacity) {
+        final int[] result = new int[capacity];
+        if (array != null) {
+            System.arraycopy(array, 0, result, 0, array.length);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,252 @@
+package engine;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Sprite batch class.
+ * Collects pre-translated sprite quads into an interleaved vertex buffer that mirrors
+ * a GPU vertex buffer and draws all consecutive quads with the same texture by one draw call.
+ * Every sprite of a frame gets the slot of its draw order position, so a sprite keeps its slot
+ * while the scene does not change. Only slots whose geometry changed are uploaded.
+ */
+public class SpriteBatch {
+    // Floats per vertex: position and texture coordinates.
+    public static final int VERTEX_SIZE = 4;
+    // Offset of texture coordinates in vertex.
+    public static final int TEXTURE_OFFSET = 2;
+    // Vertices per sprite.
+    public static final int SPRITE_VERTICES = 4;
+    // Indices per sprite (two triangles).
+    public static final int SPRITE_INDICES = 6;
+    // Floats per sprite.
+    public static final int SPRITE_SIZE = VERTEX_SIZE * SPRITE_VERTICES;
+
+    // No texture bound.
+    private static final int NO_TEXTURE = -1;
+
+    // Vertex buffer mirroring GPU vertex buffer.
+    private final FloatBuffer mVertexBuffer;
+    // Vertices of buffer slots.
+    private final float[] mVertices;
+    // Batch flush listener.
+    private final FlushListener mFlushListener;
+    // Max sprite count in buffer.
+    private final int mCapacity;
+
+    // Texture of pending sprites.
+    private int mTexture = NO_TEXTURE;
+    // First sprite of pending sprites.
+    private int mFirstSprite = 0;
+    // Pending sprite count.
+    private int mSpriteCount = 0;
+    // Total sprite count in buffer.
+    private int mBufferedSprites = 0;
+    // Count of first slots whose vertices are uploaded.
+    private int mValidSprites = 0;
+    // Range of slots changed since last upload.
+    private int mDirtyStart = Integer.MAX_VALUE;
+    private int mDirtyEnd = 0;
+    // Flush count since begin.
+    private int mFlushCount = 0;
+    // Uploaded sprite count since begin.
+    private int mUploadedSprites = 0;
+
+    /**
+     * Sprite batch constructor.
+     * @param vertexBuffer interleaved vertex buffer.
+     * @param flushListener flush listener.
+     */
+    public SpriteBatch(final FloatBuffer vertexBuffer, final FlushListener flushListener) {
+        mVertexBuffer = vertexBuffer;
+        mFlushListener = flushListener;
+        mCapacity = Math.min(vertexBuffer.capacity() / SPRITE_SIZE, Const.MAX_BATCH_SPRITES);
+        mVertices = new float[mCapacity * SPRITE_SIZE];
+    }
+
+    /**
+     * Fills index buffer for sprite quads.
+     * @param indices index buffer of capacity * SPRITE_INDICES.
+     * @param capacity sprite count.
+     */
+    public static void putIndices(final ShortBuffer indices, final int capacity) {
+        indices.clear();
+        for (int i = 0; i < capacity; i++) {
+            final short first = (short) (i * SPRITE_VERTICES);
+            indices.put(first).put((short) (first + 1)).put((short) (first + 2));
+            indices.put(first).put((short) (first + 2)).put((short) (first + 3));
+        }
+        indices.flip();
+    }
+
+    /**
+     * Gets max sprite count in buffer.
+     * @return sprite count.
+     */
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    /**
+     * Marks all slots as not uploaded.
+     * Must be called when GPU vertex buffer is created.
+     */
+    public void invalidate() {
+        mValidSprites = 0;
+    }
+
+    /**
+     * Starts new batch.
+     */
+    public void begin() {
+        mTexture = NO_TEXTURE;
+        mFirstSprite = 0;
+        mSpriteCount = 0;
+        mBufferedSprites = 0;
+        mFlushCount = 0;
+        mUploadedSprites = 0;
+    }
+
+    /**
+     * Adds sprite to batch.
+     * @param texture texture id.
+     * @param left left of sprite.
+     * @param bottom bottom of sprite.
+     * @param right right of sprite.
+     * @param top top of sprite.
+     * @param u0 left texture coordinate.
+     * @param v0 top texture coordinate.
+     * @param u1 right texture coordinate.
+     * @param v1 bottom texture coordinate.
+     */
+    public void draw(final int texture, final float left, final float bottom, final float right, final float top,
+                     final float u0, final float v0, final float u1, final float v1) {
+        if (texture != mTexture || mBufferedSprites == mCapacity) {
+            flush();
+            if (mBufferedSprites == mCapacity) {
+                mBufferedSprites = 0;
+                mFirstSprite = 0;
+            }
+            mTexture = texture;
+        }
+
+        final int slot = mBufferedSprites;
+        final float[] vertices = mVertices;
+        final int pos = slot * SPRITE_SIZE;
+        if (slot >= mValidSprites
+                || vertices[pos] != left || vertices[pos + 1] != bottom
+                || vertices[pos + 2] != u0 || vertices[pos + 3] != v1
+                || vertices[pos + 5] != top || vertices[pos + 7] != v0
+                || vertices[pos + 8] != right || vertices[pos + 10] != u1) {
+            vertices[pos] = left;
+            vertices[pos + 1] = bottom;
+            vertices[pos + 2] = u0;
+            vertices[pos + 3] = v1;
+            vertices[pos + 4] = left;
+            vertices[pos + 5] = top;
+            vertices[pos + 6] = u0;
+            vertices[pos + 7] = v0;
+            vertices[pos + 8] = right;
+            vertices[pos + 9] = top;
+            vertices[pos + 10] = u1;
+            vertices[pos + 11] = v0;
+            vertices[pos + 12] = right;
+            vertices[pos + 13] = bottom;
+            vertices[pos + 14] = u1;
+            vertices[pos + 15] = v1;
+            mDirtyStart = Math.min(mDirtyStart, slot);
+            mDirtyEnd = Math.max(mDirtyEnd, slot + 1);
+        }
+        mSpriteCount++;
+        mBufferedSprites++;
+    }
+
+    /**
+     * Adds sprite with texture region to batch.
+     * @param region texture region.
+     * @param x center x.
+     * @param y center y.
+     * @param width sprite width.
+     * @param height sprite height.
+     */
+    public void draw(final TextureRegion region, final float x, final float y, final float width, final float height) {
+        draw(region.getTexture(), x - width / 2, y - height / 2, x + width / 2, y + height / 2,
+                region.getU0(), region.getV0(), region.getU1(), region.getV1());
+    }
+
+    /**
+     * Draws pending sprites.
+     * Uploads changed slots first.
+     */
+    public void flush() {
+        if (mSpriteCount > 0) {
+            upload();
+            mFlushListener.onFlush(mTexture, mFirstSprite * SPRITE_INDICES, mSpriteCount * SPRITE_INDICES);
+            mFirstSprite+= mSpriteCount;
+            mSpriteCount = 0;
+            mFlushCount++;
+        }
+    }
+
+    /**
+     * Finishes batch.
+     */
+    public void end() {
+        flush();
+        mTexture = NO_TEXTURE;
+    }
+
+    /**
+     * Gets flush count since begin.
+     * @return flush count.
+     */
+    public int getFlushCount() {
+        return mFlushCount;
+    }
+
+    /**
+     * Gets count of sprites uploaded since begin.
+     * @return sprite count.
+     */
+    public int getUploadedSprites() {
+        return mUploadedSprites;
+    }
+
+    /**
+     * Copies changed slots to vertex buffer and uploads them.
+     */
+    private void upload() {
+        if (mDirtyStart >= mDirtyEnd) {
+            return;
+        }
+        final int offset = mDirtyStart * SPRITE_SIZE;
+        final int count = (mDirtyEnd - mDirtyStart) * SPRITE_SIZE;
+        mVertexBuffer.position(offset);
+        mVertexBuffer.put(mVertices, offset, count);
+        mFlushListener.onUpload(offset, count);
+        mValidSprites = Math.max(mValidSprites, mDirtyEnd);
+        mUploadedSprites+= mDirtyEnd - mDirtyStart;
+        mDirtyStart = Integer.MAX_VALUE;
+        mDirtyEnd = 0;
+    }
+
+    /**
+     * Batch flush listener.
+     */
+    public interface FlushListener {
+        /**
+         * Uploads changed part of vertex buffer.
+         * @param offset first float in vertex buffer.
+         * @param count float count.
+         */
+        void onUpload(final int offset, final int count);
+
+        /**
+         * Draws sprites of one texture.
+         * @param texture texture id.
+         * @param firstIndex first index in index buffer.
+         * @param indexCount index count.
+         */
+        void onFlush(final int texture, final int firstIndex, final int indexCount);
+    }
+}
@@ -0,0 +1,61 @@
+package engine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * State registry class.
+ * Interns state and animation names to small ints, so draw and state changes
+ * index arrays instead of hashing and comparing strings.
+ */
+public class StateRegistry {
+    // State names by id.
+    private static final List<String> mNames = new ArrayList<>();
+    // State ids by name.
+    private static final Map<String, Integer> mIds = new HashMap<>();
+
+    static {
+        intern(Const.EMPTY_STATE);
+    }
+
+    /**
+     * Interns state name.
+     * Call at load time, hot code should keep the id.
+     * @param name state name.
+     * @return state id.
+     */
+    public static synchronized int intern(final String name) {
+        final Integer id = mIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        mNames.add(name);
+        mIds.put(name, mNames.size() - 1);
+        return mNames.size() - 1;
+    }
+
+    /**
+     * Gets state name.
+     * @param id state id.
+     * @return state name.
+     */
+    public static synchronized String getName(final int id) {
+        return mNames.get(id);
+    }
+
+    /**
+     * Gets count of interned states.
+     * @return state count.
+     */
+    public static synchronized int getCount() {
+        return mNames.size();
+    }
+
+    /**
+     * Constructor is private.
+     */
+    private StateRegistry() {
+    }
+}
@@ -0,0 +1,675 @@
+package engine;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Task scheduler class.
+ * Runs engine work on a fixed pool of worker threads and periodic simulations on one dedicated
+ * simulation thread. Threads are started once and live until shutdown.
+ * Tasks and simulations are owned by scopes, cancelling a scope cancels everything it owns.
+ * Queued tasks run by priority, low priority tasks also run with min thread priority.
+ */
+public class TaskScheduler {
+    // Worker thread name prefix.
+    public static final String WORKER_THREAD_NAME = "EngineWorker-";
+    // Simulation thread name.
+    public static final String SIMULATION_THREAD_NAME = "EngineSimulation";
+    // Task priorities.
+    public static final int PRIORITY_NORMAL = 0;
+    public static final int PRIORITY_LOW = 1;
+
+    // Task states.
+    private static final int NEW = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+    private static final int CANCELLED = 3;
+
+    // Worker threads.
+    private final ThreadPoolExecutor mWorkers;
+    // Time source.
+    private final TimeSource mTimeSource;
+    // Scheduled simulations, guarded by itself.
+    private final List<Simulation> mSimulations = new ArrayList<>();
+    // Changes of scheduled simulations, guarded by mSimulations.
+    private int mSimulationsVersion = 0;
+    // True after shutdown, guarded by mSimulations.
+    private boolean mIsShutdown = false;
+
+    // Started threads, guarded by itself.
+    private final List<Thread> mThreads = new ArrayList<>();
+    // Live threads.
+    private final AtomicInteger mLiveThreadCount = new AtomicInteger();
+    // Worker thread index.
+    private final AtomicInteger mWorkerIndex = new AtomicInteger();
+    // Submitted tasks, orders tasks of same priority.
+    private final AtomicLong mSequence = new AtomicLong();
+    // Tasks started by workers or callers.
+    private final AtomicLong mStartedTaskCount = new AtomicLong();
+    // Sum and max of time from submit to start.
+    private final AtomicLong mTotalLatency = new AtomicLong();
+    private final AtomicLong mMaxLatency = new AtomicLong();
+
+    /**
+     * Task scheduler constructor.
+     * Starts all threads.
+     * @param workerCount count of worker threads.
+     * @param timeSource time source.
+     */
+    public TaskScheduler(final int workerCount, final TimeSource timeSource) {
+        mTimeSource = timeSource;
+        mWorkers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        mLiveThreadCount.incrementAndGet();
+                        try {
+                            r.run();
+                        } finally {
+                            mLiveThreadCount.decrementAndGet();
+                        }
+                    }
+                }, WORKER_THREAD_NAME + mWorkerIndex.incrementAndGet());
+                thread.setDaemon(true);
+                synchronized (mThreads) {
+                    mThreads.add(thread);
+                }
+                return thread;
+            }
+        });
+        mWorkers.prestartAllCoreThreads();
+        final Thread simulationThread = new SimulationThread();
+        synchronized (mThreads) {
+            mThreads.add(simulationThread);
+        }
+        simulationThread.start();
+    }
+
+    /**
+     * Creates scope of tasks and simulations.
+     * @return new scope.
+     */
+    public Scope createScope() {
+        return new Scope();
+    }
+
+    /**
+     * Submits task that is not owned by a scope.
+     * @param runnable task body.
+     * @return task.
+     */
+    public Task submit(final Runnable runnable) {
+        return submit(runnable, PRIORITY_NORMAL);
+    }
+
+    /**
+     * Submits task that is not owned by a scope.
+     * @param runnable task body.
+     * @param priority task priority.
+     * @return task.
+     */
+    public Task submit(final Runnable runnable, final int priority) {
+        return execute(new Task(runnable, priority, null));
+    }
+
+    /**
+     * Stops all threads.
+     * Queued tasks are cancelled, running tasks are interrupted.
+     */
+    public void shutdown() {
+        synchronized (mSimulations) {
+            mIsShutdown = true;
+            mSimulations.clear();
+            mSimulations.notifyAll();
+        }
+        for (final Runnable task : mWorkers.shutdownNow()) {
+            ((Task) task).cancel();
+        }
+    }
+
+    /**
+     * Waits until all threads stop after shutdown.
+     * @param timeout timeout in milliseconds.
+     * @return true if all threads stopped.
+     * @throws InterruptedException if waiting is interrupted.
+     */
+    public boolean awaitTermination(final long timeout) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeout;
+        final List<Thread> threads;
+        synchronized (mThreads) {
+            threads = new ArrayList<>(mThreads);
+        }
+        for (final Thread thread : threads) {
+            thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            if (thread.isAlive()) {
+                return false;
+            }
+        }
+        return mWorkers.isTerminated();
+    }
+
+    /**
+     * Gets count of live scheduler threads.
+     * @return count of worker threads and simulation thread that are running.
+     */
+    public int getLiveThreadCount() {
+        return mLiveThreadCount.get();
+    }
+
+    /**
+     * Gets count of tasks waiting for a worker.
+     * @return queue depth.
+     */
+    public int getQueueDepth() {
+        return mWorkers.getQueue().size();
+    }
+
+    /**
+     * Gets count of scheduled simulations.
+     * @return simulation count.
+     */
+    public int getSimulationCount() {
+        synchronized (mSimulations) {
+            return mSimulations.size();
+        }
+    }
+
+    /**
+     * Gets count of started tasks.
+     * @return started task count.
+     */
+    public long getStartedTaskCount() {
+        return mStartedTaskCount.get();
+    }
+
+    /**
+     * Gets average time from task submit to task start.
+     * @return latency in nanoseconds, 0 if no task is started.
+     */
+    public long getAverageTaskLatency() {
+        final long count = mStartedTaskCount.get();
+        return count == 0 ? 0 : mTotalLatency.get() / count;
+    }
+
+    /**
+     * Gets max time from task submit to task start.
+     * @return latency in nanoseconds.
+     */
+    public long getMaxTaskLatency() {
+        return mMaxLatency.get();
+    }
+
+    /**
+     * Queues task for workers.
+     * Task is cancelled if scheduler is shut down.
+     * @param task task.
+     * @return task.
+     */
+    private Task execute(final Task task) {
+        try {
+            mWorkers.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.cancel();
+        }
+        return task;
+    }
+
+    /**
+     * Records start of task.
+     * @param latency time from submit to start in nanoseconds.
+     */
+    private void recordStart(final long latency) {
+        mStartedTaskCount.incrementAndGet();
+        mTotalLatency.addAndGet(latency);
+        long max = mMaxLatency.get();
+        while (latency > max && !mMaxLatency.compareAndSet(max, latency)) {
+            max = mMaxLatency.get();
+        }
+    }
+
+    /**
+     * Adds simulation to simulation thread.
+     * @param simulation simulation.
+     */
+    private void addSimulation(final Simulation simulation) {
+        synchronized (mSimulations) {
+            if (mIsShutdown) {
+                simulation.cancel();
+                return;
+            }
+            mSimulations.add(simulation);
+            mSimulationsVersion++;
+            mSimulations.notifyAll();
+        }
+    }
+
+    /**
+     * Removes simulation from simulation thread.
+     * @param simulation simulation.
+     */
+    private void removeSimulation(final Simulation simulation) {
+        synchronized (mSimulations) {
+            if (mSimulations.remove(simulation)) {
+                mSimulationsVersion++;
+                mSimulations.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Cancellable work.
+     */
+    public interface Cancellable {
+        /**
+         * Cancels work.
+         * Work that is not started never starts, running work is stopped.
+         */
+        void cancel();
+    }
+
+    /**
+     * Periodic work of simulation thread.
+     */
+    public interface Periodic {
+        /**
+         * Runs one step.
+         * @return time to next step in nanoseconds.
+         */
+        long run();
+    }
+
+    /**
+     * Scope of tasks and simulations.
+     * Owner cancels scope when its lifecycle ends.
+     */
+    public final class Scope implements Cancellable {
+        // Tasks and simulations that are not finished, guarded by this.
+        private final Set<Cancellable> mActive = new HashSet<>();
+        // True if scope is cancelled, guarded by this.
+        private boolean mIsCancelled = false;
+
+        /**
+         * Scope constructor.
+         */
+        private Scope() {
+        }
+
+        /**
+         * Submits task to workers.
+         * Task of a cancelled scope is cancelled at once.
+         * @param runnable task body.
+         * @return task.
+         */
+        public Task submit(final Runnable runnable) {
+            return submit(runnable, PRIORITY_NORMAL);
+        }
+
+        /**
+         * Submits task to workers.
+         * Task of a cancelled scope is cancelled at once.
+         * @param runnable task body.
+         * @param priority task priority.
+         * @return task.
+         */
+        public Task submit(final Runnable runnable, final int priority) {
+            final Task task = new Task(runnable, priority, this);
+            if (add(task)) {
+                execute(task);
+            }
+            return task;
+        }
+
+        /**
+         * Schedules periodic work on simulation thread.
+         * First step runs at once, simulation of a cancelled scope is cancelled at once.
+         * @param periodic periodic work.
+         * @return simulation.
+         */
+        public Simulation schedule(final Periodic periodic) {
+            final Simulation simulation = new Simulation(periodic, this);
+            if (add(simulation)) {
+                addSimulation(simulation);
+            }
+            return simulation;
+        }
+
+        /**
+         * Cancels all tasks and simulations of scope, later ones are cancelled at once.
+         * Returns after running simulation step finishes.
+         */
+        @Override
+        public void cancel() {
+            final List<Cancellable> active;
+            synchronized (this) {
+                mIsCancelled = true;
+                active = new ArrayList<>(mActive);
+                mActive.clear();
+            }
+            for (final Cancellable cancellable : active) {
+                cancellable.cancel();
+            }
+        }
+
+        /**
+         * Returns true if scope is cancelled.
+         * @return true if cancelled.
+         */
+        public synchronized boolean isCancelled() {
+            return mIsCancelled;
+        }
+
+        /**
+         * Gets count of tasks and simulations that are not finished.
+         * @return active count.
+         */
+        public synchronized int getActiveCount() {
+            return mActive.size();
+        }
+
+        /**
+         * Adds work to scope.
+         * @param cancellable work.
+         * @return true if added, otherwise work is cancelled.
+         */
+        private boolean add(final Cancellable cancellable) {
+            synchronized (this) {
+                if (!mIsCancelled) {
+                    mActive.add(cancellable);
+                    return true;
+                }
+            }
+            cancellable.cancel();
+            return false;
+        }
+
+        /**
+         * Removes finished work.
+         * @param cancellable work.
+         */
+        private synchronized void remove(final Cancellable cancellable) {
+            mActive.remove(cancellable);
+        }
+    }
+
+    /**
+     * Task of worker threads.
+     */
+    public final class Task implements Runnable, Cancellable, Comparable<Task> {
+        // Task body.
+        private final Runnable mRunnable;
+        // Task priority.
+        private final int mPriority;
+        // Submit order.
+        private final long mSequence;
+        // Owner scope, may be null.
+        private final Scope mScope;
+        // Submit time.
+        private final long mSubmitTime;
+        // Task state.
+        private final AtomicInteger mState = new AtomicInteger(NEW);
+        // Released when task is finished or cancelled before start.
+        private final CountDownLatch mFinished = new CountDownLatch(1);
+        // Thread running task, guarded by this.
+        private Thread mRunner;
+        // Exception thrown by task body.
+        private volatile Throwable mFailure;
+
+        /**
+         * Task constructor.
+         * @param runnable task body.
+         * @param priority task priority.
+         * @param scope owner scope, may be null.
+         */
+        private Task(final Runnable runnable, final int priority, final Scope scope) {
+            mRunnable = runnable;
+            mPriority = priority;
+            mSequence = TaskScheduler.this.mSequence.incrementAndGet();
+            mScope = scope;
+            mSubmitTime = mTimeSource.nanoTime();
+        }
+
+        /**
+         * Runs task if it is not started yet.
+         * Called by workers, may be called by a thread that waits for the task to help it finish.
+         * Exception of task body is stored and rethrown unless task is cancelled.
+         */
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (!mState.compareAndSet(NEW, RUNNING)) {
+                    return;
+                }
+                mRunner = Thread.currentThread();
+            }
+            recordStart(mTimeSource.nanoTime() - mSubmitTime);
+            final Thread thread = Thread.currentThread();
+            final int threadPriority = thread.getPriority();
+            if (mPriority == PRIORITY_LOW) {
+                thread.setPriority(Thread.MIN_PRIORITY);
+            }
+            try {
+                mRunnable.run();
+            } catch (RuntimeException | Error e) {
+                if (!isCancelled()) {
+                    mFailure = e;
+                    throw e;
+                }
+            } finally {
+                thread.setPriority(threadPriority);
+                synchronized (this) {
+                    mRunner = null;
+                }
+                mState.compareAndSet(RUNNING, DONE);
+                finish();
+            }
+        }
+
+        /**
+         * Cancels task.
+         * Queued task is removed, running task is interrupted.
+         */
+        @Override
+        public void cancel() {
+            if (mState.compareAndSet(NEW, CANCELLED)) {
+                mWorkers.remove(this);
+                finish();
+            } else {
+                synchronized (this) {
+                    if (mState.compareAndSet(RUNNING, CANCELLED) && mRunner != null) {
+                        mRunner.interrupt();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Orders queued tasks by priority and submit order.
+         * @param other other task.
+         * @return negative if this task runs first.
+         */
+        @Override
+        public int compareTo(final Task other) {
+            if (mPriority != other.mPriority) {
+                return mPriority < other.mPriority ? -1 : 1;
+            }
+            return mSequence < other.mSequence ? -1 : (mSequence == other.mSequence ? 0 : 1);
+        }
+
+        /**
+         * Waits until task is finished or cancelled before start.
+         * @throws InterruptedException if waiting is interrupted.
+         */
+        public void join() throws InterruptedException {
+            mFinished.await();
+        }
+
+        /**
+         * Returns true if task is finished or cancelled before start.
+         * @return true if done.
+         */
+        public boolean isDone() {
+            return mFinished.getCount() == 0;
+        }
+
+        /**
+         * Returns true if task is cancelled.
+         * @return true if cancelled.
+         */
+        public boolean isCancelled() {
+            return mState.get() == CANCELLED;
+        }
+
+        /**
+         * Gets exception thrown by task body.
+         * @return exception, null if task did not fail.
+         */
+        public Throwable getFailure() {
+            return mFailure;
+        }
+
+        /**
+         * Marks task as finished.
+         */
+        private void finish() {
+            if (mScope != null) {
+                mScope.remove(this);
+            }
+            mFinished.countDown();
+        }
+    }
+
+    /**
+     * Periodic work of simulation thread.
+     */
+    public final class Simulation implements Cancellable {
+        // Periodic work.
+        private final Periodic mPeriodic;
+        // Owner scope.
+        private final Scope mScope;
+        // Time of next step, guarded by this.
+        private long mNextRunTime;
+        // True if simulation is cancelled, guarded by this.
+        private boolean mIsCancelled = false;
+
+        /**
+         * Simulation constructor.
+         * @param periodic periodic work.
+         * @param scope owner scope.
+         */
+        private Simulation(final Periodic periodic, final Scope scope) {
+            mPeriodic = periodic;
+            mScope = scope;
+            mNextRunTime = mTimeSource.nanoTime();
+        }
+
+        /**
+         * Cancels simulation.
+         * Returns after running step finishes, no step runs after that.
+         */
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                if (mIsCancelled) {
+                    return;
+                }
+                mIsCancelled = true;
+            }
+            removeSimulation(this);
+            mScope.remove(this);
+        }
+
+        /**
+         * Returns true if simulation is cancelled.
+         * @return true if cancelled.
+         */
+        public synchronized boolean isCancelled() {
+            return mIsCancelled;
+        }
+
+        /**
+         * Runs step if it is due.
+         * @param time current time.
+         * @return time of next step.
+         */
+        private synchronized long runIfDue(final long time) {
+            if (mIsCancelled) {
+                return Long.MAX_VALUE;
+            }
+            if (time - mNextRunTime >= 0) {
+                mNextRunTime = time + mPeriodic.run();
+            }
+            return mNextRunTime;
+        }
+    }
+
+    /**
+     * Simulation thread.
+     * Runs due steps of all simulations and sleeps until the next one.
+     */
+    private class SimulationThread extends Thread {
+        /**
+         * Simulation thread constructor.
+         */
+        SimulationThread() {
+            super(SIMULATION_THREAD_NAME);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            mLiveThreadCount.incrementAndGet();
+            try {
+                loop();
+            } catch (InterruptedException e) {
+                // Scheduler thread is interrupted only on process exit.
+            } finally {
+                mLiveThreadCount.decrementAndGet();
+            }
+        }
+
+        /**
+         * Runs simulations until shutdown.
+         * @throws InterruptedException if thread is interrupted.
+         */
+        private void loop() throws InterruptedException {
+            final List<Simulation> due = new ArrayList<>();
+            while (true) {
+                final int version;
+                synchronized (mSimulations) {
+                    while (mSimulations.isEmpty() && !mIsShutdown) {
+                        mSimulations.wait();
+                    }
+                    if (mIsShutdown) {
+                        return;
+                    }
+                    due.clear();
+                    due.addAll(mSimulations);
+                    version = mSimulationsVersion;
+                }
+                long nextRunTime = Long.MAX_VALUE;
+                for (final Simulation simulation : due) {
+                    nextRunTime = Math.min(nextRunTime, simulation.runIfDue(mTimeSource.nanoTime()));
+                }
+                synchronized (mSimulations) {
+                    final long delay = nextRunTime - mTimeSource.nanoTime();
+                    if (version == mSimulationsVersion && delay > 0 && !mIsShutdown) {
+                        mSimulations.wait(delay / 1000000, (int) (delay % 1000000));
+                    }
+                }
+            }
+        }
+    }
+}
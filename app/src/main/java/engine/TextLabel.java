@@ -0,0 +1,241 @@
+package engine;
+
+/**
+ * Text label class.
+ * Lays a string out into glyph quads of a bitmap font and draws them into a sprite batch.
+ * Text is written into a preallocated char buffer, and layout is recalculated only when
+ * the text differs from the drawn one, so updating and drawing do not allocate.
+ * Usage: label.begin().append("fps ").append(fps).end(); label.draw(batch);
+ */
+public class TextLabel {
+    // Alignment.
+    public static final int ALIGN_LEFT = 0;
+    public static final int ALIGN_CENTER = 1;
+
+    // Font.
+    private final BitmapFont mFont;
+    // Max char count.
+    private final int mCapacity;
+    // Drawn text.
+    private char[] mText;
+    private int mLength = 0;
+    // Text being written.
+    private char[] mNextText;
+    private int mNextLength = 0;
+
+    // Anchor position.
+    private float mX;
+    private float mY;
+    // Line height in GL units.
+    private final float mHeight;
+    // Width of a pixel relative to its height in GL units.
+    private float mAspect;
+    // Alignment to anchor.
+    private final int mAlign;
+
+    // Layout: glyph regions, glyph centers and widths relative to anchor.
+    private final TextureRegion[] mGlyphs;
+    private final float[] mOffsets;
+    private final float[] mWidths;
+    private int mGlyphCount = 0;
+    // True if layout does not match text.
+    private boolean mIsDirty = true;
+    // Count of layouts.
+    private int mLayoutCount = 0;
+
+    /**
+     * Text label constructor.
+     * @param font bitmap font.
+     * @param capacity max char count.
+     * @param x anchor x.
+     * @param y anchor y, vertical center of line.
+     * @param height line height in GL units.
+     * @param aspect width of a pixel relative to its height in GL units.
+     * @param align alignment to anchor.
+     */
+    public TextLabel(final BitmapFont font, final int capacity, final float x, final float y, final float height,
+                     final float aspect, final int align) {
+        mFont = font;
+        mCapacity = capacity;
+        mText = new char[capacity];
+        mNextText = new char[capacity];
+        mX = x;
+        mY = y;
+        mHeight = height;
+        mAspect = aspect;
+        mAlign = align;
+        mGlyphs = new TextureRegion[capacity];
+        mOffsets = new float[capacity];
+        mWidths = new float[capacity];
+    }
+
+    /**
+     * Starts writing text.
+     * @return this label.
+     */
+    public TextLabel begin() {
+        mNextLength = 0;
+        return this;
+    }
+
+    /**
+     * Appends chars.
+     * Chars above capacity are dropped.
+     * @param text chars.
+     * @return this label.
+     */
+    public TextLabel append(final CharSequence text) {
+        final int length = Math.min(text.length(), mCapacity - mNextLength);
+        for (int i = 0; i < length; i++) {
+            mNextText[mNextLength++] = text.charAt(i);
+        }
+        return this;
+    }
+
+    /**
+     * Appends decimal number.
+     * @param value number.
+     * @return this label.
+     */
+    public TextLabel append(final int value) {
+        if (value < 0) {
+            appendChar('-');
+        }
+        long rest = Math.abs((long) value);
+        long divider = 1;
+        while (divider * 10 <= rest) {
+            divider*= 10;
+        }
+        while (divider > 0) {
+            appendChar((char) ('0' + rest / divider));
+            rest%= divider;
+            divider/= 10;
+        }
+        return this;
+    }
+
+    /**
+     * Finishes writing text.
+     * Keeps layout if text is not changed.
+     */
+    public void end() {
+        if (mNextLength == mLength) {
+            boolean isSame = true;
+            for (int i = 0; i < mLength && isSame; i++) {
+                isSame = mText[i] == mNextText[i];
+            }
+            if (isSame) {
+                return;
+            }
+        }
+        final char[] text = mText;
+        mText = mNextText;
+        mNextText = text;
+        mLength = mNextLength;
+        mIsDirty = true;
+    }
+
+    /**
+     * Sets aspect of pixels.
+     * Text is laid out again only if aspect is changed.
+     * @param aspect width of a pixel relative to its height in GL units.
+     */
+    public void setAspect(final float aspect) {
+        if (aspect != mAspect) {
+            mAspect = aspect;
+            mIsDirty = true;
+        }
+    }
+
+    /**
+     * Sets text.
+     * @param text text.
+     */
+    public void setText(final CharSequence text) {
+        begin().append(text).end();
+    }
+
+    /**
+     * Sets decimal number as text.
+     * @param value number.
+     */
+    public void setNumber(final int value) {
+        begin().append(value).end();
+    }
+
+    /**
+     * Sets anchor position.
+     * @param x anchor x.
+     * @param y anchor y.
+     */
+    public void setPosition(final float x, final float y) {
+        mX = x;
+        mY = y;
+    }
+
+    /**
+     * Gets count of layouts.
+     * @return layout count.
+     */
+    public int getLayoutCount() {
+        return mLayoutCount;
+    }
+
+    /**
+     * Draws text.
+     * Draws nothing until font is bound.
+     * @param batch sprite batch.
+     */
+    public void draw(final SpriteBatch batch) {
+        if (!mFont.isBound()) {
+            return;
+        }
+        if (mIsDirty) {
+            layout();
+        }
+        for (int i = 0; i < mGlyphCount; i++) {
+            batch.draw(mGlyphs[i], mX + mOffsets[i], mY, mWidths[i], mHeight);
+        }
+    }
+
+    /**
+     * Lays text out into glyphs.
+     */
+    private void layout() {
+        final float scale = mHeight / mFont.getLineHeight() * mAspect;
+        float pen = 0;
+        int count = 0;
+        for (int i = 0; i < mLength; i++) {
+            final int glyph = mFont.getGlyph(mText[i]);
+            if (glyph < 0) {
+                continue;
+            }
+            final float width = mFont.getCellWidth(glyph) * scale;
+            if (mText[i] != ' ') {
+                mGlyphs[count] = mFont.getRegion(glyph);
+                mOffsets[count] = pen + width / 2;
+                mWidths[count] = width;
+                count++;
+            }
+            pen+= mFont.getAdvance(glyph) * scale;
+        }
+        if (mAlign == ALIGN_CENTER) {
+            for (int i = 0; i < count; i++) {
+                mOffsets[i]-= pen / 2;
+            }
+        }
+        mGlyphCount = count;
+        mIsDirty = false;
+        mLayoutCount++;
+    }
+
+    /**
+     * Appends char.
+     * @param c char.
+     */
+    private void appendChar(final char c) {
+        if (mNextLength < mCapacity) {
+            mNextText[mNextLength++] = c;
+        }
+    }
+}
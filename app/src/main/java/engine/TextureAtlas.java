@@ -0,0 +1,366 @@
+package engine;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Texture atlas class.
+ * Packs bitmaps of texture templates into a few pages and gives texture regions to template owners.
+ * Compressed textures can not be drawn into a page, each of them gets its own page.
+ * Atlas keeps requests and placements of packed bitmaps, so pages lost with GL context can be rebuilt.
+ */
+public class TextureAtlas {
+    // Max atlas page size.
+    public static final int MAX_PAGE_SIZE = 2048;
+    // Space between packed bitmaps.
+    public static final int PADDING = 2;
+
+    // Atlas pages.
+    private final List<Page> mPages = new ArrayList<>();
+    // Packing efficiency.
+    private final float mEfficiency;
+    // Placement of templates: page, x, y, width, height.
+    private final int[][] mPlacements;
+    // Requests of packed bitmaps by template.
+    private final BitmapRequest[] mRequests;
+
+    /**
+     * Texture atlas constructor.
+     * Recycles bitmaps of templates.
+     * @param templates decoded texture templates.
+     */
+    public TextureAtlas(final List<TextureTemplate> templates) {
+        final AtlasPacker packer = new AtlasPacker(MAX_PAGE_SIZE, PADDING);
+        final int[] packed = new int[templates.size()];
+        for (int i = 0; i < templates.size(); i++) {
+            final Bitmap bmp = templates.get(i).getBitmap();
+            packed[i] = bmp != null ? packer.add(bmp.getWidth(), bmp.getHeight()) : -1;
+        }
+        packer.pack();
+        mEfficiency = packer.getEfficiency();
+
+        for (int i = 0; i < packer.getPageCount(); i++) {
+            mPages.add(new Page(packer.getPageWidth(i), packer.getPageHeight(i)));
+        }
+        mPlacements = new int[templates.size()][];
+        mRequests = new BitmapRequest[templates.size()];
+        for (int i = 0; i < templates.size(); i++) {
+            final TextureTemplate template = templates.get(i);
+            mRequests[i] = template.getRequest();
+            final CompressedTexture compressed = template.getCompressed();
+            if (compressed != null) {
+                mPlacements[i] = new int[] {mPages.size(), 0, 0, compressed.getWidth(), compressed.getHeight()};
+                mPages.add(new Page(compressed));
+                continue;
+            }
+            final int index = packed[i];
+            final int x = packer.getX(index);
+            final int y = packer.getY(index);
+            mPlacements[i] = new int[] {packer.getPage(index), x, y, packer.getWidth(index), packer.getHeight(index)};
+            mPages.get(packer.getPage(index)).draw(template.getBitmap(), x, y);
+        }
+        for (final TextureTemplate template : templates) {
+            if (template.getBitmap() != null) {
+                template.getBitmap().recycle();
+            }
+        }
+        bind(templates);
+    }
+
+    /**
+     * Gives texture regions to owners of templates.
+     * Templates must request the same bitmaps in the same order as templates of this atlas,
+     * they are not decoded.
+     * @param templates texture templates.
+     */
+    public void bind(final List<TextureTemplate> templates) {
+        for (int i = 0; i < templates.size(); i++) {
+            final int[] placement = mPlacements[i];
+            addRegions(templates.get(i), mPages.get(placement[0]), placement[1], placement[2],
+                    placement[3], placement[4]);
+        }
+    }
+
+    /**
+     * Gets cache key of templates.
+     * @param templates texture templates.
+     * @return key of requested bitmaps.
+     */
+    public static String getKey(final List<TextureTemplate> templates) {
+        final StringBuilder key = new StringBuilder();
+        for (final TextureTemplate template : templates) {
+            key.append(template.getRequest().getKey()).append('|');
+        }
+        return key.toString();
+    }
+
+    /**
+     * Gets size of page textures.
+     * @return size in bytes.
+     */
+    public long getByteCount() {
+        long bytes = 0;
+        for (final Page page : mPages) {
+            bytes+= page.getByteCount();
+        }
+        return bytes;
+    }
+
+    /**
+     * Gets atlas pages.
+     * @return atlas pages.
+     */
+    public List<Page> getPages() {
+        return mPages;
+    }
+
+    /**
+     * Gets texture ids of uploaded pages.
+     * @return texture ids.
+     */
+    public int[] getTextureIds() {
+        final int[] textureIds = new int[mPages.size()];
+        for (int i = 0; i < textureIds.length; i++) {
+            textureIds[i] = mPages.get(i).getTextureId();
+        }
+        return textureIds;
+    }
+
+    /**
+     * Returns true if all pages are uploaded.
+     * @return true if atlas can be drawn.
+     */
+    public boolean isUploaded() {
+        for (final Page page : mPages) {
+            if (page.getTextureId() == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets pages whose textures are lost with GL context.
+     * Pages that wait for upload still have bitmaps and are not lost.
+     * @return lost pages.
+     */
+    public List<Page> getLostPages() {
+        final List<Page> pages = new ArrayList<>();
+        for (final Page page : mPages) {
+            if (page.getTextureId() == 0 && page.getBitmap() == null && page.getCompressed() == null) {
+                pages.add(page);
+            }
+        }
+        return pages;
+    }
+
+    /**
+     * Rebuilds lost page from requests of its bitmaps.
+     * May be called on any thread, page must not be queued for upload meanwhile.
+     * @param page lost page of atlas.
+     */
+    public void rebuildPage(final Page page) {
+        final int pageIndex = mPages.indexOf(page);
+        for (int i = 0; i < mPlacements.length; i++) {
+            final int[] placement = mPlacements[i];
+            if (placement[0] != pageIndex) {
+                continue;
+            }
+            final CompressedTexture compressed = mRequests[i].loadCompressed();
+            if (compressed != null) {
+                page.mCompressed = compressed;
+            } else {
+                final Bitmap bmp = mRequests[i].decode();
+                page.draw(bmp, placement[1], placement[2]);
+                bmp.recycle();
+            }
+        }
+    }
+
+    /**
+     * Gets packing efficiency.
+     * @return area of bitmaps divided by area of pages.
+     */
+    public float getEfficiency() {
+        return mEfficiency;
+    }
+
+    /**
+     * Creates texture regions of template and gives them to template owners.
+     * @param template texture template.
+     * @param page atlas page.
+     * @param x template x in page.
+     * @param y template y in page.
+     * @param width template width.
+     * @param height template height.
+     */
+    private static void addRegions(final TextureTemplate template, final Page page, final int x, final int y,
+                                   final int width, final int height) {
+        final String name = template.getName();
+        switch (template.getType()) {
+            case TextureTemplate.ANIMATION_TEXTURE:
+                final List<TextureRegion> frames = new ArrayList<>();
+                final int size = height;
+                final int count = width / size;
+                for (int i = 0; i < count; i++) {
+                    frames.add(page.createRegion(x + size * i, y, size, size));
+                }
+                final AnimationClip clip = new AnimationClip(frames, template.getFrameDuration(), template.getMode());
+                for (final DrawableObject owner : template.getOwners()) {
+                    owner.addAnimation(name, clip);
+                }
+                break;
+            case TextureTemplate.SIMPLE_TEXTURE:
+                final TextureRegion region = page.createRegion(x, y, width, height);
+                for (final DrawableObject owner : template.getOwners()) {
+                    owner.addTexture(name, region);
+                }
+                break;
+            case TextureTemplate.FONT_TEXTURE:
+                template.getFont().bind(page, x, y);
+                break;
+        }
+    }
+
+    /**
+     * Atlas page.
+     */
+    public static class Page {
+        // Page width.
+        private final int mWidth;
+        // Page height.
+        private final int mHeight;
+        // Size of page texture.
+        private final long mByteCount;
+        // Page bitmap, null after upload.
+        private Bitmap mBitmap;
+        // Compressed texture of page, null for bitmap page and after upload.
+        private CompressedTexture mCompressed;
+        // Canvas to draw page bitmap.
+        private Canvas mCanvas;
+        // OpenGL texture id.
+        private volatile int mTextureId;
+
+        /**
+         * Page constructor.
+         * @param width page width.
+         * @param height page height.
+         */
+        public Page(final int width, final int height) {
+            mWidth = width;
+            mHeight = height;
+            mByteCount = (long) width * height * 4;
+        }
+
+        /**
+         * Compressed page constructor.
+         * @param compressed compressed texture.
+         */
+        public Page(final CompressedTexture compressed) {
+            mWidth = compressed.getWidth();
+            mHeight = compressed.getHeight();
+            mByteCount = compressed.getByteCount();
+            mCompressed = compressed;
+        }
+
+        /**
+         * Draws bitmap to page.
+         * @param bmp bitmap to draw.
+         * @param x x in page.
+         * @param y y in page.
+         */
+        private void draw(final Bitmap bmp, final int x, final int y) {
+            if (mBitmap == null) {
+                mBitmap = Bitmap.createBitmap(mWidth, mHeight, Bitmap.Config.ARGB_8888);
+                mCanvas = new Canvas(mBitmap);
+            }
+            mCanvas.drawBitmap(bmp, x, y, null);
+        }
+
+        /**
+         * Creates texture region.
+         * Texture coordinates are moved half texel inside to avoid bleeding of neighbour bitmaps.
+         * @param x region x in page.
+         * @param y region y in page.
+         * @param width region width.
+         * @param height region height.
+         * @return texture region.
+         */
+        public TextureRegion createRegion(final int x, final int y, final int width, final int height) {
+            return new TextureRegion(this,
+                    (x + 0.5f) / mWidth, (y + 0.5f) / mHeight,
+                    (x + width - 0.5f) / mWidth, (y + height - 0.5f) / mHeight);
+        }
+
+        /**
+         * Gets page bitmap.
+         * @return page bitmap.
+         */
+        public Bitmap getBitmap() {
+            return mBitmap;
+        }
+
+        /**
+         * Gets compressed texture of page.
+         * @return compressed texture, null for bitmap page.
+         */
+        public CompressedTexture getCompressed() {
+            return mCompressed;
+        }
+
+        /**
+         * Recycles page bitmap or releases compressed texture after upload.
+         */
+        public void recycleBitmap() {
+            if (mBitmap != null) {
+                mBitmap.recycle();
+                mBitmap = null;
+                mCanvas = null;
+            }
+            mCompressed = null;
+        }
+
+        /**
+         * Gets OpenGL texture id.
+         * @return texture id.
+         */
+        public int getTextureId() {
+            return mTextureId;
+        }
+
+        /**
+         * Sets OpenGL texture id.
+         * @param textureId texture id.
+         */
+        public void setTextureId(final int textureId) {
+            mTextureId = textureId;
+        }
+
+        /**
+         * Gets page width.
+         * @return page width.
+         */
+        public int getWidth() {
+            return mWidth;
+        }
+
+        /**
+         * Gets page height.
+         * @return page height.
+         */
+        public int getHeight() {
+            return mHeight;
+        }
+
+        /**
+         * Gets size of page texture.
+         * @return size in bytes.
+         */
+        public long getByteCount() {
+            return mByteCount;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package engine;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Texture cache class.
+ * Keeps uploaded atlases by key of requested bitmaps, so scenes that are loaded again reuse
+ * resident textures. Atlases are reference counted by scenes; atlases without references
+ * stay resident and are evicted in least recently used order when cache is over budget.
+ */
+public class TextureCache {
+    // Max size of resident textures in bytes.
+    private final long mBudget;
+    // Entries in least recently used order.
+    private final LinkedHashMap<String, Entry> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+    // Texture ids of evicted atlases to delete on render thread.
+    private final List<Integer> mTexturesToDelete = new ArrayList<>();
+    // Size of resident textures in bytes.
+    private long mResidentBytes = 0;
+    // Counters.
+    private long mHitCount = 0;
+    private long mMissCount = 0;
+    private long mEvictionCount = 0;
+
+    /**
+     * Texture cache constructor.
+     * @param budget max size of resident textures in bytes.
+     */
+    public TextureCache(final long budget) {
+        mBudget = budget;
+    }
+
+    /**
+     * Acquires atlas.
+     * Atlas returned must be released by the scene.
+     * @param key key of requested bitmaps.
+     * @return resident atlas or null if not cached.
+     */
+    public synchronized TextureAtlas acquire(final String key) {
+        final Entry entry = mEntries.get(key);
+        if (entry == null) {
+            mMissCount++;
+            return null;
+        }
+        mHitCount++;
+        entry.mRefCount++;
+        return entry.mAtlas;
+    }
+
+    /**
+     * Returns true if atlas is cached.
+     * @param key key of requested bitmaps.
+     * @param atlas texture atlas.
+     * @return true if atlas is cached by key.
+     */
+    public synchronized boolean contains(final String key, final TextureAtlas atlas) {
+        final Entry entry = mEntries.get(key);
+        return entry != null && entry.mAtlas == atlas;
+    }
+
+    /**
+     * Adds atlas acquired by one scene.
+     * Evicts atlases without references if cache is over budget.
+     * @param key key of requested bitmaps.
+     * @param atlas texture atlas.
+     */
+    public synchronized void put(final String key, final TextureAtlas atlas) {
+        final Entry entry = new Entry(atlas);
+        final Entry previous = mEntries.put(key, entry);
+        if (previous != null) {
+            entry.mRefCount+= previous.mRefCount;
+            remove(previous);
+        }
+        mResidentBytes+= entry.mBytes;
+        trim();
+    }
+
+    /**
+     * Releases atlas acquired by scene.
+     * @param key key of requested bitmaps.
+     */
+    public synchronized void release(final String key) {
+        final Entry entry = mEntries.get(key);
+        if (entry != null && entry.mRefCount > 0) {
+            entry.mRefCount--;
+            trim();
+        }
+    }
+
+    /**
+     * Deletes textures of evicted atlases.
+     * Must be called by render thread.
+     * @param deleter texture deleter.
+     */
+    public void deleteEvicted(final TextureDeleter deleter) {
+        final int[] textureIds;
+        synchronized (this) {
+            if (mTexturesToDelete.isEmpty()) {
+                return;
+            }
+            textureIds = new int[mTexturesToDelete.size()];
+            for (int i = 0; i < textureIds.length; i++) {
+                textureIds[i] = mTexturesToDelete.get(i);
+            }
+            mTexturesToDelete.clear();
+        }
+        deleter.deleteTextures(textureIds);
+    }
+
+    /**
+     * Forgets textures lost with GL context.
+     * Texture ids are reset without deleting, atlases without references are removed and
+     * textures waiting for deletion are dropped.
+     * @return atlases referenced by scenes, in least recently used order, their lost pages must be restored.
+     */
+    public synchronized List<TextureAtlas> invalidate() {
+        final List<TextureAtlas> referenced = new ArrayList<>();
+        final Iterator<Map.Entry<String, Entry>> iterator = mEntries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Entry entry = iterator.next().getValue();
+            for (final TextureAtlas.Page page : entry.mAtlas.getPages()) {
+                page.setTextureId(0);
+            }
+            if (entry.mRefCount == 0) {
+                iterator.remove();
+                mResidentBytes-= entry.mBytes;
+            } else {
+                referenced.add(entry.mAtlas);
+            }
+        }
+        mTexturesToDelete.clear();
+        return referenced;
+    }
+
+    /**
+     * Gets count of acquires of resident atlases.
+     * @return hit count.
+     */
+    public synchronized long getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * Gets count of acquires of not cached atlases.
+     * @return miss count.
+     */
+    public synchronized long getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * Gets count of evicted atlases.
+     * @return eviction count.
+     */
+    public synchronized long getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    /**
+     * Gets size of resident textures.
+     * @return size in bytes.
+     */
+    public synchronized long getResidentBytes() {
+        return mResidentBytes;
+    }
+
+    /**
+     * Evicts least recently used atlases without references until cache fits budget.
+     */
+    private void trim() {
+        final Iterator<Map.Entry<String, Entry>> iterator = mEntries.entrySet().iterator();
+        while (mResidentBytes > mBudget && iterator.hasNext()) {
+            final Entry entry = iterator.next().getValue();
+            if (entry.mRefCount == 0) {
+                iterator.remove();
+                remove(entry);
+                mEvictionCount++;
+            }
+        }
+    }
+
+    /**
+     * Removes resident textures of entry.
+     * @param entry cache entry.
+     */
+    private void remove(final Entry entry) {
+        mResidentBytes-= entry.mBytes;
+        for (final TextureAtlas.Page page : entry.mAtlas.getPages()) {
+            if (page.getTextureId() != 0) {
+                mTexturesToDelete.add(page.getTextureId());
+                page.setTextureId(0);
+            }
+        }
+    }
+
+    /**
+     * Cache entry.
+     */
+    private static class Entry {
+        // Texture atlas.
+        final TextureAtlas mAtlas;
+        // Size of atlas textures in bytes.
+        final long mBytes;
+        // Count of scenes using atlas.
+        int mRefCount = 1;
+
+        /**
+         * Entry constructor.
+         * @param atlas texture atlas.
+         */
+        Entry(final TextureAtlas atlas) {
+            mAtlas = atlas;
+            mBytes = atlas.getByteCount();
+        }
+    }
+
+    /**
+     * Texture deleter interface.
+     */
+    public interface TextureDeleter {
+        /**
+         * Deletes textures.
+         * @param textureIds texture ids.
+         */
+        void deleteTextures(final int[] textureIds);
+    }
+}
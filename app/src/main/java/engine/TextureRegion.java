@@ -0,0 +1,82 @@
+package engine;
+
+/**
+ * Texture region class.
+ * Part of texture atlas page that is drawn as one sprite.
+ */
+public class TextureRegion {
+    // Atlas page.
+    private final TextureAtlas.Page mPage;
+    // Left texture coordinate.
+    private final float mU0;
+    // Top texture coordinate.
+    private final float mV0;
+    // Right texture coordinate.
+    private final float mU1;
+    // Bottom texture coordinate.
+    private final float mV1;
+
+    /**
+     * Texture region constructor.
+     * @param page atlas page.
+     * @param u0 left texture coordinate.
+     * @param v0 top texture coordinate.
+     * @param u1 right texture coordinate.
+     * @param v1 bottom texture coordinate.
+     */
+    public TextureRegion(final TextureAtlas.Page page, final float u0, final float v0, final float u1, final float v1) {
+        mPage = page;
+        mU0 = u0;
+        mV0 = v0;
+        mU1 = u1;
+        mV1 = v1;
+    }
+
+    /**
+     * Gets OpenGL texture id.
+     * @return texture id.
+     */
+    public int getTexture() {
+        return mPage.getTextureId();
+    }
+
+    /**
+     * Gets atlas page.
+     * @return atlas page.
+     */
+    public TextureAtlas.Page getPage() {
+        return mPage;
+    }
+
+    /**
+     * Gets left texture coordinate.
+     * @return left texture coordinate.
+     */
+    public float getU0() {
+        return mU0;
+    }
+
+    /**
+     * Gets top texture coordinate.
+     * @return top texture coordinate.
+     */
+    public float getV0() {
+        return mV0;
+    }
+
+    /**
+     * Gets right texture coordinate.
+     * @return right texture coordinate.
+     */
+    public float getU1() {
+        return mU1;
+    }
+
+    /**
+     * Gets bottom texture coordinate.
+     * @return bottom texture coordinate.
+     */
+    public float getV1() {
+        return mV1;
+    }
+}
@@ -13,27 +13,39 @@ public class TextureTemplate {
     public static final int SIMPLE_TEXTURE = 0;
     // Animation texture type.
     public static final int ANIMATION_TEXTURE = 1;
+    // Glyph sheet of bitmap font.
+    public static final int FONT_TEXTURE = 2;
     // Texture name.
     private String mName;
-    // Bitmap to load texture.
-    private Bitmap mBitmap;
+    // Request of bitmap to load texture.
+    private BitmapRequest mRequest;
+    // Decoded bitmap, null before decode.
+    private volatile Bitmap mBitmap;
+    // Compressed texture, null before decode or if request is not compressed.
+    private volatile CompressedTexture mCompressed;
     // Texture owners.
     private List<DrawableObject> mOwners;
     // Type of template.
     private int mType;
+    // Animation frame duration in milliseconds.
+    private long mFrameDuration = Const.ANIMATION_DELAY;
+    // Animation play mode.
+    private int mMode = AnimationClip.MODE_LOOP;
+    // Font of glyph sheet, null for other types.
+    private BitmapFont mFont;
 
     /**
      * Texture template constructor.
      * @param name animation name.
      * @param type type of template.
-     * @param bitmap bitmap to load texture.
+     * @param request request of bitmap to load texture.
      * @param owners animation owners.
      */
     public TextureTemplate(final String name, final int type,
-                           final Bitmap bitmap, final List<DrawableObject> owners) {
+                           final BitmapRequest request, final List<DrawableObject> owners) {
         mName = name;
         mType = type;
-        mBitmap = bitmap;
+        mRequest = request;
         mOwners = owners;
     }
 
@@ -41,18 +53,57 @@ public class TextureTemplate {
      * Texture template constructor.
      * @param name animation name.
      * @param type type of template.
-     * @param bitmap bitmap to load texture.
+     * @param request request of bitmap to load texture.
      * @param owner animation owner.
      */
     public TextureTemplate(final String name, final int type,
-                           final Bitmap bitmap, final DrawableObject owner) {
+                           final BitmapRequest request, final DrawableObject owner) {
         mName = name;
         mType = type;
-        mBitmap = bitmap;
+        mRequest = request;
         mOwners = new ArrayList<>();
         mOwners.add(owner);
     }
 
+    /**
+     * Animation template constructor.
+     * @param name animation name.
+     * @param request request of bitmap with frames in a row.
+     * @param owner animation owner.
+     * @param frameDuration frame duration in milliseconds.
+     * @param mode default play mode of AnimationClip.
+     */
+    public TextureTemplate(final String name, final BitmapRequest request, final DrawableObject owner,
+                           final long frameDuration, final int mode) {
+        this(name, ANIMATION_TEXTURE, request, owner);
+        mFrameDuration = frameDuration;
+        mMode = mode;
+    }
+
+    /**
+     * Animation template constructor.
+     * @param name animation name.
+     * @param request request of bitmap with frames in a row.
+     * @param owners owners of animation.
+     * @param frameDuration frame duration in milliseconds.
+     * @param mode play mode of AnimationClip.
+     */
+    public TextureTemplate(final String name, final BitmapRequest request, final List<DrawableObject> owners,
+                           final long frameDuration, final int mode) {
+        this(name, ANIMATION_TEXTURE, request, owners);
+        mFrameDuration = frameDuration;
+        mMode = mode;
+    }
+
+    /**
+     * Font template constructor.
+     * @param request request of glyph sheet.
+     */
+    public TextureTemplate(final GlyphSheetRequest request) {
+        this(Const.NORMAL_STATE, FONT_TEXTURE, request, new ArrayList<DrawableObject>());
+        mFont = request.getFont();
+    }
+
     /**
      * Gets texture name.
      * @return texture name.
@@ -69,14 +120,41 @@ public class TextureTemplate {
         return mType;
     }
 
+    /**
+     * Decodes texture bitmap or loads compressed texture.
+     * May be called on any thread.
+     */
+    public void decode() {
+        mCompressed = mRequest.loadCompressed();
+        if (mCompressed == null) {
+            mBitmap = mRequest.decode();
+        }
+    }
+
+    /**
+     * Gets request of texture bitmap.
+     * @return bitmap request.
+     */
+    public BitmapRequest getRequest() {
+        return mRequest;
+    }
+
     /**
      * Gets texture bitmap.
-     * @return texture bitmap.
+     * @return texture bitmap, null before decode.
      */
     public Bitmap getBitmap() {
         return mBitmap;
     }
 
+    /**
+     * Gets compressed texture.
+     * @return compressed texture, null before decode or if texture is a bitmap.
+     */
+    public CompressedTexture getCompressed() {
+        return mCompressed;
+    }
+
     /**
      * Gets texture owners.
      * @return texture owners.
@@ -84,4 +162,28 @@ public class TextureTemplate {
     public List<DrawableObject> getOwners() {
         return mOwners;
     }
+
+    /**
+     * Gets animation frame duration.
+     * @return frame duration in milliseconds.
+     */
+    public long getFrameDuration() {
+        return mFrameDuration;
+    }
+
+    /**
+     * Gets font of glyph sheet.
+     * @return bitmap font, null if template is not a font template.
+     */
+    public BitmapFont getFont() {
+        return mFont;
+    }
+
+    /**
+     * Gets animation play mode.
+     * @return play mode of AnimationClip.
+     */
+    public int getMode() {
+        return mMode;
+    }
 }
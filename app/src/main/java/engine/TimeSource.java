@@ -0,0 +1,20 @@
+package engine;
+
+/**
+ * Monotonic time source.
+ */
+public interface TimeSource {
+    // System monotonic time source.
+    TimeSource SYSTEM = new TimeSource() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    /**
+     * Gets current time.
+     * @return monotonic time in nanoseconds.
+     */
+    long nanoTime();
+}
@@ -0,0 +1,173 @@
+package engine;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Trace recorder class.
+ * Records nested timed scopes of every thread to its own preallocated ring buffer,
+ * so recording takes no locks and does not allocate. Oldest events are overwritten.
+ * Trace is written in Chrome trace event format.
+ */
+public class TraceRecorder {
+    // Max depth of nested scopes.
+    private static final int MAX_DEPTH = 32;
+
+    // Events per track.
+    private final int mCapacity;
+    // Time source.
+    private final TimeSource mTimeSource;
+    // Time of recorder start.
+    private final long mStartTime;
+    // Tracks of all threads.
+    private final List<Track> mTracks = new CopyOnWriteArrayList<>();
+    // Track of current thread.
+    private final ThreadLocal<Track> mTrack = new ThreadLocal<Track>() {
+        @Override
+        protected Track initialValue() {
+            final Track track = new Track(mTracks.size() + 1, Thread.currentThread().getName(), mCapacity);
+            mTracks.add(track);
+            return track;
+        }
+    };
+
+    /**
+     * Trace recorder constructor.
+     * @param capacity events kept per thread.
+     * @param timeSource time source.
+     */
+    public TraceRecorder(final int capacity, final TimeSource timeSource) {
+        mCapacity = capacity;
+        mTimeSource = timeSource;
+        mStartTime = timeSource.nanoTime();
+    }
+
+    /**
+     * Begins scope on current thread.
+     * @param name scope name, should be a constant.
+     */
+    public void begin(final String name) {
+        final Track track = mTrack.get();
+        if (track.mDepth < MAX_DEPTH) {
+            track.mStackNames[track.mDepth] = name;
+            track.mStackStarts[track.mDepth] = mTimeSource.nanoTime();
+        }
+        track.mDepth++;
+    }
+
+    /**
+     * Ends last scope of current thread.
+     */
+    public void end() {
+        final long time = mTimeSource.nanoTime();
+        final Track track = mTrack.get();
+        if (track.mDepth == 0) {
+            return;
+        }
+        track.mDepth--;
+        if (track.mDepth >= MAX_DEPTH) {
+            return;
+        }
+        final int index = (int) (track.mWritten % mCapacity);
+        track.mNames[index] = track.mStackNames[track.mDepth];
+        track.mStarts[index] = track.mStackStarts[track.mDepth];
+        track.mDurations[index] = time - track.mStackStarts[track.mDepth];
+        track.mWritten++;
+    }
+
+    /**
+     * Gets count of events kept for all threads.
+     * @return event count.
+     */
+    public int getEventCount() {
+        int count = 0;
+        for (final Track track : mTracks) {
+            count+= (int) Math.min(track.mWritten, mCapacity);
+        }
+        return count;
+    }
+
+    /**
+     * Writes trace in Chrome trace event format.
+     * Events recorded while writing may be torn, write trace when threads are idle.
+     * @param writer writer.
+     * @throws IOException if trace can not be written.
+     */
+    public void writeTrace(final Writer writer) throws IOException {
+        writer.write("{\"traceEvents\":[");
+        boolean first = true;
+        for (final Track track : mTracks) {
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            writer.write("\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + track.mId
+                    + ",\"args\":{\"name\":\"" + escape(track.mName) + "\"}}");
+            final long written = track.mWritten;
+            for (long i = Math.max(0, written - mCapacity); i < written; i++) {
+                final int index = (int) (i % mCapacity);
+                writer.write(",\n{\"name\":\"" + escape(track.mNames[index]) + "\",\"ph\":\"X\",\"pid\":1,\"tid\":"
+                        + track.mId + ",\"ts\":" + toMicros(track.mStarts[index] - mStartTime)
+                        + ",\"dur\":" + toMicros(track.mDurations[index]) + "}");
+            }
+        }
+        writer.write("\n],\"displayTimeUnit\":\"ms\"}\n");
+        writer.flush();
+    }
+
+    /**
+     * Converts nanoseconds to microseconds.
+     * @param nanos time in nanoseconds.
+     * @return time in microseconds with fraction.
+     */
+    private static String toMicros(final long nanos) {
+        final long abs = Math.abs(nanos);
+        final String fraction = String.valueOf(1000 + abs % 1000).substring(1);
+        return (nanos < 0 ? "-" : "") + abs / 1000 + "." + fraction;
+    }
+
+    /**
+     * Escapes string for json.
+     * @param text text.
+     * @return escaped text.
+     */
+    private static String escape(final String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * Events of one thread.
+     */
+    private static class Track {
+        // Track id.
+        final int mId;
+        // Thread name.
+        final String mName;
+        // Ring buffer of events.
+        final String[] mNames;
+        final long[] mStarts;
+        final long[] mDurations;
+        // Count of written events.
+        volatile long mWritten = 0;
+        // Open scopes.
+        final String[] mStackNames = new String[MAX_DEPTH];
+        final long[] mStackStarts = new long[MAX_DEPTH];
+        int mDepth = 0;
+
+        /**
+         * Track constructor.
+         * @param id track id.
+         * @param name thread name.
+         * @param capacity event capacity.
+         */
+        Track(final int id, final String name, final int capacity) {
+            mId = id;
+            mName = name;
+            mNames = new String[capacity];
+            mStarts = new long[capacity];
+            mDurations = new long[capacity];
+        }
+    }
+}
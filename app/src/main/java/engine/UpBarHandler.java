@@ -1,22 +1,23 @@
 package engine;
 
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.Canvas;
 import android.graphics.Paint;
-import android.view.MotionEvent;
-
-import com.flappyfishgame.R;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class UpBarHandler implements SceneHolder.SceneHolderHandler {
+    // Touch target ids.
+    private static final int BACK_BUTTON = 0;
+    private static final int KEY_BUTTON = 1;
+
     private DrawableScene mScene;
     private DrawableObject mMat;
-    private List<DrawableObject> mHearts;
+    // Hearts showing lives count.
+    private LivesIndicator mLives;
     private DrawableObject mCoin;
+    // Coin count drawn over coin.
+    private TextLabel mCoinLabel;
     private DrawableObject mBackButton;
     private DrawableObject mKeyButton;
     private DrawableObject mRedScreen;
@@ -27,7 +28,17 @@ public class UpBarHandler implements SceneHolder.SceneHolderHandler {
 
     private List<TextureTemplate> mTexturesToLoad = new ArrayList<>();
 
-    private long mRedScreenScreenTimeCount = 0;
+    // Touch targets.
+    private final SpatialHash mTouchTargets = new SpatialHash(-1, -1, 1, 1, Const.TOUCH_GRID_CELL_SIZE, 2);
+    // Touch targets under touch point.
+    private final int[] mHits = new int[Const.MAX_TOUCH_HITS];
+    // Projection version touch targets are laid out for.
+    private int mTouchTargetVersion;
+
+    // Frame time when red screen was shown.
+    private long mRedScreenStartTime = 0;
+    // True if red screen is requested by level thread.
+    private volatile boolean mIsRedScreenRequested = false;
 
     /**
      * Up bar handler constructor.
@@ -40,38 +51,44 @@ public class UpBarHandler implements SceneHolder.SceneHolderHandler {
     }
 
     @Override
-    public void processBeforeDraw(final int matrixLocation, final float[] matrix) {
-        long time = System.currentTimeMillis();
-        if (mRedScreen.isVisible() && time - mRedScreenScreenTimeCount > Const.RED_SCREEN_DELAY) {
+    public void processBeforeDraw(final SpriteBatch batch, final FrameClock clock) {
+        final long time = clock.getTime();
+        if (mIsRedScreenRequested) {
+            mIsRedScreenRequested = false;
+            mRedScreenStartTime = time;
+            mRedScreen.setVisible(true);
+        } else if (mRedScreen.isVisible() && time - mRedScreenStartTime > Const.RED_SCREEN_DELAY * 1000000L) {
             mRedScreen.setVisible(false);
         }
+        mLives.apply();
     }
 
     @Override
-    public void processAfterDraw(int matrixLocation, float[] matrix) {
+    public void processAfterDraw(final SpriteBatch batch) {
+        mCoinLabel.setAspect(Game.getProjection().getAspect());
+        mCoinLabel.setNumber(Game.getCoinCount());
+        mCoinLabel.draw(batch);
     }
 
     @Override
-    public void processTouch(final MotionEvent e) {
-        final float x = e.getX();
-        final float y = e.getY();
-        final float glX = Game.getXByScreenX(x);
-        final float glY = Game.getYByScreenY(y);
-        if (e.getAction() == MotionEvent.ACTION_DOWN) {
-            if (mBackButton.isInside(glX, glY)) {
-                mBackButton.setState(Const.BUTTON_PRESSED_STATE);
+    public void processTouch(final int action, final int pointerId, final float x, final float y, final long time) {
+        updateTouchTargets();
+        final int target = mTouchTargets.queryPoint(x, y, mHits) > 0 ? mHits[0] : SpatialHash.NONE;
+        if (action == InputQueue.ACTION_DOWN) {
+            if (target == BACK_BUTTON) {
+                mBackButton.setState(Const.BUTTON_PRESSED_STATE_ID);
                 mIsBackPressed = true;
-            } else if (mKeyButton.isInside(glX, glY)) {
-                mKeyButton.setState(Const.BUTTON_PRESSED_STATE);
+            } else if (target == KEY_BUTTON) {
+                mKeyButton.setState(Const.BUTTON_PRESSED_STATE_ID);
                 mIsKeyPressed = true;
             }
-        } else if (e.getAction() == MotionEvent.ACTION_UP) {
-            mBackButton.setState(Const.NORMAL_STATE);
-            mKeyButton.setState(Const.NORMAL_STATE);
-            if (mIsBackPressed && mBackButton.isInside(glX, glY)) {
+        } else if (action == InputQueue.ACTION_UP) {
+            mBackButton.setState(Const.NORMAL_STATE_ID);
+            mKeyButton.setState(Const.NORMAL_STATE_ID);
+            if (mIsBackPressed && target == BACK_BUTTON) {
                 SoundPlayer.playClickSound(mContext);
                 mLevelListener.onReturnToMenu();
-            } else if (mIsKeyPressed && mKeyButton.isInside(glX, glY)) {
+            } else if (mIsKeyPressed && target == KEY_BUTTON) {
                 SoundPlayer.playClickSound(mContext);
                 mLevelListener.onKeyPressed();
             }
@@ -82,20 +99,27 @@ public class UpBarHandler implements SceneHolder.SceneHolderHandler {
 
     /**
      * Sets lives count.
+     * May be called by level thread, hearts are changed by next processBeforeDraw.
      * @param livesCount lives count tot set.
      * @param showFail true if needs to show fail screen animation.
      */
     public void setLivesCount(final int livesCount, final boolean showFail) {
         if (showFail) {
-            mRedScreenScreenTimeCount = System.currentTimeMillis();
-            mRedScreen.setVisible(true);
+            mIsRedScreenRequested = true;
             SoundPlayer.playMistakeSound(mContext);
         }
-        for (int i = Const.MIN_LIVES_COUNT; i < livesCount; i++) {
-            mHearts.get(i).setVisible(true);
-        }
-        for (int i = livesCount; i < Const.MAX_LIVES_COUNT; i++) {
-            mHearts.get(i).setVisible(false);
+        mLives.setLivesCount(livesCount);
+    }
+
+    /**
+     * Moves touch targets of buttons if projection is changed since they were laid out.
+     */
+    private void updateTouchTargets() {
+        final int version = Game.getProjection().getVersion();
+        if (version != mTouchTargetVersion) {
+            mTouchTargetVersion = version;
+            mTouchTargets.move(BACK_BUTTON, mBackButton);
+            mTouchTargets.move(KEY_BUTTON, mKeyButton);
         }
     }
 
@@ -109,90 +133,33 @@ public class UpBarHandler implements SceneHolder.SceneHolderHandler {
 
     @Override
     public void init() {
-        mScene = new DrawableScene(2);
-
-        // Red screen.
-        mRedScreen = new DrawableObject(2f, 2f, DrawableObject.NORMAL_SPRITE);
-        mRedScreen.setVisible(false);
-        final Bitmap iconRedScreen = Utils.getResizedBitmap(BitmapFactory.decodeResource(mContext.getResources(),
-                R.drawable.red_screen), Game.getScreenWidth(), Game.getScreenHeight());
-        final TextureTemplate redScreenTemplate = new TextureTemplate(Const.NORMAL_STATE, TextureTemplate.SIMPLE_TEXTURE,
-                iconRedScreen, mRedScreen);
-        mTexturesToLoad.add(redScreenTemplate);
-        mScene.addToLayer(1, mRedScreen);
-
-        // Mat.
-        mMat = new DrawableObject(2f, 0.2f, DrawableObject.NORMAL_SPRITE);
-        mMat.setY(0.9f);
-        final Bitmap iconMat = BitmapFactory.decodeResource(mContext.getResources(), R.drawable.up_bar);
-        final TextureTemplate matTemplate = new TextureTemplate(Const.NORMAL_STATE, TextureTemplate.SIMPLE_TEXTURE,
-                iconMat, mMat);
-        mTexturesToLoad.add(matTemplate);
-        mScene.addToLayer(0, mMat);
-
-        // Back button.
-        mBackButton = new DrawableObject(0.18f, 0.18f, DrawableObject.SQUARE_SPRITE);
-        mBackButton.setX(0.85f);
-        mBackButton.setY(0.9f);
-        final Bitmap iconBackButton = BitmapFactory.decodeResource(mContext.getResources(), R.drawable.back);
-        final Bitmap iconBackButtonPressed = BitmapFactory.decodeResource(mContext.getResources(), R.drawable.back_pressed);
-        final TextureTemplate backButtonTemplate = new TextureTemplate(Const.NORMAL_STATE, TextureTemplate.SIMPLE_TEXTURE,
-                iconBackButton, mBackButton);
-        final TextureTemplate backButtonPressedTemplate = new TextureTemplate(Const.BUTTON_PRESSED_STATE, TextureTemplate.SIMPLE_TEXTURE,
-                iconBackButtonPressed, mBackButton);
-        mTexturesToLoad.add(backButtonTemplate);
-        mTexturesToLoad.add(backButtonPressedTemplate);
-        mScene.addToLayer(0, mBackButton);
-
-        // Key button.
-        mKeyButton = new DrawableObject(0.18f, 0.18f, DrawableObject.SQUARE_SPRITE);
-        mKeyButton.setX(0.55f);
-        mKeyButton.setY(0.9f);
-        final Bitmap iconKeyButton = BitmapFactory.decodeResource(mContext.getResources(), R.drawable.key);
-        final Bitmap iconKeyButtonPressed = BitmapFactory.decodeResource(mContext.getResources(), R.drawable.key_pressed);
-        final TextureTemplate keyButtonTemplate = new TextureTemplate(Const.NORMAL_STATE, TextureTemplate.SIMPLE_TEXTURE,
-                iconKeyButton, mKeyButton);
-        final TextureTemplate keyButtonPressedTemplate = new TextureTemplate(Const.BUTTON_PRESSED_STATE, TextureTemplate.SIMPLE_TEXTURE,
-                iconKeyButtonPressed, mKeyButton);
-        mTexturesToLoad.add(keyButtonTemplate);
-        mTexturesToLoad.add(keyButtonPressedTemplate);
-        mScene.addToLayer(0, mKeyButton);
-
-        // Hearts.
-        mHearts = new ArrayList<>();
-        final Bitmap iconHeart = BitmapFactory.decodeResource(mContext.getResources(), R.drawable.heart);
-        float curX = -0.85f;
+        final SceneInstance scene = SceneInstance.load(mContext, "up_bar");
+        mScene = scene.getScene();
+        mTexturesToLoad.addAll(scene.getTexturesToLoad());
+        mRedScreen = scene.getObject("red_screen");
+        mMat = scene.getObject("mat");
+        mBackButton = scene.getObject("back_button");
+        mTouchTargets.add(BACK_BUTTON, mBackButton);
+        mKeyButton = scene.getObject("key_button");
+        mTouchTargets.add(KEY_BUTTON, mKeyButton);
+        mTouchTargetVersion = Game.getProjection().getVersion();
+        final List<DrawableObject> hearts = new ArrayList<>();
         for (int i = 0; i < (Const.MAX_LIVES_COUNT - Const.MIN_LIVES_COUNT); i++) {
-            final DrawableObject heart = new DrawableObject(0.18f, 0.18f, DrawableObject.SQUARE_SPRITE);
-            heart.setX(curX);
-            heart.setY(0.9f);
-            curX+= 0.18f;
-            mHearts.add(heart);
-            mScene.addToLayer(0, heart);
+            hearts.add(scene.getObject("heart" + i));
         }
-        final TextureTemplate heartTemplate = new TextureTemplate(Const.NORMAL_STATE, TextureTemplate.SIMPLE_TEXTURE,
-                iconHeart, mHearts);
-        mTexturesToLoad.add(heartTemplate);
+        mLives = new LivesIndicator(hearts);
+        mCoin = scene.getObject("coin");
 
-        // Coins.
-        final int textSize = 70;
+        // Coin count.
         final Paint textPaint = new Paint();
-        textPaint.setTextSize(textSize);
+        textPaint.setTextSize(Const.HUD_TEXT_SIZE);
         textPaint.setAntiAlias(true);
         textPaint.setFakeBoldText(true);
         textPaint.setARGB(255, 0, 0, 0);
-
-        mCoin = new DrawableObject(0.18f, 0.18f, DrawableObject.SQUARE_SPRITE);
-        mCoin.setX(0.2f);
-        mCoin.setY(0.9f);
-        final Bitmap iconCoin = Utils.getResizedBitmap(BitmapFactory.decodeResource(mContext.getResources(),
-                R.drawable.coin), 200, 200);
-        final Canvas canvas = new Canvas(iconCoin);
-        canvas.drawText(Game.getCoinCount() + "", 30, 130, textPaint);
-        final TextureTemplate coinTemplate = new TextureTemplate(Const.NORMAL_STATE, TextureTemplate.SIMPLE_TEXTURE,
-                iconCoin, mCoin);
-        mTexturesToLoad.add(coinTemplate);
-        mScene.addToLayer(0, mCoin);
+        final GlyphSheetRequest glyphs = new GlyphSheetRequest(GlyphSheetRequest.ASCII, textPaint);
+        mTexturesToLoad.add(new TextureTemplate(glyphs));
+        mCoinLabel = new TextLabel(glyphs.getFont(), Const.HUD_TEXT_CAPACITY, 0.2f, 0.9f, 0.08f,
+                Game.getProjection().getAspect(), TextLabel.ALIGN_CENTER);
     }
 
     @Override
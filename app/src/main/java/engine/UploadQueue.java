@@ -0,0 +1,136 @@
+package engine;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Texture upload queue.
+ * Loader threads add decoded atlas pages, render thread uploads them in order
+ * within a time and byte budget per frame, so a big load does not stall one frame.
+ */
+public class UploadQueue {
+    // Pages to upload in order.
+    private final Deque<TextureAtlas.Page> mPages = new ArrayDeque<>();
+    // Max bytes uploaded per frame.
+    private final long mByteBudget;
+    // Max time spent uploading per frame.
+    private final long mTimeBudget;
+    // Time source.
+    private final TimeSource mTimeSource;
+    // Bytes queued since queue was empty.
+    private long mQueuedBytes = 0;
+    // Bytes uploaded since queue was empty.
+    private long mUploadedBytes = 0;
+
+    /**
+     * Upload queue constructor.
+     * At least one page is uploaded per frame, even if it is over budget.
+     * @param byteBudget max bytes uploaded per frame.
+     * @param timeBudget max time spent uploading per frame in nanoseconds.
+     * @param timeSource time source.
+     */
+    public UploadQueue(final long byteBudget, final long timeBudget, final TimeSource timeSource) {
+        mByteBudget = byteBudget;
+        mTimeBudget = timeBudget;
+        mTimeSource = timeSource;
+    }
+
+    /**
+     * Adds pages of atlas.
+     * @param atlas texture atlas.
+     */
+    public void add(final TextureAtlas atlas) {
+        add(atlas.getPages());
+    }
+
+    /**
+     * Adds pages.
+     * @param pages atlas pages.
+     */
+    public synchronized void add(final List<TextureAtlas.Page> pages) {
+        if (mPages.isEmpty()) {
+            mQueuedBytes = 0;
+            mUploadedBytes = 0;
+        }
+        for (final TextureAtlas.Page page : pages) {
+            mPages.addLast(page);
+            mQueuedBytes+= page.getByteCount();
+        }
+    }
+
+    /**
+     * Uploads pages within budget.
+     * Must be called by render thread once per frame.
+     * @param uploader texture uploader.
+     * @return count of uploaded pages.
+     */
+    public int process(final Uploader uploader) {
+        final long start = mTimeSource.nanoTime();
+        long bytes = 0;
+        int count = 0;
+        while (true) {
+            final TextureAtlas.Page page;
+            synchronized (this) {
+                page = mPages.peekFirst();
+            }
+            if (page == null) {
+                break;
+            }
+            final long pageBytes = page.getByteCount();
+            if (count > 0 && (bytes + pageBytes > mByteBudget || mTimeSource.nanoTime() - start >= mTimeBudget)) {
+                break;
+            }
+            page.setTextureId(uploader.upload(page));
+            page.recycleBitmap();
+            bytes+= pageBytes;
+            count++;
+            synchronized (this) {
+                mPages.removeFirst();
+                mUploadedBytes+= pageBytes;
+                if (mPages.isEmpty()) {
+                    notifyAll();
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets upload progress since queue was empty.
+     * @return progress from 0 to 1.
+     */
+    public synchronized float getProgress() {
+        return mQueuedBytes == 0 ? 1 : (float) mUploadedBytes / mQueuedBytes;
+    }
+
+    /**
+     * Returns true if all pages are uploaded.
+     * @return true if queue is empty.
+     */
+    public synchronized boolean isEmpty() {
+        return mPages.isEmpty();
+    }
+
+    /**
+     * Waits until all pages are uploaded.
+     * @throws InterruptedException if thread is interrupted.
+     */
+    public synchronized void awaitEmpty() throws InterruptedException {
+        while (!mPages.isEmpty()) {
+            wait();
+        }
+    }
+
+    /**
+     * Texture uploader interface.
+     */
+    public interface Uploader {
+        /**
+         * Uploads page bitmap to texture.
+         * @param page atlas page.
+         * @return texture id.
+         */
+        int upload(final TextureAtlas.Page page);
+    }
+}
@@ -0,0 +1,185 @@
+package engine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Wav decoder class.
+ * Decodes PCM wav files of 8, 16 or 24 bits to mono 16 bit sound clip of mixer sample rate.
+ */
+public class WavDecoder {
+    // PCM format tag.
+    private static final int FORMAT_PCM = 1;
+
+    /**
+     * Decodes wav stream.
+     * Closes stream.
+     * @param stream wav stream.
+     * @param sampleRate sample rate of result.
+     * @return sound clip.
+     * @throws IOException if stream can not be read or is not PCM wav.
+     */
+    public static SoundClip decode(final InputStream stream, final int sampleRate) throws IOException {
+        try {
+            return decode(readAll(stream), sampleRate);
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Decodes wav data.
+     * @param data wav file data.
+     * @param sampleRate sample rate of result.
+     * @return sound clip.
+     * @throws IOException if data is not PCM wav.
+     */
+    public static SoundClip decode(final byte[] data, final int sampleRate) throws IOException {
+        if (data.length < 12 || !"RIFF".equals(readTag(data, 0)) || !"WAVE".equals(readTag(data, 8))) {
+            throw new IOException("Not a wav file");
+        }
+        int channels = 0;
+        int sourceRate = 0;
+        int bits = 0;
+        int offset = 12;
+        while (offset + 8 <= data.length) {
+            final String tag = readTag(data, offset);
+            final int size = readInt(data, offset + 4);
+            final int body = offset + 8;
+            if ("fmt ".equals(tag)) {
+                if (readShort(data, body) != FORMAT_PCM) {
+                    throw new IOException("Wav is not PCM");
+                }
+                channels = readShort(data, body + 2);
+                sourceRate = readInt(data, body + 4);
+                bits = readShort(data, body + 14);
+            } else if ("data".equals(tag)) {
+                if (channels == 0) {
+                    throw new IOException("Wav data before format");
+                }
+                final int length = Math.min(size, data.length - body);
+                final short[] samples = toMono(data, body, length, channels, bits);
+                return new SoundClip(resample(samples, sourceRate, sampleRate), sampleRate);
+            }
+            offset = body + size + (size & 1);
+        }
+        throw new IOException("Wav has no data");
+    }
+
+    /**
+     * Converts interleaved PCM frames to mono 16 bit samples.
+     * @param data wav file data.
+     * @param offset offset of PCM data.
+     * @param length length of PCM data.
+     * @param channels channel count.
+     * @param bits bits per sample.
+     * @return mono samples.
+     * @throws IOException if sample size is not supported.
+     */
+    private static short[] toMono(final byte[] data, final int offset, final int length,
+                                  final int channels, final int bits) throws IOException {
+        if (bits != 8 && bits != 16 && bits != 24) {
+            throw new IOException("Unsupported sample size " + bits);
+        }
+        final int sampleBytes = bits / 8;
+        final int frameBytes = sampleBytes * channels;
+        final short[] samples = new short[length / frameBytes];
+        for (int i = 0; i < samples.length; i++) {
+            int sum = 0;
+            for (int c = 0; c < channels; c++) {
+                final int position = offset + i * frameBytes + c * sampleBytes;
+                switch (bits) {
+                    case 8:
+                        sum+= ((data[position] & 0xFF) - 128) << 8;
+                        break;
+                    case 16:
+                        sum+= (short) readShort(data, position);
+                        break;
+                    default:
+                        sum+= (data[position + 2] << 8) | (data[position + 1] & 0xFF);
+                        break;
+                }
+            }
+            samples[i] = (short) (sum / channels);
+        }
+        return samples;
+    }
+
+    /**
+     * Resamples samples with linear interpolation.
+     * @param samples source samples.
+     * @param sourceRate source sample rate.
+     * @param targetRate target sample rate.
+     * @return resampled samples.
+     */
+    static short[] resample(final short[] samples, final int sourceRate, final int targetRate) {
+        if (sourceRate == targetRate || samples.length == 0) {
+            return samples;
+        }
+        final int length = (int) ((long) samples.length * targetRate / sourceRate);
+        final short[] result = new short[length];
+        final double step = (double) sourceRate / targetRate;
+        for (int i = 0; i < length; i++) {
+            final double position = i * step;
+            final int index = (int) position;
+            final int next = Math.min(index + 1, samples.length - 1);
+            final double fraction = position - index;
+            result[i] = (short) Math.round(samples[index] + (samples[next] - samples[index]) * fraction);
+        }
+        return result;
+    }
+
+    /**
+     * Reads stream to the end.
+     * @param stream stream.
+     * @return stream data.
+     * @throws IOException if stream can not be read.
+     */
+    private static byte[] readAll(final InputStream stream) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int count;
+        while ((count = stream.read(buffer)) != -1) {
+            out.write(buffer, 0, count);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads chunk tag.
+     * @param data data.
+     * @param offset tag offset.
+     * @return four letter tag.
+     */
+    private static String readTag(final byte[] data, final int offset) {
+        return new String(new char[] {(char) data[offset], (char) data[offset + 1],
+                (char) data[offset + 2], (char) data[offset + 3]});
+    }
+
+    /**
+     * Reads little endian unsigned 16 bit value.
+     * @param data data.
+     * @param offset value offset.
+     * @return value.
+     */
+    private static int readShort(final byte[] data, final int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8;
+    }
+
+    /**
+     * Reads little endian 32 bit value.
+     * @param data data.
+     * @param offset value offset.
+     * @return value.
+     */
+    private static int readInt(final byte[] data, final int offset) {
+        return readShort(data, offset) | readShort(data, offset + 2) << 16;
+    }
+
+    /**
+     * Constructor is private.
+     */
+    private WavDecoder() {
+    }
+}
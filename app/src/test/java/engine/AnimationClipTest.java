@@ -0,0 +1,166 @@
+package engine;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Animation clip and frame clock tests.
+ */
+public class AnimationClipTest {
+    private static final long FRAME = 100;
+    private static final long FRAME_NANOS = FRAME * 1000000;
+
+    private final ManualTimeSource mTime = new ManualTimeSource();
+    private final FrameClock mClock = new FrameClock(mTime);
+    private final List<Integer> mEnded = new ArrayList<>();
+    private final List<TextureRegion> mFrames = new ArrayList<>();
+    private SpriteBatch mBatch;
+    private int mDrawnTexture;
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < 3; i++) {
+            final TextureAtlas.Page page = new TextureAtlas.Page(1, 1);
+            page.setTextureId(i + 1);
+            mFrames.add(new TextureRegion(page, 0, 0, 1, 1));
+        }
+        mBatch = new SpriteBatch(FloatBuffer.allocate(SpriteBatch.SPRITE_SIZE), new SpriteBatch.FlushListener() {
+            @Override
+            public void onUpload(final int offset, final int count) {
+            }
+
+            @Override
+            public void onFlush(final int texture, final int firstIndex, final int indexCount) {
+                mDrawnTexture = texture;
+            }
+        });
+    }
+
+    @Test
+    public void loop_repeatsFrames() {
+        final AnimationClip clip = new AnimationClip(mFrames, FRAME, AnimationClip.MODE_LOOP);
+        assertEquals(0, clip.getFrameIndex(0, AnimationClip.MODE_LOOP));
+        assertEquals(0, clip.getFrameIndex(FRAME_NANOS - 1, AnimationClip.MODE_LOOP));
+        assertEquals(2, clip.getFrameIndex(FRAME_NANOS * 2, AnimationClip.MODE_LOOP));
+        assertEquals(0, clip.getFrameIndex(FRAME_NANOS * 3, AnimationClip.MODE_LOOP));
+        assertEquals(1, clip.getFrameIndex(FRAME_NANOS * 301, AnimationClip.MODE_LOOP));
+    }
+
+    @Test
+    public void once_finishesAfterLastFrame() {
+        final AnimationClip clip = new AnimationClip(mFrames, FRAME, AnimationClip.MODE_ONCE);
+        assertEquals(2, clip.getFrameIndex(FRAME_NANOS * 3 - 1, AnimationClip.MODE_ONCE));
+        assertEquals(AnimationClip.FINISHED, clip.getFrameIndex(FRAME_NANOS * 3, AnimationClip.MODE_ONCE));
+    }
+
+    @Test
+    public void pingPong_playsBackward() {
+        final AnimationClip clip = new AnimationClip(mFrames, FRAME, AnimationClip.MODE_PING_PONG);
+        final int[] expected = {0, 1, 2, 1, 0, 1, 2};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], clip.getFrameIndex(FRAME_NANOS * i, AnimationClip.MODE_PING_PONG));
+        }
+        assertEquals(AnimationClip.MODE_PING_PONG, clip.resolveMode(AnimationClip.MODE_LOOP));
+        assertEquals(AnimationClip.MODE_ONCE, clip.resolveMode(AnimationClip.MODE_ONCE));
+        assertEquals(AnimationClip.MODE_PING_PONG, clip.resolveMode(AnimationClip.MODE_DEFAULT));
+    }
+
+    @Test
+    public void frameClock_measuresDelta() {
+        mClock.tick();
+        assertEquals(0, mClock.getDelta());
+        mTime.add(16);
+        mClock.tick();
+        assertEquals(16, mClock.getDelta());
+        assertEquals(mTime.nanoTime(), mClock.getTime());
+        assertEquals(2, mClock.getFrameCount());
+    }
+
+    @Test
+    public void animationFrames_followFrameClock() {
+        final DrawableScene scene = new DrawableScene(1);
+        final DrawableObject object = new DrawableObject(0.2f, 0.2f, DrawableObject.NORMAL_SPRITE);
+        object.addAnimation(Const.NORMAL_ANIMATION_STATE_ID,
+                new AnimationClip(mFrames, FRAME, AnimationClip.MODE_LOOP));
+        object.animateLoop(Const.NORMAL_ANIMATION_STATE_ID);
+        scene.addToLayer(0, object);
+        scene.publish(0);
+
+        assertEquals(1, drawFrame(scene, 0));
+        assertEquals(1, drawFrame(scene, FRAME_NANOS / 2));
+        assertEquals(2, drawFrame(scene, FRAME_NANOS / 2));
+        // Long frame skips frames instead of lagging behind.
+        assertEquals(2, drawFrame(scene, FRAME_NANOS * 3));
+    }
+
+    @Test
+    public void animationPlayedOnce_callsListenerOneTime() {
+        final DrawableScene scene = new DrawableScene(1);
+        final TextureAtlas.Page page = new TextureAtlas.Page(1, 1);
+        page.setTextureId(10);
+        final DrawableObject object = new DrawableObject(0.2f, 0.2f, DrawableObject.NORMAL_SPRITE);
+        object.addTexture(Const.NORMAL_STATE_ID, new TextureRegion(page, 0, 0, 1, 1));
+        object.addAnimation(Const.DRAG_ANIMATION_ID, new AnimationClip(mFrames, FRAME, AnimationClip.MODE_LOOP));
+        object.animate(Const.DRAG_ANIMATION_ID, new AnimationClip.AnimationListener() {
+            @Override
+            public void onAnimationEnd(final int animation) {
+                mEnded.add(animation);
+            }
+        });
+        scene.addToLayer(0, object);
+        scene.publish(0);
+
+        assertEquals(1, drawFrame(scene, 0));
+        assertEquals(3, drawFrame(scene, FRAME_NANOS * 2));
+        assertTrue(mEnded.isEmpty());
+        assertTrue(scene.isAnimating());
+        assertEquals(10, drawFrame(scene, FRAME_NANOS));
+        assertFalse(scene.isAnimating());
+        // Render thread only queues animation end, publishing thread delivers it.
+        assertTrue(mEnded.isEmpty());
+        assertTrue(scene.hasAnimationEnds());
+        assertEquals(10, drawFrame(scene, FRAME_NANOS));
+        assertEquals(1, scene.deliverAnimationEnds());
+        assertEquals(0, scene.deliverAnimationEnds());
+        assertEquals(1, mEnded.size());
+        assertEquals(Const.DRAG_ANIMATION_ID, (int) mEnded.get(0));
+    }
+
+    @Test
+    public void animationRestartedBeforeDelivery_doesNotCallListener() {
+        final DrawableScene scene = new DrawableScene(1);
+        final DrawableObject object = new DrawableObject(0.2f, 0.2f, DrawableObject.NORMAL_SPRITE);
+        object.addAnimation(Const.DRAG_ANIMATION_ID, new AnimationClip(mFrames, FRAME, AnimationClip.MODE_LOOP));
+        object.animate(Const.DRAG_ANIMATION_ID, new AnimationClip.AnimationListener() {
+            @Override
+            public void onAnimationEnd(final int animation) {
+                mEnded.add(animation);
+            }
+        });
+        scene.addToLayer(0, object);
+        scene.publish(0);
+        drawFrame(scene, 0);
+        drawFrame(scene, FRAME_NANOS * 3);
+        assertTrue(scene.hasAnimationEnds());
+
+        object.stopAnimation();
+
+        assertEquals(1, scene.deliverAnimationEnds());
+        assertTrue(mEnded.isEmpty());
+    }
+
+    private int drawFrame(final DrawableScene scene, final long delta) {
+        mTime.add(delta);
+        mClock.tick();
+        mBatch.begin();
+        scene.draw(mBatch, scene.acquire(), 1, mClock.getTime());
+        mBatch.end();
+        return mDrawnTexture;
+    }
+}
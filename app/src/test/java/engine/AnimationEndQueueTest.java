@@ -0,0 +1,48 @@
+package engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Animation end queue tests.
+ */
+public class AnimationEndQueueTest {
+    private final List<int[]> mEnds = new ArrayList<>();
+    private final AnimationEndQueue.AnimationEndListener mListener = new AnimationEndQueue.AnimationEndListener() {
+        @Override
+        public void onAnimationEnd(final int entity, final int animation, final int serial) {
+            mEnds.add(new int[] {entity, animation, serial});
+        }
+    };
+
+    @Test
+    public void drain_passesRecordsInOrder() {
+        final AnimationEndQueue queue = new AnimationEndQueue(4);
+        queue.offer(1, 10, 100);
+        queue.offer(2, 20, 200);
+
+        assertEquals(2, queue.drain(mListener));
+
+        assertArrayEquals(new int[] {1, 10, 100}, mEnds.get(0));
+        assertArrayEquals(new int[] {2, 20, 200}, mEnds.get(1));
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.drain(mListener));
+    }
+
+    @Test
+    public void fullQueue_rejectsRecordUntilDrained() {
+        final AnimationEndQueue queue = new AnimationEndQueue(2);
+        assertTrue(queue.offer(0, 0, 0));
+        assertTrue(queue.offer(1, 0, 0));
+        assertFalse(queue.offer(2, 0, 0));
+
+        assertEquals(2, queue.drain(mListener));
+        assertTrue(queue.offer(2, 0, 0));
+        assertEquals(1, queue.drain(mListener));
+        assertEquals(2, mEnds.get(2)[0]);
+    }
+}
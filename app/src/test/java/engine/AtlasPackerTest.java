@@ -0,0 +1,97 @@
+package engine;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Atlas packer tests.
+ */
+public class AtlasPackerTest {
+    @Test
+    public void rectangles_doNotOverlapAndFitPages() {
+        final AtlasPacker packer = new AtlasPacker(512, 2);
+        final Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            packer.add(8 + random.nextInt(120), 8 + random.nextInt(120));
+        }
+        packer.pack();
+
+        assertTrue(packer.getPageCount() > 1);
+        for (int i = 0; i < packer.getCount(); i++) {
+            assertTrue(packer.getX(i) + packer.getWidth(i) <= packer.getPageWidth(packer.getPage(i)));
+            assertTrue(packer.getY(i) + packer.getHeight(i) <= packer.getPageHeight(packer.getPage(i)));
+            for (int j = i + 1; j < packer.getCount(); j++) {
+                if (packer.getPage(i) == packer.getPage(j)) {
+                    assertFalse("rectangles " + i + " and " + j + " overlap", overlap(packer, i, j));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sharedPages_areCutToUsedArea() {
+        final AtlasPacker packer = new AtlasPacker(2048, 2);
+        packer.add(300, 100);
+        packer.add(100, 100);
+        packer.pack();
+
+        assertEquals(1, packer.getPageCount());
+        assertEquals(402, packer.getPageWidth(0));
+        assertEquals(100, packer.getPageHeight(0));
+    }
+
+    @Test
+    public void oversizedRectangle_getsOwnPage() {
+        final AtlasPacker packer = new AtlasPacker(2048, 2);
+        final int small = packer.add(64, 64);
+        final int background = packer.add(1440, 2560);
+        packer.pack();
+
+        assertEquals(2, packer.getPageCount());
+        assertNotSame(packer.getPage(small), packer.getPage(background));
+        assertEquals(1440, packer.getPageWidth(packer.getPage(background)));
+        assertEquals(2560, packer.getPageHeight(packer.getPage(background)));
+        assertEquals(0, packer.getX(background));
+        assertEquals(0, packer.getY(background));
+    }
+
+    @Test
+    public void gameSprites_arePackedEfficiently() {
+        // Sprite set of level and up bar scenes.
+        final AtlasPacker packer = new AtlasPacker(2048, 2);
+        packer.add(1080, 1920);
+        packer.add(512, 512);
+        packer.add(1024, 256);
+        packer.add(1024, 256);
+        packer.add(1080, 1920);
+        packer.add(1024, 100);
+        for (int i = 0; i < 5; i++) {
+            packer.add(256, 256);
+        }
+        packer.add(200, 200);
+        packer.pack();
+
+        assertTrue("efficiency " + packer.getEfficiency(), packer.getEfficiency() > 0.8f);
+        assertTrue(packer.getPageCount() <= 3);
+    }
+
+    @Test
+    public void manySmallSprites_fillPage() {
+        final AtlasPacker packer = new AtlasPacker(1024, 0);
+        for (int i = 0; i < 256; i++) {
+            packer.add(64, 64);
+        }
+        packer.pack();
+
+        assertEquals(1, packer.getPageCount());
+        assertEquals(1f, packer.getEfficiency(), 0);
+    }
+
+    private static boolean overlap(final AtlasPacker packer, final int i, final int j) {
+        return packer.getX(i) < packer.getX(j) + packer.getWidth(j) && packer.getX(j) < packer.getX(i) + packer.getWidth(i)
+                && packer.getY(i) < packer.getY(j) + packer.getHeight(j) && packer.getY(j) < packer.getY(i) + packer.getHeight(i);
+    }
+}
@@ -0,0 +1,78 @@
+package engine;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Entity store tests.
+ */
+public class EntityStoreTest {
+    @Test
+    public void objectState_movesToSceneStore() {
+        final DrawableObject object = new DrawableObject(0.5f, 0.25f, DrawableObject.NORMAL_SPRITE);
+        object.setX(0.3f);
+        object.setY(-0.2f);
+        object.setVisible(false);
+        object.animateLoop(Const.NORMAL_ANIMATION_STATE);
+
+        final DrawableScene scene = new DrawableScene(1);
+        scene.addToLayer(0, new DrawableObject(1, 1, DrawableObject.NORMAL_SPRITE));
+        scene.addToLayer(0, object);
+
+        final EntityStore store = scene.getStore();
+        final int index = object.getIndex();
+        assertEquals(1, index);
+        assertEquals(2, store.getCount());
+        assertEquals(0.3f, store.mX[index], 0);
+        assertEquals(-0.2f, store.mY[index], 0);
+        assertEquals(0.5f, store.mWidth[index], 0);
+        assertEquals(0.25f, store.mHeight[index], 0);
+        assertFalse(store.isVisible(index));
+        assertEquals(Const.NORMAL_ANIMATION_STATE, StateRegistry.getName(store.mAnimationState[index]));
+        assertTrue(object.isInside(0.5f, -0.1f));
+    }
+
+    @Test
+    public void texturesAddedLater_resolveCurrentStates() {
+        final DrawableScene scene = new DrawableScene(1);
+        final DrawableObject object = new DrawableObject(1, 1, DrawableObject.NORMAL_SPRITE);
+        scene.addToLayer(0, object);
+        object.animateLoop(Const.DRAG_ANIMATION);
+        final EntityStore store = scene.getStore();
+        assertEquals(EntityStore.NONE, store.mTexture[object.getIndex()]);
+        assertEquals(EntityStore.NONE, store.mAnimation[object.getIndex()]);
+
+        final TextureAtlas.Page page = new TextureAtlas.Page(4, 1);
+        final TextureRegion normal = page.createRegion(0, 0, 1, 1);
+        final TextureRegion pressed = page.createRegion(1, 0, 1, 1);
+        object.addTexture(Const.NORMAL_STATE, normal);
+        object.addTexture(Const.BUTTON_PRESSED_STATE, pressed);
+        object.addAnimation(Const.DRAG_ANIMATION, Arrays.asList(page.createRegion(2, 0, 1, 1), page.createRegion(3, 0, 1, 1)));
+
+        assertSame(normal, store.getRegion(store.mTexture[object.getIndex()]));
+        assertEquals(2, store.getClip(store.mAnimation[object.getIndex()]).getFrameCount());
+        object.setState(Const.BUTTON_PRESSED_STATE);
+        assertSame(pressed, store.getRegion(store.mTexture[object.getIndex()]));
+        object.stopAnimation();
+        assertEquals(EntityStore.NONE, store.mAnimation[object.getIndex()]);
+    }
+
+    @Test
+    public void manyEntities_growArraysAndBitsets() {
+        final EntityStore store = new EntityStore(1);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, store.add(1, 1));
+            store.mX[i] = i;
+            store.setVisible(i, i % 3 == 0);
+        }
+        store.storePositions();
+
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, store.mPrevX[i], 0);
+            assertEquals(i % 3 == 0, store.isVisible(i));
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package engine;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * ETC1 codec and compressed texture tests.
+ */
+public class Etc1CodecTest {
+    @Test
+    public void individualBlock_decodesPerSpecification() {
+        // Red 0x8 and 0x2, tables 0 and 1, side by side subblocks, pixel (1, 2) uses index 3.
+        final long bits = 0x82L << 56 | 1L << 34 | 1L << 22 | 1L << 6;
+        final int[] block = new int[16];
+
+        Etc1Codec.decodeBlock(bits, block);
+
+        assertEquals(0xFF8A0202, block[0]);
+        assertEquals(0xFF270505, block[3]);
+        assertEquals(0xFF800000, block[2 * 4 + 1]);
+        assertEquals(0xFF270505, block[3 * 4 + 2]);
+    }
+
+    @Test
+    public void differentialBlock_decodesPerSpecification() {
+        // Red 16 with delta -1, green 31 with delta 0, flipped subblocks, table 7 for both.
+        final long bits = 16L << 59 | 7L << 56 | 31L << 51 | 7L << 37 | 7L << 34 | 1L << 33 | 1L << 32;
+        final int[] block = new int[16];
+
+        Etc1Codec.decodeBlock(bits, block);
+
+        assertEquals(0xFFB3FF2F, block[0]);
+        assertEquals(0xFFB3FF2F, block[1 * 4 + 3]);
+        assertEquals(0xFFAAFF2F, block[2 * 4]);
+        assertEquals(0xFFAAFF2F, block[3 * 4 + 3]);
+    }
+
+    @Test
+    public void solidColor_isNearlyExact() {
+        final int[] pixels = new int[16 * 16];
+        Arrays.fill(pixels, 0xFF3C7AB4);
+
+        final int[] decoded = roundTrip(pixels, 16, 16);
+
+        for (final int pixel : decoded) {
+            assertTrue(maxError(0xFF3C7AB4, pixel) <= 4);
+        }
+    }
+
+    @Test
+    public void smoothGradient_keepsQuality() {
+        final int width = 64;
+        final int height = 64;
+        final int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                pixels[y * width + x] = 0xFF000000 | x * 4 << 16 | y * 4 << 8 | (x + y) * 2;
+            }
+        }
+
+        assertTrue(psnr(pixels, roundTrip(pixels, width, height)) > 35);
+    }
+
+    @Test
+    public void partialEdgeBlocks_areDecoded() {
+        final int width = 6;
+        final int height = 5;
+        final int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = i % width < Etc1Codec.BLOCK_PIXELS ? 0xFF202020 : 0xFFE0E0E0;
+        }
+
+        final int[] decoded = roundTrip(pixels, width, height);
+
+        assertEquals(4 * Etc1Codec.BLOCK_SIZE, Etc1Codec.getEncodedSize(width, height));
+        for (int i = 0; i < pixels.length; i++) {
+            assertTrue(maxError(pixels[i], decoded[i]) <= 4);
+        }
+    }
+
+    @Test
+    public void opaqueTexture_roundTripsWithoutAlphaPlane() throws IOException {
+        final int[] pixels = new int[8 * 4];
+        Arrays.fill(pixels, 0xFF808080);
+
+        final CompressedTexture texture = read(write(CompressedTexture.encode(pixels, 8, 4)));
+
+        assertEquals(8, texture.getWidth());
+        assertEquals(4, texture.getHeight());
+        assertNull(texture.getAlpha());
+        assertEquals(2 * Etc1Codec.BLOCK_SIZE, texture.getByteCount());
+    }
+
+    @Test
+    public void translucentTexture_hasPremultipliedColorAndAlphaPlane() throws IOException {
+        final int[] pixels = new int[4 * 4];
+        Arrays.fill(pixels, 0x80FF0000);
+
+        final CompressedTexture texture = read(write(CompressedTexture.encode(pixels, 4, 4)));
+
+        assertNotNull(texture.getAlpha());
+        assertEquals(2 * Etc1Codec.BLOCK_SIZE, texture.getByteCount());
+        final int[] color = decode(texture.getColor(), 4, 4);
+        final int[] alpha = decode(texture.getAlpha(), 4, 4);
+        assertTrue(maxError(0xFF800000, color[0]) <= 8);
+        assertTrue(Math.abs((alpha[0] >> 8 & 0xFF) - 0x80) <= 8);
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedTexture_throws() throws IOException {
+        final byte[] data = write(CompressedTexture.encode(new int[16 * 16], 16, 16));
+        CompressedTexture.read(ByteBuffer.wrap(data, 0, data.length - 1).slice());
+    }
+
+    @Test(expected = IOException.class)
+    public void wrongMagic_throws() throws IOException {
+        CompressedTexture.read(ByteBuffer.wrap(new byte[32]));
+    }
+
+    /**
+     * Encodes and decodes image.
+     * @param pixels ARGB pixels.
+     * @param width image width.
+     * @param height image height.
+     * @return decoded pixels.
+     */
+    private static int[] roundTrip(final int[] pixels, final int width, final int height) {
+        final byte[] data = new byte[Etc1Codec.getEncodedSize(width, height)];
+        Etc1Codec.encode(pixels, width, height, data, 0);
+        final int[] decoded = new int[width * height];
+        Etc1Codec.decode(data, 0, width, height, decoded);
+        return decoded;
+    }
+
+    /**
+     * Decodes plane.
+     * @param plane ETC1 plane.
+     * @param width image width.
+     * @param height image height.
+     * @return decoded pixels.
+     */
+    private static int[] decode(final ByteBuffer plane, final int width, final int height) {
+        final byte[] data = new byte[plane.remaining()];
+        plane.duplicate().get(data);
+        final int[] pixels = new int[width * height];
+        Etc1Codec.decode(data, 0, width, height, pixels);
+        return pixels;
+    }
+
+    /**
+     * Writes compressed texture.
+     * @param texture compressed texture.
+     * @return file bytes.
+     * @throws IOException never.
+     */
+    private static byte[] write(final CompressedTexture texture) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        texture.write(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads compressed texture.
+     * @param data file bytes.
+     * @return compressed texture.
+     * @throws IOException if data is not a compressed texture.
+     */
+    private static CompressedTexture read(final byte[] data) throws IOException {
+        return CompressedTexture.read(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Gets largest channel error.
+     * @param expected expected pixel.
+     * @param actual actual pixel.
+     * @return largest absolute channel difference.
+     */
+    private static int maxError(final int expected, final int actual) {
+        int error = 0;
+        for (int shift = 0; shift < 24; shift+= 8) {
+            error = Math.max(error, Math.abs((expected >> shift & 0xFF) - (actual >> shift & 0xFF)));
+        }
+        return error;
+    }
+
+    /**
+     * Computes peak signal to noise ratio of RGB channels.
+     * @param expected expected pixels.
+     * @param actual actual pixels.
+     * @return PSNR in decibels.
+     */
+    private static double psnr(final int[] expected, final int[] actual) {
+        double sum = 0;
+        for (int i = 0; i < expected.length; i++) {
+            for (int shift = 0; shift < 24; shift+= 8) {
+                final int difference = (expected[i] >> shift & 0xFF) - (actual[i] >> shift & 0xFF);
+                sum+= difference * difference;
+            }
+        }
+        return 10 * Math.log10(255.0 * 255.0 / (sum / (expected.length * 3)));
+    }
+}
@@ -0,0 +1,97 @@
+package engine;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Fixed step loop tests.
+ */
+public class FixedStepLoopTest {
+    private static final int TICK_RATE = 50;
+    private static final long STEP = 20000000L;
+    private static final long SECOND = 1000000000L;
+
+    private final ManualTimeSource mTime = new ManualTimeSource();
+    private int mTicks;
+    private FixedStepLoop mLoop;
+
+    @Before
+    public void setUp() {
+        mTicks = 0;
+        mLoop = new FixedStepLoop(new FixedStepLoop.Simulation() {
+            @Override
+            public void tick() {
+                mTicks++;
+            }
+        }, TICK_RATE, 5, mTime);
+        mLoop.advance();
+    }
+
+    @Test
+    public void steadyFrames_tickAtTickRate() {
+        for (int i = 0; i < 125; i++) {
+            mTime.add(SECOND / 125);
+            mLoop.advance();
+        }
+
+        assertEquals(TICK_RATE, mTicks);
+        assertEquals(TICK_RATE, mLoop.getTickCount());
+    }
+
+    @Test
+    public void jitteryFrames_tickSameAsSteadyFrames() {
+        final Random random = new Random(7);
+        long elapsed = 0;
+        while (elapsed < 10 * SECOND) {
+            final long frame = Math.min(1000000L + random.nextInt(60000000), 10 * SECOND - elapsed);
+            mTime.add(frame);
+            elapsed+= frame;
+            mLoop.advance();
+        }
+
+        assertEquals(10 * TICK_RATE, mTicks);
+        assertEquals(0, mLoop.getDroppedTickCount());
+    }
+
+    @Test
+    public void stall_isLimitedByCatchUp() {
+        mTime.add(STEP * 3);
+        assertEquals(3, mLoop.advance());
+
+        mTime.add(SECOND);
+        assertEquals(5, mLoop.advance());
+        assertEquals(TICK_RATE - 5, mLoop.getDroppedTickCount());
+
+        mTime.add(STEP);
+        assertEquals(1, mLoop.advance());
+        assertEquals(9, mTicks);
+    }
+
+    @Test
+    public void repeatedStalls_giveStableTickCount() {
+        for (int run = 0; run < 2; run++) {
+            setUp();
+            for (int i = 0; i < 100; i++) {
+                mTime.add(i % 10 == 0 ? SECOND / 2 : SECOND / 100);
+                mLoop.advance();
+            }
+            // Every stall gives 5 ticks, 9 short frames after it give 4 ticks.
+            assertEquals(90, mTicks);
+        }
+    }
+
+    @Test
+    public void alpha_isPartOfStepSinceLastTick() {
+        mTime.add(STEP + STEP / 4);
+        mLoop.advance();
+
+        assertEquals(0.25f, mLoop.getAlpha(), 1e-3f);
+        assertEquals(STEP - STEP / 4, mLoop.getTimeToNextTick());
+        assertEquals(0.75f, mLoop.getAlpha(mTime.nanoTime() + STEP / 2), 1e-3f);
+        assertEquals(1f, mLoop.getAlpha(mTime.nanoTime() + STEP * 2), 0);
+    }
+}
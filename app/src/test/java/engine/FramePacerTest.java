@@ -0,0 +1,58 @@
+package engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Frame pacer tests.
+ */
+public class FramePacerTest {
+    private static final long MS = 1000000;
+    private static final long SECOND = 1000 * MS;
+    private static final int MENU = 0;
+    private static final int LEVEL = 1;
+
+    private final ManualTimeSource mTime = new ManualTimeSource();
+    private final FramePacer mPacer = new FramePacer(2, mTime);
+
+    @Test
+    public void frameCap_delaysNextFrame() {
+        assertEquals(0, mPacer.getWaitTime(30));
+        mPacer.beginFrame(MENU);
+
+        mTime.add(10 * MS);
+        assertEquals(SECOND / 30 - 10 * MS, mPacer.getWaitTime(30));
+        assertEquals(SECOND / 60 - 10 * MS, mPacer.getWaitTime(60));
+        assertEquals(0, mPacer.getWaitTime(0));
+        mTime.add(40 * MS);
+        assertEquals(0, mPacer.getWaitTime(30));
+    }
+
+    @Test
+    public void frames_areCountedPerScreen() {
+        assertEquals(FramePacer.NONE, mPacer.beginFrame(MENU));
+        mTime.add(SECOND / 2);
+        assertEquals(FramePacer.NONE, mPacer.beginFrame(MENU));
+        mTime.add(SECOND / 2);
+        for (int i = 0; i < 60; i++) {
+            assertEquals(i == 0 ? MENU : FramePacer.NONE, mPacer.beginFrame(LEVEL));
+            mTime.add(SECOND / 60);
+        }
+
+        assertEquals(62, mPacer.getFrameCount());
+        assertEquals(2, mPacer.getFrameCount(MENU));
+        assertEquals(60, mPacer.getFrameCount(LEVEL));
+        assertEquals(SECOND, mPacer.getScreenDuration(MENU));
+        assertEquals(2f, mPacer.getFrameRate(MENU), 0.01f);
+        assertEquals(60f, mPacer.getFrameRate(LEVEL), 0.1f);
+    }
+
+    @Test
+    public void screenNotShown_hasNoFrameRate() {
+        mPacer.beginFrame(MENU);
+
+        assertEquals(0, mPacer.getFrameCount(LEVEL));
+        assertEquals(0f, mPacer.getFrameRate(LEVEL), 0);
+    }
+}
@@ -0,0 +1,117 @@
+package engine;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Headless render backend tests.
+ * Draws scenes laid out like game scenes through the render path on the JVM.
+ */
+public class HeadlessRenderBackendTest {
+    private final HeadlessRenderBackend mBackend = new HeadlessRenderBackend();
+    private final BatchRenderer mRenderer = new BatchRenderer(mBackend);
+    private final UploadQueue mUploadQueue = new UploadQueue(Long.MAX_VALUE, Long.MAX_VALUE, TimeSource.SYSTEM);
+    private final UploadQueue.Uploader mUploader = new UploadQueue.Uploader() {
+        @Override
+        public int upload(final TextureAtlas.Page page) {
+            return mBackend.uploadTexture(page);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        mRenderer.init();
+    }
+
+    @Test
+    public void menuScene_isOneDrawCallPerFrame() {
+        // Mat, start and exit buttons with pressed states packed in one page.
+        final TextureAtlas atlas = createAtlas(1);
+        final DrawableScene menu = new DrawableScene(1);
+        for (int i = 0; i < 3; i++) {
+            menu.addToLayer(0, createObject(atlas.getPages().get(0)));
+        }
+        assertEquals(1, mUploadQueue.process(mUploader));
+        assertEquals(1, mBackend.getTextureUploadCount());
+        mBackend.resetCounters();
+
+        drawFrame(menu);
+        assertEquals(1, mBackend.getFrameCount());
+        assertEquals(1, mBackend.getDrawCallCount());
+        assertEquals(1, mBackend.getTextureBindCount());
+        assertEquals(3 * SpriteBatch.SPRITE_INDICES, mBackend.getVertexCount());
+        assertEquals(3 * SpriteBatch.SPRITE_SIZE * 4, mBackend.getBufferBytes());
+
+        drawFrame(menu);
+        assertEquals(2, mBackend.getDrawCallCount());
+        // Static menu is not uploaded again.
+        assertEquals(3 * SpriteBatch.SPRITE_SIZE * 4, mBackend.getBufferBytes());
+        // Texture stays bound between frames.
+        assertEquals(1, mBackend.getTextureBindCount());
+        assertEquals(0, mBackend.getUniformUploadCount());
+    }
+
+    @Test
+    public void levelWithUpBar_isDrawCallPerScene() {
+        final TextureAtlas levelAtlas = createAtlas(1);
+        final TextureAtlas upBarAtlas = createAtlas(1);
+        final DrawableScene level = new DrawableScene(1);
+        level.addToLayer(0, createObject(levelAtlas.getPages().get(0)));
+        level.addToLayer(0, createObject(levelAtlas.getPages().get(0)));
+        final DrawableScene upBar = new DrawableScene(2);
+        for (int i = 0; i < 6; i++) {
+            upBar.addToLayer(i % 2, createObject(upBarAtlas.getPages().get(0)));
+        }
+        mUploadQueue.process(mUploader);
+        assertEquals(2, mBackend.getTextureCount());
+        mBackend.resetCounters();
+
+        for (int i = 0; i < 10; i++) {
+            drawFrame(level, upBar);
+        }
+
+        assertEquals(10, mBackend.getFrameCount());
+        assertEquals(20, mBackend.getDrawCallCount());
+        assertEquals(20, mBackend.getTextureBindCount());
+        assertEquals(10 * 8 * SpriteBatch.SPRITE_INDICES, mBackend.getVertexCount());
+    }
+
+    @Test
+    public void identityMatrix_isUploadedOnInit() {
+        final HeadlessRenderBackend backend = new HeadlessRenderBackend();
+        new BatchRenderer(backend).init();
+        assertEquals(1, backend.getUniformUploadCount());
+    }
+
+    private void drawFrame(final DrawableScene... scenes) {
+        mBackend.clear();
+        final SpriteBatch batch = mRenderer.getSpriteBatch();
+        mBackend.setBlending(true);
+        batch.begin();
+        for (final DrawableScene scene : scenes) {
+            scene.publish(0);
+            scene.draw(batch, scene.acquire(), 1, 0);
+        }
+        batch.end();
+        mBackend.setBlending(false);
+    }
+
+    private TextureAtlas createAtlas(final int pageCount) {
+        final TextureAtlas atlas = new TextureAtlas(Collections.<TextureTemplate>emptyList());
+        for (int i = 0; i < pageCount; i++) {
+            atlas.getPages().add(new TextureAtlas.Page(256, 256));
+        }
+        mUploadQueue.add(atlas);
+        return atlas;
+    }
+
+    private static DrawableObject createObject(final TextureAtlas.Page page) {
+        final DrawableObject object = new DrawableObject(0.2f, 0.2f, DrawableObject.NORMAL_SPRITE);
+        object.addTexture(Const.NORMAL_STATE_ID, page.createRegion(0, 0, 16, 16));
+        return object;
+    }
+}
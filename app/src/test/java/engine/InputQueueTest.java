@@ -0,0 +1,107 @@
+package engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Input queue tests.
+ */
+public class InputQueueTest {
+    private final ManualTimeSource mTime = new ManualTimeSource();
+    private final List<Object[]> mInputs = new ArrayList<>();
+    private final InputQueue.InputListener mListener = new InputQueue.InputListener() {
+        @Override
+        public void onInput(final int action, final int pointerId, final float x, final float y, final long time) {
+            mInputs.add(new Object[] {action, pointerId, x, y, time});
+        }
+    };
+
+    @Test
+    public void drain_passesRecordsInOrder() {
+        final InputQueue queue = new InputQueue(4, mTime);
+        queue.offer(InputQueue.ACTION_DOWN, 0, 0.5f, -0.5f, 100);
+        queue.offer(InputQueue.ACTION_UP, 0, 0.25f, 0, 200);
+
+        assertEquals(2, queue.drain(mListener));
+
+        assertArrayEquals(new Object[] {InputQueue.ACTION_DOWN, 0, 0.5f, -0.5f, 100L}, mInputs.get(0));
+        assertArrayEquals(new Object[] {InputQueue.ACTION_UP, 0, 0.25f, 0f, 200L}, mInputs.get(1));
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.drain(mListener));
+    }
+
+    @Test
+    public void fullQueue_dropsRecords() {
+        final InputQueue queue = new InputQueue(3, mTime);
+        for (int i = 0; i < 5; i++) {
+            queue.offer(InputQueue.ACTION_MOVE, 0, i, 0, i);
+        }
+
+        assertEquals(1, queue.getDroppedCount());
+        assertEquals(4, queue.drain(mListener));
+        assertEquals(3f, mInputs.get(3)[2]);
+    }
+
+    @Test
+    public void ring_wrapsAround() {
+        final InputQueue queue = new InputQueue(2, mTime);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(queue.offer(InputQueue.ACTION_MOVE, 0, i, 0, i));
+            assertEquals(1, queue.drain(mListener));
+        }
+
+        assertEquals(10, mInputs.size());
+        assertEquals(9f, mInputs.get(9)[2]);
+    }
+
+    @Test
+    public void drain_measuresLatency() {
+        final InputQueue queue = new InputQueue(4, mTime);
+        final long now = mTime.nanoTime();
+        queue.offer(InputQueue.ACTION_DOWN, 0, 0, 0, now - 2000);
+        queue.offer(InputQueue.ACTION_UP, 0, 0, 0, now - 1000);
+        mTime.add(1000);
+
+        queue.drain(mListener);
+
+        assertEquals(2, queue.getDrainedCount());
+        assertEquals(2500, queue.getAverageLatency());
+        assertEquals(3000, queue.getMaxLatency());
+    }
+
+    @Test
+    public void producerAndConsumerThreads_keepOrder() throws Exception {
+        final InputQueue queue = new InputQueue(16, TimeSource.SYSTEM);
+        final int count = 100000;
+        final Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < count; i++) {
+                    while (!queue.offer(InputQueue.ACTION_MOVE, 0, 0, 0, i)) {
+                        Thread.yield();
+                    }
+                }
+            }
+        });
+        final long[] next = new long[1];
+        final boolean[] ordered = {true};
+        producer.start();
+        while (next[0] < count) {
+            queue.drain(new InputQueue.InputListener() {
+                @Override
+                public void onInput(final int action, final int pointerId, final float x, final float y,
+                                    final long time) {
+                    ordered[0]&= time == next[0];
+                    next[0]++;
+                }
+            });
+        }
+        producer.join();
+
+        assertTrue(ordered[0]);
+    }
+}
@@ -0,0 +1,109 @@
+package engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Lives indicator tests.
+ */
+public class LivesIndicatorTest {
+    private static final int SET_COUNT = 20000;
+
+    @Test
+    public void apply_showsLivesCountByHearts() {
+        final List<DrawableObject> hearts = new ArrayList<>();
+        final DrawableScene scene = createScene(hearts);
+        final LivesIndicator lives = new LivesIndicator(hearts);
+        scene.publish(0);
+
+        assertFalse(lives.apply());
+        lives.setLivesCount(1);
+        assertTrue(lives.apply());
+
+        assertTrue(hearts.get(0).isVisible());
+        assertFalse(hearts.get(1).isVisible());
+        assertFalse(hearts.get(2).isVisible());
+        assertFalse(lives.apply());
+    }
+
+    @Test
+    public void setLivesCountByOtherThread_doesNotWriteScene() throws Exception {
+        final List<DrawableObject> hearts = new ArrayList<>();
+        final DrawableScene scene = createScene(hearts);
+        final LivesIndicator lives = new LivesIndicator(hearts);
+        scene.publish(0);
+
+        final Thread writer = new Thread() {
+            @Override
+            public void run() {
+                lives.setLivesCount(0);
+            }
+        };
+        writer.start();
+        writer.join(30000);
+
+        assertFalse(scene.isChanged());
+        assertTrue(hearts.get(0).isVisible());
+        assertTrue(lives.apply());
+        assertTrue(scene.isChanged());
+        scene.publish(1);
+        final SceneState.Snapshot snapshot = scene.acquire();
+        for (int i = 0; i < hearts.size(); i++) {
+            assertFalse(snapshot.isVisible(i));
+        }
+    }
+
+    @Test
+    public void concurrentWriter_lastCountIsPublished() throws Exception {
+        final List<DrawableObject> hearts = new ArrayList<>();
+        final DrawableScene scene = createScene(hearts);
+        final LivesIndicator lives = new LivesIndicator(hearts);
+        final AtomicReference<String> error = new AtomicReference<>();
+
+        final Thread writer = new Thread() {
+            @Override
+            public void run() {
+                for (int i = 0; i < SET_COUNT; i++) {
+                    lives.setLivesCount(i % (Const.MAX_LIVES_COUNT + 1));
+                }
+                lives.setLivesCount(Const.MIN_LIVES_COUNT + 1);
+            }
+        };
+        writer.start();
+        long time = 0;
+        while (writer.isAlive()) {
+            lives.apply();
+            scene.publish(++time);
+            final SceneState.Snapshot snapshot = scene.acquire();
+            for (int i = 1; i < hearts.size(); i++) {
+                if (snapshot.isVisible(i) && !snapshot.isVisible(i - 1)) {
+                    error.set("heart " + i + " is shown without heart " + (i - 1));
+                }
+            }
+        }
+        writer.join(30000);
+        lives.apply();
+        scene.publish(++time);
+
+        assertNull(error.get());
+        final SceneState.Snapshot snapshot = scene.acquire();
+        assertTrue(snapshot.isVisible(0));
+        assertFalse(snapshot.isVisible(1));
+        assertFalse(snapshot.isVisible(2));
+    }
+
+    private static DrawableScene createScene(final List<DrawableObject> hearts) {
+        final DrawableScene scene = new DrawableScene(1);
+        for (int i = 0; i < Const.MAX_LIVES_COUNT; i++) {
+            final DrawableObject heart = new DrawableObject(0.18f, 0.18f, DrawableObject.SQUARE_SPRITE);
+            scene.addToLayer(0, heart);
+            hearts.add(heart);
+        }
+        return scene;
+    }
+}
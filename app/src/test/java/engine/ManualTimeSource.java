@@ -0,0 +1,17 @@
+package engine;
+
+/**
+ * Time source driven by test.
+ */
+class ManualTimeSource implements TimeSource {
+    private long mTime = 1000;
+
+    void add(final long time) {
+        mTime+= time;
+    }
+
+    @Override
+    public long nanoTime() {
+        return mTime;
+    }
+}
@@ -0,0 +1,135 @@
+package engine;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Mixer and wav decoder tests.
+ */
+public class MixerTest {
+    @Test
+    public void voices_areSummedAndClamped() {
+        final Mixer mixer = new Mixer(4);
+        mixer.play(new SoundClip(new short[] {100, 200, 30000, -30000}, 44100), 0, 1);
+        mixer.play(new SoundClip(new short[] {10, 20, 30000, -30000}, 44100), 0, 1);
+
+        final short[] out = new short[6];
+        mixer.mix(out, 0, 6);
+
+        assertArrayEquals(new short[] {110, 220, Short.MAX_VALUE, Short.MIN_VALUE, 0, 0}, out);
+        assertEquals(0, mixer.getActiveVoiceCount());
+    }
+
+    @Test
+    public void voice_continuesInNextBuffer() {
+        final Mixer mixer = new Mixer(1);
+        final SoundClip clip = new SoundClip(new short[] {1, 2, 3, 4, 5}, 44100);
+        mixer.play(clip, 0, 0.5f);
+
+        final short[] out = new short[3];
+        mixer.mix(out, 0, 3);
+        assertArrayEquals(new short[] {0, 1, 1}, out);
+        assertTrue(mixer.isPlaying(clip));
+        mixer.mix(out, 0, 3);
+        assertArrayEquals(new short[] {2, 2, 0}, out);
+        assertFalse(mixer.isPlaying(clip));
+    }
+
+    @Test
+    public void fullMixer_stealsOldestVoiceOfLowestPriority() {
+        final Mixer mixer = new Mixer(3);
+        final SoundClip low = createClip(1);
+        final SoundClip oldUi = createClip(2);
+        final SoundClip newUi = createClip(3);
+        final SoundClip event = createClip(4);
+        assertEquals(0, mixer.play(low, Const.SOUND_PRIORITY_AMBIENT, 1));
+        assertEquals(1, mixer.play(oldUi, Const.SOUND_PRIORITY_UI, 1));
+        assertEquals(2, mixer.play(newUi, Const.SOUND_PRIORITY_UI, 1));
+
+        assertEquals(0, mixer.play(event, Const.SOUND_PRIORITY_EVENT, 1));
+        assertFalse(mixer.isPlaying(low));
+        assertEquals(1, mixer.play(createClip(5), Const.SOUND_PRIORITY_UI, 1));
+        assertFalse(mixer.isPlaying(oldUi));
+        assertTrue(mixer.isPlaying(newUi));
+        assertTrue(mixer.isPlaying(event));
+        assertEquals(2, mixer.getStolenCount());
+
+        assertEquals(Mixer.NO_VOICE, mixer.play(createClip(6), Const.SOUND_PRIORITY_AMBIENT, 1));
+        assertEquals(1, mixer.getDroppedCount());
+        assertEquals(3, mixer.getActiveVoiceCount());
+    }
+
+    @Test
+    public void wav_isDecodedToMono() throws IOException {
+        final byte[] wav = createWav(2, 16, 44100, new byte[] {
+                (byte) 0xE8, 0x03, (byte) 0xD0, 0x07,
+                0x18, (byte) 0xFC, 0x18, (byte) 0xFC});
+
+        final SoundClip clip = WavDecoder.decode(wav, 44100);
+
+        assertEquals(44100, clip.getSampleRate());
+        assertArrayEquals(new short[] {1500, -1000}, clip.getSamples());
+    }
+
+    @Test
+    public void wav24Bit_isDecodedAndResampled() throws IOException {
+        final byte[] wav = createWav(1, 24, 22050, new byte[] {
+                0, 0, 0, 0, 0x10, 0, 0, 0x20, 0});
+
+        final SoundClip clip = WavDecoder.decode(wav, 44100);
+
+        assertArrayEquals(new short[] {0, 8, 16, 24, 32, 32}, clip.getSamples());
+    }
+
+    @Test(expected = IOException.class)
+    public void notWav_isRejected() throws IOException {
+        WavDecoder.decode(new byte[16], 44100);
+    }
+
+    private static SoundClip createClip(final int length) {
+        return new SoundClip(new short[length * 100], 44100);
+    }
+
+    private static byte[] createWav(final int channels, final int bits, final int sampleRate, final byte[] data) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeTag(out, "RIFF");
+        writeInt(out, 4 + 8 + 16 + 8 + 6 + 8 + data.length);
+        writeTag(out, "WAVE");
+        writeTag(out, "fmt ");
+        writeInt(out, 16);
+        writeShort(out, 1);
+        writeShort(out, channels);
+        writeInt(out, sampleRate);
+        writeInt(out, sampleRate * channels * bits / 8);
+        writeShort(out, channels * bits / 8);
+        writeShort(out, bits);
+        // Unknown chunk of odd size is skipped with pad byte.
+        writeTag(out, "LIST");
+        writeInt(out, 5);
+        out.write(new byte[6], 0, 6);
+        writeTag(out, "data");
+        writeInt(out, data.length);
+        out.write(data, 0, data.length);
+        return out.toByteArray();
+    }
+
+    private static void writeTag(final ByteArrayOutputStream out, final String tag) {
+        for (int i = 0; i < 4; i++) {
+            out.write(tag.charAt(i));
+        }
+    }
+
+    private static void writeShort(final ByteArrayOutputStream out, final int value) {
+        out.write(value & 0xFF);
+        out.write(value >> 8 & 0xFF);
+    }
+
+    private static void writeInt(final ByteArrayOutputStream out, final int value) {
+        writeShort(out, value & 0xFFFF);
+        writeShort(out, value >>> 16);
+    }
+}
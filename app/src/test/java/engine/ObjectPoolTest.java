@@ -0,0 +1,119 @@
+package engine;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Object pool tests.
+ */
+public class ObjectPoolTest {
+    private DrawableScene mScene;
+    private ObjectPool mPool;
+    private TextureAtlas.Page mPage;
+
+    @Before
+    public void setUp() {
+        mScene = new DrawableScene(2);
+        mPool = mScene.createPool(1, 0.1f, 0.1f, DrawableObject.NORMAL_SPRITE, 2);
+        mPage = new TextureAtlas.Page(1, 1);
+        mPage.setTextureId(1);
+        for (final DrawableObject object : mPool.getObjects()) {
+            object.addTexture(Const.NORMAL_STATE_ID, new TextureRegion(mPage, 0, 0, 1, 1));
+        }
+    }
+
+    @Test
+    public void prewarmedObjects_areNotDrawn() {
+        assertEquals(2, mScene.getStore().getCount());
+        assertEquals(0, publish().mOrderCount);
+    }
+
+    @Test
+    public void acquireAndRelease_reuseEntities() {
+        final DrawableObject first = mPool.acquire(0.5f, 0.25f);
+        final DrawableObject second = mPool.acquire(0, 0);
+        SceneState.Snapshot snapshot = publish();
+        assertEquals(2, snapshot.mOrderCount);
+        assertEquals(0.5f, snapshot.getX(first.getIndex()), 0);
+
+        mPool.release(first);
+        snapshot = publish();
+        assertEquals(1, snapshot.mOrderCount);
+        assertEquals(second.getIndex(), snapshot.mOrder[0]);
+
+        assertSame(first, mPool.acquire(0, 0));
+        assertEquals(2, mScene.getStore().getCount());
+        assertEquals(0, mPool.getMissCount());
+        assertEquals(2, mPool.getHighWaterMark());
+    }
+
+    @Test
+    public void emptyPool_copiesTexturesOfPooledObject() {
+        mPool.acquire(0, 0);
+        mPool.acquire(0, 0);
+        final DrawableObject extra = mPool.acquire(0, 0);
+
+        assertEquals(1, mPool.getMissCount());
+        assertEquals(3, mPool.getHighWaterMark());
+        assertEquals(3, mPool.getObjects().size());
+        final SceneState.Snapshot snapshot = publish();
+        assertEquals(3, snapshot.mOrderCount);
+        assertSame(mPage, snapshot.mRegions[snapshot.mTexture[extra.getIndex()]].getPage());
+    }
+
+    @Test
+    public void emptyPool_doesNotGrowTextureTables() {
+        final DrawableObject prototype = mPool.getObjects().get(0);
+        final AnimationClip clip = new AnimationClip(Collections.singletonList(new TextureRegion(mPage, 0, 0, 1, 1)),
+                100, AnimationClip.MODE_LOOP);
+        prototype.addAnimation(Const.DRAG_ANIMATION_ID, clip);
+        final EntityStore store = mScene.getStore();
+        final int regionCount = store.mRegionCount;
+        final int clipCount = store.mClipCount;
+        mPool.acquire(0, 0);
+        mPool.acquire(0, 0);
+
+        final DrawableObject extra = mPool.acquire(0, 0);
+        extra.animateLoop(Const.DRAG_ANIMATION_ID);
+
+        assertEquals(1, mPool.getMissCount());
+        assertEquals(regionCount, store.mRegionCount);
+        assertEquals(clipCount, store.mClipCount);
+        assertEquals(store.mTexture[prototype.getIndex()], store.mTexture[extra.getIndex()]);
+        assertSame(clip, store.getClip(store.mAnimation[extra.getIndex()]));
+    }
+
+    @Test
+    public void release_swapsLastObjectIntoPlace() {
+        final DrawableObject[] objects = new DrawableObject[4];
+        for (int i = 0; i < objects.length; i++) {
+            objects[i] = mPool.acquire(i, 0);
+        }
+
+        mPool.release(objects[1]);
+
+        final SceneState.Snapshot snapshot = publish();
+        assertEquals(3, snapshot.mOrderCount);
+        assertEquals(objects[0].getIndex(), snapshot.mOrder[0]);
+        assertEquals(objects[3].getIndex(), snapshot.mOrder[1]);
+        assertEquals(objects[2].getIndex(), snapshot.mOrder[2]);
+        assertEquals(3, mPool.getActiveCount());
+        assertEquals(1, mPool.getFreeCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void releaseTwice_throws() {
+        final DrawableObject object = mPool.acquire(0, 0);
+        mPool.release(object);
+        mPool.release(object);
+    }
+
+    private SceneState.Snapshot publish() {
+        mScene.publish(0);
+        return mScene.acquire();
+    }
+}
@@ -0,0 +1,110 @@
+package engine;
+
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Projection tests.
+ */
+public class ProjectionTest {
+    // Portrait, landscape, split screen and keyboard inset surfaces.
+    private static final int[][] SIZES = {{1080, 1920}, {1920, 1080}, {1080, 900}, {1080, 1200}, {480, 800}};
+    private static final float SIZE = 0.5f;
+
+    private final FloatBuffer mVertexData = FloatBuffer.allocate(Const.VERTEX_BUFFER_SIZE);
+    private final SpriteBatch mBatch = new SpriteBatch(mVertexData, new SpriteBatch.FlushListener() {
+        @Override
+        public void onUpload(final int offset, final int count) {
+        }
+
+        @Override
+        public void onFlush(final int texture, final int firstIndex, final int indexCount) {
+        }
+    });
+
+    @Test
+    public void sizeChange_updatesScalesAndVersion() {
+        final Projection projection = new Projection();
+
+        assertTrue(projection.setSize(480, 800));
+        assertEquals(800f / 480, projection.getScaleX(), 1e-6f);
+        assertEquals(1f, projection.getScaleY(), 0);
+        assertEquals(1, projection.getVersion());
+        assertFalse(projection.setSize(480, 800));
+        assertEquals(1, projection.getVersion());
+
+        assertTrue(projection.setSize(800, 480));
+        assertEquals(1f, projection.getScaleX(), 0);
+        assertEquals(800f / 480, projection.getScaleY(), 1e-6f);
+        assertEquals(2, projection.getVersion());
+        assertEquals(-1f, projection.toX(0), 0);
+        assertEquals(0f, projection.toX(400), 0);
+        assertEquals(1f, projection.toY(0), 0);
+        assertEquals(-1f, projection.toY(480), 0);
+    }
+
+    @Test
+    public void geometry_staysCorrectAcrossSurfaceSizes() {
+        final DrawableScene scene = new DrawableScene(1);
+        final DrawableObject square = createObject(DrawableObject.SQUARE_SPRITE);
+        final DrawableObject normal = createObject(DrawableObject.NORMAL_SPRITE);
+        scene.addToLayer(0, square);
+        scene.addToLayer(0, normal);
+        // Scene is published once, size changes do not touch it.
+        scene.publish(0);
+
+        for (final int[] size : SIZES) {
+            final int width = size[0];
+            final int height = size[1];
+            Game.getProjection().setSize(width, height);
+
+            mBatch.begin();
+            scene.draw(mBatch, scene.acquire(), 1, 0);
+            mBatch.end();
+            final float[] squareBounds = getBounds(0);
+            final float[] normalBounds = getBounds(1);
+
+            // Square sprite is square in pixels and its side is a quarter of longer screen side.
+            final float squareWidth = (squareBounds[1] - squareBounds[0]) * width / 2;
+            final float squareHeight = (squareBounds[3] - squareBounds[2]) * height / 2;
+            assertEquals(squareWidth, squareHeight, 1e-2f);
+            assertEquals(SIZE * Math.max(width, height) / 2, squareHeight, 1e-2f);
+            assertEquals(squareBounds[1] - squareBounds[0], square.getWidth(), 1e-6f);
+            assertEquals(squareBounds[3] - squareBounds[2], square.getHeight(), 1e-6f);
+            assertTrue(square.isInside(square.getWidth() / 2 - 1e-3f, 0));
+            // Normal sprite keeps its share of screen.
+            assertEquals(SIZE, normalBounds[1] - normalBounds[0], 1e-6f);
+            assertEquals(SIZE, normalBounds[3] - normalBounds[2], 1e-6f);
+        }
+    }
+
+    /**
+     * Gets bounds of sprite in vertex buffer.
+     * @param sprite sprite index in batch.
+     * @return left, right, bottom and top.
+     */
+    private float[] getBounds(final int sprite) {
+        final float[] bounds = {Float.MAX_VALUE, -Float.MAX_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE};
+        for (int i = 0; i < SpriteBatch.SPRITE_VERTICES; i++) {
+            final int offset = sprite * SpriteBatch.SPRITE_SIZE + i * SpriteBatch.VERTEX_SIZE;
+            final float x = mVertexData.get(offset);
+            final float y = mVertexData.get(offset + 1);
+            bounds[0] = Math.min(bounds[0], x);
+            bounds[1] = Math.max(bounds[1], x);
+            bounds[2] = Math.min(bounds[2], y);
+            bounds[3] = Math.max(bounds[3], y);
+        }
+        return bounds;
+    }
+
+    private static DrawableObject createObject(final int type) {
+        final TextureAtlas.Page page = new TextureAtlas.Page(1, 1);
+        page.setTextureId(1);
+        final DrawableObject object = new DrawableObject(SIZE, SIZE, type);
+        object.addTexture(Const.NORMAL_STATE, new TextureRegion(page, 0, 0, 1, 1));
+        return object;
+    }
+}
@@ -0,0 +1,129 @@
+package engine;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Scene file and scene compiler tests.
+ */
+public class SceneFileTest {
+    private static final String SCENE = "# Test scene.\n"
+            + "layers 2\n"
+            + "\n"
+            + "object mat 0 normal 2 2\n"
+            + "object button 1 square 0.3 0.3 at 0.6 -0.8 hidden # Exit.\n"
+            + "object bar 1 square 0.25 0.25 loop spin\n"
+            + "texture normal mat size screen mat\n"
+            + "texture press button_pressed button bar\n"
+            + "animation spin loading size 800 100 frame 40 mode ping_pong bar\n";
+
+    @Test
+    public void compiledScene_roundTrips() throws IOException {
+        final SceneFile file = read(compile(SCENE));
+
+        assertEquals(2, file.getLayerCount());
+        assertEquals(3, file.getObjectCount());
+        assertEquals("button", file.getObjectName(1));
+        assertEquals(1, file.getObjectLayer(1));
+        assertEquals(SceneFile.SQUARE_SPRITE, file.getObjectType(1));
+        assertEquals(0.6f, file.getObjectX(1), 0);
+        assertEquals(-0.8f, file.getObjectY(1), 0);
+        assertTrue(file.isObjectHidden(1));
+        assertFalse(file.isObjectHidden(0));
+        assertNull(file.getObjectLoop(0));
+        assertEquals("spin", file.getObjectLoop(2));
+
+        assertEquals(3, file.getTextureCount());
+        assertEquals(SceneFile.SIZE_SCREEN, file.getTextureWidth(0), 0);
+        assertEquals(SceneFile.SIZE_ORIGINAL, file.getTextureHeight(1), 0);
+        assertArrayEquals(new short[] {1, 2}, file.getOwners(1));
+        assertEquals(SceneFile.ANIMATION_TEXTURE, file.getTextureType(2));
+        assertEquals("loading", file.getTextureDrawable(2));
+        assertEquals(800, file.getTextureWidth(2), 0);
+        assertEquals(40, file.getFrameDuration(2));
+        assertEquals(SceneFile.MODE_PING_PONG, file.getMode(2));
+        assertEquals(SceneFile.DEFAULT_FRAME_DURATION, file.getFrameDuration(0));
+    }
+
+    @Test
+    public void instance_createsObjectsAndTemplates() throws IOException {
+        final SceneInstance scene = new SceneInstance(read(compile(SCENE)), new SceneInstance.RequestFactory() {
+            @Override
+            public BitmapRequest createRequest(final String drawable, final float width, final float height) {
+                return new BitmapRequest(null, drawable.length(), width, height);
+            }
+        });
+
+        assertFalse(scene.getObject("button").isVisible());
+        assertEquals(0.6f, scene.getObject("button").getX(), 0);
+        assertEquals(3, scene.getTexturesToLoad().size());
+        assertEquals(2, scene.getTexturesToLoad().get(1).getOwners().size());
+        assertEquals(TextureTemplate.ANIMATION_TEXTURE, scene.getTexturesToLoad().get(2).getType());
+        assertEquals(AnimationClip.MODE_PING_PONG, scene.getTexturesToLoad().get(2).getMode());
+    }
+
+    @Test
+    public void errors_reportLine() {
+        assertParseError("layers 1\nobject a 0 round 1 1\n", "test:2");
+        assertParseError("layers 1\ntexture normal a missing\n", "Unknown object missing");
+        assertParseError("layers 1\nobject a 3 square 1 1\n", "out of layers");
+        assertParseError("layers 1\nobject a 0 square 1\n", "end of statement");
+    }
+
+    @Test(expected = IOException.class)
+    public void read_rejectsOtherVersion() throws IOException {
+        final byte[] bytes = compile(SCENE);
+        bytes[5] = (byte) (SceneFile.VERSION + 1);
+        read(bytes);
+    }
+
+    @Test(expected = IOException.class)
+    public void read_rejectsTruncatedFile() throws IOException {
+        final byte[] bytes = compile(SCENE);
+        final byte[] truncated = new byte[bytes.length - 3];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        read(truncated);
+    }
+
+    /**
+     * Compiles scene description.
+     * @param description scene description.
+     * @return scene file bytes.
+     * @throws IOException if description has errors.
+     */
+    private static byte[] compile(final String description) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SceneCompiler.parse(new StringReader(description), "test").write(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads scene file.
+     * @param bytes scene file bytes.
+     * @return scene file.
+     * @throws IOException if bytes are not a scene file.
+     */
+    private static SceneFile read(final byte[] bytes) throws IOException {
+        return SceneFile.read(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Checks that description is rejected.
+     * @param description scene description.
+     * @param message part of expected error message.
+     */
+    private static void assertParseError(final String description, final String message) {
+        try {
+            compile(description);
+            fail("Description is accepted: " + description);
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+}
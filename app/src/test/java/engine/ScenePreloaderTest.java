@@ -0,0 +1,212 @@
+package engine;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Scene preloader tests.
+ */
+public class ScenePreloaderTest {
+    private static final long MS = 1000000;
+    private static final int MENU = 1;
+    private static final int LEVEL = 2;
+    private static final long BUDGET = 1000;
+
+    private final TaskScheduler mScheduler = new TaskScheduler(1, TimeSource.SYSTEM);
+    private final ManualTimeSource mTime = new ManualTimeSource();
+    // Size of prepared states.
+    private volatile long mByteCount = 100;
+    // Released before preparation returns, null to prepare at once.
+    private volatile CountDownLatch mPrepareGate;
+    // States in preparation order.
+    private final List<Integer> mPrepared = Collections.synchronizedList(new ArrayList<Integer>());
+    // Created prepared states.
+    private final List<TestState> mStates = Collections.synchronizedList(new ArrayList<TestState>());
+    // Released when first prepared state is created.
+    private final CountDownLatch mCreated = new CountDownLatch(1);
+
+    private final ScenePreloader mPreloader = new ScenePreloader(mScheduler, new ScenePreloader.Preparer() {
+        @Override
+        public ScenePreloader.Prepared prepare(final int state) {
+            final CountDownLatch gate = mPrepareGate;
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            mPrepared.add(state);
+            return new TestState(state, mByteCount);
+        }
+    }, BUDGET, mTime);
+
+    @After
+    public void tearDown() throws InterruptedException {
+        mScheduler.shutdown();
+        assertTrue(mScheduler.awaitTermination(5000));
+    }
+
+    @Test
+    public void preloadedState_isTaken() throws InterruptedException {
+        mPreloader.preload(LEVEL);
+
+        final TestState state = (TestState) mPreloader.take(LEVEL);
+
+        assertNotNull(state);
+        assertEquals(LEVEL, state.mState);
+        assertFalse(state.isReleased());
+        assertEquals(1, mPreloader.getHitCount());
+        assertEquals(0, mPreloader.getMissCount());
+        assertNull(mPreloader.take(LEVEL));
+        assertEquals(1, mPreloader.getMissCount());
+    }
+
+    @Test
+    public void takeOfOtherState_cancelsPreload() throws InterruptedException {
+        mPrepareGate = new CountDownLatch(1);
+        mPreloader.preload(LEVEL);
+
+        assertNull(mPreloader.take(MENU));
+
+        assertEquals(1, mPreloader.getMissCount());
+        assertEquals(0, mPreloader.getHitCount());
+    }
+
+    @Test
+    public void stateFinishedAfterCancel_isReleased() throws InterruptedException {
+        mPrepareGate = new CountDownLatch(1);
+        mPreloader.preload(LEVEL);
+        waitUntilStarted();
+
+        mPreloader.cancel();
+        final TestState state = awaitPrepared();
+
+        assertTrue(state.awaitRelease());
+        assertNull(mPreloader.take(LEVEL));
+    }
+
+    @Test
+    public void stateOverBudget_isDropped() throws InterruptedException {
+        mByteCount = BUDGET + 1;
+        mPrepareGate = new CountDownLatch(1);
+        mPreloader.preload(LEVEL);
+        final TestState state = awaitPrepared();
+
+        assertNull(mPreloader.take(LEVEL));
+        assertTrue(state.awaitRelease());
+        assertEquals(1, mPreloader.getDroppedCount());
+    }
+
+    @Test
+    public void preload_runsAfterNormalTasks() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        mScheduler.submit(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        mPreloader.preload(LEVEL);
+        final TaskScheduler.Task normal = mScheduler.submit(new Runnable() {
+            @Override
+            public void run() {
+                mPrepared.add(MENU);
+            }
+        });
+
+        release.countDown();
+        normal.join();
+        assertNotNull(mPreloader.take(LEVEL));
+
+        assertEquals(MENU, (int) mPrepared.get(0));
+        assertEquals(LEVEL, (int) mPrepared.get(1));
+    }
+
+    @Test
+    public void transitions_reportLatency() {
+        mPreloader.beginTransition();
+        mTime.add(30 * MS);
+        assertEquals(30 * MS, mPreloader.endTransition());
+        mPreloader.beginTransition();
+        mTime.add(10 * MS);
+        mPreloader.endTransition();
+
+        assertEquals(10 * MS, mPreloader.getLastTransitionLatency());
+        assertEquals(30 * MS, mPreloader.getMaxTransitionLatency());
+        assertEquals(20 * MS, mPreloader.getAverageTransitionLatency());
+        assertFalse(mPreloader.isTransitionPreloaded());
+    }
+
+    /**
+     * Waits until preparation waits at gate.
+     * @throws InterruptedException if waiting is interrupted.
+     */
+    private void waitUntilStarted() throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (mScheduler.getStartedTaskCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, mScheduler.getStartedTaskCount());
+    }
+
+    /**
+     * Opens gate and waits until preparation returns.
+     * @return prepared state.
+     * @throws InterruptedException if waiting is interrupted.
+     */
+    private TestState awaitPrepared() throws InterruptedException {
+        mPrepareGate.countDown();
+        assertTrue(mCreated.await(5, TimeUnit.SECONDS));
+        return mStates.get(0);
+    }
+
+    /**
+     * Prepared state of test.
+     */
+    private class TestState implements ScenePreloader.Prepared {
+        private final int mState;
+        private final long mBytes;
+        private final CountDownLatch mReleased = new CountDownLatch(1);
+
+        TestState(final int state, final long bytes) {
+            mState = state;
+            mBytes = bytes;
+            mStates.add(this);
+            mCreated.countDown();
+        }
+
+        @Override
+        public long getByteCount() {
+            return mBytes;
+        }
+
+        @Override
+        public void release() {
+            mReleased.countDown();
+        }
+
+        boolean isReleased() {
+            return mReleased.getCount() == 0;
+        }
+
+        boolean awaitRelease() throws InterruptedException {
+            return mReleased.await(5, TimeUnit.SECONDS);
+        }
+    }
+}
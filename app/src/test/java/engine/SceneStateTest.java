@@ -0,0 +1,136 @@
+package engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Scene state tests.
+ */
+public class SceneStateTest {
+    private static final int OBJECT_COUNT = 200;
+    private static final int PUBLISH_COUNT = 20000;
+
+    @Test
+    public void acquire_returnsLatestPublishedState() {
+        final List<DrawableObject> objects = new ArrayList<>();
+        final DrawableScene scene = createScene(2, objects);
+
+        objects.get(0).setX(1);
+        scene.publish(10);
+        objects.get(0).setX(2);
+        objects.get(1).setVisible(false);
+        scene.publish(20);
+
+        final SceneState.Snapshot snapshot = scene.acquire();
+        assertEquals(20, snapshot.getTime());
+        assertEquals(2, snapshot.getCount());
+        assertEquals(2f, snapshot.getX(0), 0);
+        assertFalse(snapshot.isVisible(1));
+        assertSame(snapshot, scene.acquire());
+    }
+
+    @Test
+    public void snapshot_isNotChangedByWriterUntilNextAcquire() {
+        final List<DrawableObject> objects = new ArrayList<>();
+        final DrawableScene scene = createScene(1, objects);
+        objects.get(0).setX(1);
+        scene.publish(1);
+        final SceneState.Snapshot snapshot = scene.acquire();
+
+        for (int i = 2; i < 10; i++) {
+            objects.get(0).setX(i);
+            scene.publish(i);
+        }
+
+        assertEquals(1f, snapshot.getX(0), 0);
+        assertEquals(9f, scene.acquire().getX(0), 0);
+    }
+
+    @Test
+    public void concurrentReader_seesConsistentSnapshots() throws Exception {
+        final List<DrawableObject> objects = new ArrayList<>();
+        final DrawableScene scene = createScene(OBJECT_COUNT, objects);
+        scene.publish(0);
+        final AtomicReference<String> error = new AtomicReference<>();
+
+        final Thread writer = new Thread() {
+            @Override
+            public void run() {
+                for (int tick = 1; tick <= PUBLISH_COUNT; tick++) {
+                    scene.storePositions();
+                    for (final DrawableObject object : objects) {
+                        object.setX(tick);
+                        object.setY(-tick);
+                    }
+                    scene.publish(tick);
+                }
+            }
+        };
+        final Thread reader = new Thread() {
+            @Override
+            public void run() {
+                long lastTime = 0;
+                while (lastTime < PUBLISH_COUNT && error.get() == null) {
+                    final SceneState.Snapshot snapshot = scene.acquire();
+                    final long time = snapshot.getTime();
+                    if (time < lastTime) {
+                        error.set("time went back from " + lastTime + " to " + time);
+                    }
+                    for (int i = 0; i < snapshot.getCount(); i++) {
+                        if (snapshot.getX(i) != time || snapshot.getY(i) != -time
+                                || snapshot.mPrevX[i] != Math.max(0, time - 1)) {
+                            error.set("torn snapshot " + time + " at slot " + i + ": " + snapshot.getX(i));
+                        }
+                    }
+                    lastTime = time;
+                }
+            }
+        };
+        writer.start();
+        reader.start();
+        writer.join(30000);
+        reader.join(30000);
+
+        assertNull(error.get());
+        assertEquals(PUBLISH_COUNT, scene.acquire().getTime());
+    }
+
+    @Test
+    public void unchangedScene_isNotPublishedAgain() {
+        final List<DrawableObject> objects = new ArrayList<>();
+        final DrawableScene scene = createScene(2, objects);
+        assertTrue(scene.isChanged());
+        scene.publish(0);
+        final SceneState.Snapshot snapshot = scene.acquire();
+        assertFalse(scene.isChanged());
+
+        scene.publish(0);
+        assertSame(snapshot, scene.acquire());
+
+        objects.get(1).setState(Const.NORMAL_STATE_ID);
+        assertTrue(scene.isChanged());
+        scene.publish(0);
+        assertNotSame(snapshot, scene.acquire());
+        assertFalse(scene.isChanged());
+
+        scene.removeFromLayer(0, objects.get(0));
+        assertTrue(scene.isChanged());
+        scene.publish(0);
+        assertEquals(1, scene.acquire().mOrderCount);
+    }
+
+    private static DrawableScene createScene(final int count, final List<DrawableObject> objects) {
+        final DrawableScene scene = new DrawableScene(1);
+        for (int i = 0; i < count; i++) {
+            final DrawableObject object = new DrawableObject(0.1f, 0.1f, DrawableObject.NORMAL_SPRITE);
+            scene.addToLayer(0, object);
+            objects.add(object);
+        }
+        return scene;
+    }
+}
@@ -0,0 +1,126 @@
+package engine;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Spatial hash tests.
+ */
+public class SpatialHashTest {
+    private final SpatialHash mHash = new SpatialHash(-1, -1, 1, 1, 0.25f, 4);
+    private final int[] mResult = new int[16];
+
+    @Test
+    public void pointQuery_findsContainingEntries() {
+        mHash.add(0, -0.5f, -0.5f, 0.5f, 0.5f);
+        mHash.add(1, 0.4f, 0.4f, 0.9f, 0.9f);
+
+        assertArrayEquals(new int[] {0}, query(0, 0));
+        assertArrayEquals(new int[] {0, 1}, query(0.45f, 0.45f));
+        assertArrayEquals(new int[0], query(-0.9f, 0.9f));
+    }
+
+    @Test
+    public void boxQuery_reportsEntryCoveringManyCellsOnce() {
+        mHash.add(0, -0.9f, -0.9f, 0.9f, 0.9f);
+        mHash.add(1, 0.6f, -0.1f, 0.7f, 0.1f);
+
+        final int count = mHash.queryBox(-1, -1, 1, 1, mResult);
+
+        assertArrayEquals(new int[] {0, 1}, sorted(count));
+        assertEquals(1, mHash.queryBox(-0.5f, -0.5f, -0.4f, -0.4f, mResult));
+    }
+
+    @Test
+    public void move_relinksEntry() {
+        mHash.add(0, -0.9f, -0.9f, -0.8f, -0.8f);
+
+        mHash.move(0, 0.8f, 0.8f, 0.9f, 0.9f);
+
+        assertArrayEquals(new int[0], query(-0.85f, -0.85f));
+        assertArrayEquals(new int[] {0}, query(0.85f, 0.85f));
+    }
+
+    @Test
+    public void entriesOutsideGrid_areInBorderCells() {
+        mHash.add(0, 1.5f, 1.5f, 2, 2);
+
+        assertArrayEquals(new int[] {0}, query(1.7f, 1.7f));
+        assertEquals(1, mHash.queryBox(0.9f, 0.9f, 3, 3, mResult));
+    }
+
+    @Test
+    public void remove_dropsEntry() {
+        mHash.add(3, -0.1f, -0.1f, 0.1f, 0.1f);
+        assertTrue(mHash.contains(3));
+
+        mHash.remove(3);
+
+        assertFalse(mHash.contains(3));
+        assertEquals(0, mHash.getCount());
+        assertArrayEquals(new int[0], query(0, 0));
+    }
+
+    @Test
+    public void addBeyondCapacity_growsEntries() {
+        mHash.add(10, 0, 0, 0.1f, 0.1f);
+
+        assertArrayEquals(new int[] {10}, query(0.05f, 0.05f));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addTwice_throws() {
+        mHash.add(0, 0, 0, 0.1f, 0.1f);
+        mHash.add(0, 0, 0, 0.1f, 0.1f);
+    }
+
+    @Test
+    public void randomMoves_matchBruteForce() {
+        final Random random = new Random(7);
+        final int count = 200;
+        final float[][] boxes = new float[count][];
+        final SpatialHash hash = new SpatialHash(-1, -1, 1, 1, 0.2f, count);
+        for (int i = 0; i < count; i++) {
+            boxes[i] = randomBox(random);
+            hash.add(i, boxes[i][0], boxes[i][1], boxes[i][2], boxes[i][3]);
+        }
+        final int[] result = new int[count];
+        for (int step = 0; step < 50; step++) {
+            for (int i = 0; i < count; i++) {
+                boxes[i] = randomBox(random);
+                hash.move(i, boxes[i][0], boxes[i][1], boxes[i][2], boxes[i][3]);
+            }
+            final float[] box = randomBox(random);
+            final int found = hash.queryBox(box[0], box[1], box[2], box[3], result);
+            int expected = 0;
+            for (int i = 0; i < count; i++) {
+                if (boxes[i][0] <= box[2] && box[0] <= boxes[i][2] && boxes[i][1] <= box[3] && box[1] <= boxes[i][3]) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, found);
+        }
+    }
+
+    private int[] query(final float x, final float y) {
+        final int count = mHash.queryPoint(x, y, mResult);
+        return sorted(count);
+    }
+
+    private int[] sorted(final int count) {
+        final int[] result = Arrays.copyOf(mResult, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static float[] randomBox(final Random random) {
+        final float x = random.nextFloat() * 2.4f - 1.2f;
+        final float y = random.nextFloat() * 2.4f - 1.2f;
+        final float size = random.nextFloat() * 0.5f;
+        return new float[] {x, y, x + size, y + size};
+    }
+}
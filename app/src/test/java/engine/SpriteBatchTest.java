@@ -0,0 +1,188 @@
+package engine;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Sprite batch tests.
+ */
+public class SpriteBatchTest {
+    private final List<int[]> mFlushes = new ArrayList<>();
+    private final List<int[]> mUploads = new ArrayList<>();
+    private FloatBuffer mVertexData;
+    private SpriteBatch mBatch;
+
+    @Before
+    public void setUp() {
+        mVertexData = FloatBuffer.allocate(Const.VERTEX_BUFFER_SIZE);
+        mBatch = createBatch(mVertexData);
+    }
+
+    @Test
+    public void sceneWithOneTexture_isOneFlush() {
+        final DrawableScene scene = new DrawableScene(2);
+        for (int i = 0; i < 100; i++) {
+            scene.addToLayer(i % 2, createObject(1, i * 0.01f, 0));
+        }
+
+        drawScene(scene);
+
+        assertEquals(1, mBatch.getFlushCount());
+        assertEquals(1, mFlushes.size());
+        assertArrayEquals(new int[] {1, 0, 100 * SpriteBatch.SPRITE_INDICES}, mFlushes.get(0));
+    }
+
+    @Test
+    public void textureChange_flushesInDrawOrder() {
+        final DrawableScene scene = new DrawableScene(2);
+        scene.addToLayer(0, createObject(1, 0, 0));
+        scene.addToLayer(0, createObject(1, 0, 0));
+        scene.addToLayer(0, createObject(2, 0, 0));
+        scene.addToLayer(1, createObject(2, 0, 0));
+        scene.addToLayer(1, createObject(1, 0, 0));
+
+        drawScene(scene);
+
+        assertEquals(3, mBatch.getFlushCount());
+        assertArrayEquals(new int[] {1, 0, 12}, mFlushes.get(0));
+        assertArrayEquals(new int[] {2, 12, 12}, mFlushes.get(1));
+        assertArrayEquals(new int[] {1, 24, 6}, mFlushes.get(2));
+    }
+
+    @Test
+    public void hiddenAndUntexturedObjects_areSkipped() {
+        final DrawableScene scene = new DrawableScene(1);
+        final DrawableObject hidden = createObject(2, 0, 0);
+        hidden.setVisible(false);
+        scene.addToLayer(0, createObject(1, 0, 0));
+        scene.addToLayer(0, hidden);
+        scene.addToLayer(0, new DrawableObject(1, 1, DrawableObject.NORMAL_SPRITE));
+        scene.addToLayer(0, createObject(1, 0, 0));
+
+        drawScene(scene);
+
+        assertEquals(1, mBatch.getFlushCount());
+        assertArrayEquals(new int[] {1, 0, 12}, mFlushes.get(0));
+    }
+
+    @Test
+    public void fullBuffer_isFlushedAndReused() {
+        final int capacity = 4;
+        mBatch = createBatch(FloatBuffer.allocate(capacity * SpriteBatch.SPRITE_SIZE));
+        final DrawableScene scene = new DrawableScene(1);
+        for (int i = 0; i < 10; i++) {
+            scene.addToLayer(0, createObject(1, 0, 0));
+        }
+
+        drawScene(scene);
+
+        assertEquals(3, mBatch.getFlushCount());
+        assertArrayEquals(new int[] {1, 0, 24}, mFlushes.get(0));
+        assertArrayEquals(new int[] {1, 0, 24}, mFlushes.get(1));
+        assertArrayEquals(new int[] {1, 0, 12}, mFlushes.get(2));
+    }
+
+    @Test
+    public void vertices_arePreTranslated() {
+        final DrawableScene scene = new DrawableScene(1);
+        scene.addToLayer(0, createObject(1, 0.5f, -0.25f));
+
+        drawScene(scene);
+
+        final float[] vertices = new float[SpriteBatch.SPRITE_SIZE];
+        mVertexData.position(0);
+        mVertexData.get(vertices);
+        assertArrayEquals(new float[] {
+                0.4f, -0.35f, 0, 1,
+                0.4f, -0.15f, 0, 0,
+                0.6f, -0.15f, 1, 0,
+                0.6f, -0.35f, 1, 1}, vertices, 1e-6f);
+    }
+
+    @Test
+    public void unchangedSprites_areNotUploadedAgain() {
+        final DrawableScene scene = new DrawableScene(1);
+        final List<DrawableObject> objects = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            objects.add(createObject(1, i * 0.1f, 0));
+            scene.addToLayer(0, objects.get(i));
+        }
+
+        drawScene(scene);
+        assertEquals(5, mBatch.getUploadedSprites());
+        assertArrayEquals(new int[] {0, 5 * SpriteBatch.SPRITE_SIZE}, mUploads.get(0));
+
+        drawScene(scene);
+        assertEquals(0, mBatch.getUploadedSprites());
+        assertEquals(1, mUploads.size());
+        assertEquals(1, mBatch.getFlushCount());
+
+        objects.get(3).setY(0.5f);
+        drawScene(scene);
+        assertEquals(1, mBatch.getUploadedSprites());
+        assertArrayEquals(new int[] {3 * SpriteBatch.SPRITE_SIZE, SpriteBatch.SPRITE_SIZE}, mUploads.get(1));
+    }
+
+    @Test
+    public void invalidate_uploadsAllSprites() {
+        final DrawableScene scene = new DrawableScene(1);
+        for (int i = 0; i < 3; i++) {
+            scene.addToLayer(0, createObject(1, 0, 0));
+        }
+        drawScene(scene);
+
+        mBatch.invalidate();
+        drawScene(scene);
+
+        assertEquals(3, mBatch.getUploadedSprites());
+        assertArrayEquals(new int[] {0, 3 * SpriteBatch.SPRITE_SIZE}, mUploads.get(1));
+    }
+
+    @Test
+    public void indices_areTwoTrianglesPerQuad() {
+        final ShortBuffer indices = ShortBuffer.allocate(2 * SpriteBatch.SPRITE_INDICES);
+        SpriteBatch.putIndices(indices, 2);
+
+        final short[] result = new short[indices.limit()];
+        indices.get(result);
+        assertArrayEquals(new short[] {0, 1, 2, 0, 2, 3, 4, 5, 6, 4, 6, 7}, result);
+    }
+
+    private SpriteBatch createBatch(final FloatBuffer vertexData) {
+        return new SpriteBatch(vertexData, new SpriteBatch.FlushListener() {
+            @Override
+            public void onUpload(final int offset, final int count) {
+                mUploads.add(new int[] {offset, count});
+            }
+
+            @Override
+            public void onFlush(final int texture, final int firstIndex, final int indexCount) {
+                mFlushes.add(new int[] {texture, firstIndex, indexCount});
+            }
+        });
+    }
+
+    private void drawScene(final DrawableScene scene) {
+        scene.publish(0);
+        mBatch.begin();
+        scene.draw(mBatch, scene.acquire(), 1, 0);
+        mBatch.end();
+    }
+
+    private static DrawableObject createObject(final int texture, final float x, final float y) {
+        final TextureAtlas.Page page = new TextureAtlas.Page(1, 1);
+        page.setTextureId(texture);
+        final DrawableObject object = new DrawableObject(0.2f, 0.2f, DrawableObject.NORMAL_SPRITE);
+        object.addTexture(Const.NORMAL_STATE, new TextureRegion(page, 0, 0, 1, 1));
+        object.setX(x);
+        object.setY(y);
+        return object;
+    }
+}
@@ -0,0 +1,66 @@
+package engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * State registry tests.
+ */
+public class StateRegistryTest {
+    @Test
+    public void sameName_isSameId() {
+        final int id = StateRegistry.intern("registry_test_state");
+        assertEquals(id, StateRegistry.intern("registry_test_state"));
+        assertEquals("registry_test_state", StateRegistry.getName(id));
+        assertNotEquals(id, StateRegistry.intern("registry_test_other_state"));
+    }
+
+    @Test
+    public void constIds_matchNames() {
+        assertEquals(0, Const.EMPTY_STATE_ID);
+        assertEquals(Const.NORMAL_STATE, StateRegistry.getName(Const.NORMAL_STATE_ID));
+        assertEquals(Const.BUTTON_PRESSED_STATE, StateRegistry.getName(Const.BUTTON_PRESSED_STATE_ID));
+        assertEquals(Const.NORMAL_STATE_ID, StateRegistry.intern(Const.NORMAL_STATE));
+    }
+
+    @Test
+    public void stateSetById_resolvesTexture() {
+        final TextureAtlas.Page page = new TextureAtlas.Page(1, 1);
+        final TextureRegion normal = new TextureRegion(page, 0, 0, 1, 1);
+        final TextureRegion pressed = new TextureRegion(page, 0, 0, 1, 1);
+        final DrawableObject object = new DrawableObject(1, 1, DrawableObject.NORMAL_SPRITE);
+        object.addTexture(Const.NORMAL_STATE, normal);
+        object.addTexture(Const.BUTTON_PRESSED_STATE_ID, pressed);
+
+        final EntityStore store = new EntityStore();
+        object.attach(store);
+        assertSame(normal, store.getRegion(store.mTexture[object.getIndex()]));
+
+        object.setState(Const.BUTTON_PRESSED_STATE_ID);
+        assertSame(pressed, store.getRegion(store.mTexture[object.getIndex()]));
+
+        object.setState("registry_test_missing_state");
+        assertEquals(EntityStore.NONE, store.mTexture[object.getIndex()]);
+    }
+
+    @Test
+    public void stateLaterInternedThanTable_growsTable() {
+        final TextureAtlas.Page page = new TextureAtlas.Page(1, 1);
+        final DrawableObject object = new DrawableObject(1, 1, DrawableObject.NORMAL_SPRITE);
+        object.addTexture(Const.NORMAL_STATE_ID, new TextureRegion(page, 0, 0, 1, 1));
+        final List<TextureRegion> frames = new ArrayList<>();
+        frames.add(new TextureRegion(page, 0, 0, 1, 1));
+        final int late = StateRegistry.intern("registry_test_late_animation");
+        object.addAnimation(late, frames);
+        object.animateLoop(late);
+
+        final EntityStore store = new EntityStore();
+        object.attach(store);
+        assertEquals(late, store.mAnimationState[object.getIndex()]);
+        assertSame(frames.get(0), store.getClip(store.mAnimation[object.getIndex()]).getFrame(0));
+    }
+}
@@ -0,0 +1,249 @@
+package engine;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Task scheduler tests.
+ */
+public class TaskSchedulerTest {
+    private static final long MS = 1000000;
+    private static final int WORKER_COUNT = 2;
+    private static final int ROUND_TRIPS = 50;
+
+    private TaskScheduler mScheduler;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        if (mScheduler != null) {
+            mScheduler.shutdown();
+            assertTrue(mScheduler.awaitTermination(5000));
+        }
+    }
+
+    @Test
+    public void menuLevelRoundTrips_leaveNoLeakedThreads() throws InterruptedException {
+        mScheduler = new TaskScheduler(WORKER_COUNT, TimeSource.SYSTEM);
+        final TaskScheduler.Scope game = mScheduler.createScope();
+        final AtomicInteger ticks = new AtomicInteger();
+        final TaskScheduler.Scope[] level = new TaskScheduler.Scope[1];
+        TaskScheduler.Task load = null;
+        for (int i = 0; i < ROUND_TRIPS; i++) {
+            // Start button: level load starts level simulation in scope of level scene holder.
+            load = submitLoad(game, load, new Runnable() {
+                @Override
+                public void run() {
+                    level[0] = mScheduler.createScope();
+                    level[0].schedule(new TaskScheduler.Periodic() {
+                        @Override
+                        public long run() {
+                            ticks.incrementAndGet();
+                            return MS;
+                        }
+                    });
+                }
+            });
+            // Back button: menu load releases level scene holder.
+            load = submitLoad(game, load, new Runnable() {
+                @Override
+                public void run() {
+                    level[0].cancel();
+                }
+            });
+        }
+        load.join();
+
+        assertEquals(0, mScheduler.getSimulationCount());
+        assertEquals(0, mScheduler.getQueueDepth());
+        assertEquals(0, game.getActiveCount());
+        assertEquals(WORKER_COUNT + 1, mScheduler.getLiveThreadCount());
+        assertEquals(WORKER_COUNT + 1, countEngineThreads());
+
+        mScheduler.shutdown();
+        assertTrue(mScheduler.awaitTermination(5000));
+        assertEquals(0, mScheduler.getLiveThreadCount());
+        assertEquals(0, countEngineThreads());
+    }
+
+    @Test
+    public void cancelledSimulation_stopsStepping() throws InterruptedException {
+        mScheduler = new TaskScheduler(WORKER_COUNT, TimeSource.SYSTEM);
+        final TaskScheduler.Scope scope = mScheduler.createScope();
+        final AtomicInteger steps = new AtomicInteger();
+        final CountDownLatch stepped = new CountDownLatch(3);
+        final TaskScheduler.Simulation simulation = scope.schedule(new TaskScheduler.Periodic() {
+            @Override
+            public long run() {
+                steps.incrementAndGet();
+                stepped.countDown();
+                return MS;
+            }
+        });
+        assertTrue(stepped.await(5, TimeUnit.SECONDS));
+
+        scope.cancel();
+        final int count = steps.get();
+        Thread.sleep(20);
+
+        assertTrue(simulation.isCancelled());
+        assertEquals(count, steps.get());
+        assertEquals(0, mScheduler.getSimulationCount());
+        assertEquals(0, scope.getActiveCount());
+    }
+
+    @Test
+    public void cancelledScope_interruptsRunningTaskAndRejectsNewOnes() throws InterruptedException {
+        mScheduler = new TaskScheduler(WORKER_COUNT, TimeSource.SYSTEM);
+        final TaskScheduler.Scope scope = mScheduler.createScope();
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicInteger interrupted = new AtomicInteger();
+        final TaskScheduler.Task task = scope.submit(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    Thread.sleep(60000);
+                } catch (InterruptedException e) {
+                    interrupted.incrementAndGet();
+                }
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        scope.cancel();
+        task.join();
+        final TaskScheduler.Task late = scope.submit(new Runnable() {
+            @Override
+            public void run() {
+                fail();
+            }
+        });
+
+        assertTrue(task.isCancelled());
+        assertEquals(1, interrupted.get());
+        assertTrue(late.isCancelled());
+        assertTrue(late.isDone());
+        assertEquals(0, scope.getActiveCount());
+    }
+
+    @Test
+    public void queuedTasks_reportDepthAndLatency() throws InterruptedException {
+        final ManualTimeSource time = new ManualTimeSource();
+        mScheduler = new TaskScheduler(1, time);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final TaskScheduler.Task blocker = mScheduler.submit(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        final TaskScheduler.Task[] queued = new TaskScheduler.Task[3];
+        for (int i = 0; i < queued.length; i++) {
+            queued[i] = mScheduler.submit(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+        }
+
+        assertEquals(3, mScheduler.getQueueDepth());
+        time.add(5 * MS);
+        release.countDown();
+        blocker.join();
+        for (final TaskScheduler.Task task : queued) {
+            task.join();
+        }
+
+        assertEquals(4, mScheduler.getStartedTaskCount());
+        assertEquals(5 * MS, mScheduler.getMaxTaskLatency());
+        assertEquals(15 * MS / 4, mScheduler.getAverageTaskLatency());
+    }
+
+    @Test
+    public void queuedTask_canBeRunByWaitingThread() throws InterruptedException {
+        mScheduler = new TaskScheduler(1, TimeSource.SYSTEM);
+        final CountDownLatch release = new CountDownLatch(1);
+        mScheduler.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        final AtomicInteger runs = new AtomicInteger();
+        final TaskScheduler.Task task = mScheduler.submit(new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        });
+
+        task.run();
+        task.join();
+        release.countDown();
+        mScheduler.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }).join();
+
+        assertTrue(task.isDone());
+        assertEquals(1, runs.get());
+    }
+
+    /**
+     * Submits state load that starts after previous load, like Game does.
+     * @param scope game scope.
+     * @param previous previous load, may be null.
+     * @param body load body.
+     * @return load task.
+     */
+    private static TaskScheduler.Task submitLoad(final TaskScheduler.Scope scope, final TaskScheduler.Task previous,
+                                                 final Runnable body) {
+        return scope.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (previous != null) {
+                        previous.join();
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                body.run();
+            }
+        });
+    }
+
+    /**
+     * Counts live threads of schedulers.
+     * @return thread count.
+     */
+    private static int countEngineThreads() {
+        int count = 0;
+        for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+            final String name = thread.getName();
+            if (thread.isAlive() && (name.startsWith(TaskScheduler.WORKER_THREAD_NAME)
+                    || name.equals(TaskScheduler.SIMULATION_THREAD_NAME))) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,120 @@
+package engine;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Bitmap font and text label tests.
+ */
+public class TextLabelTest {
+    private BitmapFont mFont;
+    private SpriteBatch mBatch;
+    private int mIndexCount;
+
+    @Before
+    public void setUp() {
+        mFont = new BitmapFont(" 0123456789-", new float[] {5, 10, 10, 10, 10, 10, 10, 10, 10, 10, 10, 6}, 20);
+        final FloatBuffer vertices = ByteBuffer.allocateDirect(64 * SpriteBatch.SPRITE_SIZE * 4)
+                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+        mBatch = new SpriteBatch(vertices, new SpriteBatch.FlushListener() {
+            @Override
+            public void onUpload(final int offset, final int count) {
+            }
+
+            @Override
+            public void onFlush(final int texture, final int firstIndex, final int indexCount) {
+                mIndexCount+= indexCount;
+            }
+        });
+    }
+
+    @Test
+    public void font_laysCellsOutInRows() {
+        assertEquals(0, mFont.getCellX(0));
+        assertEquals(5 + BitmapFont.PADDING, mFont.getCellX(1));
+        assertEquals(20, mFont.getSheetHeight());
+        assertEquals(1, mFont.getGlyph('0'));
+        assertEquals(-1, mFont.getGlyph('a'));
+
+        final StringBuilder wide = new StringBuilder();
+        final float[] advances = new float[100];
+        for (int i = 0; i < advances.length; i++) {
+            wide.append((char) (' ' + i % 64));
+            advances[i] = 30;
+        }
+        final BitmapFont font = new BitmapFont(wide.substring(0, 64), advances, 20);
+        assertTrue(font.getSheetWidth() <= BitmapFont.MAX_SHEET_WIDTH);
+        assertTrue(font.getSheetHeight() > 20);
+    }
+
+    @Test
+    public void label_drawsNothingBeforeBind() {
+        final TextLabel label = new TextLabel(mFont, 8, 0, 0, 0.1f, 1, TextLabel.ALIGN_LEFT);
+        label.setNumber(42);
+
+        draw(label);
+
+        assertEquals(0, mIndexCount);
+    }
+
+    @Test
+    public void label_drawsGlyphPerVisibleChar() {
+        mFont.bind(new TextureAtlas.Page(256, 256), 0, 0);
+        final TextLabel label = new TextLabel(mFont, 8, 0, 0, 0.1f, 1, TextLabel.ALIGN_CENTER);
+        label.begin().append("1 2").append(-30).end();
+
+        draw(label);
+
+        assertEquals(5 * SpriteBatch.SPRITE_INDICES, mIndexCount);
+    }
+
+    @Test
+    public void label_relayoutsOnlyOnChange() {
+        mFont.bind(new TextureAtlas.Page(256, 256), 0, 0);
+        final TextLabel label = new TextLabel(mFont, 8, 0, 0, 0.1f, 1, TextLabel.ALIGN_LEFT);
+
+        label.setNumber(7);
+        draw(label);
+        label.setNumber(7);
+        draw(label);
+        assertEquals(1, label.getLayoutCount());
+
+        label.setNumber(8);
+        draw(label);
+        assertEquals(2, label.getLayoutCount());
+
+        label.setAspect(1);
+        draw(label);
+        assertEquals(2, label.getLayoutCount());
+        label.setAspect(0.5f);
+        draw(label);
+        assertEquals(3, label.getLayoutCount());
+    }
+
+    @Test
+    public void label_dropsCharsAboveCapacity() {
+        mFont.bind(new TextureAtlas.Page(256, 256), 0, 0);
+        final TextLabel label = new TextLabel(mFont, 3, 0, 0, 0.1f, 1, TextLabel.ALIGN_LEFT);
+        label.setNumber(123456);
+
+        draw(label);
+
+        assertEquals(3 * SpriteBatch.SPRITE_INDICES, mIndexCount);
+    }
+
+    /**
+     * Draws label in one batch.
+     * @param label text label.
+     */
+    private void draw(final TextLabel label) {
+        mBatch.begin();
+        label.draw(mBatch);
+        mBatch.end();
+    }
+}
@@ -0,0 +1,127 @@
+package engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Texture cache tests.
+ */
+public class TextureCacheTest {
+    // Size of one 100x100 page.
+    private static final long PAGE_BYTES = 40000;
+
+    private final List<Integer> mDeleted = new ArrayList<>();
+    private final TextureCache.TextureDeleter mDeleter = new TextureCache.TextureDeleter() {
+        @Override
+        public void deleteTextures(final int[] textureIds) {
+            for (final int textureId : textureIds) {
+                mDeleted.add(textureId);
+            }
+        }
+    };
+    private int mNextTexture = 1;
+
+    @Test
+    public void releasedAtlas_isReusedWhileInBudget() {
+        final TextureCache cache = new TextureCache(PAGE_BYTES * 2);
+        assertNull(cache.acquire("menu"));
+        final TextureAtlas menu = createAtlas(1);
+        cache.put("menu", menu);
+        cache.release("menu");
+
+        assertSame(menu, cache.acquire("menu"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0, cache.getEvictionCount());
+        assertEquals(PAGE_BYTES, cache.getResidentBytes());
+
+        cache.deleteEvicted(mDeleter);
+        assertTrue(mDeleted.isEmpty());
+    }
+
+    @Test
+    public void overBudget_evictsLeastRecentlyUsedReleasedAtlas() {
+        final TextureCache cache = new TextureCache(PAGE_BYTES * 2);
+        final TextureAtlas menu = createAtlas(1);
+        final TextureAtlas level = createAtlas(1);
+        cache.put("menu", menu);
+        cache.put("level", level);
+        cache.release("menu");
+        cache.release("level");
+        // Menu is used more recently than level.
+        assertSame(menu, cache.acquire("menu"));
+        cache.release("menu");
+
+        final int levelTexture = level.getPages().get(0).getTextureId();
+        cache.put("bar", createAtlas(1));
+
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(PAGE_BYTES * 2, cache.getResidentBytes());
+        assertNull(cache.acquire("level"));
+        assertFalse(level.isUploaded());
+        cache.deleteEvicted(mDeleter);
+        assertEquals(Collections.singletonList(levelTexture), mDeleted);
+        cache.deleteEvicted(mDeleter);
+        assertEquals(1, mDeleted.size());
+    }
+
+    @Test
+    public void referencedAtlas_isNotEvicted() {
+        final TextureCache cache = new TextureCache(PAGE_BYTES);
+        final TextureAtlas menu = createAtlas(1);
+        cache.put("menu", menu);
+        assertSame(menu, cache.acquire("menu"));
+        cache.put("level", createAtlas(1));
+
+        // Over budget, but both atlases are referenced.
+        assertEquals(PAGE_BYTES * 2, cache.getResidentBytes());
+        assertEquals(0, cache.getEvictionCount());
+
+        cache.release("menu");
+        assertEquals(0, cache.getEvictionCount());
+        cache.release("menu");
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(PAGE_BYTES, cache.getResidentBytes());
+        assertFalse(menu.isUploaded());
+    }
+
+    @Test
+    public void invalidate_keepsReferencedAtlasesWithoutDeletingLostTextures() {
+        final TextureCache cache = new TextureCache(PAGE_BYTES * 3);
+        final TextureAtlas menu = createAtlas(1);
+        final TextureAtlas level = createAtlas(2);
+        cache.put("bar", createAtlas(1));
+        cache.release("bar");
+        cache.put("menu", menu);
+        cache.release("menu");
+        // Bar is evicted, its texture waits for deletion.
+        cache.put("level", level);
+        assertEquals(1, cache.getEvictionCount());
+
+        final List<TextureAtlas> lost = cache.invalidate();
+
+        assertEquals(Collections.singletonList(level), lost);
+        assertEquals(2, level.getLostPages().size());
+        assertFalse(level.isUploaded());
+        assertFalse(menu.isUploaded());
+        assertEquals(PAGE_BYTES * 2, cache.getResidentBytes());
+        assertNull(cache.acquire("menu"));
+        cache.deleteEvicted(mDeleter);
+        assertTrue(mDeleted.isEmpty());
+    }
+
+    private TextureAtlas createAtlas(final int pageCount) {
+        final TextureAtlas atlas = new TextureAtlas(Collections.<TextureTemplate>emptyList());
+        for (int i = 0; i < pageCount; i++) {
+            final TextureAtlas.Page page = new TextureAtlas.Page(100, 100);
+            page.setTextureId(mNextTexture++);
+            atlas.getPages().add(page);
+        }
+        return atlas;
+    }
+}
@@ -0,0 +1,90 @@
+package engine;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+/**
+ * Trace recorder tests.
+ */
+public class TraceRecorderTest {
+    private ManualTimeSource mTime;
+    private TraceRecorder mRecorder;
+
+    @Before
+    public void setUp() {
+        mTime = new ManualTimeSource();
+        mRecorder = new TraceRecorder(4, mTime);
+    }
+
+    @Test
+    public void nestedScopes_areCompleteEvents() throws IOException {
+        mRecorder.begin("frame");
+        mTime.add(1000);
+        mRecorder.begin("draw");
+        mTime.add(2500);
+        mRecorder.end();
+        mTime.add(500);
+        mRecorder.end();
+
+        final String trace = write();
+
+        assertEquals(2, mRecorder.getEventCount());
+        assertTrue(trace.contains("{\"name\":\"draw\",\"ph\":\"X\",\"pid\":1,\"tid\":1,\"ts\":1.000,\"dur\":2.500}"));
+        assertTrue(trace.contains("{\"name\":\"frame\",\"ph\":\"X\",\"pid\":1,\"tid\":1,\"ts\":0.000,\"dur\":4.000}"));
+        assertTrue(trace.contains("\"ph\":\"M\""));
+    }
+
+    @Test
+    public void fullRing_keepsNewestEvents() throws IOException {
+        for (int i = 0; i < 6; i++) {
+            mRecorder.begin("tick" + i);
+            mRecorder.end();
+        }
+
+        final String trace = write();
+
+        assertEquals(4, mRecorder.getEventCount());
+        assertFalse(trace.contains("tick1"));
+        assertTrue(trace.contains("tick2"));
+        assertTrue(trace.indexOf("tick2") < trace.indexOf("tick5"));
+    }
+
+    @Test
+    public void unbalancedEnd_isIgnored() {
+        mRecorder.end();
+
+        assertEquals(0, mRecorder.getEventCount());
+    }
+
+    @Test
+    public void threads_haveOwnTracks() throws Exception {
+        mRecorder.begin("main");
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                mRecorder.begin("worker");
+                mRecorder.end();
+            }
+        }, "decoder");
+        thread.start();
+        thread.join();
+        mRecorder.end();
+
+        final String trace = write();
+
+        assertTrue(trace.contains("\"name\":\"worker\",\"ph\":\"X\",\"pid\":1,\"tid\":2"));
+        assertTrue(trace.contains("\"tid\":2,\"args\":{\"name\":\"decoder\"}"));
+        assertTrue(trace.contains("\"name\":\"main\",\"ph\":\"X\",\"pid\":1,\"tid\":1"));
+    }
+
+    private String write() throws IOException {
+        final StringWriter writer = new StringWriter();
+        mRecorder.writeTrace(writer);
+        return writer.toString();
+    }
+}
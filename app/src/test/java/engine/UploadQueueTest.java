@@ -0,0 +1,114 @@
+package engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Texture upload queue tests.
+ */
+public class UploadQueueTest {
+    private static final long MS = 1000000;
+
+    private final ManualTimeSource mTime = new ManualTimeSource();
+    private final List<TextureAtlas.Page> mUploaded = new ArrayList<>();
+    // Time one upload takes.
+    private long mUploadTime = 0;
+    private int mNextTexture = 1;
+
+    private final UploadQueue.Uploader mUploader = new UploadQueue.Uploader() {
+        @Override
+        public int upload(final TextureAtlas.Page page) {
+            mUploaded.add(page);
+            mTime.add(mUploadTime);
+            return mNextTexture++;
+        }
+    };
+
+    @Test
+    public void pages_areUploadedInOrderWithinByteBudget() {
+        // 100x100 page is 40000 bytes.
+        final UploadQueue queue = new UploadQueue(100000, 100 * MS, mTime);
+        final TextureAtlas first = createAtlas(3);
+        final TextureAtlas second = createAtlas(2);
+        queue.add(first);
+        queue.add(second);
+
+        assertEquals(2, queue.process(mUploader));
+        assertEquals(first.getPages().subList(0, 2), mUploaded);
+        assertFalse(first.isUploaded());
+        assertEquals(0.4f, queue.getProgress(), 1e-6f);
+
+        assertEquals(2, queue.process(mUploader));
+        assertTrue(first.isUploaded());
+        assertFalse(second.isUploaded());
+
+        assertEquals(1, queue.process(mUploader));
+        assertTrue(second.isUploaded());
+        assertTrue(queue.isEmpty());
+        assertEquals(1f, queue.getProgress(), 0);
+        assertEquals(0, queue.process(mUploader));
+
+        final List<TextureAtlas.Page> expected = new ArrayList<>(first.getPages());
+        expected.addAll(second.getPages());
+        assertEquals(expected, mUploaded);
+        assertEquals(1, expected.get(0).getTextureId());
+        assertEquals(5, expected.get(4).getTextureId());
+    }
+
+    @Test
+    public void slowUploads_stopAtTimeBudget() {
+        final UploadQueue queue = new UploadQueue(Long.MAX_VALUE, 4 * MS, mTime);
+        queue.add(createAtlas(5));
+        mUploadTime = 3 * MS;
+
+        assertEquals(2, queue.process(mUploader));
+        assertEquals(2, queue.process(mUploader));
+        assertEquals(1, queue.process(mUploader));
+    }
+
+    @Test
+    public void pageOverBudget_isStillUploaded() {
+        final UploadQueue queue = new UploadQueue(1, 1, mTime);
+        queue.add(createAtlas(2));
+        mUploadTime = 10 * MS;
+
+        assertEquals(1, queue.process(mUploader));
+        assertEquals(1, queue.process(mUploader));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test(timeout = 5000)
+    public void awaitEmpty_returnsAfterLastUpload() throws InterruptedException {
+        final UploadQueue queue = new UploadQueue(40000, 100 * MS, mTime);
+        queue.add(createAtlas(3));
+        final Thread loader = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    queue.awaitEmpty();
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        };
+        loader.start();
+        while (!queue.isEmpty()) {
+            queue.process(mUploader);
+        }
+        loader.join();
+        assertEquals(3, mUploaded.size());
+    }
+
+    private static TextureAtlas createAtlas(final int pageCount) {
+        final TextureAtlas atlas = new TextureAtlas(Collections.<TextureTemplate>emptyList());
+        for (int i = 0; i < pageCount; i++) {
+            atlas.getPages().add(new TextureAtlas.Page(100, 100));
+        }
+        return atlas;
+    }
+}
@@ -0,0 +1,67 @@
+package engine;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Texture compressor class.
+ * Compresses big PNG drawables into ETC1 textures at build time.
+ * Small drawables stay PNG, they are packed into atlas pages at runtime.
+ * Runs on desktop JVM, it is not part of the application.
+ */
+public class TextureCompressor {
+    // Extension of compressed drawables.
+    private static final String SOURCE_EXTENSION = ".png";
+
+    /**
+     * Compresses all big drawables of drawable directory.
+     * @param args drawable directory, output directory and min pixel count of compressed drawable.
+     * @throws IOException if a drawable can not be read or written.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 3) {
+            throw new IllegalArgumentException("Usage: TextureCompressor <drawable dir> <output dir> <min pixels>");
+        }
+        final File sourceDir = new File(args[0]);
+        final File outputDir = new File(args[1]);
+        final long minPixels = Long.parseLong(args[2]);
+        final File[] sources = sourceDir.listFiles();
+        if (sources == null) {
+            throw new IOException("Can not list " + sourceDir);
+        }
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Can not create " + outputDir);
+        }
+        for (final File source : sources) {
+            final String name = source.getName();
+            if (!name.endsWith(SOURCE_EXTENSION)) {
+                continue;
+            }
+            final BufferedImage image = ImageIO.read(source);
+            if (image == null) {
+                throw new IOException("Can not decode " + source);
+            }
+            final int width = image.getWidth();
+            final int height = image.getHeight();
+            if ((long) width * height < minPixels) {
+                continue;
+            }
+            final int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+            final CompressedTexture texture = CompressedTexture.encode(pixels, width, height);
+            final String outputName = name.substring(0, name.length() - SOURCE_EXTENSION.length())
+                    + CompressedTexture.FILE_EXTENSION;
+            final OutputStream out = new BufferedOutputStream(new FileOutputStream(new File(outputDir, outputName)));
+            try {
+                texture.write(out);
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Atlas packer benchmark.
+ * Packs sprite set of the game and a larger synthetic sprite set with skyline packer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class AtlasPackerBenchmark {
+    // Sprite set of the game.
+    private static final String GAME = "game";
+    // Synthetic sprite set.
+    private static final String SYNTHETIC = "synthetic";
+
+    // Sizes of drawable resources of the game: width, height.
+    private static final int[][] GAME_SIZES = {
+            {200, 200}, {200, 200}, {200, 200}, {200, 200}, {200, 200}, {200, 200}, {200, 200},
+            {200, 200}, {720, 1280}, {360, 640}, {720, 1280}, {291, 58}, {720, 1280}, {50, 50},
+            {800, 100}, {1440, 1280}, {720, 640}, {720, 1280}, {200, 200}, {200, 200}, {100, 100},
+            {500, 100}, {500, 100}, {100, 100}, {100, 100}, {100, 100}, {100, 100}, {100, 100},
+            {100, 100}, {100, 100}, {100, 100}, {500, 100}, {500, 100}, {100, 100}, {500, 100},
+            {500, 100}, {100, 100}, {500, 100}, {500, 100}, {720, 1280}, {400, 400}, {400, 400},
+            {200, 200}};
+    // Count of synthetic sprites.
+    private static final int SYNTHETIC_COUNT = 1000;
+    // Max side of synthetic sprite.
+    private static final int SYNTHETIC_MAX_SIZE = 256;
+
+    // Sprite set.
+    @Param({GAME, SYNTHETIC})
+    public String mSpriteSet;
+
+    // Sizes of sprites to pack: width, height.
+    private int[][] mSizes;
+
+    /**
+     * Builds sprite set.
+     */
+    @Setup
+    public void setUp() {
+        if (GAME.equals(mSpriteSet)) {
+            mSizes = GAME_SIZES;
+            return;
+        }
+        final Random random = new Random(1);
+        mSizes = new int[SYNTHETIC_COUNT][];
+        for (int i = 0; i < SYNTHETIC_COUNT; i++) {
+            mSizes[i] = new int[] {8 + random.nextInt(SYNTHETIC_MAX_SIZE - 8),
+                    8 + random.nextInt(SYNTHETIC_MAX_SIZE - 8)};
+        }
+    }
+
+    /**
+     * Packs sprite set into atlas pages.
+     * @return packer.
+     */
+    @Benchmark
+    public AtlasPacker pack() {
+        final AtlasPacker packer = new AtlasPacker(TextureAtlas.MAX_PAGE_SIZE, TextureAtlas.PADDING);
+        for (final int[] size : mSizes) {
+            packer.add(size[0], size[1]);
+        }
+        packer.pack();
+        return packer;
+    }
+}
@@ -0,0 +1,90 @@
+package engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bitmap scale benchmark.
+ * Android bitmaps do not run on desktop JVM, so the kernel of Utils.getResizedBitmap
+ * (matrix scale without filtering) is measured on raw ARGB pixel arrays.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BitmapScaleBenchmark {
+    // Source side in pixels.
+    @Param({"256", "1024"})
+    public int mSourceSize;
+    // Target side in pixels.
+    @Param({"200", "720"})
+    public int mTargetSize;
+
+    // Source pixels.
+    private int[] mSource;
+    // Target pixels.
+    private int[] mTarget;
+
+    /**
+     * Fills source pixels.
+     */
+    @Setup
+    public void setUp() {
+        final Random random = new Random(1);
+        mSource = new int[mSourceSize * mSourceSize];
+        for (int i = 0; i < mSource.length; i++) {
+            mSource[i] = random.nextInt();
+        }
+        mTarget = new int[mTargetSize * mTargetSize];
+    }
+
+    /**
+     * Scales pixels with nearest neighbour sampling.
+     * @return target pixels.
+     */
+    @Benchmark
+    public int[] scaleNearest() {
+        scale(mSource, mSourceSize, mSourceSize, mTarget, mTargetSize, mTargetSize);
+        return mTarget;
+    }
+
+    /**
+     * Scales pixels with nearest neighbour sampling in 16.16 fixed point.
+     * @param source source pixels.
+     * @param sourceWidth source width.
+     * @param sourceHeight source height.
+     * @param target target pixels.
+     * @param targetWidth target width.
+     * @param targetHeight target height.
+     */
+    private static void scale(final int[] source, final int sourceWidth, final int sourceHeight,
+                              final int[] target, final int targetWidth, final int targetHeight) {
+        final int stepX = (sourceWidth << 16) / targetWidth;
+        final int stepY = (sourceHeight << 16) / targetHeight;
+        int sourceY = stepY >> 1;
+        int pos = 0;
+        for (int y = 0; y < targetHeight; y++) {
+            final int row = (sourceY >> 16) * sourceWidth;
+            int sourceX = stepX >> 1;
+            for (int x = 0; x < targetWidth; x++) {
+                target[pos++] = source[row + (sourceX >> 16)];
+                sourceX+= stepX;
+            }
+            sourceY+= stepY;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drawable object benchmarks.
+ * Measures resolution of textures and animations by state.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DrawableObjectBenchmark {
+    // Object with textures and animations of several states.
+    private DrawableObject mObject;
+    // Toggle between states.
+    private boolean mIsPressed = false;
+
+    /**
+     * Builds object.
+     */
+    @Setup
+    public void setUp() {
+        final TextureAtlas.Page page = new TextureAtlas.Page(1, 1);
+        mObject = new DrawableObject(0.2f, 0.2f, DrawableObject.SQUARE_SPRITE);
+        mObject.addTexture(Const.NORMAL_STATE_ID, new TextureRegion(page, 0, 0, 1, 1));
+        mObject.addTexture(Const.BUTTON_PRESSED_STATE_ID, new TextureRegion(page, 0, 0, 1, 1));
+        final List<TextureRegion> frames = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            frames.add(new TextureRegion(page, 0, 0, 1, 1));
+        }
+        mObject.addAnimation(Const.NORMAL_ANIMATION_STATE_ID, frames);
+        mObject.addAnimation(Const.DRAG_ANIMATION_ID, frames);
+    }
+
+    /**
+     * Switches state by state id.
+     * @return object.
+     */
+    @Benchmark
+    public DrawableObject setStateById() {
+        mIsPressed = !mIsPressed;
+        mObject.setState(mIsPressed ? Const.BUTTON_PRESSED_STATE_ID : Const.NORMAL_STATE_ID);
+        return mObject;
+    }
+
+    /**
+     * Switches state by state name.
+     * @return object.
+     */
+    @Benchmark
+    public DrawableObject setStateByName() {
+        mIsPressed = !mIsPressed;
+        mObject.setState(mIsPressed ? Const.BUTTON_PRESSED_STATE : Const.NORMAL_STATE);
+        return mObject;
+    }
+
+    /**
+     * Switches looped animation.
+     * @return object.
+     */
+    @Benchmark
+    public DrawableObject switchAnimation() {
+        mIsPressed = !mIsPressed;
+        mObject.animateLoop(mIsPressed ? Const.DRAG_ANIMATION_ID : Const.NORMAL_ANIMATION_STATE_ID);
+        return mObject;
+    }
+
+    /**
+     * Requests already looped animation.
+     * @return object.
+     */
+    @Benchmark
+    public DrawableObject repeatAnimation() {
+        mObject.animateLoop(Const.NORMAL_ANIMATION_STATE_ID);
+        return mObject;
+    }
+}
@@ -0,0 +1,180 @@
+package engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity store benchmark.
+ * Updates and iterates entities kept in struct of arrays of entity store, compared to
+ * the object graph scenes kept before, one object per entity in a list.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EntityStoreBenchmark {
+    // Max step of entity per tick.
+    private static final float SPEED = 0.01f;
+
+    // Entity count.
+    @Param({"100", "1000", "10000"})
+    public int mCount;
+
+    // Entities in struct of arrays.
+    private EntityStore mStore;
+    // Entities in object graph.
+    private List<GraphObject> mObjects;
+    // Velocities, shared by both layouts.
+    private float[] mVelocityX;
+    private float[] mVelocityY;
+
+    /**
+     * Entity of object graph.
+     * Keeps the fields entity store keeps in its arrays.
+     */
+    static class GraphObject {
+        // Coordinates.
+        float mX;
+        float mY;
+        // Coordinates before last simulation tick.
+        float mPrevX;
+        float mPrevY;
+        // Size.
+        float mWidth;
+        float mHeight;
+        // Current state.
+        String mState = Const.NORMAL_STATE;
+        // Visibility.
+        boolean mVisible = true;
+        // Padding of other per object data, objects were allocated as graph of such objects.
+        final Object mLock = new Object();
+    }
+
+    /**
+     * Builds entities.
+     * Objects of graph are shuffled, like objects allocated through lifetime of a scene.
+     */
+    @Setup
+    public void setUp() {
+        final Random random = new Random(1);
+        mStore = new EntityStore(mCount);
+        mObjects = new ArrayList<>(mCount);
+        mVelocityX = new float[mCount];
+        mVelocityY = new float[mCount];
+        for (int i = 0; i < mCount; i++) {
+            final float x = random.nextFloat() * 2 - 1;
+            final float y = random.nextFloat() * 2 - 1;
+            final boolean visible = random.nextInt(8) != 0;
+            final int index = mStore.add(0.1f, 0.1f);
+            mStore.mX[index] = x;
+            mStore.mY[index] = y;
+            mStore.setVisible(index, visible);
+            final GraphObject object = new GraphObject();
+            object.mX = x;
+            object.mY = y;
+            object.mWidth = 0.1f;
+            object.mHeight = 0.1f;
+            object.mVisible = visible;
+            mObjects.add(object);
+            mVelocityX[i] = (random.nextFloat() * 2 - 1) * SPEED;
+            mVelocityY[i] = (random.nextFloat() * 2 - 1) * SPEED;
+        }
+        Collections.shuffle(mObjects, random);
+    }
+
+    /**
+     * Moves entities of store by one tick.
+     * @return store.
+     */
+    @Benchmark
+    public EntityStore updateStore() {
+        final EntityStore store = mStore;
+        store.storePositions();
+        final float[] x = store.mX;
+        final float[] y = store.mY;
+        for (int i = 0; i < store.mCount; i++) {
+            x[i] = wrap(x[i] + mVelocityX[i]);
+            y[i] = wrap(y[i] + mVelocityY[i]);
+        }
+        store.mIsChanged = true;
+        return store;
+    }
+
+    /**
+     * Moves entities of object graph by one tick.
+     * @return objects.
+     */
+    @Benchmark
+    public List<GraphObject> updateGraph() {
+        final List<GraphObject> objects = mObjects;
+        for (int i = 0; i < objects.size(); i++) {
+            final GraphObject object = objects.get(i);
+            object.mPrevX = object.mX;
+            object.mPrevY = object.mY;
+            object.mX = wrap(object.mX + mVelocityX[i]);
+            object.mY = wrap(object.mY + mVelocityY[i]);
+        }
+        return objects;
+    }
+
+    /**
+     * Iterates visible entities of store like draw does, interpolating positions.
+     * @return sum of drawn coordinates.
+     */
+    @Benchmark
+    public float iterateStore() {
+        final EntityStore store = mStore;
+        float sum = 0;
+        for (int i = 0; i < store.mCount; i++) {
+            if (EntityStore.getBit(store.mVisible, i)) {
+                sum+= (store.mPrevX[i] + store.mX[i]) * 0.5f + (store.mPrevY[i] + store.mY[i]) * 0.5f
+                        + store.mWidth[i] + store.mHeight[i];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Iterates visible entities of object graph like draw did, interpolating positions.
+     * @return sum of drawn coordinates.
+     */
+    @Benchmark
+    public float iterateGraph() {
+        final List<GraphObject> objects = mObjects;
+        float sum = 0;
+        for (int i = 0; i < objects.size(); i++) {
+            final GraphObject object = objects.get(i);
+            if (object.mVisible) {
+                sum+= (object.mPrevX + object.mX) * 0.5f + (object.mPrevY + object.mY) * 0.5f
+                        + object.mWidth + object.mHeight;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Wraps coordinate into screen.
+     * @param value coordinate.
+     * @return wrapped coordinate.
+     */
+    private static float wrap(final float value) {
+        return value > 1 ? value - 2 : (value < -1 ? value + 2 : value);
+    }
+}
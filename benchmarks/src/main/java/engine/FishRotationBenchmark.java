@@ -0,0 +1,41 @@
+package engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fish rotation benchmark.
+ * Measures one rotation step of level thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class FishRotationBenchmark {
+    // Fish position.
+    private final float[] mPosition = {-0.5f, 0};
+    // True if fish goes up.
+    private boolean mIsUp = false;
+
+    /**
+     * Rotates fish by one step.
+     * @return fish position.
+     */
+    @Benchmark
+    public float[] rotate() {
+        mIsUp = !mIsUp;
+        LevelHandler.rotate(mPosition[0], mPosition[1], mIsUp ? 0.7f : -1, mPosition);
+        return mPosition;
+    }
+}
@@ -0,0 +1,104 @@
+package engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scene load benchmark.
+ * Builds a menu-like scene of buttons with normal and pressed textures from a compiled scene file,
+ * compared to building it in code the way handler init did before scene files.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SceneLoadBenchmark {
+    // Button count.
+    @Param({"3", "100"})
+    public int mButtonCount;
+
+    // Compiled scene file.
+    private byte[] mSceneFile;
+    // Factory of requests with fake drawable ids.
+    private final SceneInstance.RequestFactory mRequestFactory = new SceneInstance.RequestFactory() {
+        @Override
+        public BitmapRequest createRequest(final String drawable, final float width, final float height) {
+            return new BitmapRequest(null, drawable.hashCode(), width, height);
+        }
+    };
+
+    /**
+     * Compiles scene description.
+     * @throws IOException if description has errors.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        final StringBuilder description = new StringBuilder("layers 1\nobject mat 0 normal 2 2\n");
+        description.append("texture normal mat size screen mat\n");
+        for (int i = 0; i < mButtonCount; i++) {
+            description.append("object button").append(i).append(" 0 square 0.3 0.3 at 0.6 0.8\n");
+            description.append("texture normal button").append(i).append(" button").append(i).append('\n');
+            description.append("texture press button_pressed").append(i).append(" button").append(i).append('\n');
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SceneCompiler.parse(new StringReader(description.toString()), "benchmark").write(out);
+        mSceneFile = out.toByteArray();
+    }
+
+    /**
+     * Reads compiled scene and creates its objects and templates.
+     * @return texture template count.
+     * @throws IOException if scene file is broken.
+     */
+    @Benchmark
+    public int loadSceneFile() throws IOException {
+        final SceneInstance scene = new SceneInstance(SceneFile.read(ByteBuffer.wrap(mSceneFile)), mRequestFactory);
+        return scene.getTexturesToLoad().size();
+    }
+
+    /**
+     * Creates the same objects and templates in code.
+     * @return texture template count.
+     */
+    @Benchmark
+    public int initInCode() {
+        final List<TextureTemplate> texturesToLoad = new ArrayList<>();
+        final DrawableScene scene = new DrawableScene(1);
+        final DrawableObject mat = new DrawableObject(2, 2, DrawableObject.NORMAL_SPRITE);
+        final BitmapRequest iconMat = mRequestFactory.createRequest("mat",
+                Game.getScreenWidth(), Game.getScreenHeight());
+        texturesToLoad.add(new TextureTemplate(Const.NORMAL_STATE, TextureTemplate.SIMPLE_TEXTURE, iconMat, mat));
+        scene.addToLayer(0, mat);
+        for (int i = 0; i < mButtonCount; i++) {
+            final DrawableObject button = new DrawableObject(0.3f, 0.3f, DrawableObject.SQUARE_SPRITE);
+            button.setX(0.6f);
+            button.setY(0.8f);
+            final BitmapRequest icon = mRequestFactory.createRequest("button" + i, -1, -1);
+            final BitmapRequest iconPressed = mRequestFactory.createRequest("button_pressed" + i, -1, -1);
+            texturesToLoad.add(new TextureTemplate(Const.NORMAL_STATE, TextureTemplate.SIMPLE_TEXTURE, icon, button));
+            texturesToLoad.add(new TextureTemplate(Const.BUTTON_PRESSED_STATE, TextureTemplate.SIMPLE_TEXTURE,
+                    iconPressed, button));
+            scene.addToLayer(0, button);
+        }
+        return texturesToLoad.size();
+    }
+}
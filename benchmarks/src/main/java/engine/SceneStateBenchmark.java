@@ -0,0 +1,171 @@
+package engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scene state benchmark.
+ * Simulation thread moves every object and publishes the scene while render thread reads
+ * positions of every object, compared to objects with synchronized setters read under
+ * the same locks, as objects were shared before scene state.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SceneStateBenchmark {
+    // Object count.
+    @Param({"100", "1000"})
+    public int mCount;
+
+    // Scene published through scene state.
+    private DrawableScene mScene;
+    private List<DrawableObject> mObjects;
+    // Objects shared by both threads.
+    private LockedObject[] mLockedObjects;
+    // Simulation time.
+    private long mTime = 0;
+    private float mLockedTime = 0;
+
+    /**
+     * Object shared by simulation and render threads through locks.
+     */
+    private static class LockedObject {
+        // Lock of object.
+        private final Object mLock = new Object();
+        // Position.
+        private float mX = 0;
+        private float mY = 0;
+
+        /**
+         * Sets x.
+         * @param x x.
+         */
+        void setX(final float x) {
+            synchronized (mLock) {
+                mX = x;
+            }
+        }
+
+        /**
+         * Sets y.
+         * @param y y.
+         */
+        void setY(final float y) {
+            synchronized (mLock) {
+                mY = y;
+            }
+        }
+
+        /**
+         * Gets sum of coordinates as draw reads them.
+         * @return x + y.
+         */
+        float read() {
+            synchronized (mLock) {
+                return mX + mY;
+            }
+        }
+    }
+
+    /**
+     * Builds objects.
+     */
+    @Setup
+    public void setUp() {
+        mScene = new DrawableScene(1);
+        mObjects = new ArrayList<>(mCount);
+        mLockedObjects = new LockedObject[mCount];
+        for (int i = 0; i < mCount; i++) {
+            final DrawableObject object = new DrawableObject(0.1f, 0.1f, DrawableObject.NORMAL_SPRITE);
+            mScene.addToLayer(0, object);
+            mObjects.add(object);
+            mLockedObjects[i] = new LockedObject();
+        }
+        mScene.publish(mTime);
+    }
+
+    /**
+     * Moves objects and publishes scene.
+     * @return published time.
+     */
+    @Benchmark
+    @Group("snapshot")
+    @GroupThreads(1)
+    public long snapshotWrite() {
+        final long time = ++mTime;
+        mScene.storePositions();
+        for (int i = 0; i < mCount; i++) {
+            final DrawableObject object = mObjects.get(i);
+            object.setX(time);
+            object.setY(-time);
+        }
+        mScene.publish(time);
+        return time;
+    }
+
+    /**
+     * Reads positions of latest published snapshot.
+     * @return sum of positions.
+     */
+    @Benchmark
+    @Group("snapshot")
+    @GroupThreads(1)
+    public float snapshotRead() {
+        final SceneState.Snapshot snapshot = mScene.acquire();
+        float sum = 0;
+        for (int i = 0; i < snapshot.getCount(); i++) {
+            sum+= snapshot.getX(i) + snapshot.getY(i);
+        }
+        return sum;
+    }
+
+    /**
+     * Moves objects through synchronized setters.
+     * @return written time.
+     */
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public float lockedWrite() {
+        final float time = ++mLockedTime;
+        for (int i = 0; i < mCount; i++) {
+            final LockedObject object = mLockedObjects[i];
+            object.setX(time);
+            object.setY(-time);
+        }
+        return time;
+    }
+
+    /**
+     * Reads positions of objects under their locks.
+     * @return sum of positions.
+     */
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public float lockedRead() {
+        float sum = 0;
+        for (int i = 0; i < mCount; i++) {
+            sum+= mLockedObjects[i].read();
+        }
+        return sum;
+    }
+}
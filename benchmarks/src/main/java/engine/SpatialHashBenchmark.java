@@ -0,0 +1,122 @@
+package engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spatial hash benchmark.
+ * Moves thousands of AABBs by one step and finds overlaps of every AABB,
+ * compared to brute force pair checks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SpatialHashBenchmark {
+    // AABB size.
+    private static final float SIZE = 0.02f;
+    // Max step of AABB per tick.
+    private static final float SPEED = 0.01f;
+
+    // AABB count.
+    @Param({"1000", "4000"})
+    public int mCount;
+    // Cell size of grid.
+    @Param({"0.05", "0.2"})
+    public float mCellSize;
+
+    // Spatial hash.
+    private SpatialHash mHash;
+    // AABB positions and velocities.
+    private float[] mX;
+    private float[] mY;
+    private float[] mVelocityX;
+    private float[] mVelocityY;
+    // Query result.
+    private final int[] mResult = new int[64];
+
+    /**
+     * Places AABBs.
+     */
+    @Setup
+    public void setUp() {
+        final Random random = new Random(1);
+        mHash = new SpatialHash(-1, -1, 1, 1, mCellSize, mCount);
+        mX = new float[mCount];
+        mY = new float[mCount];
+        mVelocityX = new float[mCount];
+        mVelocityY = new float[mCount];
+        for (int i = 0; i < mCount; i++) {
+            mX[i] = random.nextFloat() * 2 - 1;
+            mY[i] = random.nextFloat() * 2 - 1;
+            mVelocityX[i] = (random.nextFloat() * 2 - 1) * SPEED;
+            mVelocityY[i] = (random.nextFloat() * 2 - 1) * SPEED;
+            mHash.add(i, mX[i], mY[i], mX[i] + SIZE, mY[i] + SIZE);
+        }
+    }
+
+    /**
+     * Moves all AABBs and finds their overlaps with spatial hash.
+     * @return overlap count.
+     */
+    @Benchmark
+    public int moveAndQuery() {
+        step();
+        for (int i = 0; i < mCount; i++) {
+            mHash.move(i, mX[i], mY[i], mX[i] + SIZE, mY[i] + SIZE);
+        }
+        int overlaps = 0;
+        for (int i = 0; i < mCount; i++) {
+            overlaps+= mHash.queryBox(mX[i], mY[i], mX[i] + SIZE, mY[i] + SIZE, mResult);
+        }
+        return overlaps;
+    }
+
+    /**
+     * Moves all AABBs and finds their overlaps by checking all pairs.
+     * @return overlap count.
+     */
+    @Benchmark
+    public int moveAndBruteForce() {
+        step();
+        int overlaps = 0;
+        for (int i = 0; i < mCount; i++) {
+            for (int j = 0; j < mCount; j++) {
+                if (Math.abs(mX[i] - mX[j]) <= SIZE && Math.abs(mY[i] - mY[j]) <= SIZE) {
+                    overlaps++;
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    /**
+     * Moves AABBs by one step, bouncing from grid borders.
+     */
+    private void step() {
+        for (int i = 0; i < mCount; i++) {
+            mX[i]+= mVelocityX[i];
+            mY[i]+= mVelocityY[i];
+            if (mX[i] < -1 || mX[i] > 1) {
+                mVelocityX[i] = -mVelocityX[i];
+            }
+            if (mY[i] < -1 || mY[i] > 1) {
+                mVelocityY[i] = -mVelocityY[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sprite batch benchmarks.
+ * Measures filling of direct vertex buffers and a whole frame through the headless backend.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SpriteBatchBenchmark {
+    // Count of scene objects.
+    @Param({"100", "1000"})
+    public int mObjectCount;
+    // Count of textures objects are spread over.
+    @Param({"1", "4"})
+    public int mTextureCount;
+
+    // Scene to draw.
+    private DrawableScene mScene;
+    // Sprite batch flushing to nowhere.
+    private SpriteBatch mBatch;
+    // Frame renderer with headless backend.
+    private BatchRenderer mRenderer;
+    // Frame time.
+    private long mTime = 0;
+
+    /**
+     * Builds scene and batches.
+     */
+    @Setup
+    public void setUp() {
+        final TextureAtlas.Page[] pages = new TextureAtlas.Page[mTextureCount];
+        for (int i = 0; i < mTextureCount; i++) {
+            pages[i] = new TextureAtlas.Page(TextureAtlas.MAX_PAGE_SIZE, TextureAtlas.MAX_PAGE_SIZE);
+            pages[i].setTextureId(i + 1);
+        }
+        mScene = new DrawableScene(2);
+        for (int i = 0; i < mObjectCount; i++) {
+            final DrawableObject object = new DrawableObject(0.1f, 0.1f, DrawableObject.NORMAL_SPRITE);
+            object.addTexture(Const.NORMAL_STATE_ID, new TextureRegion(pages[i % mTextureCount], 0, 0, 1, 1));
+            object.setX((i % 20) * 0.1f - 1);
+            object.setY((i / 20 % 20) * 0.1f - 1);
+            mScene.addToLayer(i % 2, object);
+        }
+        mScene.publish(0);
+
+        mBatch = new SpriteBatch(createBuffer(Const.VERTEX_BUFFER_SIZE), new SpriteBatch.FlushListener() {
+            @Override
+            public void onUpload(final int offset, final int count) {
+            }
+
+            @Override
+            public void onFlush(final int texture, final int firstIndex, final int indexCount) {
+            }
+        });
+        mRenderer = new BatchRenderer(new HeadlessRenderBackend());
+        mRenderer.init();
+    }
+
+    /**
+     * Fills vertex buffers with scene sprites.
+     * @return flush count.
+     */
+    @Benchmark
+    public int fillBuffers() {
+        mBatch.begin();
+        mScene.draw(mBatch, mScene.acquire(), 0.5f, mTime++);
+        mBatch.end();
+        return mBatch.getFlushCount();
+    }
+
+    /**
+     * Fills vertex buffers with scene sprites when every slot has to be uploaded.
+     * @return flush count.
+     */
+    @Benchmark
+    public int fillBuffersInvalidated() {
+        mBatch.invalidate();
+        return fillBuffers();
+    }
+
+    /**
+     * Draws scene layers through batch renderer and headless backend.
+     * @return flush count.
+     */
+    @Benchmark
+    public int drawFrame() {
+        final SpriteBatch batch = mRenderer.getSpriteBatch();
+        batch.begin();
+        mScene.draw(batch, mScene.acquire(), 0.5f, mTime++);
+        batch.end();
+        return batch.getFlushCount();
+    }
+
+    /**
+     * Creates direct float buffer.
+     * @param size buffer size in floats.
+     * @return float buffer.
+     */
+    private static FloatBuffer createBuffer(final int size) {
+        return ByteBuffer.allocateDirect(size * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+}
@@ -0,0 +1,139 @@
+package engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * State lookup benchmark.
+ * Resolves textures of every visible object in draw by interned state index of the
+ * published snapshot, compared to lookup of state name in per object map draw did before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StateLookupBenchmark {
+    // Object count.
+    @Param({"100", "1000"})
+    public int mCount;
+
+    // Scene with states interned by StateRegistry.
+    private DrawableScene mScene;
+    // Objects with states kept by name.
+    private List<NamedStateObject> mObjects;
+
+    /**
+     * Object that keeps textures by state name, as objects did before states were interned.
+     */
+    static class NamedStateObject {
+        // Textures by state name.
+        final Map<String, TextureRegion> mTextures = new HashMap<>();
+        // Animations by state name.
+        final Map<String, List<TextureRegion>> mAnimations = new HashMap<>();
+        // Current states.
+        String mState = Const.EMPTY_STATE;
+        String mAnimationState = Const.EMPTY_STATE;
+
+        /**
+         * Resolves texture to draw.
+         * @return texture, null if state has no texture.
+         */
+        TextureRegion resolve() {
+            TextureRegion texture = mTextures.get(mState);
+            if (!mAnimationState.equals(Const.EMPTY_STATE)) {
+                final List<TextureRegion> frames = mAnimations.get(mAnimationState);
+                if (frames != null) {
+                    texture = frames.get(0);
+                }
+            }
+            return texture;
+        }
+    }
+
+    /**
+     * Builds objects, half of them are pressed buttons.
+     */
+    @Setup
+    public void setUp() {
+        final TextureAtlas.Page page = new TextureAtlas.Page(1, 1);
+        mScene = new DrawableScene(1);
+        mObjects = new ArrayList<>(mCount);
+        for (int i = 0; i < mCount; i++) {
+            final TextureRegion normal = new TextureRegion(page, 0, 0, 1, 1);
+            final TextureRegion pressed = new TextureRegion(page, 0, 0, 1, 1);
+            final boolean isPressed = i % 2 == 0;
+
+            final DrawableObject object = new DrawableObject(0.1f, 0.1f, DrawableObject.SQUARE_SPRITE);
+            object.addTexture(Const.NORMAL_STATE_ID, normal);
+            object.addTexture(Const.BUTTON_PRESSED_STATE_ID, pressed);
+            object.setState(isPressed ? Const.BUTTON_PRESSED_STATE_ID : Const.NORMAL_STATE_ID);
+            mScene.addToLayer(0, object);
+
+            // State names were parsed from scene files, so map keys are not the constants handlers use.
+            final NamedStateObject named = new NamedStateObject();
+            named.mTextures.put(new String(Const.NORMAL_STATE), normal);
+            named.mTextures.put(new String(Const.BUTTON_PRESSED_STATE), pressed);
+            named.mState = isPressed ? Const.BUTTON_PRESSED_STATE : Const.NORMAL_STATE;
+            mObjects.add(named);
+        }
+        mScene.publish(0);
+    }
+
+    /**
+     * Resolves textures by interned state index of snapshot, as draw does.
+     * @return count of resolved textures.
+     */
+    @Benchmark
+    public int resolveByIndex() {
+        final SceneState.Snapshot snapshot = mScene.acquire();
+        int resolved = 0;
+        for (int i = 0; i < snapshot.mCount; i++) {
+            if (!EntityStore.getBit(snapshot.mVisible, i)) {
+                continue;
+            }
+            final int textureIndex = snapshot.mTexture[i];
+            TextureRegion texture = textureIndex == EntityStore.NONE ? null : snapshot.mRegions[textureIndex];
+            final int animation = snapshot.mAnimation[i];
+            if (animation != EntityStore.NONE) {
+                texture = snapshot.mClips[animation].getFrame(0);
+            }
+            if (texture != null) {
+                resolved++;
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Resolves textures by state name in per object maps, as draw did before.
+     * @return count of resolved textures.
+     */
+    @Benchmark
+    public int resolveByName() {
+        final List<NamedStateObject> objects = mObjects;
+        int resolved = 0;
+        for (int i = 0; i < objects.size(); i++) {
+            if (objects.get(i).resolve() != null) {
+                resolved++;
+            }
+        }
+        return resolved;
+    }
+}
@@ -0,0 +1,62 @@
+package engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Texture cache benchmarks.
+ * Measures lookup of scene textures, which replaced collecting texture ids of every object.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TextureCacheBenchmark {
+    // Count of cached scenes.
+    private static final int SCENE_COUNT = 8;
+
+    // Texture cache.
+    private TextureCache mCache;
+    // Keys of cached scenes.
+    private final String[] mKeys = new String[SCENE_COUNT];
+    // Next scene to look up.
+    private int mNext = 0;
+
+    /**
+     * Fills cache.
+     */
+    @Setup
+    public void setUp() {
+        mCache = new TextureCache(Const.TEXTURE_CACHE_BUDGET);
+        for (int i = 0; i < SCENE_COUNT; i++) {
+            mKeys[i] = "scene" + i + "@" + TextureAtlas.MAX_PAGE_SIZE;
+            mCache.put(mKeys[i], new TextureAtlas(Collections.<TextureTemplate>emptyList()));
+        }
+    }
+
+    /**
+     * Acquires and releases scene textures.
+     * @return acquired atlas.
+     */
+    @Benchmark
+    public TextureAtlas acquireRelease() {
+        final String key = mKeys[mNext];
+        mNext = (mNext + 1) % SCENE_COUNT;
+        final TextureAtlas atlas = mCache.acquire(key);
+        mCache.release(key);
+        return atlas;
+    }
+}